@@ -0,0 +1,213 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.algo;
+
+import com.bluemarsh.graphmaker.core.model.FrozenModel;
+import com.bluemarsh.graphmaker.core.util.DaryHeap;
+import com.bluemarsh.graphmaker.core.util.IntPriorityQueue;
+import java.util.Arrays;
+
+/**
+ * Finds shortest paths in a model using Dijkstra's algorithm, with the
+ * cost of each edge as its length. The search runs over the compact
+ * adjacency of a <code>FrozenModel</code>, taken from
+ * <code>Model.getSnapshot()</code>, and keeps the tentative distances in
+ * an <code>IntPriorityQueue</code>. By default this is a 4-ary
+ * <code>DaryHeap</code>, which measures faster than the Fibonacci heap on
+ * both sparse and dense graphs. The caller may supply any queue instead,
+ * such as a <code>BucketQueue</code> when the costs are small whole
+ * numbers, and reuse it across searches.
+ *
+ * <p>An instance holds no state between searches and may be used by
+ * several threads at once, provided each supplies its own queue.</p>
+ *
+ * @author  Nathan Fiedler
+ */
+public class Dijkstra {
+
+    /** The snapshot to be searched. */
+    private final FrozenModel graph;
+
+    /**
+     * Creates a new instance of Dijkstra for the given snapshot.
+     *
+     * @param  graph  snapshot of the model to search.
+     * @throws  IllegalArgumentException
+     *          if any edge has a negative cost.
+     */
+    public Dijkstra(FrozenModel graph) {
+        int arcs = graph.getArcCount();
+        for (int arc = 0; arc < arcs; arc++) {
+            // Written so that NaN is rejected as well.
+            if (!(graph.getArcCost(arc) >= 0)) {
+                throw new IllegalArgumentException(
+                        "edge cost must not be negative");
+            }
+        }
+        this.graph = graph;
+    }
+
+    /**
+     * Finds a shortest path from the source to the target vertex. The
+     * search stops as soon as the distance to the target is known, so
+     * the distances of other vertices in the result may not be the
+     * shortest.
+     *
+     * @param  source  ordinal of the source vertex.
+     * @param  target  ordinal of the target vertex.
+     * @return  search result, from which <code>getPath(target)</code>
+     *          gives the path.
+     * @throws  IndexOutOfBoundsException
+     *          if either vertex ordinal is invalid.
+     */
+    public ShortestPathTree findPath(int source, int target) {
+        return findPath(source, target, createQueue());
+    }
+
+    /**
+     * Finds a shortest path from the source to the target vertex, as with
+     * <code>findPath(int, int)</code>, using the given queue.
+     *
+     * @param  source  ordinal of the source vertex.
+     * @param  target  ordinal of the target vertex.
+     * @param  queue   queue with room for every vertex; it is cleared
+     *                 before the search begins.
+     * @return  search result.
+     * @throws  IndexOutOfBoundsException
+     *          if either vertex ordinal is invalid.
+     */
+    public ShortestPathTree findPath(int source, int target,
+            IntPriorityQueue queue) {
+        checkVertex(target);
+        return search(source, target, queue);
+    }
+
+    /**
+     * Finds the shortest paths from the source to every vertex.
+     *
+     * @param  source  ordinal of the source vertex.
+     * @return  shortest-path tree rooted at source.
+     * @throws  IndexOutOfBoundsException
+     *          if the vertex ordinal is invalid.
+     */
+    public ShortestPathTree findTree(int source) {
+        return findTree(source, createQueue());
+    }
+
+    /**
+     * Finds the shortest paths from the source to every vertex, using the
+     * given queue.
+     *
+     * @param  source  ordinal of the source vertex.
+     * @param  queue   queue with room for every vertex; it is cleared
+     *                 before the search begins.
+     * @return  shortest-path tree rooted at source.
+     * @throws  IndexOutOfBoundsException
+     *          if the vertex ordinal is invalid.
+     */
+    public ShortestPathTree findTree(int source, IntPriorityQueue queue) {
+        return search(source, -1, queue);
+    }
+
+    /**
+     * Returns the snapshot that this instance searches.
+     *
+     * @return  frozen model.
+     */
+    public FrozenModel getGraph() {
+        return graph;
+    }
+
+    /**
+     * Ensures the ordinal refers to a vertex of the graph.
+     *
+     * @param  vertex  vertex ordinal.
+     */
+    private void checkVertex(int vertex) {
+        if (vertex < 0 || vertex >= graph.getVertexCount()) {
+            throw new IndexOutOfBoundsException("vertex: " + vertex);
+        }
+    }
+
+    /**
+     * Creates the queue used when the caller does not supply one.
+     *
+     * @return  new queue with room for every vertex.
+     */
+    private IntPriorityQueue createQueue() {
+        return new DaryHeap(graph.getVertexCount());
+    }
+
+    /**
+     * Runs the search from the source vertex.
+     *
+     * @param  source  ordinal of the source vertex.
+     * @param  target  ordinal of the vertex at which to stop, or -1 to
+     *                 visit every reachable vertex.
+     * @param  queue   queue of vertices to be settled.
+     * @return  search result.
+     */
+    private ShortestPathTree search(int source, int target,
+            IntPriorityQueue queue) {
+        checkVertex(source);
+        int n = graph.getVertexCount();
+        double[] distances = new double[n];
+        int[] predecessors = new int[n];
+        int[] predecessorEdges = new int[n];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        Arrays.fill(predecessors, -1);
+        Arrays.fill(predecessorEdges, -1);
+        boolean[] settled = new boolean[n];
+        queue.clear();
+        distances[source] = 0;
+        queue.insert(source, 0);
+        while (!queue.isEmpty()) {
+            int u = queue.removeMin();
+            settled[u] = true;
+            if (u == target) {
+                break;
+            }
+            double du = distances[u];
+            int end = graph.getArcEnd(u);
+            for (int arc = graph.getArcStart(u); arc < end; arc++) {
+                int v = graph.getArcTarget(arc);
+                if (settled[v]) {
+                    continue;
+                }
+                double dv = du + graph.getArcCost(arc);
+                if (dv < distances[v]) {
+                    distances[v] = dv;
+                    predecessors[v] = u;
+                    predecessorEdges[v] = graph.getArcEdge(arc);
+                    if (queue.contains(v)) {
+                        queue.decreaseKey(v, dv);
+                    } else {
+                        queue.insert(v, dv);
+                    }
+                }
+            }
+        }
+        return new ShortestPathTree(graph, source, distances, predecessors,
+                predecessorEdges);
+    }
+}
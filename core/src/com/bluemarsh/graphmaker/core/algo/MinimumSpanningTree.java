@@ -0,0 +1,503 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.algo;
+
+import com.bluemarsh.graphmaker.core.model.FrozenModel;
+import com.bluemarsh.graphmaker.core.util.ConcurrentDisjointSet;
+import com.bluemarsh.graphmaker.core.util.DaryHeap;
+import com.bluemarsh.graphmaker.core.util.IntDisjointSet;
+import com.bluemarsh.graphmaker.core.util.IntPriorityQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Computes minimum spanning forests of a model, using the cost of each
+ * edge as its weight. Only the undirected edges of the graph are
+ * considered; directed edges and loops are ignored. Three algorithms are
+ * offered, each giving a forest of the same total cost:
+ *
+ * <ul>
+ * <li>Kruskal's algorithm sorts the edges by cost and adds each one that
+ * joins two trees. Given an executor, the sort is done in parallel.</li>
+ * <li>Prim's algorithm grows each tree from a single vertex using a
+ * priority queue, and suits dense graphs.</li>
+ * <li>Bor&#367;vka's algorithm repeatedly joins every tree to its nearest
+ * neighbor. Each round scans the edges in parallel when given an
+ * executor, and so scales with the number of processors.</li>
+ * </ul>
+ *
+ * <p>Kruskal and Bor&#367;vka break ties between edges of equal cost by
+ * edge ordinal, and so find the same forest. Prim may choose differently
+ * among edges of equal cost, but its forest has the same total cost.</p>
+ *
+ * <p>An instance holds no state between computations and may be used by
+ * several threads at once.</p>
+ *
+ * @author  Nathan Fiedler
+ */
+public class MinimumSpanningTree {
+
+    /** Fewest edges or vertices worth handing to a task of their own. */
+    private static final int MIN_CHUNK = 8192;
+    /** Below this many elements, a range is sorted by insertion. */
+    private static final int INSERTION_SORT = 32;
+    /** The snapshot to be spanned. */
+    private final FrozenModel graph;
+    /** Ordinals of the undirected edges that are not loops. */
+    private final int[] candidates;
+
+    /**
+     * Creates a new instance of MinimumSpanningTree for the given
+     * snapshot.
+     *
+     * @param  graph  snapshot of the model to span.
+     */
+    public MinimumSpanningTree(FrozenModel graph) {
+        this.graph = graph;
+        int m = graph.getEdgeCount();
+        int[] ids = new int[m];
+        int count = 0;
+        for (int e = 0; e < m; e++) {
+            if (!graph.isEdgeDirected(e)
+                    && graph.getEdgeSource(e) != graph.getEdgeTarget(e)) {
+                ids[count++] = e;
+            }
+        }
+        candidates = Arrays.copyOf(ids, count);
+    }
+
+    /**
+     * Computes the forest using Bor&#367;vka's algorithm in the calling
+     * thread.
+     *
+     * @return  minimum spanning forest.
+     */
+    public SpanningForest boruvka() {
+        return boruvka(null);
+    }
+
+    /**
+     * Computes the forest using Bor&#367;vka's algorithm, dividing the
+     * edges and vertices among tasks run by the given executor. Each round
+     * finds the cheapest edge leaving each tree, recording it with a
+     * compare-and-set, and then joins the trees through a
+     * <code>ConcurrentDisjointSet</code>. Edges found to lie within a
+     * tree are dropped as they are scanned, so each round is cheaper than
+     * the last.
+     *
+     * @param  executor  runs the tasks of each round, or null to run them
+     *                   in the calling thread.
+     * @return  minimum spanning forest; the edges are in no particular
+     *          order.
+     */
+    public SpanningForest boruvka(ExecutorService executor) {
+        final int n = graph.getVertexCount();
+        final int[] edges = candidates.clone();
+        final ConcurrentDisjointSet sets = new ConcurrentDisjointSet(n);
+        final AtomicIntegerArray cheapest = new AtomicIntegerArray(n);
+        for (int v = 0; v < n; v++) {
+            cheapest.set(v, -1);
+        }
+        final int[] forest = new int[Math.max(n - 1, 0)];
+        final AtomicInteger forestSize = new AtomicInteger();
+
+        // Each edge range shrinks from its end as edges are dropped.
+        int edgeChunks = chunkCount(edges.length, executor);
+        final int[] starts = new int[edgeChunks];
+        final int[] ends = new int[edgeChunks];
+        for (int c = 0; c < edgeChunks; c++) {
+            starts[c] = (int) ((long) edges.length * c / edgeChunks);
+            ends[c] = (int) ((long) edges.length * (c + 1) / edgeChunks);
+        }
+        int vertexChunks = chunkCount(n, executor);
+        List<Callable<Void>> joins = new ArrayList<Callable<Void>>();
+        for (int c = 0; c < vertexChunks; c++) {
+            final int lo = (int) ((long) n * c / vertexChunks);
+            final int hi = (int) ((long) n * (c + 1) / vertexChunks);
+            joins.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    for (int v = lo; v < hi; v++) {
+                        int e = cheapest.get(v);
+                        if (e >= 0) {
+                            cheapest.set(v, -1);
+                            if (sets.union(graph.getEdgeSource(e),
+                                    graph.getEdgeTarget(e))) {
+                                forest[forestSize.getAndIncrement()] = e;
+                            }
+                        }
+                    }
+                    return null;
+                }
+            });
+        }
+
+        while (true) {
+            List<Callable<Void>> scans = new ArrayList<Callable<Void>>();
+            for (int c = 0; c < edgeChunks; c++) {
+                final int chunk = c;
+                scans.add(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        int live = starts[chunk];
+                        for (int i = starts[chunk]; i < ends[chunk]; i++) {
+                            int e = edges[i];
+                            int a = sets.find(graph.getEdgeSource(e));
+                            int b = sets.find(graph.getEdgeTarget(e));
+                            if (a != b) {
+                                edges[live++] = e;
+                                offer(cheapest, a, e);
+                                offer(cheapest, b, e);
+                            }
+                        }
+                        ends[chunk] = live;
+                        return null;
+                    }
+                });
+            }
+            run(scans, executor);
+            boolean done = true;
+            for (int c = 0; c < edgeChunks; c++) {
+                if (ends[c] > starts[c]) {
+                    done = false;
+                    break;
+                }
+            }
+            if (done) {
+                break;
+            }
+            run(joins, executor);
+        }
+
+        int[] result = Arrays.copyOf(forest, forestSize.get());
+        return new SpanningForest(graph, result, sumCosts(result));
+    }
+
+    /**
+     * Decides how many tasks to divide a number of elements among.
+     *
+     * @param  length    number of elements.
+     * @param  executor  executor that will run the tasks, or null.
+     * @return  number of tasks, at least one.
+     */
+    private static int chunkCount(int length, ExecutorService executor) {
+        if (executor == null) {
+            return 1;
+        }
+        int tasks = Runtime.getRuntime().availableProcessors() * 4;
+        return Math.max(1, Math.min(tasks, length / MIN_CHUNK));
+    }
+
+    /**
+     * Returns the snapshot that this instance spans.
+     *
+     * @return  frozen model.
+     */
+    public FrozenModel getGraph() {
+        return graph;
+    }
+
+    /**
+     * Computes the forest using Kruskal's algorithm in the calling thread.
+     *
+     * @return  minimum spanning forest.
+     */
+    public SpanningForest kruskal() {
+        return kruskal(null);
+    }
+
+    /**
+     * Computes the forest using Kruskal's algorithm, sorting the edges
+     * with tasks run by the given executor. The edges are divided into
+     * ranges which are sorted in parallel and then merged pairwise, also
+     * in parallel; the final pass over the sorted edges is sequential.
+     *
+     * @param  executor  runs the sorting tasks, or null to sort in the
+     *                   calling thread.
+     * @return  minimum spanning forest; the edges are in order of
+     *          increasing cost.
+     */
+    public SpanningForest kruskal(ExecutorService executor) {
+        int n = graph.getVertexCount();
+        int[] sorted = candidates.clone();
+        sortByCost(sorted, executor);
+        IntDisjointSet sets = new IntDisjointSet(n);
+        int[] forest = new int[Math.max(n - 1, 0)];
+        int count = 0;
+        for (int i = 0; i < sorted.length && count < forest.length; i++) {
+            int e = sorted[i];
+            if (sets.union(graph.getEdgeSource(e), graph.getEdgeTarget(e))) {
+                forest[count++] = e;
+            }
+        }
+        int[] result = Arrays.copyOf(forest, count);
+        return new SpanningForest(graph, result, sumCosts(result));
+    }
+
+    /**
+     * Indicates if one edge comes before another in order of cost, with
+     * ties broken by ordinal.
+     *
+     * @param  e  first edge ordinal.
+     * @param  f  second edge ordinal.
+     * @return  true if e comes before f.
+     */
+    private boolean less(int e, int f) {
+        double ce = graph.getEdgeCost(e);
+        double cf = graph.getEdgeCost(f);
+        return ce < cf || (ce == cf && e < f);
+    }
+
+    /**
+     * Merges two adjacent sorted ranges of one array into another.
+     *
+     * @param  src  array holding the sorted ranges.
+     * @param  dst  array to receive the merged range.
+     * @param  lo   start of the first range.
+     * @param  mid  end of the first range and start of the second.
+     * @param  hi   end of the second range.
+     */
+    private void merge(int[] src, int[] dst, int lo, int mid, int hi) {
+        int i = lo;
+        int j = mid;
+        for (int k = lo; k < hi; k++) {
+            if (j >= hi || (i < mid && !less(src[j], src[i]))) {
+                dst[k] = src[i++];
+            } else {
+                dst[k] = src[j++];
+            }
+        }
+    }
+
+    /**
+     * Sorts a range of edge ordinals by cost, using a merge sort.
+     *
+     * @param  a    edge ordinals.
+     * @param  tmp  scratch array as long as a.
+     * @param  lo   start of the range.
+     * @param  hi   end of the range.
+     */
+    private void mergeSort(int[] a, int[] tmp, int lo, int hi) {
+        if (hi - lo < INSERTION_SORT) {
+            for (int i = lo + 1; i < hi; i++) {
+                int e = a[i];
+                int j = i - 1;
+                while (j >= lo && less(e, a[j])) {
+                    a[j + 1] = a[j];
+                    j--;
+                }
+                a[j + 1] = e;
+            }
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        mergeSort(a, tmp, lo, mid);
+        mergeSort(a, tmp, mid, hi);
+        if (less(a[mid], a[mid - 1])) {
+            merge(a, tmp, lo, mid, hi);
+            System.arraycopy(tmp, lo, a, lo, hi - lo);
+        }
+    }
+
+    /**
+     * Records an edge as the cheapest leaving a tree, unless a cheaper
+     * one has already been recorded.
+     *
+     * @param  cheapest  cheapest edge leaving each tree root, or -1.
+     * @param  root      root of the tree.
+     * @param  e         edge ordinal.
+     */
+    private void offer(AtomicIntegerArray cheapest, int root, int e) {
+        while (true) {
+            int current = cheapest.get(root);
+            if (current >= 0 && !less(e, current)) {
+                return;
+            }
+            if (cheapest.compareAndSet(root, current, e)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Computes the forest using Prim's algorithm, growing a tree from
+     * each vertex not yet spanned, with a 4-ary heap as the queue.
+     *
+     * @return  minimum spanning forest; the edges are in the order they
+     *          were added to their trees.
+     */
+    public SpanningForest prim() {
+        int n = graph.getVertexCount();
+        boolean[] spanned = new boolean[n];
+        int[] via = new int[n];
+        int[] forest = new int[Math.max(n - 1, 0)];
+        int count = 0;
+        IntPriorityQueue queue = new DaryHeap(n);
+        for (int root = 0; root < n; root++) {
+            if (spanned[root]) {
+                continue;
+            }
+            via[root] = -1;
+            queue.insert(root, 0);
+            while (!queue.isEmpty()) {
+                int u = queue.removeMin();
+                spanned[u] = true;
+                if (via[u] >= 0) {
+                    forest[count++] = via[u];
+                }
+                int end = graph.getArcEnd(u);
+                for (int arc = graph.getArcStart(u); arc < end; arc++) {
+                    int e = graph.getArcEdge(arc);
+                    int v = graph.getArcTarget(arc);
+                    if (spanned[v] || graph.isEdgeDirected(e)) {
+                        continue;
+                    }
+                    if (!queue.contains(v)) {
+                        via[v] = e;
+                        queue.insert(v, graph.getArcCost(arc));
+                    } else if (less(e, via[v])) {
+                        via[v] = e;
+                        queue.decreaseKey(v, graph.getArcCost(arc));
+                    }
+                }
+            }
+        }
+        int[] result = Arrays.copyOf(forest, count);
+        return new SpanningForest(graph, result, sumCosts(result));
+    }
+
+    /**
+     * Runs the tasks, in the calling thread if there is no executor or
+     * only one task, and waits for them to finish.
+     *
+     * @param  tasks     tasks to be run.
+     * @param  executor  executor to run them, or null.
+     */
+    private static void run(List<Callable<Void>> tasks,
+            ExecutorService executor) {
+        try {
+            if (executor == null || tasks.size() == 1) {
+                for (Callable<Void> task : tasks) {
+                    task.call();
+                }
+            } else {
+                for (Future<Void> future : executor.invokeAll(tasks)) {
+                    future.get();
+                }
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while spanning", ie);
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (RuntimeException re) {
+            throw re;
+        } catch (Exception e) {
+            // The tasks throw only unchecked exceptions.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Sorts edge ordinals by cost, with ties broken by ordinal.
+     *
+     * @param  ids       edge ordinals to sort.
+     * @param  executor  runs the sorting tasks, or null.
+     */
+    private void sortByCost(final int[] ids, ExecutorService executor) {
+        final int[] tmp = new int[ids.length];
+        int chunks = chunkCount(ids.length, executor);
+        final int[] bounds = new int[chunks + 1];
+        for (int c = 0; c <= chunks; c++) {
+            bounds[c] = (int) ((long) ids.length * c / chunks);
+        }
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (int c = 0; c < chunks; c++) {
+            final int lo = bounds[c];
+            final int hi = bounds[c + 1];
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    mergeSort(ids, tmp, lo, hi);
+                    return null;
+                }
+            });
+        }
+        run(tasks, executor);
+
+        // Merge the sorted ranges in pairs, alternating between arrays.
+        int[] src = ids;
+        int[] dst = tmp;
+        for (int width = 1; width < chunks; width *= 2) {
+            tasks.clear();
+            for (int c = 0; c < chunks; c += width * 2) {
+                final int[] from = src;
+                final int[] to = dst;
+                final int lo = bounds[c];
+                final int mid = bounds[Math.min(c + width, chunks)];
+                final int hi = bounds[Math.min(c + width * 2, chunks)];
+                tasks.add(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        merge(from, to, lo, mid, hi);
+                        return null;
+                    }
+                });
+            }
+            run(tasks, executor);
+            int[] t = src;
+            src = dst;
+            dst = t;
+        }
+        if (src != ids) {
+            System.arraycopy(src, 0, ids, 0, ids.length);
+        }
+    }
+
+    /**
+     * Adds up the costs of the given edges.
+     *
+     * @param  edges  edge ordinals.
+     * @return  total cost.
+     */
+    private double sumCosts(int[] edges) {
+        double total = 0;
+        for (int e : edges) {
+            total += graph.getEdgeCost(e);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,501 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.algo;
+
+import com.bluemarsh.graphmaker.core.model.FrozenModel;
+import com.bluemarsh.graphmaker.core.model.Geometry;
+import com.bluemarsh.graphmaker.core.model.Vertex;
+import com.bluemarsh.graphmaker.core.util.DaryHeap;
+import java.util.Arrays;
+
+/**
+ * Answers point-to-point shortest path queries using the positions of the
+ * vertices to guide the search. The estimated cost from a vertex to the
+ * target is the straight-line distance between them, as given by
+ * <code>Vertex.computeDistance()</code>, multiplied by a scale factor.
+ * A* search explores the vertices in order of their distance from the
+ * source plus that estimate, and so heads toward the target rather than
+ * spreading out in every direction as Dijkstra's algorithm does. The
+ * bidirectional search grows one A* search from each end until they
+ * meet, which explores fewer vertices still.
+ *
+ * <p>The paths found are shortest provided no edge costs less than the
+ * scale times the distance between its endpoints; use
+ * <code>computeScale()</code> to find the largest scale for which that
+ * holds. A scale of zero gives plain Dijkstra searches. The positions
+ * are read when the path finder is created.</p>
+ *
+ * <p>The arrays used by a search are allocated the first time each thread
+ * makes a query, and reused by that thread for later queries, so that
+ * interactive queries on a large graph cost only the vertices they
+ * explore. Any number of threads may query the same path finder.</p>
+ *
+ * @author  Nathan Fiedler
+ */
+public class PathFinder {
+
+    /** The snapshot to be searched. */
+    private final FrozenModel graph;
+    /** Multiplier applied to the distance estimates. */
+    private final double scale;
+    /** Position of each vertex on the x axis. */
+    private final int[] xs;
+    /** Position of each vertex on the y axis. */
+    private final int[] ys;
+    /** Position of each vertex on the z axis. */
+    private final int[] zs;
+    /** Offset of the first arc entering each vertex, plus an end entry. */
+    private final int[] inOffsets;
+    /** Vertex from which each entering arc leaves. */
+    private final int[] inSources;
+    /** Edge ordinal of each entering arc. */
+    private final int[] inEdges;
+    /** Cost of each entering arc. */
+    private final double[] inCosts;
+    /** Search state for each thread. */
+    private final ThreadLocal<SearchState> states;
+
+    /**
+     * Creates a new instance of PathFinder with the largest scale that
+     * still finds shortest paths, as given by <code>computeScale()</code>.
+     *
+     * @param  graph  snapshot of the model to search.
+     * @throws  IllegalArgumentException
+     *          if any edge has a negative cost.
+     */
+    public PathFinder(FrozenModel graph) {
+        this(graph, computeScale(graph));
+    }
+
+    /**
+     * Creates a new instance of PathFinder.
+     *
+     * @param  graph  snapshot of the model to search.
+     * @param  scale  multiplier for the straight-line distance estimates.
+     * @throws  IllegalArgumentException
+     *          if scale is negative, or any edge has a negative cost.
+     */
+    public PathFinder(FrozenModel graph, double scale) {
+        if (!(scale >= 0)) {
+            throw new IllegalArgumentException("scale must not be negative");
+        }
+        this.graph = graph;
+        this.scale = scale;
+        final int n = graph.getVertexCount();
+        xs = new int[n];
+        ys = new int[n];
+        zs = new int[n];
+        for (int v = 0; v < n; v++) {
+            Vertex vertex = graph.getVertex(v);
+            xs[v] = vertex.getX();
+            ys[v] = vertex.getY();
+            zs[v] = vertex.getZ();
+        }
+
+        // Invert the arcs so the reverse search can follow them backward.
+        int arcs = graph.getArcCount();
+        inOffsets = new int[n + 1];
+        for (int arc = 0; arc < arcs; arc++) {
+            if (!(graph.getArcCost(arc) >= 0)) {
+                throw new IllegalArgumentException(
+                        "edge cost must not be negative");
+            }
+            inOffsets[graph.getArcTarget(arc) + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            inOffsets[v + 1] += inOffsets[v];
+        }
+        inSources = new int[arcs];
+        inEdges = new int[arcs];
+        inCosts = new double[arcs];
+        int[] cursor = new int[n];
+        System.arraycopy(inOffsets, 0, cursor, 0, n);
+        for (int u = 0; u < n; u++) {
+            int end = graph.getArcEnd(u);
+            for (int arc = graph.getArcStart(u); arc < end; arc++) {
+                int slot = cursor[graph.getArcTarget(arc)]++;
+                inSources[slot] = u;
+                inEdges[slot] = graph.getArcEdge(arc);
+                inCosts[slot] = graph.getArcCost(arc);
+            }
+        }
+        states = new ThreadLocal<SearchState>() {
+            @Override
+            protected SearchState initialValue() {
+                return new SearchState(n);
+            }
+        };
+    }
+
+    /**
+     * Ensures the ordinal refers to a vertex of the graph.
+     *
+     * @param  vertex  vertex ordinal.
+     */
+    private void checkVertex(int vertex) {
+        if (vertex < 0 || vertex >= xs.length) {
+            throw new IndexOutOfBoundsException("vertex: " + vertex);
+        }
+    }
+
+    /**
+     * Computes the largest scale for which the distance estimates never
+     * exceed the true cost, which is the smallest ratio of edge cost to
+     * the distance between the edge's endpoints. For a graph whose costs
+     * are the lengths of the edges, this is one.
+     *
+     * @param  graph  snapshot of the model.
+     * @return  largest admissible scale, or zero if there are no edges
+     *          between distinct positions.
+     */
+    public static double computeScale(FrozenModel graph) {
+        double best = Double.POSITIVE_INFINITY;
+        int m = graph.getEdgeCount();
+        double[] lengths = new double[m];
+        Geometry.computeLengths(graph, lengths);
+        for (int e = 0; e < m; e++) {
+            double length = lengths[e];
+            if (length > 0) {
+                best = Math.min(best, graph.getEdgeCost(e) / length);
+            }
+        }
+        return best == Double.POSITIVE_INFINITY ? 0 : Math.max(best, 0);
+    }
+
+    /**
+     * Estimates the cost from one vertex to another.
+     *
+     * @param  u  first vertex.
+     * @param  v  second vertex.
+     * @return  scaled straight-line distance.
+     */
+    private double estimate(int u, int v) {
+        double dx = xs[u] - xs[v];
+        double dy = ys[u] - ys[v];
+        double dz = zs[u] - zs[v];
+        return scale * Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    /**
+     * Finds a shortest path from the source to the target using A*
+     * search.
+     *
+     * @param  source  ordinal of the source vertex.
+     * @param  target  ordinal of the target vertex.
+     * @return  the path, or null if the target cannot be reached.
+     * @throws  IndexOutOfBoundsException
+     *          if either vertex ordinal is invalid.
+     */
+    public Route findPath(int source, int target) {
+        checkVertex(source);
+        checkVertex(target);
+        SearchState state = states.get();
+        state.begin();
+        Frontier fwd = state.forward;
+        fwd.reach(source, 0, -1, -1, estimate(source, target));
+        int settled = 0;
+        while (!fwd.queue.isEmpty()) {
+            int u = fwd.queue.removeMin();
+            fwd.closed[u] = state.generation;
+            settled++;
+            if (u == target) {
+                return buildRoute(state, target, -1, source, settled);
+            }
+            double du = fwd.dist[u];
+            int end = graph.getArcEnd(u);
+            for (int arc = graph.getArcStart(u); arc < end; arc++) {
+                int v = graph.getArcTarget(arc);
+                double dv = du + graph.getArcCost(arc);
+                if (fwd.closed[v] != state.generation
+                        && (fwd.seen[v] != state.generation
+                        || dv < fwd.dist[v])) {
+                    fwd.reach(v, dv, u, graph.getArcEdge(arc),
+                            dv + estimate(v, target));
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds a shortest path from the source to the target by running A*
+     * searches from both ends at once, each guided by the average of the
+     * estimates toward the target and away from the source, so that the
+     * two searches agree on the order of the vertices. The search stops
+     * once no shorter path can pass through the vertices yet to be
+     * settled.
+     *
+     * @param  source  ordinal of the source vertex.
+     * @param  target  ordinal of the target vertex.
+     * @return  the path, or null if the target cannot be reached.
+     * @throws  IndexOutOfBoundsException
+     *          if either vertex ordinal is invalid.
+     */
+    public Route findPathBidirectional(int source, int target) {
+        checkVertex(source);
+        checkVertex(target);
+        if (source == target) {
+            return new Route(new int[] { source }, new int[0], 0, 0);
+        }
+        SearchState state = states.get();
+        state.begin();
+        int gen = state.generation;
+        Frontier fwd = state.forward;
+        Frontier rev = state.reverse;
+        fwd.reach(source, 0, -1, -1, potential(source, source, target));
+        rev.reach(target, 0, -1, -1, -potential(target, source, target));
+        double best = Double.POSITIVE_INFINITY;
+        int meet = -1;
+        int settled = 0;
+        while (!fwd.queue.isEmpty() && !rev.queue.isEmpty()) {
+            double fk = fwd.queue.getKey(fwd.queue.min());
+            double rk = rev.queue.getKey(rev.queue.min());
+            if (fk + rk >= best) {
+                break;
+            }
+            settled++;
+            if (fk <= rk) {
+                int u = fwd.queue.removeMin();
+                fwd.closed[u] = gen;
+                double du = fwd.dist[u];
+                int end = graph.getArcEnd(u);
+                for (int arc = graph.getArcStart(u); arc < end; arc++) {
+                    int v = graph.getArcTarget(arc);
+                    double dv = du + graph.getArcCost(arc);
+                    if (fwd.closed[v] == gen || (fwd.seen[v] == gen
+                            && dv >= fwd.dist[v])) {
+                        continue;
+                    }
+                    fwd.reach(v, dv, u, graph.getArcEdge(arc),
+                            dv + potential(v, source, target));
+                    if (rev.seen[v] == gen && dv + rev.dist[v] < best) {
+                        best = dv + rev.dist[v];
+                        meet = v;
+                    }
+                }
+            } else {
+                int u = rev.queue.removeMin();
+                rev.closed[u] = gen;
+                double du = rev.dist[u];
+                int end = inOffsets[u + 1];
+                for (int arc = inOffsets[u]; arc < end; arc++) {
+                    int v = inSources[arc];
+                    double dv = du + inCosts[arc];
+                    if (rev.closed[v] == gen || (rev.seen[v] == gen
+                            && dv >= rev.dist[v])) {
+                        continue;
+                    }
+                    rev.reach(v, dv, u, inEdges[arc],
+                            dv - potential(v, source, target));
+                    if (fwd.seen[v] == gen && dv + fwd.dist[v] < best) {
+                        best = dv + fwd.dist[v];
+                        meet = v;
+                    }
+                }
+            }
+        }
+        if (meet < 0) {
+            return null;
+        }
+        return buildRoute(state, meet, target, source, settled);
+    }
+
+    /**
+     * Assembles the route through the meeting vertex from the forward
+     * predecessors and, for a bidirectional search, the reverse ones.
+     *
+     * @param  state    state of the finished search.
+     * @param  meet     vertex where the path was completed.
+     * @param  target   target vertex, or -1 if the forward search
+     *                  reached it alone.
+     * @param  source   source vertex.
+     * @param  settled  number of vertices settled.
+     * @return  the route.
+     */
+    private Route buildRoute(SearchState state, int meet, int target,
+            int source, int settled) {
+        Frontier fwd = state.forward;
+        Frontier rev = state.reverse;
+        int head = 0;
+        for (int v = meet; v != source; v = fwd.previous[v]) {
+            head++;
+        }
+        int tail = 0;
+        if (target >= 0) {
+            for (int v = meet; v != target; v = rev.previous[v]) {
+                tail++;
+            }
+        }
+        int[] vertices = new int[head + tail + 1];
+        int[] edges = new int[head + tail];
+        int i = head;
+        vertices[i] = meet;
+        for (int v = meet; v != source; v = fwd.previous[v]) {
+            edges[i - 1] = fwd.edge[v];
+            vertices[--i] = fwd.previous[v];
+        }
+        i = head;
+        if (target >= 0) {
+            for (int v = meet; v != target; v = rev.previous[v]) {
+                edges[i] = rev.edge[v];
+                vertices[++i] = rev.previous[v];
+            }
+        }
+        double cost = 0;
+        for (int e : edges) {
+            cost += graph.getEdgeCost(e);
+        }
+        return new Route(vertices, edges, cost, settled);
+    }
+
+    /**
+     * Returns the snapshot that this instance searches.
+     *
+     * @return  frozen model.
+     */
+    public FrozenModel getGraph() {
+        return graph;
+    }
+
+    /**
+     * Returns the scale applied to the distance estimates.
+     *
+     * @return  distance scale.
+     */
+    public double getScale() {
+        return scale;
+    }
+
+    /**
+     * Computes the potential of a vertex for the forward search of a
+     * bidirectional query; the reverse search uses its negation. Being
+     * the average of the two one-sided estimates, it keeps the reduced
+     * cost of every arc non-negative in both directions.
+     *
+     * @param  v       vertex ordinal.
+     * @param  source  source of the query.
+     * @param  target  target of the query.
+     * @return  forward potential.
+     */
+    private double potential(int v, int source, int target) {
+        return (estimate(v, target) - estimate(v, source)) / 2;
+    }
+
+    /**
+     * The arrays for one direction of a search. Entries are valid only
+     * where the matching stamp equals the generation of the current
+     * search, so nothing needs to be cleared between searches.
+     */
+    private static class Frontier {
+        /** Distance of each reached vertex from the start. */
+        final double[] dist;
+        /** Vertex from which each vertex was reached. */
+        final int[] previous;
+        /** Edge by which each vertex was reached. */
+        final int[] edge;
+        /** Generation in which each vertex was reached. */
+        final int[] seen;
+        /** Generation in which each vertex was settled. */
+        final int[] closed;
+        /** Vertices reached but not yet settled. */
+        final DaryHeap queue;
+        /** Generation of the search in progress. */
+        int generation;
+
+        /**
+         * Creates a new instance of Frontier.
+         *
+         * @param  n  number of vertices.
+         */
+        Frontier(int n) {
+            dist = new double[n];
+            previous = new int[n];
+            edge = new int[n];
+            seen = new int[n];
+            closed = new int[n];
+            queue = new DaryHeap(n);
+        }
+
+        /**
+         * Records a shorter distance to a vertex and queues it.
+         *
+         * @param  v         vertex ordinal.
+         * @param  d         distance from the start.
+         * @param  from      vertex from which v was reached, or -1.
+         * @param  via       edge by which v was reached, or -1.
+         * @param  priority  queue key of the vertex.
+         */
+        void reach(int v, double d, int from, int via, double priority) {
+            dist[v] = d;
+            previous[v] = from;
+            edge[v] = via;
+            if (seen[v] == generation && queue.contains(v)) {
+                queue.decreaseKey(v, priority);
+            } else {
+                seen[v] = generation;
+                queue.insert(v, priority);
+            }
+        }
+    }
+
+    /**
+     * The reusable state of the searches made by one thread.
+     */
+    private static class SearchState {
+        /** State of the search from the source. */
+        final Frontier forward;
+        /** State of the search from the target. */
+        final Frontier reverse;
+        /** Generation of the search in progress. */
+        int generation;
+
+        /**
+         * Creates a new instance of SearchState.
+         *
+         * @param  n  number of vertices.
+         */
+        SearchState(int n) {
+            forward = new Frontier(n);
+            reverse = new Frontier(n);
+        }
+
+        /**
+         * Prepares for a new search.
+         */
+        void begin() {
+            generation++;
+            if (generation == Integer.MAX_VALUE) {
+                // Start the stamps over rather than let them wrap.
+                Arrays.fill(forward.seen, 0);
+                Arrays.fill(forward.closed, 0);
+                Arrays.fill(reverse.seen, 0);
+                Arrays.fill(reverse.closed, 0);
+                generation = 1;
+            }
+            forward.queue.clear();
+            reverse.queue.clear();
+            forward.generation = generation;
+            reverse.generation = generation;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.algo;
+
+/**
+ * A path between two vertices found by a <code>PathFinder</code>, given
+ * as vertex and edge ordinals of the <code>FrozenModel</code> that was
+ * searched.
+ *
+ * @author  Nathan Fiedler
+ */
+public final class Route {
+
+    /** Vertex ordinals from source to target. */
+    private final int[] vertices;
+    /** Edge ordinals from source to target. */
+    private final int[] edges;
+    /** Sum of the edge costs along the path. */
+    private final double cost;
+    /** Number of vertices settled by the search. */
+    private final int settledCount;
+
+    /**
+     * Creates a new instance of Route.
+     *
+     * @param  vertices      vertex ordinals from source to target.
+     * @param  edges         edge ordinals from source to target.
+     * @param  cost          sum of the edge costs.
+     * @param  settledCount  number of vertices settled by the search.
+     */
+    Route(int[] vertices, int[] edges, double cost, int settledCount) {
+        this.vertices = vertices;
+        this.edges = edges;
+        this.cost = cost;
+        this.settledCount = settledCount;
+    }
+
+    /**
+     * Returns the sum of the edge costs along the path.
+     *
+     * @return  path cost.
+     */
+    public double getCost() {
+        return cost;
+    }
+
+    /**
+     * Returns the edges along the path, in order from the source.
+     *
+     * @return  edge ordinals; must not be modified.
+     */
+    public int[] getEdges() {
+        return edges;
+    }
+
+    /**
+     * Returns the number of vertices the search settled before finding
+     * the path, which measures how much of the graph was explored.
+     *
+     * @return  settled vertex count.
+     */
+    public int getSettledCount() {
+        return settledCount;
+    }
+
+    /**
+     * Returns the vertices along the path, including the source and the
+     * target.
+     *
+     * @return  vertex ordinals; must not be modified.
+     */
+    public int[] getVertices() {
+        return vertices;
+    }
+}
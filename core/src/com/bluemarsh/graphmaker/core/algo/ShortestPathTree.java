@@ -0,0 +1,212 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.algo;
+
+import com.bluemarsh.graphmaker.core.model.FrozenModel;
+
+/**
+ * The result of a shortest-path search from a single source vertex.
+ * Vertices and edges are identified by their ordinal in the
+ * <code>FrozenModel</code> that was searched. For each vertex the tree
+ * records its distance from the source, and the vertex and edge by which
+ * it was reached on a shortest path.
+ *
+ * <p>The arrays returned from <code>getDistances()</code>,
+ * <code>getPredecessors()</code> and <code>getPredecessorEdges()</code>
+ * are those held by the tree, so that large results need not be copied.
+ * They must not be modified.</p>
+ *
+ * @author  Nathan Fiedler
+ */
+public final class ShortestPathTree {
+
+    /** The snapshot that was searched. */
+    private final FrozenModel graph;
+    /** Ordinal of the source vertex. */
+    private final int source;
+    /** Distance of each vertex from the source. */
+    private final double[] distances;
+    /** Vertex preceding each vertex on its shortest path, or -1. */
+    private final int[] predecessors;
+    /** Edge by which each vertex is reached on its shortest path, or -1. */
+    private final int[] predecessorEdges;
+
+    /**
+     * Creates a new instance of ShortestPathTree.
+     *
+     * @param  graph             the snapshot that was searched.
+     * @param  source            ordinal of the source vertex.
+     * @param  distances         distance of each vertex.
+     * @param  predecessors      predecessor vertex of each vertex.
+     * @param  predecessorEdges  predecessor edge of each vertex.
+     */
+    ShortestPathTree(FrozenModel graph, int source, double[] distances,
+            int[] predecessors, int[] predecessorEdges) {
+        this.graph = graph;
+        this.source = source;
+        this.distances = distances;
+        this.predecessors = predecessors;
+        this.predecessorEdges = predecessorEdges;
+    }
+
+    /**
+     * Returns the distance of the given vertex from the source, which is
+     * the sum of the edge costs along a shortest path.
+     *
+     * @param  vertex  vertex ordinal.
+     * @return  distance, or positive infinity if the vertex is not
+     *          reachable.
+     */
+    public double getDistance(int vertex) {
+        return distances[vertex];
+    }
+
+    /**
+     * Returns the distance of every vertex from the source, indexed by
+     * vertex ordinal. Unreachable vertices have a distance of positive
+     * infinity.
+     *
+     * @return  distances of the vertices; must not be modified.
+     */
+    public double[] getDistances() {
+        return distances;
+    }
+
+    /**
+     * Returns the snapshot that was searched.
+     *
+     * @return  frozen model.
+     */
+    public FrozenModel getGraph() {
+        return graph;
+    }
+
+    /**
+     * Returns the vertices along a shortest path from the source to the
+     * given vertex, including both ends.
+     *
+     * @param  target  ordinal of the last vertex on the path.
+     * @return  vertex ordinals from source to target, or null if the
+     *          target is not reachable.
+     */
+    public int[] getPath(int target) {
+        if (!isReachable(target)) {
+            return null;
+        }
+        int length = 1;
+        for (int v = target; v != source; v = predecessors[v]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int v = target; length > 0; v = predecessors[v]) {
+            path[--length] = v;
+        }
+        return path;
+    }
+
+    /**
+     * Returns the edges along a shortest path from the source to the
+     * given vertex.
+     *
+     * @param  target  ordinal of the last vertex on the path.
+     * @return  edge ordinals in path order (empty if the target is the
+     *          source), or null if the target is not reachable.
+     */
+    public int[] getPathEdges(int target) {
+        if (!isReachable(target)) {
+            return null;
+        }
+        int length = 0;
+        for (int v = target; v != source; v = predecessors[v]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int v = target; length > 0; v = predecessors[v]) {
+            path[--length] = predecessorEdges[v];
+        }
+        return path;
+    }
+
+    /**
+     * Returns the vertex that precedes the given vertex on a shortest
+     * path from the source.
+     *
+     * @param  vertex  vertex ordinal.
+     * @return  predecessor vertex ordinal, or -1 if the vertex is the
+     *          source or is not reachable.
+     */
+    public int getPredecessor(int vertex) {
+        return predecessors[vertex];
+    }
+
+    /**
+     * Returns the edge by which the given vertex is reached on a
+     * shortest path from the source.
+     *
+     * @param  vertex  vertex ordinal.
+     * @return  edge ordinal, or -1 if the vertex is the source or is not
+     *          reachable.
+     */
+    public int getPredecessorEdge(int vertex) {
+        return predecessorEdges[vertex];
+    }
+
+    /**
+     * Returns the edge by which each vertex is reached, indexed by
+     * vertex ordinal, with -1 for the source and unreachable vertices.
+     *
+     * @return  predecessor edges; must not be modified.
+     */
+    public int[] getPredecessorEdges() {
+        return predecessorEdges;
+    }
+
+    /**
+     * Returns the vertex preceding each vertex, indexed by vertex
+     * ordinal, with -1 for the source and unreachable vertices.
+     *
+     * @return  predecessor vertices; must not be modified.
+     */
+    public int[] getPredecessors() {
+        return predecessors;
+    }
+
+    /**
+     * Returns the ordinal of the vertex from which the search began.
+     *
+     * @return  source vertex ordinal.
+     */
+    public int getSource() {
+        return source;
+    }
+
+    /**
+     * Indicates if the given vertex can be reached from the source.
+     *
+     * @param  vertex  vertex ordinal.
+     * @return  true if reachable, false otherwise.
+     */
+    public boolean isReachable(int vertex) {
+        return distances[vertex] != Double.POSITIVE_INFINITY;
+    }
+}
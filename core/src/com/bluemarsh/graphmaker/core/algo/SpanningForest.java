@@ -0,0 +1,105 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.algo;
+
+import com.bluemarsh.graphmaker.core.model.FrozenModel;
+
+/**
+ * The result of a minimum spanning tree computation: the edges that
+ * connect each connected part of the graph at the least total cost. If
+ * the graph is not connected this is a forest, with one tree for each
+ * part, counting a vertex without undirected edges as a tree of its own.
+ * Edges are identified by their ordinal in the <code>FrozenModel</code>
+ * from which the forest was computed.
+ *
+ * @author  Nathan Fiedler
+ */
+public final class SpanningForest {
+
+    /** The snapshot that was spanned. */
+    private final FrozenModel graph;
+    /** Ordinals of the edges in the forest. */
+    private final int[] edges;
+    /** Sum of the costs of the edges in the forest. */
+    private final double totalCost;
+
+    /**
+     * Creates a new instance of SpanningForest.
+     *
+     * @param  graph      the snapshot that was spanned.
+     * @param  edges      ordinals of the edges in the forest.
+     * @param  totalCost  sum of the costs of those edges.
+     */
+    SpanningForest(FrozenModel graph, int[] edges, double totalCost) {
+        this.graph = graph;
+        this.edges = edges;
+        this.totalCost = totalCost;
+    }
+
+    /**
+     * Returns the number of edges in the forest.
+     *
+     * @return  edge count.
+     */
+    public int getEdgeCount() {
+        return edges.length;
+    }
+
+    /**
+     * Returns the ordinals of the edges in the forest. The order depends
+     * on the algorithm used.
+     *
+     * @return  edge ordinals; must not be modified.
+     */
+    public int[] getEdges() {
+        return edges;
+    }
+
+    /**
+     * Returns the snapshot that was spanned.
+     *
+     * @return  frozen model.
+     */
+    public FrozenModel getGraph() {
+        return graph;
+    }
+
+    /**
+     * Returns the sum of the costs of the edges in the forest.
+     *
+     * @return  total cost.
+     */
+    public double getTotalCost() {
+        return totalCost;
+    }
+
+    /**
+     * Returns the number of trees in the forest, which is one if the
+     * graph is connected.
+     *
+     * @return  tree count.
+     */
+    public int getTreeCount() {
+        return graph.getVertexCount() - edges.length;
+    }
+}
@@ -22,8 +22,8 @@
  */
 package com.bluemarsh.graphmaker.core.model;
 
+import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
-import java.beans.PropertyChangeSupport;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -31,14 +31,21 @@ import java.util.Map;
  * Class AbstractComponent is an abstract implementation of the Component
  * interface. It provides some of the basic behavior of components.
  *
+ * <p>A graph may hold millions of components, so the storage for the
+ * listeners and client properties is allocated only when first needed.
+ * A component in a model usually has exactly one listener, the model
+ * itself, which is held in a one-element array.</p>
+ *
  * @author Nathan Fiedler
  */
 public abstract class AbstractComponent implements Component {
 
-    /** Handles property change listeners and sending events. */
-    protected final PropertyChangeSupport propSupport;
-    /** Map of the client properties set in this instance. */
-    private final Map<Object, Object> propertiesMap;
+    /** The registered listeners, or null if there are none. The array
+     * is replaced, never modified, when the listeners change. */
+    private volatile PropertyChangeListener[] listeners;
+    /** Map of the client properties set in this instance, or null if
+     * no properties have been set. */
+    private Map<Object, Object> propertiesMap;
     /** User-defined cost of this component. */
     private double cost;
     /** User-defined label for this component. This can be shown in the
@@ -51,22 +58,69 @@ public abstract class AbstractComponent implements Component {
      * Creates a new instance of AbstractComponent.
      */
     public AbstractComponent() {
-        propSupport = new PropertyChangeSupport(this);
-        propertiesMap = new HashMap<Object, Object>();
     }
 
     @Override
-    public void addPropertyChangeListener(PropertyChangeListener listener) {
-        propSupport.addPropertyChangeListener(listener);
+    public synchronized void addPropertyChangeListener(
+            PropertyChangeListener listener) {
+        if (listener == null) {
+            return;
+        }
+        PropertyChangeListener[] list = listeners;
+        if (list == null) {
+            listeners = new PropertyChangeListener[] { listener };
+        } else {
+            PropertyChangeListener[] arr =
+                    new PropertyChangeListener[list.length + 1];
+            System.arraycopy(list, 0, arr, 0, list.length);
+            arr[list.length] = listener;
+            listeners = arr;
+        }
     }
 
-    @Override
-    public Object getClientProperty(Object key) {
-        synchronized (propertiesMap) {
-            return propertiesMap.get(key);
+    /**
+     * Reports a bound property update to the listeners. No event is
+     * fired if the old and new values are equal and non-null.
+     *
+     * @param  name      name of the property that changed.
+     * @param  oldValue  old value of the property.
+     * @param  newValue  new value of the property.
+     */
+    protected void firePropertyChange(String name, Object oldValue,
+            Object newValue) {
+        PropertyChangeListener[] list = listeners;
+        if (list == null || (oldValue != null && newValue != null
+                && oldValue.equals(newValue))) {
+            return;
+        }
+        PropertyChangeEvent event = new PropertyChangeEvent(
+                this, name, oldValue, newValue);
+        for (PropertyChangeListener listener : list) {
+            listener.propertyChange(event);
+        }
+    }
+
+    /**
+     * Reports a bound integer property update to the listeners. No
+     * event is fired if the old and new values are equal.
+     *
+     * @param  name      name of the property that changed.
+     * @param  oldValue  old value of the property.
+     * @param  newValue  new value of the property.
+     */
+    protected void firePropertyChange(String name, int oldValue,
+            int newValue) {
+        if (oldValue != newValue && listeners != null) {
+            firePropertyChange(name, Integer.valueOf(oldValue),
+                    Integer.valueOf(newValue));
         }
     }
 
+    @Override
+    public synchronized Object getClientProperty(Object key) {
+        return propertiesMap == null ? null : propertiesMap.get(key);
+    }
+
     @Override
     public double getCost() {
         return cost;
@@ -85,12 +139,37 @@ public abstract class AbstractComponent implements Component {
         return model;
     }
 
+    /**
+     * Estimates the memory used to hold the listeners and client
+     * properties of this component, not counting the objects held.
+     *
+     * @return  size in bytes, zero if there are none.
+     */
+    synchronized long getStorageSize() {
+        long size = 0;
+        PropertyChangeListener[] list = listeners;
+        if (list != null) {
+            size += MeasurableEdit.OBJECT_OVERHEAD
+                    + MeasurableEdit.REFERENCE_SIZE * list.length;
+        }
+        if (propertiesMap != null) {
+            // The map, its table, and an entry per property.
+            size += 3 * MeasurableEdit.OBJECT_OVERHEAD
+                    + propertiesMap.size() * (MeasurableEdit.OBJECT_OVERHEAD
+                    + 4 * MeasurableEdit.REFERENCE_SIZE);
+        }
+        return size;
+    }
+
     @Override
     public void putClientProperty(Object key, Object value) {
         Object oldValue;
-        synchronized (propertiesMap) {
-            oldValue = propertiesMap.get(key);
+        synchronized (this) {
+            oldValue = propertiesMap == null ? null : propertiesMap.get(key);
             if (value != null) {
+                if (propertiesMap == null) {
+                    propertiesMap = new HashMap<Object, Object>(4);
+                }
                 propertiesMap.put(key, value);
             } else if (oldValue != null) {
                 propertiesMap.remove(key);
@@ -99,26 +178,45 @@ public abstract class AbstractComponent implements Component {
                 return;
             }
         }
-        propSupport.firePropertyChange(key.toString(), oldValue, value);
+        firePropertyChange(key.toString(), oldValue, value);
     }
 
     @Override
-    public void removePropertyChangeListener(PropertyChangeListener listener) {
-        propSupport.removePropertyChangeListener(listener);
+    public synchronized void removePropertyChangeListener(
+            PropertyChangeListener listener) {
+        PropertyChangeListener[] list = listeners;
+        if (list == null || listener == null) {
+            return;
+        }
+        int idx = list.length - 1;
+        while (idx >= 0 && list[idx] != listener) {
+            idx--;
+        }
+        if (idx >= 0) {
+            if (list.length == 1) {
+                listeners = null;
+            } else {
+                PropertyChangeListener[] arr =
+                        new PropertyChangeListener[list.length - 1];
+                System.arraycopy(list, 0, arr, 0, idx);
+                System.arraycopy(list, idx + 1, arr, idx, arr.length - idx);
+                listeners = arr;
+            }
+        }
     }
 
     @Override
     public void setCost(double cost) {
         double old = this.cost;
         this.cost = cost;
-        propSupport.firePropertyChange(PROP_COST, old, cost);
+        firePropertyChange(PROP_COST, old, cost);
     }
 
     @Override
     public void setLabel(String label) {
         String old = this.label;
         this.label = label;
-        propSupport.firePropertyChange(PROP_LABEL, old, label);
+        firePropertyChange(PROP_LABEL, old, label);
     }
 
     /**
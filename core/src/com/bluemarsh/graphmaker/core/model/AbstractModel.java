@@ -27,10 +27,16 @@ import java.beans.PropertyChangeSupport;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import javax.swing.event.UndoableEditListener;
 import javax.swing.undo.CannotRedoException;
 import javax.swing.undo.CannotUndoException;
@@ -43,6 +49,22 @@ import javax.swing.undo.UndoableEditSupport;
  * interface. It provides some of the basic behavior of models,
  * including transactions and undoable edit support.
  *
+ * <p>Each transaction that changes the model increments its version.
+ * Snapshots are built on demand: a reader that asks for a version newer
+ * than the cached snapshot waits for any open transaction to end, so
+ * that the snapshot reflects a committed state. If a reader has asked
+ * for a snapshot since the last one was built, the next transaction to
+ * change the contents of a snapshot builds one as it ends, while it
+ * still holds the transaction permit, sparing active readers the wait.
+ * When readers stop asking, this stops too. Changes to properties that
+ * a snapshot does not capture, such as labels and positions, only
+ * relabel the cached snapshot with the new version.</p>
+ *
+ * <p>Subclasses guard their structure with the read and write locks
+ * provided here: the query methods hold the read lock, so that any
+ * number of threads may query the model at once, while the changes
+ * made by the transaction owner hold the write lock.</p>
+ *
  * @author Nathan Fiedler
  */
 public abstract class AbstractModel implements Model {
@@ -54,11 +76,28 @@ public abstract class AbstractModel implements Model {
     /** Map of the client properties set in this instance. */
     private final Map<Object, Object> propertiesMap;
     /** List of model listeners. */
-    private ModelListener modelListeners;
+    private final ModelListenerRegistry modelListeners;
+    /** The transaction whose handle is in use by the current thread. */
+    private final ThreadLocal<Transaction> boundTransaction;
+    /** Listeners for the batched changes of each transaction. */
+    private final List<ModelChangeListener> changeListeners;
     /** The current open transaction; otherwise null. */
     private Transaction transaction;
     /** Controls the creation of new transactions. */
     private Semaphore transactionSemaphore;
+    /** Version of the model, incremented with each change. */
+    private volatile long version;
+    /** Most recently built snapshot, or null if not yet taken. */
+    private final AtomicReference<FrozenModel> snapshot;
+    /** Version of the last transaction that changed the contents of a
+     * snapshot, as opposed to properties a snapshot does not capture. */
+    private volatile long snapshotVersion;
+    /** True if a reader has asked for a snapshot since one was last
+     * built, in which case the next transaction that changes the
+     * contents of a snapshot builds one as it ends. */
+    private volatile boolean publishing;
+    /** Guards the structure of the model against concurrent access. */
+    private final ReentrantReadWriteLock structureLock;
 
     /**
      * Creates a new instance of AbstractModel.
@@ -68,18 +107,31 @@ public abstract class AbstractModel implements Model {
         propertiesMap = new HashMap<Object, Object>();
         editSupport = new ModelUndoableEditSupport(this);
         transactionSemaphore = new Semaphore(1, true);
+        structureLock = new ReentrantReadWriteLock();
+        changeListeners = new CopyOnWriteArrayList<ModelChangeListener>();
+        modelListeners = new ModelListenerRegistry();
+        boundTransaction = new ThreadLocal<Transaction>();
+        snapshot = new AtomicReference<FrozenModel>();
     }
 
     @Override
-    public void addModelListener(ModelListener listener) {
+    public void addModelChangeListener(ModelChangeListener listener) {
         if (listener != null) {
-            synchronized (this) {
-                modelListeners = ModelEventMulticaster.add(
-                        modelListeners, listener);
-            }
+            changeListeners.add(listener);
         }
     }
 
+    @Override
+    public void addModelListener(ModelListener listener) {
+        modelListeners.add(listener);
+    }
+
+    @Override
+    public void addModelListener(ModelListener listener,
+            Set<ModelEventType> types) {
+        modelListeners.add(listener, types);
+    }
+
     @Override
     public void addPropertyChangeListener(PropertyChangeListener listener) {
         propSupport.addPropertyChangeListener(listener);
@@ -96,13 +148,16 @@ public abstract class AbstractModel implements Model {
             if (!transaction.currentThreadIsTransactionThread()) {
                 throw new IllegalStateException("thread is not transaction owner");
             }
-            // Roll back the changes made in this transaction.
-            if (editSupport.getUpdateLevel() > 0) {
-                editSupport.rollback();
+            try {
+                // Roll back the changes made in this transaction.
+                if (editSupport.getUpdateLevel() > 0) {
+                    editSupport.rollback();
+                }
+            } finally {
+                // Close the transaction even if the rollback failed.
+                transactionSemaphore.release();
+                transaction = null;
             }
-            // Once everything is finished, close the transaction.
-            transactionSemaphore.release();
-            transaction = null;
         }
     }
 
@@ -122,15 +177,60 @@ public abstract class AbstractModel implements Model {
     @Override
     public synchronized void endTransaction() throws IOException {
         checkInTransaction();
-        transaction.fireEvents();
-        // Dispatch undoable edit events as a single compound edit.
-        // The undoable edit support merges similar edits for us.
-        if (editSupport.getUpdateLevel() > 0) {
-            editSupport.endUpdate();
+        try {
+            if (transaction.hasChanges()) {
+                // Update the snapshot before the version, so that a
+                // reader never sees a snapshot older than the version
+                // implies.
+                long next = version + 1;
+                if (transaction.changesSnapshot()) {
+                    snapshotVersion = next;
+                    if (publishing) {
+                        publishing = false;
+                        snapshot.set(freeze(next));
+                    }
+                }
+                version = next;
+            }
+            transaction.fireEvents(version);
+        } finally {
+            try {
+                // Dispatch undoable edit events as a single compound
+                // edit. The undoable edit support merges similar edits
+                // for us.
+                if (editSupport.getUpdateLevel() > 0) {
+                    editSupport.endUpdate();
+                }
+            } finally {
+                // Close the transaction even if a listener failed.
+                transactionSemaphore.release();
+                transaction = null;
+            }
+        }
+    }
+
+    /**
+     * Records a change to a property of a component in the model, to be
+     * reported to the change listeners when the current transaction is
+     * finished. Changes made outside of a transaction, or by a thread
+     * other than the transaction owner, are not reported; if they alter
+     * what a snapshot captures, the version is incremented so that the
+     * next snapshot is built anew.
+     *
+     * @param  component  the vertex or edge that changed.
+     * @param  property   name of the property that changed.
+     */
+    protected synchronized void fireComponentChanged(Component component,
+            String property) {
+        if (isInTransaction()
+                && transaction.currentThreadIsTransactionThread()) {
+            transaction.addPropertyChange(component, property);
+        } else if (Transaction.changesSnapshot(property)) {
+            // As in endTransaction(), update the snapshot version first.
+            long next = version + 1;
+            snapshotVersion = next;
+            version = next;
         }
-        // Once everything is finished, close the transaction.
-        transactionSemaphore.release();
-        transaction = null;
     }
 
     /**
@@ -157,6 +257,28 @@ public abstract class AbstractModel implements Model {
         transaction.addUndoableEdit(edit);
     }
 
+    @Override
+    public FrozenModel freeze() {
+        return freeze(0);
+    }
+
+    /**
+     * Creates a snapshot of the current vertices and edges, labeled with
+     * the given version.
+     *
+     * @param  ver  version of the model.
+     * @return  new snapshot.
+     */
+    private FrozenModel freeze(long ver) {
+        Lock lock = readLock();
+        lock.lock();
+        try {
+            return new FrozenModel(getVertices(), getEdges(), ver);
+        } finally {
+            lock.unlock();
+        }
+    }
+
     @Override
     public Object getClientProperty(Object key) {
         synchronized (propertiesMap) {
@@ -169,15 +291,67 @@ public abstract class AbstractModel implements Model {
      *
      * @return  model listeners list.
      */
-    protected ModelListener getModelListeners() {
+    protected ModelListenerRegistry getModelListeners() {
         return modelListeners;
     }
 
+    @Override
+    public FrozenModel getSnapshot() {
+        publishing = true;
+        FrozenModel s = snapshot.get();
+        if (s != null) {
+            // Read the version before the snapshot version, which is
+            // written first, so both describe the same committed state.
+            long ver = version;
+            if (s.getVersion() == ver) {
+                return s;
+            }
+            if (snapshotVersion <= s.getVersion()) {
+                // Only properties outside of the snapshot have changed.
+                FrozenModel r = s.withVersion(ver);
+                return snapshot.compareAndSet(s, r) ? r : getSnapshot();
+            }
+        }
+        synchronized (this) {
+            if (isInTransaction()
+                    && transaction.currentThreadIsTransactionThread()) {
+                throw new IllegalStateException(
+                        "no snapshot available within the transaction");
+            }
+        }
+        // Wait for any open transaction to end, so the snapshot reflects
+        // a committed state.
+        transactionSemaphore.acquireUninterruptibly();
+        try {
+            s = snapshot.get();
+            long ver = version;
+            if (s == null || snapshotVersion > s.getVersion()) {
+                s = freeze(ver);
+            } else {
+                s = s.withVersion(ver);
+            }
+            snapshot.set(s);
+        } finally {
+            transactionSemaphore.release();
+        }
+        return s;
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
     @Override
     public synchronized boolean isInTransaction() {
         return transaction != null;
     }
 
+    @Override
+    public ModelTransaction openTransaction() {
+        return startTransaction(false, false);
+    }
+
     @Override
     public Set<Object> propertyKeys() {
         return propertiesMap.keySet();
@@ -200,14 +374,24 @@ public abstract class AbstractModel implements Model {
         propSupport.firePropertyChange(key.toString(), oldValue, value);
     }
 
+    /**
+     * Returns the lock to be held while reading the structure of the
+     * model. Any number of threads may hold the read lock at once.
+     *
+     * @return  read lock.
+     */
+    protected Lock readLock() {
+        return structureLock.readLock();
+    }
+
+    @Override
+    public void removeModelChangeListener(ModelChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+
     @Override
     public void removeModelListener(ModelListener listener) {
-        if (listener != null) {
-            synchronized (this) {
-                modelListeners = ModelEventMulticaster.remove(
-                        modelListeners, listener);
-            }
-        }
+        modelListeners.remove(listener);
     }
 
     @Override
@@ -221,8 +405,8 @@ public abstract class AbstractModel implements Model {
     }
 
     @Override
-    public void startTransaction() {
-        startTransaction(false);
+    public ModelTransaction startTransaction() {
+        return startTransaction(false, true);
     }
 
     /**
@@ -231,42 +415,77 @@ public abstract class AbstractModel implements Model {
      * @param  inUndoRedo  true if undo events should not be collected
      *                     and dispatched to listeners; false if the
      *                     events should be fired as usual.
+     * @param  bound       true if the current thread is to own the
+     *                     transaction; false if it is owned only by
+     *                     the threads using the returned handle.
+     * @return  handle to the new transaction.
      */
-    private synchronized void startTransaction(boolean inUndoRedo) {
+    private Transaction startTransaction(boolean inUndoRedo, boolean bound) {
         // Check if this thread is already in a transaction or not.
-        if (isInTransaction() && transaction.currentThreadIsTransactionThread()) {
-            throw new IllegalStateException("current thread already in a transaction");
+        synchronized (this) {
+            if (isInTransaction()
+                    && transaction.currentThreadIsTransactionThread()) {
+                throw new IllegalStateException(
+                        "current thread already in a transaction");
+            }
         }
 
         // Force other clients to wait until the current transaction
-        // is completed, before starting a new one.
+        // is completed, before starting a new one. This must be done
+        // without holding the monitor, which the owner of the current
+        // transaction needs in order to finish it.
         try {
             transactionSemaphore.acquire();
         } catch (InterruptedException ie) {
             throw new IllegalStateException(
                     "interrupted while acquiring semaphore", ie);
         }
-        assert transaction == null;
 
-        // Could check here if the model source is read-only.
+        synchronized (this) {
+            assert transaction == null;
 
-        if (!inUndoRedo) {
-            transaction = new Transaction(this, editSupport);
-            editSupport.beginUpdate();
-        } else {
-            transaction = new Transaction(this, null);
+            // Could check here if the model source is read-only.
+
+            Thread owner = bound ? Thread.currentThread() : null;
+            if (!inUndoRedo) {
+                transaction = new Transaction(this, editSupport, owner);
+                editSupport.beginUpdate();
+            } else {
+                transaction = new Transaction(this, null, owner);
+            }
+            return transaction;
         }
     }
 
+    /**
+     * Returns the lock to be held while changing the structure of the
+     * model. Holding the write lock excludes all readers.
+     *
+     * @return  write lock.
+     */
+    protected Lock writeLock() {
+        return structureLock.writeLock();
+    }
+
     /**
      * Represents a set of changes to be made to the model.
      */
-    private static class Transaction {
+    private static class Transaction implements ModelTransaction {
 
-        /** The thread that started this transaction. */
+        /** The thread that started this transaction, or null if the
+         * transaction is owned only through the handle. */
         private Thread transactionThread;
         /** List of model events to be fired when transaction ends. */
         private List<ModelEvent> modelEvents;
+        /** Components whose properties changed, recorded only while
+         * there are change listeners. */
+        private List<Component> propertyComponents;
+        /** Names of the changed properties. */
+        private List<String> propertyNames;
+        /** True if a property of a component changed. */
+        private boolean propertiesChanged;
+        /** True if a change was made that a snapshot would capture. */
+        private boolean snapshotChanged;
         /** Sink for undoable edits, or null to suppress events. */
         private UndoableEditSupport editSupport;
         /** The model that owns this transaction. */
@@ -278,13 +497,74 @@ public abstract class AbstractModel implements Model {
          * @param  model        the model for which events are dispatched.
          * @param  editSupport  where undoable edits are collected;
          *                      if null, undoable edits are suppressed.
+         * @param  owner        thread that owns the transaction, or null.
          */
         Transaction(AbstractModel model,
-                UndoableEditSupport editSupport) {
+                UndoableEditSupport editSupport, Thread owner) {
             this.model = model;
             this.editSupport = editSupport;
-            transactionThread = Thread.currentThread();
+            transactionThread = owner;
             modelEvents = new ArrayList<ModelEvent>();
+            propertyComponents = new ArrayList<Component>();
+            propertyNames = new ArrayList<String>();
+        }
+
+        @Override
+        public synchronized <T> T apply(ModelMutation<T> mutation) {
+            if (!isOpen()) {
+                throw new IllegalStateException("transaction is not open");
+            }
+            Transaction previous = model.boundTransaction.get();
+            model.boundTransaction.set(this);
+            try {
+                return mutation.apply(model);
+            } finally {
+                model.boundTransaction.set(previous);
+            }
+        }
+
+        @Override
+        public synchronized void cancel() {
+            Transaction previous = model.boundTransaction.get();
+            model.boundTransaction.set(this);
+            try {
+                synchronized (model) {
+                    if (model.transaction == this) {
+                        model.cancelTransaction();
+                    }
+                }
+            } finally {
+                model.boundTransaction.set(previous);
+            }
+        }
+
+        @Override
+        public synchronized void commit() throws IOException {
+            Transaction previous = model.boundTransaction.get();
+            model.boundTransaction.set(this);
+            try {
+                synchronized (model) {
+                    if (model.transaction != this) {
+                        throw new IllegalStateException(
+                                "transaction is not open");
+                    }
+                    model.endTransaction();
+                }
+            } finally {
+                model.boundTransaction.set(previous);
+            }
+        }
+
+        @Override
+        public Model getModel() {
+            return model;
+        }
+
+        @Override
+        public boolean isOpen() {
+            synchronized (model) {
+                return model.transaction == this;
+            }
         }
 
         /**
@@ -294,6 +574,25 @@ public abstract class AbstractModel implements Model {
          */
         public void addModelEvent(ModelEvent event) {
             modelEvents.add(event);
+            snapshotChanged = true;
+        }
+
+        /**
+         * Add a property change to this transaction. The change itself is
+         * kept only if there are change listeners to report it to.
+         *
+         * @param  component  the component that changed.
+         * @param  property   name of the changed property.
+         */
+        public void addPropertyChange(Component component, String property) {
+            if (!snapshotChanged && changesSnapshot(property)) {
+                snapshotChanged = true;
+            }
+            propertiesChanged = true;
+            if (!model.changeListeners.isEmpty()) {
+                propertyComponents.add(component);
+                propertyNames.add(property);
+            }
         }
 
         /**
@@ -307,28 +606,152 @@ public abstract class AbstractModel implements Model {
             }
         }
 
+        /**
+         * Indicates if this transaction made any change that would be
+         * captured by a snapshot: adding or removing components, or
+         * changing their costs, endpoints or direction.
+         *
+         * @return  true if a snapshot would differ, false otherwise.
+         */
+        public boolean changesSnapshot() {
+            return snapshotChanged;
+        }
+
+        /**
+         * Indicates if a change to the named property of a component
+         * would be captured by a snapshot.
+         *
+         * @param  property  name of the changed property.
+         * @return  true if the property is captured by a snapshot.
+         */
+        static boolean changesSnapshot(String property) {
+            return Component.PROP_COST.equals(property)
+                    || Edge.PROP_DIRECTED.equals(property)
+                    || Edge.PROP_SOURCE.equals(property)
+                    || Edge.PROP_TARGET.equals(property);
+        }
+
+        /**
+         * Indicates if any changes were made in this transaction.
+         *
+         * @return  true if the model was changed, false otherwise.
+         */
+        public boolean hasChanges() {
+            return !modelEvents.isEmpty() || propertiesChanged;
+        }
+
+        /**
+         * Builds the event describing the net changes made in this
+         * transaction.
+         *
+         * @param  version  version of the model after the changes.
+         * @return  the change event.
+         */
+        private ModelChangeEvent createChangeEvent(long version) {
+            // For each added or removed component, find the net number
+            // of times it was added, and whether it was first added (1)
+            // or removed (-1).
+            List<Component> components = new ArrayList<Component>();
+            Map<Component, int[]> netChanges =
+                    new IdentityHashMap<Component, int[]>();
+            int count = modelEvents.size();
+            for (int ii = 0; ii < count; ii++) {
+                ModelEvent event = modelEvents.get(ii);
+                ModelEventType type = event.getType();
+                int delta = type == ModelEventType.VERTEX_ADDED
+                        || type == ModelEventType.EDGE_ADDED ? 1 : -1;
+                for (Component component : event.getComponents()) {
+                    int[] net = netChanges.get(component);
+                    if (net == null) {
+                        net = new int[] { 0, delta };
+                        netChanges.put(component, net);
+                        components.add(component);
+                    }
+                    net[0] += delta;
+                }
+            }
+
+            List<Vertex> addedVertices = new ArrayList<Vertex>();
+            List<Vertex> removedVertices = new ArrayList<Vertex>();
+            List<Edge> addedEdges = new ArrayList<Edge>();
+            List<Edge> removedEdges = new ArrayList<Edge>();
+            for (Component component : components) {
+                int net = netChanges.get(component)[0];
+                if (component instanceof Vertex) {
+                    if (net > 0) {
+                        addedVertices.add((Vertex) component);
+                    } else if (net < 0) {
+                        removedVertices.add((Vertex) component);
+                    }
+                } else if (component instanceof Edge) {
+                    if (net > 0) {
+                        addedEdges.add((Edge) component);
+                    } else if (net < 0) {
+                        removedEdges.add((Edge) component);
+                    }
+                }
+            }
+
+            // Report each property once, and only for components that
+            // were in the model both before and after the transaction.
+            List<Component> changed = new ArrayList<Component>();
+            List<String> names = new ArrayList<String>();
+            Map<Component, Set<String>> seen =
+                    new IdentityHashMap<Component, Set<String>>();
+            int size = propertyComponents.size();
+            for (int ii = 0; ii < size; ii++) {
+                Component component = propertyComponents.get(ii);
+                int[] net = netChanges.get(component);
+                if (net != null && (net[0] != 0 || net[1] > 0)) {
+                    continue;
+                }
+                Set<String> props = seen.get(component);
+                if (props == null) {
+                    props = new HashSet<String>();
+                    seen.put(component, props);
+                }
+                String name = propertyNames.get(ii);
+                if (props.add(name)) {
+                    changed.add(component);
+                    names.add(name);
+                }
+            }
+            return new ModelChangeEvent(model, version,
+                    addedVertices.toArray(new Vertex[addedVertices.size()]),
+                    removedVertices.toArray(new Vertex[removedVertices.size()]),
+                    addedEdges.toArray(new Edge[addedEdges.size()]),
+                    removedEdges.toArray(new Edge[removedEdges.size()]),
+                    changed.toArray(new Component[changed.size()]),
+                    names.toArray(new String[names.size()]));
+        }
+
         /**
          * Determines if currently running thread is the transaction owner.
          *
          * @return  true if thread owns transaction, false otherwise.
          */
         public boolean currentThreadIsTransactionThread() {
-            return Thread.currentThread().equals(transactionThread);
+            return Thread.currentThread() == transactionThread
+                    || model.boundTransaction.get() == this;
         }
 
         /**
          * Fire the collected events to the listeners registered with the
          * model. Note this does not fire the undoable edits, that is done
          * in the model itself.
+         *
+         * @param  version  version of the model after the changes.
          */
-        public void fireEvents() {
-            ModelListener ml;
-            synchronized (model) {
-                ml = model.getModelListeners();
+        public void fireEvents(long version) {
+            ModelListenerRegistry registry = model.getModelListeners();
+            int size = modelEvents.size();
+            for (int ii = 0; ii < size; ii++) {
+                registry.fireEvent(modelEvents.get(ii));
             }
-            if (ml != null) {
-                for (ModelEvent event : modelEvents) {
-                    event.getType().fireEvent(event, ml);
+            if (hasChanges() && !model.changeListeners.isEmpty()) {
+                ModelChangeEvent event = createChangeEvent(version);
+                for (ModelChangeListener listener : model.changeListeners) {
+                    listener.modelChanged(event);
                 }
             }
         }
@@ -363,13 +786,18 @@ public abstract class AbstractModel implements Model {
          */
         public void rollback() {
             ((ModelUndoableEdit) compoundEdit).rollback();
+            // Discard the edit, so that it is not posted by a later
+            // call to endUpdate().
+            compoundEdit = null;
+            updateLevel = 0;
         }
     }
 
     /**
      * A compound undoable edit that manages the model transaction.
      */
-    private static class ModelUndoableEdit extends CompoundEdit {
+    private static class ModelUndoableEdit extends CompoundEdit
+            implements MeasurableEdit {
 
         /** silence compiler warnings */
         private static final long serialVersionUID = 1L;
@@ -386,10 +814,20 @@ public abstract class AbstractModel implements Model {
             this.model = model;
         }
 
+        @Override
+        public long getMemorySize() {
+            long size = 2 * OBJECT_OVERHEAD
+                    + REFERENCE_SIZE * (edits.capacity() + 2);
+            for (UndoableEdit edit : edits) {
+                size += ModelUndoManager.getMemorySize(edit);
+            }
+            return size;
+        }
+
         @Override
         public void redo() throws CannotRedoException {
             try {
-                model.startTransaction(true);
+                model.startTransaction(true, true);
                 super.redo();
             } finally {
                 try {
@@ -414,7 +852,7 @@ public abstract class AbstractModel implements Model {
         @Override
         public void undo() throws CannotUndoException {
             try {
-                model.startTransaction(true);
+                model.startTransaction(true, true);
                 super.undo();
             } finally {
                 try {
@@ -0,0 +1,239 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.model;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openide.ErrorManager;
+
+/**
+ * A ModelChangeListener that hands each change event to another listener
+ * on an Executor, rather than on the thread that ended the transaction.
+ * Events are queued for the listener and delivered one at a time, in the
+ * order the transactions were committed, so a slow listener delays only
+ * itself and not the writers of the model.
+ *
+ * <p>The queue is unbounded; use <code>getQueueDepth()</code> and the lag
+ * methods to detect a listener that cannot keep up. Exceptions and errors
+ * thrown by the listener are reported to the ErrorManager and do not stop
+ * delivery of later events.</p>
+ *
+ * <p>Because delivery is deferred, the listener may see the model in a
+ * later state than the one described by the event. Listeners that need
+ * a consistent view should use <code>Model.getSnapshot()</code> and
+ * compare its version with that of the event.</p>
+ *
+ * @author  Nathan Fiedler
+ */
+public class AsyncModelChangeListener implements ModelChangeListener {
+    /** The listener to which events are delivered. */
+    private final ModelChangeListener listener;
+    /** Runs the delivery of queued events. */
+    private final Executor executor;
+    /** Events waiting to be delivered. */
+    private final Queue<Pending> queue;
+    /** Number of events in the queue. */
+    private final AtomicInteger depth;
+    /** True if a delivery task has been submitted and not finished. */
+    private final AtomicBoolean scheduled;
+    /** Number of events delivered so far. */
+    private final AtomicLong delivered;
+    /** Longest time an event waited before delivery, in nanoseconds. */
+    private final AtomicLong maxLag;
+    /** Time the last delivered event waited, in nanoseconds. */
+    private volatile long lastLag;
+    /** Delivers the queued events in order. */
+    private final Runnable drainer;
+
+    /**
+     * Creates a new instance of AsyncModelChangeListener.
+     *
+     * @param  listener  listener to receive the events.
+     * @param  executor  runs the delivery of events to the listener.
+     */
+    public AsyncModelChangeListener(ModelChangeListener listener,
+            Executor executor) {
+        if (listener == null) {
+            throw new IllegalArgumentException("listener must not be null");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("executor must not be null");
+        }
+        this.listener = listener;
+        this.executor = executor;
+        queue = new ConcurrentLinkedQueue<Pending>();
+        depth = new AtomicInteger();
+        scheduled = new AtomicBoolean();
+        delivered = new AtomicLong();
+        maxLag = new AtomicLong();
+        drainer = new Runnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+        };
+    }
+
+    /**
+     * Delivers the queued events to the listener, until the queue is
+     * empty, then schedules another run if events arrived meanwhile.
+     * Whatever happens, the next event to arrive will be delivered.
+     */
+    private void drain() {
+        try {
+            Pending pending = queue.poll();
+            while (pending != null) {
+                depth.decrementAndGet();
+                long lag = System.nanoTime() - pending.queued;
+                lastLag = lag;
+                long max = maxLag.get();
+                while (lag > max && !maxLag.compareAndSet(max, lag)) {
+                    max = maxLag.get();
+                }
+                try {
+                    listener.modelChanged(pending.event);
+                } catch (Throwable t) {
+                    ErrorManager.getDefault().notify(t);
+                }
+                delivered.incrementAndGet();
+                pending = queue.poll();
+            }
+        } finally {
+            scheduled.set(false);
+            if (!queue.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of events delivered to the listener so far.
+     *
+     * @return  count of delivered events.
+     */
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+
+    /**
+     * Returns the time the most recently delivered event spent waiting
+     * in the queue.
+     *
+     * @return  lag in nanoseconds, or zero if nothing was delivered.
+     */
+    public long getLastLag() {
+        return lastLag;
+    }
+
+    /**
+     * Returns the wrapped listener.
+     *
+     * @return  listener receiving the events.
+     */
+    public ModelChangeListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Returns the longest time any event spent waiting in the queue.
+     *
+     * @return  lag in nanoseconds, or zero if nothing was delivered.
+     */
+    public long getMaxLag() {
+        return maxLag.get();
+    }
+
+    /**
+     * Returns how long the oldest undelivered event has been waiting,
+     * which grows steadily when the listener has fallen behind.
+     *
+     * @return  age in nanoseconds, or zero if the queue is empty.
+     */
+    public long getPendingLag() {
+        Pending pending = queue.peek();
+        return pending == null ? 0 : System.nanoTime() - pending.queued;
+    }
+
+    /**
+     * Returns the number of events waiting to be delivered.
+     *
+     * @return  queue depth.
+     */
+    public int getQueueDepth() {
+        return depth.get();
+    }
+
+    /**
+     * Queues the event for delivery to the listener; returns immediately.
+     *
+     * @param  event  describes the changes.
+     */
+    @Override
+    public void modelChanged(ModelChangeEvent event) {
+        queue.add(new Pending(event, System.nanoTime()));
+        depth.incrementAndGet();
+        schedule();
+    }
+
+    /**
+     * Submits a delivery task to the executor, unless one is already
+     * pending or running. If the executor rejects the task, the events
+     * remain queued until the next event is received.
+     */
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(drainer);
+            } catch (RuntimeException re) {
+                // Typically a RejectedExecutionException.
+                scheduled.set(false);
+                ErrorManager.getDefault().notify(re);
+            }
+        }
+    }
+
+    /**
+     * An event waiting in the queue.
+     */
+    private static class Pending {
+        /** The event to be delivered. */
+        private final ModelChangeEvent event;
+        /** When the event was queued, from System.nanoTime(). */
+        private final long queued;
+
+        /**
+         * Creates a new instance of Pending.
+         *
+         * @param  event   the event.
+         * @param  queued  time the event was queued.
+         */
+        Pending(ModelChangeEvent event, long queued) {
+            this.event = event;
+            this.queued = queued;
+        }
+    }
+}
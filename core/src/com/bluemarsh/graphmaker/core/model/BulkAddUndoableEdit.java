@@ -0,0 +1,108 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.model;
+
+import java.util.Arrays;
+import javax.swing.undo.AbstractUndoableEdit;
+import javax.swing.undo.CannotRedoException;
+import javax.swing.undo.CannotUndoException;
+import org.openide.util.NbBundle;
+
+/**
+ * A BulkAddUndoableEdit handles the addition of many vertices and edges
+ * to a model in a single operation, as by <code>Model.addAll()</code>.
+ * The components are held in arrays, rather than one edit per
+ * component, and are removed again in a single pass.
+ *
+ * @author Nathan Fiedler
+ */
+public class BulkAddUndoableEdit extends AbstractUndoableEdit
+        implements MeasurableEdit {
+
+    /** silence compiler warnings */
+    private static final long serialVersionUID = 1L;
+    /** The model on which to perform the operations. */
+    private DefaultModel model;
+    /** The vertices that were added. */
+    private Vertex[] vertices;
+    /** The edges that were added. */
+    private Edge[] edges;
+
+    /**
+     * Creates a new instance of BulkAddUndoableEdit.
+     *
+     * @param  model     the Model on which to operate.
+     * @param  vertices  the vertices that were added.
+     * @param  edges     the edges that were added.
+     */
+    public BulkAddUndoableEdit(DefaultModel model, Vertex[] vertices,
+            Edge[] edges) {
+        super();
+        this.model = model;
+        this.vertices = vertices;
+        this.edges = edges;
+    }
+
+    @Override
+    public void die() {
+        super.die();
+        vertices = new Vertex[0];
+        edges = new Edge[0];
+    }
+
+    @Override
+    public long getMemorySize() {
+        return 3 * OBJECT_OVERHEAD
+                + REFERENCE_SIZE * (vertices.length + edges.length + 3);
+    }
+
+    @Override
+    public String getPresentationName() {
+        return NbBundle.getMessage(BulkAddUndoableEdit.class,
+                "LBL_BulkAddUndoableEdit_Add");
+    }
+
+    @Override
+    public String getRedoPresentationName() {
+        return NbBundle.getMessage(BulkAddUndoableEdit.class,
+                "LBL_BulkAddUndoableEdit_RedoAdd");
+    }
+
+    @Override
+    public String getUndoPresentationName() {
+        return NbBundle.getMessage(BulkAddUndoableEdit.class,
+                "LBL_BulkAddUndoableEdit_UndoAdd");
+    }
+
+    @Override
+    public void redo() throws CannotRedoException {
+        model.addAll(Arrays.asList(vertices), Arrays.asList(edges));
+        super.redo();
+    }
+
+    @Override
+    public void undo() throws CannotUndoException {
+        model.removeAll(vertices, edges);
+        super.undo();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.model;
+
+import java.util.Arrays;
+import javax.swing.undo.AbstractUndoableEdit;
+import javax.swing.undo.CannotRedoException;
+import javax.swing.undo.CannotUndoException;
+import org.openide.util.NbBundle;
+
+/**
+ * A BulkRemoveUndoableEdit handles the removal of many vertices and
+ * edges from a model in a single operation, as by
+ * <code>Model.removeAll()</code>. The components are held in arrays,
+ * rather than one edit per component, and are added again in a single
+ * pass.
+ *
+ * @author Nathan Fiedler
+ */
+public class BulkRemoveUndoableEdit extends AbstractUndoableEdit
+        implements MeasurableEdit {
+
+    /** silence compiler warnings */
+    private static final long serialVersionUID = 1L;
+    /** The model on which to perform the operations. */
+    private DefaultModel model;
+    /** The vertices that were removed. */
+    private Vertex[] vertices;
+    /** The edges that were removed, including those connected to the
+     * removed vertices. */
+    private Edge[] edges;
+    /** Estimated size of the removed components, which are held only
+     * by this edit. */
+    private long componentSize;
+
+    /**
+     * Creates a new instance of BulkRemoveUndoableEdit.
+     *
+     * @param  model     the Model on which to operate.
+     * @param  vertices  the vertices that were removed.
+     * @param  edges     the edges that were removed.
+     */
+    public BulkRemoveUndoableEdit(DefaultModel model, Vertex[] vertices,
+            Edge[] edges) {
+        super();
+        this.model = model;
+        this.vertices = vertices;
+        this.edges = edges;
+        for (Vertex vertex : vertices) {
+            componentSize += ModelUndoManager.getMemorySize(vertex);
+        }
+        for (Edge edge : edges) {
+            componentSize += ModelUndoManager.getMemorySize(edge);
+        }
+    }
+
+    @Override
+    public void die() {
+        super.die();
+        vertices = new Vertex[0];
+        edges = new Edge[0];
+        componentSize = 0;
+    }
+
+    @Override
+    public long getMemorySize() {
+        return 3 * OBJECT_OVERHEAD
+                + REFERENCE_SIZE * (vertices.length + edges.length + 4)
+                + componentSize;
+    }
+
+    @Override
+    public String getPresentationName() {
+        return NbBundle.getMessage(BulkRemoveUndoableEdit.class,
+                "LBL_BulkRemoveUndoableEdit_Remove");
+    }
+
+    @Override
+    public String getRedoPresentationName() {
+        return NbBundle.getMessage(BulkRemoveUndoableEdit.class,
+                "LBL_BulkRemoveUndoableEdit_RedoRemove");
+    }
+
+    @Override
+    public String getUndoPresentationName() {
+        return NbBundle.getMessage(BulkRemoveUndoableEdit.class,
+                "LBL_BulkRemoveUndoableEdit_UndoRemove");
+    }
+
+    @Override
+    public void redo() throws CannotRedoException {
+        model.removeAll(vertices, edges);
+        super.redo();
+    }
+
+    @Override
+    public void undo() throws CannotUndoException {
+        model.addAll(Arrays.asList(vertices), Arrays.asList(edges));
+        super.undo();
+    }
+}
@@ -0,0 +1,720 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.model;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Class ColumnStore holds the geometry and cost of vertices, and the
+ * endpoints and cost of edges, in parallel arrays of primitives, one
+ * array per attribute. The vertices and edges created by the store are
+ * light-weight views over a row of those arrays, so that a scan over one
+ * attribute of every vertex (for instance, finding the vertices within a
+ * rectangle, or totalling their costs) reads the memory sequentially
+ * rather than visiting each component object in turn.
+ *
+ * <p>Rows are allocated as components are created and are never
+ * reused, so a store should be shared only by models whose components
+ * live about as long as the store itself. Components created by one
+ * store may be added to any model, like any other vertex or edge.</p>
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ * If multiple threads access a store, or its components, concurrently,
+ * and at least one of the threads modifies it, it <em>must</em> be
+ * synchronized externally.</p>
+ *
+ * @author  Nathan Fiedler
+ */
+public class ColumnStore {
+
+    /** Number of rows allocated for an empty store. */
+    private static final int INITIAL_CAPACITY = 16;
+    /** Positions of the vertices on the x axis. */
+    private int[] vertexX;
+    /** Positions of the vertices on the y axis. */
+    private int[] vertexY;
+    /** Positions of the vertices on the z axis. */
+    private int[] vertexZ;
+    /** Widths of the vertex bounding boxes. */
+    private int[] vertexWidth;
+    /** Heights of the vertex bounding boxes. */
+    private int[] vertexHeight;
+    /** Depths of the vertex bounding boxes. */
+    private int[] vertexDepth;
+    /** Costs of the vertices. */
+    private double[] vertexCost;
+    /** The vertex view for each vertex row. */
+    private StoreVertex[] vertices;
+    /** Number of vertex rows in use. */
+    private int vertexCount;
+    /** Source vertex row of each edge, or -1 if not set. */
+    private int[] edgeSource;
+    /** Target vertex row of each edge, or -1 if not set. */
+    private int[] edgeTarget;
+    /** Costs of the edges. */
+    private double[] edgeCost;
+    /** Rows of the edges that are directed. */
+    private final BitSet edgeDirected;
+    /** The edge view for each edge row. */
+    private StoreEdge[] edges;
+    /** Number of edge rows in use. */
+    private int edgeCount;
+
+    /**
+     * Creates a new instance of ColumnStore.
+     */
+    public ColumnStore() {
+        vertexX = new int[INITIAL_CAPACITY];
+        vertexY = new int[INITIAL_CAPACITY];
+        vertexZ = new int[INITIAL_CAPACITY];
+        vertexWidth = new int[INITIAL_CAPACITY];
+        vertexHeight = new int[INITIAL_CAPACITY];
+        vertexDepth = new int[INITIAL_CAPACITY];
+        vertexCost = new double[INITIAL_CAPACITY];
+        vertices = new StoreVertex[INITIAL_CAPACITY];
+        edgeSource = new int[INITIAL_CAPACITY];
+        edgeTarget = new int[INITIAL_CAPACITY];
+        edgeCost = new double[INITIAL_CAPACITY];
+        edgeDirected = new BitSet();
+        edges = new StoreEdge[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Computes the angle of every edge in this store, as with
+     * <code>Geometry.computeAngles()</code>. Edges without both
+     * endpoints are given an angle of zero.
+     *
+     * @param  angles  receives the angle of each edge, by row.
+     * @throws  IllegalArgumentException
+     *          if angles is shorter than the number of edges.
+     */
+    public void computeEdgeAngles(double[] angles) {
+        if (angles.length < edgeCount) {
+            throw new IllegalArgumentException("angles array too short");
+        }
+        int[] coords = new int[edgeCount * 4];
+        for (int row = 0, j = 0; row < edgeCount; row++, j += 4) {
+            int s = edgeSource[row];
+            int t = edgeTarget[row];
+            if (s >= 0 && t >= 0) {
+                coords[j] = vertexX[s];
+                coords[j + 1] = vertexY[s];
+                coords[j + 2] = vertexX[t];
+                coords[j + 3] = vertexY[t];
+            }
+        }
+        Geometry.computeAngles(coords, angles, edgeCount);
+    }
+
+    /**
+     * Computes the length of every edge in this store, as with
+     * <code>Geometry.computeLengths()</code>. Edges without both
+     * endpoints are given a length of zero.
+     *
+     * @param  lengths  receives the length of each edge, by row.
+     * @throws  IllegalArgumentException
+     *          if lengths is shorter than the number of edges.
+     */
+    public void computeEdgeLengths(double[] lengths) {
+        if (lengths.length < edgeCount) {
+            throw new IllegalArgumentException("lengths array too short");
+        }
+        int[] dxyz = new int[edgeCount * 3];
+        for (int row = 0, j = 0; row < edgeCount; row++, j += 3) {
+            int s = edgeSource[row];
+            int t = edgeTarget[row];
+            if (s >= 0 && t >= 0) {
+                dxyz[j] = vertexX[s] - vertexX[t];
+                dxyz[j + 1] = vertexY[s] - vertexY[t];
+                dxyz[j + 2] = vertexZ[s] - vertexZ[t];
+            }
+        }
+        Geometry.computeLengths(dxyz, lengths, edgeCount);
+    }
+
+    /**
+     * Computes the distance from the vertex in the given row to every
+     * vertex in this store.
+     *
+     * @param  row        row of the vertex from which to measure.
+     * @param  distances  receives the distance to each vertex, by row.
+     * @throws  IllegalArgumentException
+     *          if distances is shorter than the number of vertices.
+     */
+    public void computeVertexDistances(int row, double[] distances) {
+        checkVertexRow(row);
+        if (distances.length < vertexCount) {
+            throw new IllegalArgumentException("distances array too short");
+        }
+        Geometry.computeDistances(vertexX[row], vertexY[row], vertexZ[row],
+                vertexX, vertexY, vertexZ, distances, vertexCount);
+    }
+
+    /**
+     * Creates an edge backed by a new row of this store.
+     *
+     * @param  source    vertex that begins the edge, created by this store.
+     * @param  target    vertex that ends the edge, created by this store.
+     * @param  directed  true if the edge is directed.
+     * @return  new edge.
+     * @throws  IllegalArgumentException
+     *          if either vertex was not created by this store.
+     */
+    public Edge createEdge(Vertex source, Vertex target, boolean directed) {
+        int sourceRow = rowOf(source);
+        int targetRow = rowOf(target);
+        if (edgeCount == edges.length) {
+            int capacity = edges.length * 2;
+            edgeSource = Arrays.copyOf(edgeSource, capacity);
+            edgeTarget = Arrays.copyOf(edgeTarget, capacity);
+            edgeCost = Arrays.copyOf(edgeCost, capacity);
+            edges = Arrays.copyOf(edges, capacity);
+        }
+        int row = edgeCount;
+        edgeSource[row] = sourceRow;
+        edgeTarget[row] = targetRow;
+        edgeDirected.set(row, directed);
+        StoreEdge edge = new StoreEdge(this, row);
+        edges[row] = edge;
+        edgeCount++;
+        return edge;
+    }
+
+    /**
+     * Creates a vertex backed by a new row of this store.
+     *
+     * @param  x     position on the x axis.
+     * @param  y     position on the y axis.
+     * @param  z     position on the z axis.
+     * @param  cost  cost of the vertex.
+     * @return  new vertex.
+     */
+    public Vertex createVertex(int x, int y, int z, double cost) {
+        if (vertexCount == vertices.length) {
+            int capacity = vertices.length * 2;
+            vertexX = Arrays.copyOf(vertexX, capacity);
+            vertexY = Arrays.copyOf(vertexY, capacity);
+            vertexZ = Arrays.copyOf(vertexZ, capacity);
+            vertexWidth = Arrays.copyOf(vertexWidth, capacity);
+            vertexHeight = Arrays.copyOf(vertexHeight, capacity);
+            vertexDepth = Arrays.copyOf(vertexDepth, capacity);
+            vertexCost = Arrays.copyOf(vertexCost, capacity);
+            vertices = Arrays.copyOf(vertices, capacity);
+        }
+        int row = vertexCount;
+        vertexX[row] = x;
+        vertexY[row] = y;
+        vertexZ[row] = z;
+        vertexCost[row] = cost;
+        StoreVertex vertex = new StoreVertex(this, row);
+        vertices[row] = vertex;
+        vertexCount++;
+        return vertex;
+    }
+
+    /**
+     * Finds the rows of the vertices whose bounding box intersects the
+     * given rectangle, using the same test as
+     * <code>Model.findVertices()</code>.
+     *
+     * @param  x       left edge of the rectangle.
+     * @param  y       top edge of the rectangle.
+     * @param  width   width of the rectangle.
+     * @param  height  height of the rectangle.
+     * @return  set of matching vertex rows, possibly empty.
+     */
+    public BitSet findVertices(int x, int y, int width, int height) {
+        BitSet result = new BitSet();
+        if (width < 0 || height < 0) {
+            return result;
+        }
+        int maxX = x + width;
+        int maxY = y + height;
+        int[] xs = vertexX;
+        int[] ys = vertexY;
+        int[] ws = vertexWidth;
+        int[] hs = vertexHeight;
+        for (int row = 0; row < vertexCount; row++) {
+            int hw = ws[row] / 2;
+            int hh = hs[row] / 2;
+            if (xs[row] - hw <= maxX && xs[row] + hw >= x
+                    && ys[row] - hh <= maxY && ys[row] + hh >= y) {
+                result.set(row);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the edge stored in the given row.
+     *
+     * @param  row  edge row.
+     * @return  edge view for that row.
+     * @throws  IndexOutOfBoundsException
+     *          if row is not a valid edge row.
+     */
+    public Edge getEdge(int row) {
+        checkEdgeRow(row);
+        return edges[row];
+    }
+
+    /**
+     * Returns the cost of the edge in the given row.
+     *
+     * @param  row  edge row.
+     * @return  edge cost.
+     */
+    public double getEdgeCost(int row) {
+        checkEdgeRow(row);
+        return edgeCost[row];
+    }
+
+    /**
+     * Returns the number of edges created by this store.
+     *
+     * @return  edge count.
+     */
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Returns the row of the given edge in this store.
+     *
+     * @param  edge  edge to find.
+     * @return  edge row, or -1 if the edge was not created by this store.
+     */
+    public int getRow(Edge edge) {
+        if (edge instanceof StoreEdge && ((StoreEdge) edge).store == this) {
+            return ((StoreEdge) edge).row;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the row of the given vertex in this store.
+     *
+     * @param  vertex  vertex to find.
+     * @return  vertex row, or -1 if the vertex was not created by this
+     *          store.
+     */
+    public int getRow(Vertex vertex) {
+        if (vertex instanceof StoreVertex
+                && ((StoreVertex) vertex).store == this) {
+            return ((StoreVertex) vertex).row;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the vertex stored in the given row.
+     *
+     * @param  row  vertex row.
+     * @return  vertex view for that row.
+     * @throws  IndexOutOfBoundsException
+     *          if row is not a valid vertex row.
+     */
+    public Vertex getVertex(int row) {
+        checkVertexRow(row);
+        return vertices[row];
+    }
+
+    /**
+     * Returns the cost of the vertex in the given row.
+     *
+     * @param  row  vertex row.
+     * @return  vertex cost.
+     */
+    public double getVertexCost(int row) {
+        checkVertexRow(row);
+        return vertexCost[row];
+    }
+
+    /**
+     * Returns the number of vertices created by this store.
+     *
+     * @return  vertex count.
+     */
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * Returns the position on the x axis of the vertex in the given row.
+     *
+     * @param  row  vertex row.
+     * @return  x position.
+     */
+    public int getX(int row) {
+        checkVertexRow(row);
+        return vertexX[row];
+    }
+
+    /**
+     * Returns the position on the y axis of the vertex in the given row.
+     *
+     * @param  row  vertex row.
+     * @return  y position.
+     */
+    public int getY(int row) {
+        checkVertexRow(row);
+        return vertexY[row];
+    }
+
+    /**
+     * Returns the position on the z axis of the vertex in the given row.
+     *
+     * @param  row  vertex row.
+     * @return  z position.
+     */
+    public int getZ(int row) {
+        checkVertexRow(row);
+        return vertexZ[row];
+    }
+
+    /**
+     * Computes the total cost of all of the edges in this store.
+     *
+     * @return  sum of the edge costs.
+     */
+    public double sumEdgeCosts() {
+        double[] costs = edgeCost;
+        double sum = 0.0d;
+        for (int row = 0; row < edgeCount; row++) {
+            sum += costs[row];
+        }
+        return sum;
+    }
+
+    /**
+     * Computes the total cost of all of the vertices in this store.
+     *
+     * @return  sum of the vertex costs.
+     */
+    public double sumVertexCosts() {
+        double[] costs = vertexCost;
+        double sum = 0.0d;
+        for (int row = 0; row < vertexCount; row++) {
+            sum += costs[row];
+        }
+        return sum;
+    }
+
+    /**
+     * Ensures the row refers to an edge created by this store.
+     *
+     * @param  row  edge row.
+     */
+    private void checkEdgeRow(int row) {
+        if (row < 0 || row >= edgeCount) {
+            throw new IndexOutOfBoundsException("edge row: " + row);
+        }
+    }
+
+    /**
+     * Ensures the row refers to a vertex created by this store.
+     *
+     * @param  row  vertex row.
+     */
+    private void checkVertexRow(int row) {
+        if (row < 0 || row >= vertexCount) {
+            throw new IndexOutOfBoundsException("vertex row: " + row);
+        }
+    }
+
+    /**
+     * Returns the row of the given edge endpoint.
+     *
+     * @param  vertex  endpoint, possibly null.
+     * @return  vertex row, or -1 if vertex is null.
+     * @throws  IllegalArgumentException
+     *          if vertex was not created by this store.
+     */
+    private int rowOf(Vertex vertex) {
+        if (vertex == null) {
+            return -1;
+        }
+        int row = getRow(vertex);
+        if (row < 0) {
+            throw new IllegalArgumentException(
+                    "vertex not created by this store");
+        }
+        return row;
+    }
+
+    /**
+     * An Edge whose attributes are held in a row of the store. The cost
+     * inherited from AbstractComponent is not used.
+     */
+    private static class StoreEdge extends AbstractComponent implements Edge {
+        /** The store holding the attributes. */
+        private final ColumnStore store;
+        /** Row of this edge in the store. */
+        private final int row;
+
+        /**
+         * Creates a new instance of StoreEdge.
+         *
+         * @param  store  the store holding the attributes.
+         * @param  row    row of this edge.
+         */
+        StoreEdge(ColumnStore store, int row) {
+            this.store = store;
+            this.row = row;
+        }
+
+        @Override
+        public double computeAngle() {
+            Vertex source = getSource();
+            Vertex target = getTarget();
+            // Subtract y coordinates in reverse order from normal
+            // as the screen coordinate system is flipped along the
+            // x-axis from the Cartesian coordinate system.
+            double angle = Math.atan2(source.getY() - target.getY(),
+                    target.getX() - source.getX());
+            if (angle < 0) {
+                angle += 2 * Math.PI;
+            }
+            return angle;
+        }
+
+        @Override
+        public double computeLength() {
+            return getSource().computeDistance(getTarget());
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof StoreEdge) {
+                StoreEdge e = (StoreEdge) obj;
+                return e.getTarget() == getTarget()
+                        && e.getSource() == getSource();
+            }
+            return false;
+        }
+
+        @Override
+        public double getCost() {
+            return store.edgeCost[row];
+        }
+
+        @Override
+        public Vertex getSource() {
+            int v = store.edgeSource[row];
+            return v < 0 ? null : store.vertices[v];
+        }
+
+        @Override
+        public Vertex getTarget() {
+            int v = store.edgeTarget[row];
+            return v < 0 ? null : store.vertices[v];
+        }
+
+        @Override
+        public int hashCode() {
+            return (getSource().hashCode() << 8) + getTarget().hashCode()
+                    + (isDirected() ? 0 : 1);
+        }
+
+        @Override
+        public boolean isDirected() {
+            return store.edgeDirected.get(row);
+        }
+
+        @Override
+        public void setCost(double cost) {
+            double old = store.edgeCost[row];
+            store.edgeCost[row] = cost;
+            firePropertyChange(PROP_COST, old, cost);
+        }
+
+        @Override
+        public void setDirected(boolean directed) {
+            boolean old = isDirected();
+            store.edgeDirected.set(row, directed);
+            firePropertyChange(PROP_DIRECTED, old, directed);
+        }
+
+        @Override
+        public void setSource(Vertex source) {
+            int v = store.rowOf(source);
+            Vertex old = getSource();
+            store.edgeSource[row] = v;
+            firePropertyChange(PROP_SOURCE, old, source);
+        }
+
+        @Override
+        public void setTarget(Vertex target) {
+            int v = store.rowOf(target);
+            Vertex old = getTarget();
+            store.edgeTarget[row] = v;
+            firePropertyChange(PROP_TARGET, old, target);
+        }
+    }
+
+    /**
+     * A Vertex whose attributes are held in a row of the store. The cost
+     * inherited from AbstractComponent is not used.
+     */
+    private static class StoreVertex extends AbstractComponent
+            implements Vertex {
+        /** The store holding the attributes. */
+        private final ColumnStore store;
+        /** Row of this vertex in the store. */
+        private final int row;
+
+        /**
+         * Creates a new instance of StoreVertex.
+         *
+         * @param  store  the store holding the attributes.
+         * @param  row    row of this vertex.
+         */
+        StoreVertex(ColumnStore store, int row) {
+            this.store = store;
+            this.row = row;
+        }
+
+        @Override
+        public double computeDistance(Vertex v) {
+            double dx = getX() - v.getX();
+            double dy = getY() - v.getY();
+            double dz = getZ() - v.getZ();
+            return Math.sqrt(dx * dx + dy * dy + dz * dz);
+        }
+
+        @Override
+        public boolean contains(int x, int y, int z) {
+            int nx = x - getX();
+            int ny = y - getY();
+            int a = getWidth() / 2;
+            int b = getHeight() / 2;
+            return ((nx * nx) / (a * a) + (ny * ny) / (b * b)) <= 1;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof Vertex) {
+                Vertex v = (Vertex) obj;
+                return v.getX() == getX() && v.getY() == getY()
+                        && v.getZ() == getZ();
+            }
+            return false;
+        }
+
+        @Override
+        public double getCost() {
+            return store.vertexCost[row];
+        }
+
+        @Override
+        public int getDepth() {
+            return store.vertexDepth[row];
+        }
+
+        @Override
+        public int getHeight() {
+            return store.vertexHeight[row];
+        }
+
+        @Override
+        public int getWidth() {
+            return store.vertexWidth[row];
+        }
+
+        @Override
+        public int getX() {
+            return store.vertexX[row];
+        }
+
+        @Override
+        public int getY() {
+            return store.vertexY[row];
+        }
+
+        @Override
+        public int getZ() {
+            return store.vertexZ[row];
+        }
+
+        @Override
+        public int hashCode() {
+            return (getX() << 24) + (getY() << 12) + getZ();
+        }
+
+        @Override
+        public void setCost(double cost) {
+            double old = store.vertexCost[row];
+            store.vertexCost[row] = cost;
+            firePropertyChange(PROP_COST, old, cost);
+        }
+
+        @Override
+        public void setDepth(int depth) {
+            int old = store.vertexDepth[row];
+            if (depth > 0) {
+                store.vertexDepth[row] = depth;
+            }
+            firePropertyChange(PROP_DEPTH, old, depth);
+        }
+
+        @Override
+        public void setHeight(int height) {
+            int old = store.vertexHeight[row];
+            if (height > 0) {
+                store.vertexHeight[row] = height;
+            }
+            firePropertyChange(PROP_HEIGHT, old, height);
+        }
+
+        @Override
+        public void setWidth(int width) {
+            int old = store.vertexWidth[row];
+            if (width > 0) {
+                store.vertexWidth[row] = width;
+            }
+            firePropertyChange(PROP_WIDTH, old, width);
+        }
+
+        @Override
+        public void setX(int x) {
+            int old = store.vertexX[row];
+            store.vertexX[row] = x;
+            firePropertyChange(PROP_X, old, x);
+        }
+
+        @Override
+        public void setY(int y) {
+            int old = store.vertexY[row];
+            store.vertexY[row] = y;
+            firePropertyChange(PROP_Y, old, y);
+        }
+
+        @Override
+        public void setZ(int z) {
+            int old = store.vertexZ[row];
+            store.vertexZ[row] = z;
+            firePropertyChange(PROP_Z, old, z);
+        }
+    }
+}
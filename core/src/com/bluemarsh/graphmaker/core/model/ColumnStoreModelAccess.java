@@ -0,0 +1,101 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persists models whose components are held in a <code>ColumnStore</code>.
+ * The components of a store cannot be written by the XML encoder, as
+ * they are created by the store rather than by a constructor, so the
+ * model is written as an equivalent model of default vertices and edges,
+ * in the same format as <code>DefaultModelAccess</code>. When read, the
+ * components are created again in the store of the factory.
+ *
+ * @author Nathan Fiedler
+ */
+class ColumnStoreModelAccess extends DefaultModelAccess {
+
+    /** Creates the components of the models that are read. */
+    private final ColumnStoreModelFactory factory;
+
+    /**
+     * Creates a new instance of ColumnStoreModelAccess.
+     *
+     * @param  factory  creates the components of the models read.
+     */
+    ColumnStoreModelAccess(ColumnStoreModelFactory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Creates a model with copies of the vertices and edges of another,
+     * using the given factory to create the components.
+     *
+     * @param  model    the model to be copied.
+     * @param  factory  creates the new model and its components.
+     * @return  the new model.
+     */
+    private static Model copy(Model model, ModelFactory factory) {
+        List<Vertex> vertices = model.getVertices();
+        List<Edge> edges = model.getEdges();
+        Map<Vertex, Vertex> copies = new IdentityHashMap<Vertex, Vertex>(
+                vertices.size());
+        List<Vertex> newVertices = new ArrayList<Vertex>(vertices.size());
+        for (Vertex v : vertices) {
+            Vertex c = factory.createVertex(v.getX(), v.getY(), v.getZ(),
+                    v.getCost());
+            c.setWidth(v.getWidth());
+            c.setHeight(v.getHeight());
+            c.setDepth(v.getDepth());
+            c.setLabel(v.getLabel());
+            copies.put(v, c);
+            newVertices.add(c);
+        }
+        List<Edge> newEdges = new ArrayList<Edge>(edges.size());
+        for (Edge e : edges) {
+            Edge c = factory.createEdge(copies.get(e.getSource()),
+                    copies.get(e.getTarget()), e.isDirected());
+            c.setCost(e.getCost());
+            c.setLabel(e.getLabel());
+            newEdges.add(c);
+        }
+        return factory.createModel(newVertices, newEdges);
+    }
+
+    @Override
+    public synchronized Model read() throws IOException {
+        Model model = copy(super.read(), factory);
+        adopt(model);
+        return model;
+    }
+
+    @Override
+    public synchronized void write(Model model) throws IOException {
+        super.write(copy(model, new DefaultModelFactory()));
+    }
+}
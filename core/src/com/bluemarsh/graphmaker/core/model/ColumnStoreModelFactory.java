@@ -0,0 +1,72 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.model;
+
+/**
+ * ColumnStoreModelFactory creates vertices and edges whose attributes are
+ * held in a <code>ColumnStore</code>, as rows of primitive arrays. Each
+ * factory has its own store, shared by all of the components it creates.
+ * The models are the default implementation. Models read through the
+ * access of this factory have their components created in its store.
+ *
+ * @author Nathan Fiedler
+ */
+public class ColumnStoreModelFactory extends DefaultModelFactory {
+
+    /** The store holding the attributes of the created components. */
+    private final ColumnStore store;
+
+    /**
+     * Creates a new instance of ColumnStoreModelFactory.
+     */
+    public ColumnStoreModelFactory() {
+        store = new ColumnStore();
+    }
+
+    @Override
+    public ModelAccess createAccess(ModelSource source) {
+        ModelAccess ma = new ColumnStoreModelAccess(this);
+        ma.setSource(source);
+        return ma;
+    }
+
+    @Override
+    public Edge createEdge(Vertex source, Vertex target, boolean directed) {
+        return store.createEdge(source, target, directed);
+    }
+
+    @Override
+    public Vertex createVertex(int x, int y, int z, double cost) {
+        return store.createVertex(x, y, z, cost);
+    }
+
+    /**
+     * Returns the store that holds the attributes of the components
+     * created by this factory.
+     *
+     * @return  column store.
+     */
+    public ColumnStore getStore() {
+        return store;
+    }
+}
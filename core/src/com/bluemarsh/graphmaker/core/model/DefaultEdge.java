@@ -97,20 +97,20 @@ public class DefaultEdge extends AbstractComponent implements Edge {
     public void setDirected(boolean directed) {
         boolean old = this.directed;
         this.directed = directed;
-        propSupport.firePropertyChange(PROP_DIRECTED, old, directed);
+        firePropertyChange(PROP_DIRECTED, old, directed);
     }
 
     @Override
     public void setSource(Vertex source) {
         Vertex old = this.source;
         this.source = source;
-        propSupport.firePropertyChange(PROP_SOURCE, old, source);
+        firePropertyChange(PROP_SOURCE, old, source);
     }
 
     @Override
     public void setTarget(Vertex target) {
         Vertex old = this.target;
         this.target = target;
-        propSupport.firePropertyChange(PROP_TARGET, old, target);
+        firePropertyChange(PROP_TARGET, old, target);
     }
 }
@@ -22,224 +22,589 @@
  */
 package com.bluemarsh.graphmaker.core.model;
 
+import com.bluemarsh.graphmaker.core.util.IntGraph;
+import com.bluemarsh.graphmaker.core.util.SpatialGrid;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 import java.io.IOException;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.concurrent.locks.Lock;
 import org.openide.ErrorManager;
 
 /**
  * The default implementation of the Model interface. Uses an adjacency
  * list data structure to maintain the vertex and edge relationships.
+ * The structure itself is held in an <code>IntGraph</code>, in which
+ * the vertices and edges are known by number; this class maps between
+ * those numbers and the Vertex and Edge objects. The vertex bounds are
+ * held in a spatial index, kept current by listening to the vertices
+ * for changes in position and size, for hit testing and selection.
+ *
+ * <p>Removing a vertex leaves its number unused, so the numbers of the
+ * other vertices stay the same and the removal takes constant time.
+ * Once a quarter of the numbers are unused, the vertices are renumbered
+ * in a single pass, which keeps the amortized cost of removal
+ * constant.</p>
+ *
+ * <p>The query methods may be called from any thread, concurrently
+ * with one another and with changes being made by the owner of a
+ * transaction. Queries hold the read lock of the model, and changes
+ * the write lock, so each query sees the model as it was between two
+ * individual changes. The lists returned from <code>getVertices()</code>
+ * and <code>getEdges()</code> are live views, and are not protected in
+ * this way. For a view that is consistent across a whole transaction,
+ * use <code>getSnapshot()</code>.</p>
  *
  * @author  Nathan Fiedler
  */
 public class DefaultModel extends AbstractModel {
 
-    /** List of vertices in the graph. */
+    /** Minimum number of removed vertices before compacting. */
+    private static final int COMPACT_MINIMUM = 64;
+    /** List of vertices in the graph, indexed by vertex number; removed
+     * vertices leave a null entry until the next compaction. */
     private List<Vertex> vertexList;
-    /** List of edges in the graph. */
-    private List<Edge> edgeList;
-    /** Adjacency list structure. The index into the vector is the
-     * source vertex. The int[] array contains a list of vertex indices,
-     * each one representing the target vertex adjacent to the source
-     * vertex the int[] array is associated with. */
-    private List<int[]> adjacencies;
+    /** Numbers of the removed vertices not yet compacted away. */
+    private BitSet removedSlots;
+    /** Number of bits set in removedSlots. */
+    private int removedCount;
+    /** For positional lookups, the i-th removed vertex number less i,
+     * in ascending order; null if it must be rebuilt. */
+    private volatile int[] removedRanks;
+    /** Read-only view of the vertices in the graph. */
+    private List<Vertex> vertexView;
+    /** Edges in the graph, indexed by edge number. */
+    private Edge[] edgeArray;
+    /** Read-only view of the edges in the graph. */
+    private List<Edge> edgeView;
+    /** The vertex and edge relationships. */
+    private IntGraph graph;
+    /** Maps each vertex (by identity) to its number. */
+    private Map<Vertex, Integer> vertexIndices;
+    /** Spatial index of the vertex bounds. */
+    private SpatialGrid<Vertex> vertexGrid;
+    /** Records component changes and keeps the spatial index current. */
+    private PropertyChangeListener componentListener;
 
     /**
      * Creates a new instance of DefaultModel.
      */
     public DefaultModel() {
-        vertexList = new LinkedList<Vertex>();
-        edgeList = new LinkedList<Edge>();
-        adjacencies = new ArrayList<int[]>();
+        this(new IntGraph());
     }
 
     /**
-     * Used to put an "edge" between to vertices, without really
-     * adding an edge. This only does the connection in one direction
-     * (i.e. a directed edge).
+     * Creates a new instance of DefaultModel whose structure is held in
+     * the given graph.
      *
-     * @param  from  starting vertex
-     * @param  to    ending vertex
+     * @param  graph  an empty graph to hold the vertex and edge
+     *                relationships.
      */
-    protected void addAdjacency(Vertex from, Vertex to) {
-        checkInTransaction();
-        int fromIdx = vertexList.indexOf(from);
-        int toIdx = vertexList.indexOf(to);
-        if (fromIdx == -1 || toIdx == -1 || fromIdx >= adjacencies.size()) {
-            throw new IllegalStateException("vertices not in model");
-        }
-        // Get the adjlist for the "from" vertex.
-        // Set aside a new adjlist.
-        int[] list = adjacencies.get(fromIdx);
-        if (list == null) {
-            list = new int[1];
-        } else {
-            // Otherwise we need to make a new array with one more
-            // element and copy over the old array data.
-            int size = list.length;
-            int[] newList = new int[size + 1];
-            System.arraycopy(list, 0, newList, 0, size);
-            list = newList;
-        }
-        // Now assign last element to index of "to" vertex.
-        // Set new adjacency list in adjList vector.
-        list[list.length - 1] = toIdx;
-        adjacencies.set(fromIdx, list);
+    protected DefaultModel(IntGraph graph) {
+        if (graph.getVertexCount() > 0) {
+            throw new IllegalArgumentException("graph must be empty");
+        }
+        vertexList = new ArrayList<Vertex>();
+        removedSlots = new BitSet();
+        vertexView = new VertexList();
+        edgeArray = new Edge[16];
+        edgeView = new EdgeList();
+        this.graph = graph;
+        vertexIndices = new IdentityHashMap<Vertex, Integer>();
+        vertexGrid = new SpatialGrid<Vertex>();
+        componentListener = new ComponentListener();
     }
 
     @Override
-    public void addEdge(Edge edge) {
+    public void addAll(Collection<? extends Vertex> vertices,
+            Collection<? extends Edge> edges) {
         checkInTransaction();
-        if (edge == null) {
-            throw new IllegalArgumentException("edge must not be null");
+        if (vertices == null || edges == null) {
+            throw new IllegalArgumentException("collections must not be null");
         }
-        Vertex source = edge.getSource();
-        Vertex target = edge.getTarget();
-        // Validate to ensure the model does not become corrupted.
-        int si = vertexList.indexOf(source);
-        int ti = vertexList.indexOf(target);
-        if (si == -1 || ti == -1 || si >= adjacencies.size()
-                || ti >= adjacencies.size()) {
-            throw new IllegalStateException("vertices not in model");
+        Vertex[] newVertices = vertices.toArray(new Vertex[vertices.size()]);
+        Edge[] newEdges = edges.toArray(new Edge[edges.size()]);
+        Lock lock = writeLock();
+        lock.lock();
+        try {
+            addAll(newVertices, newEdges);
+        } finally {
+            lock.unlock();
         }
-        if (source.equals(target)) {
-            throw new IllegalStateException("edge endpoints are same");
+    }
+
+    /**
+     * Adds the given vertices and edges, as described in the public
+     * <code>addAll()</code> method. The caller must hold the write lock.
+     *
+     * @param  newVertices  vertices to be added.
+     * @param  newEdges     edges to be added.
+     */
+    private void addAll(Vertex[] newVertices, Edge[] newEdges) {
+        int baseVertex = graph.getVertexCount();
+        int baseEdge = graph.getEdgeCount();
+
+        // Number the new vertices, which also detects duplicates.
+        int v = baseVertex;
+        try {
+            for (Vertex vertex : newVertices) {
+                if (vertex == null) {
+                    throw new IllegalArgumentException("vertex must not be null");
+                }
+                if (vertexIndices.containsKey(vertex)) {
+                    throw new IllegalArgumentException("vertex already in model");
+                }
+                vertexIndices.put(vertex, v++);
+            }
+        } catch (IllegalArgumentException iae) {
+            for (int ii = 0; ii < v - baseVertex; ii++) {
+                vertexIndices.remove(newVertices[ii]);
+            }
+            throw iae;
         }
-        if (findEdge(source, target) != null
-                || (!edge.isDirected() && findEdge(target, source) != null)) {
-            throw new IllegalArgumentException("edge already exists");
+
+        // Resolve and validate the edge endpoints before any changes
+        // are made to the graph.
+        int[] sources = new int[newEdges.length];
+        int[] targets = new int[newEdges.length];
+        RuntimeException invalid = null;
+        for (int ii = 0; ii < newEdges.length && invalid == null; ii++) {
+            Edge edge = newEdges[ii];
+            if (edge == null) {
+                invalid = new IllegalArgumentException("edge must not be null");
+            } else {
+                sources[ii] = indexOf(edge.getSource());
+                targets[ii] = indexOf(edge.getTarget());
+                if (sources[ii] == -1 || targets[ii] == -1) {
+                    invalid = new IllegalStateException("vertices not in model");
+                } else if (sources[ii] == targets[ii]) {
+                    invalid = new IllegalStateException("edge endpoints are same");
+                }
+            }
         }
 
-        // Add the new edge to the list and make the source vertex
-        // adjacent to the target vertex. If the edge is undirected,
-        // then make target adjacent to source, as well.
-        edgeList.add(edge);
-        addAdjacency(source, target);
-        if (!edge.isDirected()) {
-            addAdjacency(target, source);
+        // Build the structure, allocating space for everything at once.
+        if (invalid == null) {
+            graph.ensureCapacity(baseVertex + newVertices.length,
+                    baseEdge + newEdges.length);
+            for (int ii = 0; ii < newVertices.length; ii++) {
+                graph.addVertex();
+            }
+            try {
+                for (int ii = 0; ii < newEdges.length; ii++) {
+                    graph.addEdge(sources[ii], targets[ii],
+                            newEdges[ii].isDirected());
+                }
+            } catch (IllegalArgumentException iae) {
+                // A duplicate edge; undo the changes to the graph.
+                for (int e = graph.getEdgeCount() - 1; e >= baseEdge; e--) {
+                    graph.removeEdge(e);
+                }
+                BitSet added = new BitSet();
+                added.set(baseVertex, graph.getVertexCount());
+                graph.removeVertices(added);
+                invalid = iae;
+            }
         }
-        fireModelEvent(new ModelEvent(this, ModelEventType.EDGE_ADDED));
-        fireUndoableEdit(new EdgeAddUndoableEdit(this, edge));
+        if (invalid != null) {
+            for (Vertex vertex : newVertices) {
+                vertexIndices.remove(vertex);
+            }
+            throw invalid;
+        }
+
+        int size = graph.getEdgeCount();
+        if (size > edgeArray.length) {
+            Edge[] arr = new Edge[size];
+            System.arraycopy(edgeArray, 0, arr, 0, baseEdge);
+            edgeArray = arr;
+        }
+        System.arraycopy(newEdges, 0, edgeArray, baseEdge, newEdges.length);
+        for (Edge edge : newEdges) {
+            edge.addPropertyChangeListener(componentListener);
+        }
+        vertexList.addAll(Arrays.asList(newVertices));
+        for (Vertex vertex : newVertices) {
+            indexBounds(vertex);
+            vertex.addPropertyChangeListener(componentListener);
+        }
+        if (newVertices.length > 0) {
+            fireModelEvent(new ModelEvent(this, ModelEventType.VERTEX_ADDED,
+                    newVertices));
+        }
+        if (newEdges.length > 0) {
+            fireModelEvent(new ModelEvent(this, ModelEventType.EDGE_ADDED,
+                    newEdges));
+        }
+        fireUndoableEdit(new BulkAddUndoableEdit(this, newVertices, newEdges));
     }
 
     @Override
-    public void addVertex(Vertex vertex) {
+    public void addEdge(Edge edge) {
         checkInTransaction();
-        if (vertex == null) {
-            throw new IllegalArgumentException("vertex must not be null");
+        Lock lock = writeLock();
+        lock.lock();
+        try {
+            if (edge == null) {
+                throw new IllegalArgumentException("edge must not be null");
+            }
+            Vertex source = edge.getSource();
+            Vertex target = edge.getTarget();
+            // Validate to ensure the model does not become corrupted.
+            int si = indexOf(source);
+            int ti = indexOf(target);
+            if (si == -1 || ti == -1) {
+                throw new IllegalStateException("vertices not in model");
+            }
+            if (si == ti) {
+                throw new IllegalStateException("edge endpoints are same");
+            }
+
+            // Add the new edge to the graph, which makes the source vertex
+            // adjacent to the target vertex. If the edge is undirected,
+            // then the target is adjacent to the source, as well.
+            int e = graph.addEdge(si, ti, edge.isDirected());
+            if (e == edgeArray.length) {
+                Edge[] arr = new Edge[e + (e >> 1)];
+                System.arraycopy(edgeArray, 0, arr, 0, e);
+                edgeArray = arr;
+            }
+            edgeArray[e] = edge;
+            edge.addPropertyChangeListener(componentListener);
+            fireModelEvent(new ModelEvent(this, ModelEventType.EDGE_ADDED,
+                    edge));
+            fireUndoableEdit(new EdgeAddUndoableEdit(this, edge));
+        } finally {
+            lock.unlock();
         }
-        vertexList.add(vertex);
-        // Allocate space for the new vertex, to be defined later.
-        adjacencies.add(null);
-        fireModelEvent(new ModelEvent(this, ModelEventType.VERTEX_ADDED));
-        fireUndoableEdit(new VertexAddUndoableEdit(this, vertex));
     }
 
     @Override
-    public Edge findEdge(Vertex source, Vertex target) {
-        if (source == null || target == null || source == target) {
-            return null;
-        }
-        int si = vertexList.indexOf(source);
-        int ti = vertexList.indexOf(target);
-        if (si == -1 || ti == -1) {
-            return null;
-        }
-        // Perform a quick search of the adjlist, to see if the edge exists.
-        int[] list = adjacencies.get(si);
-        if (list == null) {
-            list = adjacencies.get(ti);
-            if (list == null) {
-                return null;
+    public void addVertex(Vertex vertex) {
+        checkInTransaction();
+        Lock lock = writeLock();
+        lock.lock();
+        try {
+            if (vertex == null) {
+                throw new IllegalArgumentException("vertex must not be null");
             }
-            ti = si;
-        }
-        int ii;
-        for (ii = 0; ii < list.length; ii++) {
-            if (list[ii] == ti) {
-                break;
+            if (vertexIndices.containsKey(vertex)) {
+                throw new IllegalArgumentException("vertex already in model");
             }
+            indexBounds(vertex);
+            int v = graph.addVertex();
+            vertexIndices.put(vertex, v);
+            vertexList.add(vertex);
+            vertex.addPropertyChangeListener(componentListener);
+            fireModelEvent(new ModelEvent(this, ModelEventType.VERTEX_ADDED,
+                    vertex));
+            fireUndoableEdit(new VertexAddUndoableEdit(this, vertex));
+        } finally {
+            lock.unlock();
         }
-        if (ii == list.length) {
-            return null;
+    }
+
+    /**
+     * Narrows the value to an int, clamping it to the int range.
+     *
+     * @param  value  value to narrow.
+     * @return  nearest int value.
+     */
+    private static int clamp(long value) {
+        if (value < Integer.MIN_VALUE) {
+            return Integer.MIN_VALUE;
         }
+        if (value > Integer.MAX_VALUE) {
+            return Integer.MAX_VALUE;
+        }
+        return (int) value;
+    }
 
-        // Look through all of the edges, looking for one whose "source"
-        // and "target" match the parameters.
-        for (Edge edge : edgeList) {
-            if (edge.getSource().equals(source)
-                    && edge.getTarget().equals(target)) {
-                return edge;
+    /**
+     * Removes the vertices marked in <code>removedSlots</code> from the
+     * graph and the vertex list, renumbering the survivors so that the
+     * numbering is dense again. The caller must hold the write lock.
+     *
+     * <p><em>Running time: O(V + E)</em></p>
+     */
+    private void compact() {
+        if (removedCount == 0) {
+            return;
+        }
+        graph.removeVertices(removedSlots);
+        int first = removedSlots.nextSetBit(0);
+        int size = vertexList.size();
+        int count = first;
+        for (int ii = first; ii < size; ii++) {
+            Vertex vertex = vertexList.get(ii);
+            if (vertex != null) {
+                vertexList.set(count, vertex);
+                vertexIndices.put(vertex, count);
+                count++;
             }
-            // If the edge is undirected, then we can match
-            // the source and target in the reverse order.
-            if (!edge.isDirected() && edge.getSource().equals(target)
-                    && edge.getTarget().equals(source)) {
-                return edge;
+        }
+        vertexList.subList(count, size).clear();
+        removedSlots.clear();
+        removedCount = 0;
+        removedRanks = null;
+    }
+
+    /**
+     * Compacts the vertex numbering once enough vertices have been
+     * removed to make it worthwhile: at least COMPACT_MINIMUM, and at
+     * least a quarter of the numbers in use. The caller must hold the
+     * write lock.
+     */
+    private void compactIfSparse() {
+        if (removedCount >= COMPACT_MINIMUM
+                && removedCount >= vertexList.size() >> 2) {
+            compact();
+        }
+    }
+
+    /**
+     * Detaches the vertex from the model, leaving its number unused
+     * until the next compaction. The vertex must not have any edges.
+     * The caller must hold the write lock.
+     *
+     * @param  vertex  vertex to be removed.
+     * @param  v       number of the vertex.
+     */
+    private void discard(Vertex vertex, int v) {
+        vertexList.set(v, null);
+        vertexIndices.remove(vertex);
+        vertexGrid.remove(vertex);
+        vertex.removePropertyChangeListener(componentListener);
+        removedSlots.set(v);
+        removedCount++;
+        removedRanks = null;
+    }
+
+    @Override
+    public Edge findEdge(Vertex source, Vertex target) {
+        Lock lock = readLock();
+        lock.lock();
+        try {
+            if (source == null || target == null || source == target) {
+                return null;
             }
+            int e = graph.findEdge(indexOf(source), indexOf(target));
+            return e == IntGraph.NONE ? null : edgeArray[e];
+        } finally {
+            lock.unlock();
         }
-        return null;
     }
 
     @Override
     public Vertex findVertex(int x, int y, int z) {
-        for (Vertex vertex : vertexList) {
-            if (vertex.contains(x, y, z)) {
-                return vertex;
+        Lock lock = readLock();
+        lock.lock();
+        try {
+            // Of the vertices containing the point, return the earliest.
+            Vertex result = null;
+            int least = Integer.MAX_VALUE;
+            for (Vertex vertex : vertexGrid.find(x, y)) {
+                int v = indexOf(vertex);
+                if (v < least && vertex.contains(x, y, z)) {
+                    result = vertex;
+                    least = v;
+                }
             }
+            return result;
+        } finally {
+            lock.unlock();
         }
-        return null;
     }
 
     @Override
-    public List<Edge> findAdjacentEdges(Vertex vertex, boolean directedOnly) {
-        List<Edge> result = new LinkedList<Edge>();
-        if (directedOnly) {
-            // Look for edges that contain a matching source vertex.
-            for (Edge edge : edgeList) {
-                if (edge.getSource().equals(vertex)) {
-                    result.add(edge);
+    public List<Vertex> findVertices(int x, int y, int width, int height) {
+        Lock lock = readLock();
+        lock.lock();
+        try {
+            List<Vertex> result = new ArrayList<Vertex>();
+            if (width < 0 || height < 0) {
+                return result;
+            }
+            int maxX = clamp((long) x + width);
+            int maxY = clamp((long) y + height);
+            for (Vertex vertex : vertexGrid.find(x, y, maxX, maxY)) {
+                // The index holds padded bounds, so check the actual box.
+                long vx = vertex.getX();
+                long vy = vertex.getY();
+                int hw = vertex.getWidth() / 2;
+                int hh = vertex.getHeight() / 2;
+                if (vx - hw <= maxX && vx + hw >= x
+                        && vy - hh <= maxY && vy + hh >= y) {
+                    result.add(vertex);
                 }
             }
-        } else {
-            // Look for edges that contain any matching vertex.
-            for (Edge edge : edgeList) {
-                if (edge.getSource().equals(vertex)) {
-                    result.add(edge);
-                } else if (edge.getTarget().equals(vertex)) {
-                    result.add(edge);
+            Collections.sort(result, new Comparator<Vertex>() {
+                @Override
+                public int compare(Vertex v1, Vertex v2) {
+                    return indexOf(v1) - indexOf(v2);
+                }
+            });
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Edge> findAdjacentEdges(Vertex vertex, boolean directedOnly) {
+        Lock lock = readLock();
+        lock.lock();
+        try {
+            List<Edge> result = new LinkedList<Edge>();
+            int v = indexOf(vertex);
+            if (v >= 0) {
+                // Every edge leaving the vertex, and every undirected edge
+                // connected to it, has an arc leaving the vertex. Only the
+                // even arcs run from the source of their edge.
+                for (int a = graph.getFirstOut(v); a != IntGraph.NONE;
+                        a = graph.getNextOut(a)) {
+                    if (!directedOnly || (a & 1) == 0) {
+                        result.add(edgeArray[IntGraph.edgeOf(a)]);
+                    }
+                }
+                if (!directedOnly) {
+                    // The remaining edges are the directed edges entering
+                    // the vertex.
+                    for (int a = graph.getFirstIn(v); a != IntGraph.NONE;
+                            a = graph.getNextIn(a)) {
+                        int e = IntGraph.edgeOf(a);
+                        if (graph.isDirected(e)) {
+                            result.add(edgeArray[e]);
+                        }
+                    }
                 }
             }
+            return result;
+        } finally {
+            lock.unlock();
         }
-        return result;
     }
 
     @Override
     public List<Vertex> findAdjacentVertices(Vertex vertex) {
-        List<Vertex> result = new LinkedList<Vertex>();
-        int index = vertexList.indexOf(vertex);
-        if (index >= 0) {
-            int[] list = adjacencies.get(index);
-            if (list != null) {
-                for (int ii : list) {
-                    result.add(vertexList.get(ii));
+        Lock lock = readLock();
+        lock.lock();
+        try {
+            List<Vertex> result = new LinkedList<Vertex>();
+            int v = indexOf(vertex);
+            if (v >= 0) {
+                for (int a = graph.getFirstOut(v); a != IntGraph.NONE;
+                        a = graph.getNextOut(a)) {
+                    result.add(vertexList.get(graph.getHead(a)));
                 }
             }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Edge> findIncomingEdges(Vertex vertex) {
+        Lock lock = readLock();
+        lock.lock();
+        try {
+            List<Edge> result = new LinkedList<Edge>();
+            int v = indexOf(vertex);
+            if (v >= 0) {
+                for (int a = graph.getFirstIn(v); a != IntGraph.NONE;
+                        a = graph.getNextIn(a)) {
+                    result.add(edgeArray[IntGraph.edgeOf(a)]);
+                }
+            }
+            return result;
+        } finally {
+            lock.unlock();
         }
-        return result;
     }
 
     @Override
     public List<Edge> getEdges() {
-        return Collections.unmodifiableList(edgeList);
+        return edgeView;
+    }
+
+    @Override
+    public int getInDegree(Vertex vertex) {
+        Lock lock = readLock();
+        lock.lock();
+        try {
+            int v = indexOf(vertex);
+            if (v == -1) {
+                throw new IllegalArgumentException("vertex not in model");
+            }
+            return graph.getInDegree(v);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getOutDegree(Vertex vertex) {
+        Lock lock = readLock();
+        lock.lock();
+        try {
+            int v = indexOf(vertex);
+            if (v == -1) {
+                throw new IllegalArgumentException("vertex not in model");
+            }
+            return graph.getOutDegree(v);
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
     public List<Vertex> getVertices() {
-        return Collections.unmodifiableList(vertexList);
+        return vertexView;
+    }
+
+    /**
+     * Records the bounds of the vertex in the spatial index. The bounds
+     * are padded to twice the size of the vertex, since the integer
+     * arithmetic in <code>Vertex.contains()</code> may accept points
+     * slightly outside of the bounding box.
+     *
+     * @param  vertex  vertex to be indexed.
+     */
+    private void indexBounds(Vertex vertex) {
+        // Compute in long and clamp, so that vertices near the limits
+        // of the coordinate space do not wrap around.
+        long x = vertex.getX();
+        long y = vertex.getY();
+        long w = Math.max(vertex.getWidth(), 0);
+        long h = Math.max(vertex.getHeight(), 0);
+        vertexGrid.put(vertex, clamp(x - w), clamp(y - h), clamp(x + w),
+                clamp(y + h));
+    }
+
+    /**
+     * Returns the number of the given vertex, using an identity
+     * comparison.
+     *
+     * @param  vertex  vertex to look up.
+     * @return  vertex number, or -1 if not in the model.
+     */
+    private int indexOf(Vertex vertex) {
+        Integer index = vertexIndices.get(vertex);
+        return index == null ? -1 : index.intValue();
     }
 
     @Override
@@ -251,109 +616,205 @@ public class DefaultModel extends AbstractModel {
         }
     }
 
+    @Override
+    public void removeAll(Collection<? extends Component> components) {
+        checkInTransaction();
+        if (components == null) {
+            throw new IllegalArgumentException("components must not be null");
+        }
+        Lock lock = writeLock();
+        lock.lock();
+        try {
+            // Validate everything before making any changes, collecting
+            // each component only once.
+            Map<Component, Boolean> seen =
+                    new IdentityHashMap<Component, Boolean>();
+            List<Vertex> vertices = new ArrayList<Vertex>();
+            List<Edge> edges = new ArrayList<Edge>();
+            for (Component component : components) {
+                if (component instanceof Vertex) {
+                    if (indexOf((Vertex) component) == -1) {
+                        throw new IllegalArgumentException(
+                                "vertex not in model");
+                    }
+                    if (seen.put(component, Boolean.TRUE) == null) {
+                        vertices.add((Vertex) component);
+                    }
+                } else if (component instanceof Edge) {
+                    Edge edge = (Edge) component;
+                    int s = indexOf(edge.getSource());
+                    int t = indexOf(edge.getTarget());
+                    int e = s == -1 || t == -1 ? IntGraph.NONE
+                            : graph.findEdge(s, t);
+                    if (e == IntGraph.NONE || edgeArray[e] != edge) {
+                        throw new IllegalArgumentException(
+                                "edge not in model");
+                    }
+                    if (seen.put(component, Boolean.TRUE) == null) {
+                        edges.add(edge);
+                    }
+                } else {
+                    throw new IllegalArgumentException(
+                            "not a vertex or edge: " + component);
+                }
+            }
+
+            // Include the edges connected to the vertices.
+            for (Vertex vertex : vertices) {
+                int v = indexOf(vertex);
+                for (int a = graph.getFirstOut(v); a != IntGraph.NONE;
+                        a = graph.getNextOut(a)) {
+                    Edge edge = edgeArray[IntGraph.edgeOf(a)];
+                    if (seen.put(edge, Boolean.TRUE) == null) {
+                        edges.add(edge);
+                    }
+                }
+                for (int a = graph.getFirstIn(v); a != IntGraph.NONE;
+                        a = graph.getNextIn(a)) {
+                    Edge edge = edgeArray[IntGraph.edgeOf(a)];
+                    if (seen.put(edge, Boolean.TRUE) == null) {
+                        edges.add(edge);
+                    }
+                }
+            }
+
+            Vertex[] oldVertices =
+                    vertices.toArray(new Vertex[vertices.size()]);
+            Edge[] oldEdges = edges.toArray(new Edge[edges.size()]);
+            removeAll(oldVertices, oldEdges);
+            if (oldVertices.length > 0 || oldEdges.length > 0) {
+                fireUndoableEdit(new BulkRemoveUndoableEdit(this,
+                        oldVertices, oldEdges));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
     /**
-     * Used to remove the relationship between to vertices.
+     * Removes the given vertices and edges in a single pass, firing a
+     * summary event for each kind of component. The edges must include
+     * all of those connected to the vertices. This is used to undo a
+     * bulk addition and to redo a bulk removal, and so does not post an
+     * undoable edit. Nothing is changed unless all of the components
+     * can be removed.
+     *
+     * <p><em>Running time: O(n + d) where n is the number of components
+     * and d the degree of the vertices, plus an occasional compaction
+     * as for <code>removeVertex()</code></em></p>
      *
-     * @param  source  starting vertex.
-     * @param  target  ending vertex.
+     * @param  vertices  vertices to be removed.
+     * @param  edges     edges to be removed.
+     * @throws  IllegalArgumentException
+     *          if a component is not in the model, or a vertex has an
+     *          edge that is not among those to be removed.
      */
-    protected void removeAdjacency(Vertex source, Vertex target) {
+    void removeAll(Vertex[] vertices, Edge[] edges) {
         checkInTransaction();
-        int si = vertexList.indexOf(source);
-        int ti = vertexList.indexOf(target);
-        if (si == -1 || ti == -1 || si >= adjacencies.size()) {
-            throw new IllegalStateException("vertices not in model");
-        }
-        // Get the adjlist for the source vertex.
-        int[] list = adjacencies.get(si);
-        if (list != null) {
-            int size = list.length;
-            if (size > 1) {
-                // If there is a list of more than one element then
-                // create a new list and copy over all the elements
-                // except the one pointing to the target vertex.
-                int[] newList = new int[size - 1];
-                int i = 0;
-                int j = 0;
-                // Loop through the old list...
-                while (j < size) {
-                    // If we don't have the element to be removed
-                    // then we must copy this one to the new array.
-                    // (i.e. we skip over the one to be removed)
-                    try {
-                        if (list[j] != ti) {
-                            newList[i] = list[j];
-                            i++;
-                        }
-                        j++;
-                    } catch (ArrayIndexOutOfBoundsException aioobe) {
-                        throw new IllegalStateException(
-                                "source vertex not in model", aioobe);
+        Lock lock = writeLock();
+        lock.lock();
+        try {
+            Map<Edge, Boolean> removing =
+                    new IdentityHashMap<Edge, Boolean>(edges.length);
+            for (Edge edge : edges) {
+                int s = indexOf(edge.getSource());
+                int t = indexOf(edge.getTarget());
+                int e = s == -1 || t == -1 ? IntGraph.NONE
+                        : graph.findEdge(s, t);
+                if (e == IntGraph.NONE || edgeArray[e] != edge) {
+                    throw new IllegalArgumentException("edge not in model");
+                }
+                removing.put(edge, Boolean.TRUE);
+            }
+            for (Vertex vertex : vertices) {
+                int v = indexOf(vertex);
+                if (v == -1) {
+                    throw new IllegalArgumentException("vertex not in model");
+                }
+                for (int a = graph.getFirstOut(v); a != IntGraph.NONE;
+                        a = graph.getNextOut(a)) {
+                    if (!removing.containsKey(edgeArray[IntGraph.edgeOf(a)])) {
+                        throw new IllegalArgumentException(
+                                "vertex must not have edges");
+                    }
+                }
+                for (int a = graph.getFirstIn(v); a != IntGraph.NONE;
+                        a = graph.getNextIn(a)) {
+                    if (!removing.containsKey(edgeArray[IntGraph.edgeOf(a)])) {
+                        throw new IllegalArgumentException(
+                                "vertex must not have edges");
                     }
                 }
-                // Save new array reference.
-                adjacencies.set(si, newList);
-            } else {
-                // List only has one element left, remove it.
-                adjacencies.set(si, null);
             }
+
+            for (Edge edge : edges) {
+                unlink(edge);
+            }
+            for (Vertex vertex : vertices) {
+                discard(vertex, indexOf(vertex));
+            }
+            compactIfSparse();
+            if (vertices.length > 0) {
+                fireModelEvent(new ModelEvent(this,
+                        ModelEventType.VERTEX_REMOVED, vertices));
+            }
+            if (edges.length > 0) {
+                fireModelEvent(new ModelEvent(this,
+                        ModelEventType.EDGE_REMOVED, edges));
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public void removeEdge(Edge edge) {
         checkInTransaction();
-        if (edge == null) {
-            throw new IllegalArgumentException("edge must not be null");
-        }
-        if (!edgeList.remove(edge)) {
-            throw new IllegalArgumentException("edge not in model");
-        }
-        // Remove the connections from the adjancency list.
-        Vertex source = edge.getSource();
-        Vertex target = edge.getTarget();
-        removeAdjacency(source, target);
-        if (!edge.isDirected()) {
-            removeAdjacency(target, source);
+        Lock lock = writeLock();
+        lock.lock();
+        try {
+            if (edge == null) {
+                throw new IllegalArgumentException("edge must not be null");
+            }
+            unlink(edge);
+            fireModelEvent(new ModelEvent(this, ModelEventType.EDGE_REMOVED,
+                    edge));
+            fireUndoableEdit(new EdgeRemoveUndoableEdit(this, edge));
+        } finally {
+            lock.unlock();
         }
-        fireModelEvent(new ModelEvent(this, ModelEventType.EDGE_REMOVED));
-        fireUndoableEdit(new EdgeRemoveUndoableEdit(this, edge));
     }
 
     @Override
     public void removeVertex(Vertex vertex) {
         checkInTransaction();
-        if (vertex == null) {
-            throw new IllegalArgumentException("vertex must not be null");
-        }
-        int idx = vertexList.indexOf(vertex);
-        if (idx == -1) {
-            throw new IllegalArgumentException("vertex not in model");
-        }
-        // First remove edges connected to this vertex.
-        List<Edge> el = findAdjacentEdges(vertex, false);
-        if (!el.isEmpty()) {
-            throw new IllegalArgumentException("vertex must not have edges");
-        }
-        // Next remove the vertex itself.
-        vertexList.remove(idx);
-        adjacencies.remove(idx);
-
-        // Need to adjust the table, now that a row is missing.
-        for (int[] list : adjacencies) {
-            // For each list of target vertices, look for any
-            // values greater than idx and decrement them.
-            if (list != null) {
-                int listSize = list.length;
-                for (int j = 0; j < listSize; j++) {
-                    if (list[j] > idx) {
-                        list[j]--;
-                    }
-                }
+        Lock lock = writeLock();
+        lock.lock();
+        try {
+            if (vertex == null) {
+                throw new IllegalArgumentException("vertex must not be null");
             }
+            int idx = indexOf(vertex);
+            if (idx == -1) {
+                throw new IllegalArgumentException("vertex not in model");
+            }
+            // The vertex must not have any edges connected to it.
+            if (graph.getFirstOut(idx) != IntGraph.NONE
+                    || graph.getFirstIn(idx) != IntGraph.NONE) {
+                throw new IllegalArgumentException(
+                        "vertex must not have edges");
+            }
+            // Leave the number of the vertex unused, rather than
+            // renumbering those that follow it, until enough vertices
+            // have been removed to make compacting worthwhile.
+            discard(vertex, idx);
+            compactIfSparse();
+            fireModelEvent(new ModelEvent(this,
+                    ModelEventType.VERTEX_REMOVED, vertex));
+            fireUndoableEdit(new VertexRemoveUndoableEdit(this, vertex));
+        } finally {
+            lock.unlock();
         }
-        fireModelEvent(new ModelEvent(this, ModelEventType.VERTEX_REMOVED));
-        fireUndoableEdit(new VertexRemoveUndoableEdit(this, vertex));
     }
 
     /**
@@ -368,4 +829,173 @@ public class DefaultModel extends AbstractModel {
             ErrorManager.getDefault().notify(ioe);
         }
     }
+
+    /**
+     * Removes the edge from the graph and the edge array.
+     *
+     * @param  edge  edge to be removed.
+     */
+    private void unlink(Edge edge) {
+        int e = graph.findEdge(indexOf(edge.getSource()),
+                indexOf(edge.getTarget()));
+        if (e == IntGraph.NONE || edgeArray[e] != edge) {
+            throw new IllegalArgumentException("edge not in model");
+        }
+        // The graph moves the last edge into the slot of the removed
+        // edge, so do the same with the edge objects.
+        int last = graph.getEdgeCount() - 1;
+        graph.removeEdge(e);
+        edgeArray[e] = edgeArray[last];
+        edgeArray[last] = null;
+        edge.removePropertyChangeListener(componentListener);
+    }
+
+    /**
+     * Records property changes of the vertices and edges for the change
+     * listeners, and updates the spatial index when a vertex moves or
+     * changes size.
+     */
+    private class ComponentListener implements PropertyChangeListener {
+
+        @Override
+        public void propertyChange(PropertyChangeEvent evt) {
+            String name = evt.getPropertyName();
+            fireComponentChanged((Component) evt.getSource(), name);
+            if (evt.getSource() instanceof Vertex
+                    && (Vertex.PROP_X.equals(name) || Vertex.PROP_Y.equals(name)
+                    || Vertex.PROP_WIDTH.equals(name)
+                    || Vertex.PROP_HEIGHT.equals(name))) {
+                Vertex vertex = (Vertex) evt.getSource();
+                Lock lock = writeLock();
+                lock.lock();
+                try {
+                    if (vertexGrid.contains(vertex)) {
+                        indexBounds(vertex);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * A read-only view of the vertex list that skips over the numbers
+     * of removed vertices.
+     */
+    private class VertexList extends AbstractList<Vertex> {
+
+        @Override
+        public Vertex get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException();
+            }
+            int[] ranks = removedRanks;
+            if (ranks == null) {
+                ranks = rankRemoved();
+            }
+            // Each removed number at or below the position shifts the
+            // vertex one place further along the list. The i-th removed
+            // number r is at or below it exactly when r - i <= index.
+            int low = 0;
+            int high = ranks.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (ranks[mid] <= index) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return vertexList.get(index + low);
+        }
+
+        @Override
+        public Iterator<Vertex> iterator() {
+            return new Iterator<Vertex>() {
+                /** Number of the next vertex to be returned. */
+                private int next = advance(0);
+
+                /**
+                 * Finds the first vertex at or after the given number.
+                 *
+                 * @param  v  vertex number.
+                 * @return  number of a vertex, or the list size.
+                 */
+                private int advance(int v) {
+                    int size = vertexList.size();
+                    while (v < size && vertexList.get(v) == null) {
+                        v++;
+                    }
+                    return v;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return next < vertexList.size();
+                }
+
+                @Override
+                public Vertex next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Vertex vertex = vertexList.get(next);
+                    next = advance(next + 1);
+                    return vertex;
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        /**
+         * Builds the table of removed vertex numbers used to find a
+         * vertex by its position in the list.
+         *
+         * <p><em>Running time: O(R) where R is the number of removed
+         * vertices</em></p>
+         *
+         * @return  the new table.
+         */
+        private int[] rankRemoved() {
+            int[] ranks = new int[removedSlots.cardinality()];
+            int i = 0;
+            for (int r = removedSlots.nextSetBit(0);
+                    r >= 0 && i < ranks.length;
+                    r = removedSlots.nextSetBit(r + 1)) {
+                ranks[i] = r - i;
+                i++;
+            }
+            removedRanks = ranks;
+            return ranks;
+        }
+
+        @Override
+        public int size() {
+            return vertexList.size() - removedCount;
+        }
+    }
+
+    /**
+     * A read-only view of the edge array.
+     */
+    private class EdgeList extends AbstractList<Edge> implements RandomAccess {
+
+        @Override
+        public Edge get(int index) {
+            if (index < 0 || index >= graph.getEdgeCount()) {
+                throw new IndexOutOfBoundsException();
+            }
+            return edgeArray[index];
+        }
+
+        @Override
+        public int size() {
+            return graph.getEdgeCount();
+        }
+    }
 }
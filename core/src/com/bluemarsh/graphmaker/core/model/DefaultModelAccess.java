@@ -55,6 +55,26 @@ public class DefaultModelAccess implements ModelAccess {
     public DefaultModelAccess() {
     }
 
+    /**
+     * Sets the model of each of the components of the given model.
+     *
+     * @param  model  model whose components are to be updated.
+     */
+    static void adopt(Model model) {
+        List<Edge> edges = model.getEdges();
+        for (Edge edge : edges) {
+            if (edge instanceof AbstractComponent) {
+                ((AbstractComponent) edge).setModel(model);
+            }
+        }
+        List<Vertex> vertices = model.getVertices();
+        for (Vertex vertex : vertices) {
+            if (vertex instanceof AbstractComponent) {
+                ((AbstractComponent) vertex).setModel(model);
+            }
+        }
+    }
+
     /**
      * Obtain an IntputStream from which the model can be read.
      *
@@ -124,18 +144,7 @@ public class DefaultModelAccess implements ModelAccess {
                 }
             });
             model = (Model) decoder.readObject();
-            List<Edge> edges = model.getEdges();
-            for (Edge edge : edges) {
-                if (edge instanceof AbstractComponent) {
-                    ((AbstractComponent) edge).setModel(model);
-                }
-            }
-            List<Vertex> vertices = model.getVertices();
-            for (Vertex vertex : vertices) {
-                if (vertex instanceof AbstractComponent) {
-                    ((AbstractComponent) vertex).setModel(model);
-                }
-            }
+            adopt(model);
         } finally {
             if (decoder != null) {
                 decoder.close();
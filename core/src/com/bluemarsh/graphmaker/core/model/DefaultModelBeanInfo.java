@@ -225,11 +225,16 @@ public class DefaultModelBeanInfo extends SimpleBeanInfo {
     /**
      * Persists the Bean to the XMLEncoder.
      */
-    private static class Persistent extends DefaultPersistenceDelegate {
+    static class Persistent extends DefaultPersistenceDelegate {
 
         protected void initialize(Class<?> type, Object oldInstance,
                 Object newInstance, Encoder out) {
             super.initialize(type, oldInstance, newInstance, out);
+            if (type != oldInstance.getClass()) {
+                // The encoder also initializes the superclasses of a
+                // subclass instance; the content is written just once.
+                return;
+            }
             DefaultModel model = (DefaultModel) oldInstance;
 
             out.writeStatement(new Statement(
@@ -22,6 +22,9 @@
  */
 package com.bluemarsh.graphmaker.core.model;
 
+import java.io.IOException;
+import java.util.Collection;
+
 /**
  * DefaultModelFactory creates instances of model classes using the default
  * implementations in the <code>com.bluemarsh.graphmaker.core.model</code>
@@ -52,6 +55,26 @@ public class DefaultModelFactory implements ModelFactory {
         return new DefaultModel();
     }
 
+    @Override
+    public Model createModel(Collection<? extends Vertex> vertices,
+            Collection<? extends Edge> edges) {
+        Model model = createModel();
+        model.startTransaction();
+        try {
+            model.addAll(vertices, edges);
+        } catch (RuntimeException re) {
+            model.cancelTransaction();
+            throw re;
+        }
+        try {
+            model.endTransaction();
+        } catch (IOException ioe) {
+            // A new model has no source to be written to.
+            throw new IllegalStateException(ioe);
+        }
+        return model;
+    }
+
     @Override
     public Vertex createVertex(int x, int y, int z, double cost) {
         Vertex v = new DefaultVertex();
@@ -50,9 +50,10 @@ public class DefaultVertex extends AbstractComponent implements Vertex {
 
     @Override
     public double computeDistance(Vertex v) {
-        return Math.sqrt(Math.pow(x - v.getX(), 2)
-                + Math.pow(y - v.getY(), 2)
-                + Math.pow(z - v.getZ(), 2));
+        double dx = x - v.getX();
+        double dy = y - v.getY();
+        double dz = z - v.getZ();
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
     }
 
     @Override
@@ -116,7 +117,7 @@ public class DefaultVertex extends AbstractComponent implements Vertex {
         if (depth > 0) {
             this.depth = depth;
         }
-        propSupport.firePropertyChange(PROP_DEPTH, old, depth);
+        firePropertyChange(PROP_DEPTH, old, depth);
     }
 
     @Override
@@ -125,7 +126,7 @@ public class DefaultVertex extends AbstractComponent implements Vertex {
         if (height > 0) {
             this.height = height;
         }
-        propSupport.firePropertyChange(PROP_HEIGHT, old, height);
+        firePropertyChange(PROP_HEIGHT, old, height);
     }
 
     @Override
@@ -134,27 +135,27 @@ public class DefaultVertex extends AbstractComponent implements Vertex {
         if (width > 0) {
             this.width = width;
         }
-        propSupport.firePropertyChange(PROP_WIDTH, old, width);
+        firePropertyChange(PROP_WIDTH, old, width);
     }
 
     @Override
     public void setX(int x) {
         int old = this.x;
         this.x = x;
-        propSupport.firePropertyChange(PROP_X, old, x);
+        firePropertyChange(PROP_X, old, x);
     }
 
     @Override
     public void setY(int y) {
         int old = this.y;
         this.y = y;
-        propSupport.firePropertyChange(PROP_Y, old, y);
+        firePropertyChange(PROP_Y, old, y);
     }
 
     @Override
     public void setZ(int z) {
         int old = this.z;
         this.z = z;
-        propSupport.firePropertyChange(PROP_Z, old, z);
+        firePropertyChange(PROP_Z, old, z);
     }
 }
@@ -22,8 +22,8 @@
  */
 package com.bluemarsh.graphmaker.core.model;
 
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 import javax.swing.undo.AbstractUndoableEdit;
 import javax.swing.undo.CannotRedoException;
@@ -36,14 +36,17 @@ import org.openide.util.NbBundle;
  *
  * @author Nathan Fiedler
  */
-public class EdgeAddUndoableEdit extends AbstractUndoableEdit {
+public class EdgeAddUndoableEdit extends AbstractUndoableEdit
+        implements MeasurableEdit {
 
     /** silence compiler warnings */
     private static final long serialVersionUID = 1L;
     /** The model on which to perform the operations. */
     private final Model model;
-    /** List of affected edges. */
-    private final List<Edge> edges;
+    /** The affected edges, in the first count elements. */
+    private Edge[] edges;
+    /** Number of affected edges. */
+    private int count;
 
     /**
      * Creates a new instance of EdgeAddUndoableEdit.
@@ -54,8 +57,8 @@ public class EdgeAddUndoableEdit extends AbstractUndoableEdit {
     public EdgeAddUndoableEdit(Model model, Edge edge) {
         super();
         this.model = model;
-        edges = new LinkedList<Edge>();
-        edges.add(edge);
+        edges = new Edge[] { edge };
+        count = 1;
     }
 
     @Override
@@ -63,7 +66,12 @@ public class EdgeAddUndoableEdit extends AbstractUndoableEdit {
         if (anEdit instanceof EdgeAddUndoableEdit) {
             EdgeAddUndoableEdit ue = (EdgeAddUndoableEdit) anEdit;
             if (model.equals(ue.getModel())) {
-                edges.addAll(ue.getEdges());
+                if (count + ue.count > edges.length) {
+                    edges = Arrays.copyOf(edges,
+                            Math.max(count + ue.count, count * 2));
+                }
+                System.arraycopy(ue.edges, 0, edges, count, ue.count);
+                count += ue.count;
                 ue.die();
                 return true;
             }
@@ -74,7 +82,8 @@ public class EdgeAddUndoableEdit extends AbstractUndoableEdit {
     @Override
     public void die() {
         super.die();
-        edges.clear();
+        edges = new Edge[0];
+        count = 0;
     }
 
     /**
@@ -83,7 +92,13 @@ public class EdgeAddUndoableEdit extends AbstractUndoableEdit {
      * @return  the edge list.
      */
     protected List<Edge> getEdges() {
-        return Collections.unmodifiableList(edges);
+        return Collections.unmodifiableList(
+                Arrays.asList(edges).subList(0, count));
+    }
+
+    @Override
+    public long getMemorySize() {
+        return 2 * OBJECT_OVERHEAD + REFERENCE_SIZE * (edges.length + 2);
     }
 
     /**
@@ -97,7 +112,7 @@ public class EdgeAddUndoableEdit extends AbstractUndoableEdit {
 
     @Override
     public String getPresentationName() {
-        if (edges.size() > 1) {
+        if (count > 1) {
             return NbBundle.getMessage(EdgeAddUndoableEdit.class,
                     "LBL_EdgeAddUndoableEdit_AddEdges");
         } else {
@@ -108,7 +123,7 @@ public class EdgeAddUndoableEdit extends AbstractUndoableEdit {
 
     @Override
     public String getRedoPresentationName() {
-        if (edges.size() > 1) {
+        if (count > 1) {
             return NbBundle.getMessage(EdgeAddUndoableEdit.class,
                     "LBL_EdgeAddUndoableEdit_RedoAddEdges");
         } else {
@@ -119,7 +134,7 @@ public class EdgeAddUndoableEdit extends AbstractUndoableEdit {
 
     @Override
     public String getUndoPresentationName() {
-        if (edges.size() > 1) {
+        if (count > 1) {
             return NbBundle.getMessage(EdgeAddUndoableEdit.class,
                     "LBL_EdgeAddUndoableEdit_UndoAddEdges");
         } else {
@@ -130,16 +145,16 @@ public class EdgeAddUndoableEdit extends AbstractUndoableEdit {
 
     @Override
     public void redo() throws CannotRedoException {
-        for (Edge edge : edges) {
-            model.addEdge(edge);
+        for (int ii = 0; ii < count; ii++) {
+            model.addEdge(edges[ii]);
         }
         super.redo();
     }
 
     @Override
     public void undo() throws CannotUndoException {
-        for (Edge edge : edges) {
-            model.removeEdge(edge);
+        for (int ii = 0; ii < count; ii++) {
+            model.removeEdge(edges[ii]);
         }
         super.undo();
     }
@@ -22,8 +22,8 @@
  */
 package com.bluemarsh.graphmaker.core.model;
 
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 import javax.swing.undo.AbstractUndoableEdit;
 import javax.swing.undo.CannotRedoException;
@@ -36,14 +36,20 @@ import org.openide.util.NbBundle;
  *
  * @author Nathan Fiedler
  */
-public class EdgeRemoveUndoableEdit extends AbstractUndoableEdit {
+public class EdgeRemoveUndoableEdit extends AbstractUndoableEdit
+        implements MeasurableEdit {
 
     /** silence compiler warnings */
     private static final long serialVersionUID = 1L;
     /** The model on which to perform the operations. */
     private Model model;
-    /** List of affected edges. */
-    private List<Edge> edges;
+    /** The affected edges, in the first count elements. */
+    private Edge[] edges;
+    /** Number of affected edges. */
+    private int count;
+    /** Estimated size of the affected edges, which are held only by
+     * this edit once removed. */
+    private long componentSize;
 
     /**
      * Creates a new instance of EdgeRemoveUndoableEdit.
@@ -54,8 +60,9 @@ public class EdgeRemoveUndoableEdit extends AbstractUndoableEdit {
     public EdgeRemoveUndoableEdit(Model model, Edge edge) {
         super();
         this.model = model;
-        edges = new LinkedList<Edge>();
-        edges.add(edge);
+        edges = new Edge[] { edge };
+        count = 1;
+        componentSize = ModelUndoManager.getMemorySize(edge);
     }
 
     @Override
@@ -63,7 +70,13 @@ public class EdgeRemoveUndoableEdit extends AbstractUndoableEdit {
         if (anEdit instanceof EdgeRemoveUndoableEdit) {
             EdgeRemoveUndoableEdit ue = (EdgeRemoveUndoableEdit) anEdit;
             if (model.equals(ue.getModel())) {
-                edges.addAll(ue.getEdges());
+                if (count + ue.count > edges.length) {
+                    edges = Arrays.copyOf(edges,
+                            Math.max(count + ue.count, count * 2));
+                }
+                System.arraycopy(ue.edges, 0, edges, count, ue.count);
+                count += ue.count;
+                componentSize += ue.componentSize;
                 ue.die();
                 return true;
             }
@@ -74,7 +87,9 @@ public class EdgeRemoveUndoableEdit extends AbstractUndoableEdit {
     @Override
     public void die() {
         super.die();
-        edges.clear();
+        edges = new Edge[0];
+        count = 0;
+        componentSize = 0;
     }
 
     /**
@@ -83,7 +98,14 @@ public class EdgeRemoveUndoableEdit extends AbstractUndoableEdit {
      * @return  the edge list.
      */
     protected List<Edge> getEdges() {
-        return Collections.unmodifiableList(edges);
+        return Collections.unmodifiableList(
+                Arrays.asList(edges).subList(0, count));
+    }
+
+    @Override
+    public long getMemorySize() {
+        return 2 * OBJECT_OVERHEAD + REFERENCE_SIZE * (edges.length + 3)
+                + componentSize;
     }
 
     /**
@@ -97,7 +119,7 @@ public class EdgeRemoveUndoableEdit extends AbstractUndoableEdit {
 
     @Override
     public String getPresentationName() {
-        if (edges.size() > 1) {
+        if (count > 1) {
             return NbBundle.getMessage(EdgeRemoveUndoableEdit.class,
                     "LBL_EdgeRemoveUndoableEdit_RemoveEdges");
         } else {
@@ -108,7 +130,7 @@ public class EdgeRemoveUndoableEdit extends AbstractUndoableEdit {
 
     @Override
     public String getRedoPresentationName() {
-        if (edges.size() > 1) {
+        if (count > 1) {
             return NbBundle.getMessage(EdgeRemoveUndoableEdit.class,
                     "LBL_EdgeRemoveUndoableEdit_RedoRemoveEdges");
         } else {
@@ -119,7 +141,7 @@ public class EdgeRemoveUndoableEdit extends AbstractUndoableEdit {
 
     @Override
     public String getUndoPresentationName() {
-        if (edges.size() > 1) {
+        if (count > 1) {
             return NbBundle.getMessage(EdgeRemoveUndoableEdit.class,
                     "LBL_EdgeRemoveUndoableEdit_UndoRemoveEdges");
         } else {
@@ -130,16 +152,16 @@ public class EdgeRemoveUndoableEdit extends AbstractUndoableEdit {
 
     @Override
     public void redo() throws CannotRedoException {
-        for (Edge edge : edges) {
-            model.removeEdge(edge);
+        for (int ii = 0; ii < count; ii++) {
+            model.removeEdge(edges[ii]);
         }
         super.redo();
     }
 
     @Override
     public void undo() throws CannotUndoException {
-        for (Edge edge : edges) {
-            model.addEdge(edge);
+        for (int ii = 0; ii < count; ii++) {
+            model.addEdge(edges[ii]);
         }
         super.undo();
     }
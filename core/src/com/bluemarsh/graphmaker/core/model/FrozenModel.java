@@ -0,0 +1,420 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable, compact snapshot of the vertices and edges of a model,
+ * intended for read-only analysis. The adjacency is stored in compressed
+ * sparse row form: the arcs leaving vertex <code>v</code> occupy the
+ * range <code>getArcStart(v)</code> (inclusive) to <code>getArcEnd(v)</code>
+ * (exclusive), and for each arc the target vertex, the edge, and the edge
+ * cost are held in parallel primitive arrays. An undirected edge yields
+ * an arc in each direction.
+ *
+ * <p>Vertices and edges are identified by their ordinal, which is their
+ * position in the lists returned by the model at the time the snapshot
+ * was taken. The ordinals can be mapped back to the original objects
+ * using <code>getVertex()</code> and <code>getEdge()</code>.</p>
+ *
+ * <p>Because the snapshot never changes, it may be shared freely among
+ * threads. Changes made to the model after the snapshot was taken,
+ * including changes to the cost of a component, are not reflected.
+ * A snapshot published by a model carries the version of the model
+ * from which it was taken.</p>
+ *
+ * @author  Nathan Fiedler
+ */
+public final class FrozenModel {
+
+    /** The vertices, indexed by ordinal. */
+    private final Vertex[] vertices;
+    /** The edges, indexed by ordinal. */
+    private final Edge[] edges;
+    /** Maps each vertex (by identity) to its ordinal. */
+    private final Map<Vertex, Integer> vertexOrdinals;
+    /** Cost of each vertex, indexed by vertex ordinal. */
+    private final double[] vertexCosts;
+    /** Source vertex ordinal of each edge. */
+    private final int[] edgeSources;
+    /** Target vertex ordinal of each edge. */
+    private final int[] edgeTargets;
+    /** Cost of each edge, indexed by edge ordinal. */
+    private final double[] edgeCosts;
+    /** True for each edge that is directed. */
+    private final boolean[] edgeDirected;
+    /** Offset of the first arc of each vertex; one longer than the
+     * number of vertices so the last entry marks the end of the arcs. */
+    private final int[] arcOffsets;
+    /** Target vertex ordinal of each arc. */
+    private final int[] arcTargets;
+    /** Edge ordinal of each arc. */
+    private final int[] arcEdges;
+    /** Cost of the edge of each arc. */
+    private final double[] arcCosts;
+    /** Version of the model from which the snapshot was taken. */
+    private final long version;
+
+    /**
+     * Creates a new instance of FrozenModel from the given vertices and
+     * edges. The endpoints of every edge must appear in the vertex list.
+     *
+     * @param  vertexList  vertices of the model.
+     * @param  edgeList    edges of the model.
+     * @throws  IllegalArgumentException
+     *          if an edge refers to a vertex not in the vertex list.
+     */
+    public FrozenModel(List<Vertex> vertexList, List<Edge> edgeList) {
+        this(vertexList, edgeList, 0);
+    }
+
+    /**
+     * Creates a new instance of FrozenModel from the given vertices and
+     * edges, taken from the given version of a model. The endpoints of
+     * every edge must appear in the vertex list.
+     *
+     * @param  vertexList  vertices of the model.
+     * @param  edgeList    edges of the model.
+     * @param  version     version of the model.
+     * @throws  IllegalArgumentException
+     *          if an edge refers to a vertex not in the vertex list.
+     */
+    public FrozenModel(List<Vertex> vertexList, List<Edge> edgeList,
+            long version) {
+        this.version = version;
+        int vcount = vertexList.size();
+        int ecount = edgeList.size();
+        vertices = vertexList.toArray(new Vertex[vcount]);
+        edges = edgeList.toArray(new Edge[ecount]);
+        vertexOrdinals = new IdentityHashMap<Vertex, Integer>(vcount);
+        vertexCosts = new double[vcount];
+        for (int ii = 0; ii < vcount; ii++) {
+            vertexOrdinals.put(vertices[ii], ii);
+            vertexCosts[ii] = vertices[ii].getCost();
+        }
+
+        // Resolve the edge endpoints and count the arcs for each vertex.
+        edgeSources = new int[ecount];
+        edgeTargets = new int[ecount];
+        edgeCosts = new double[ecount];
+        edgeDirected = new boolean[ecount];
+        arcOffsets = new int[vcount + 1];
+        int arcCount = 0;
+        for (int ii = 0; ii < ecount; ii++) {
+            Edge edge = edges[ii];
+            int s = ordinalOf(edge.getSource());
+            int t = ordinalOf(edge.getTarget());
+            edgeSources[ii] = s;
+            edgeTargets[ii] = t;
+            edgeCosts[ii] = edge.getCost();
+            edgeDirected[ii] = edge.isDirected();
+            arcOffsets[s + 1]++;
+            arcCount++;
+            if (!edgeDirected[ii]) {
+                arcOffsets[t + 1]++;
+                arcCount++;
+            }
+        }
+        for (int ii = 0; ii < vcount; ii++) {
+            arcOffsets[ii + 1] += arcOffsets[ii];
+        }
+
+        // Fill in the arcs, using a cursor for each vertex that starts at
+        // its offset and advances as arcs are added.
+        arcTargets = new int[arcCount];
+        arcEdges = new int[arcCount];
+        arcCosts = new double[arcCount];
+        int[] cursor = new int[vcount];
+        System.arraycopy(arcOffsets, 0, cursor, 0, vcount);
+        for (int ii = 0; ii < ecount; ii++) {
+            int s = edgeSources[ii];
+            int t = edgeTargets[ii];
+            int arc = cursor[s]++;
+            arcTargets[arc] = t;
+            arcEdges[arc] = ii;
+            arcCosts[arc] = edgeCosts[ii];
+            if (!edgeDirected[ii]) {
+                arc = cursor[t]++;
+                arcTargets[arc] = s;
+                arcEdges[arc] = ii;
+                arcCosts[arc] = edgeCosts[ii];
+            }
+        }
+    }
+
+    /**
+     * Creates a new instance of FrozenModel that shares the contents of
+     * the given snapshot, but is labeled with another version.
+     *
+     * @param  other    snapshot whose contents are shared.
+     * @param  version  version of the model.
+     */
+    private FrozenModel(FrozenModel other, long version) {
+        this.version = version;
+        vertices = other.vertices;
+        edges = other.edges;
+        vertexOrdinals = other.vertexOrdinals;
+        vertexCosts = other.vertexCosts;
+        edgeSources = other.edgeSources;
+        edgeTargets = other.edgeTargets;
+        edgeCosts = other.edgeCosts;
+        edgeDirected = other.edgeDirected;
+        arcOffsets = other.arcOffsets;
+        arcTargets = other.arcTargets;
+        arcEdges = other.arcEdges;
+        arcCosts = other.arcCosts;
+    }
+
+    /**
+     * Returns the ordinal of the given vertex, throwing an exception if
+     * the vertex is not part of this snapshot.
+     *
+     * @param  vertex  vertex to look up.
+     * @return  vertex ordinal.
+     */
+    private int ordinalOf(Vertex vertex) {
+        Integer ordinal = vertexOrdinals.get(vertex);
+        if (ordinal == null) {
+            throw new IllegalArgumentException("edge vertex not in model");
+        }
+        return ordinal.intValue();
+    }
+
+    /**
+     * Returns the total number of arcs, which is the number of directed
+     * edges plus twice the number of undirected edges.
+     *
+     * @return  number of arcs.
+     */
+    public int getArcCount() {
+        return arcTargets.length;
+    }
+
+    /**
+     * Returns the cost of the edge that the given arc represents.
+     *
+     * @param  arc  arc offset.
+     * @return  edge cost.
+     */
+    public double getArcCost(int arc) {
+        return arcCosts[arc];
+    }
+
+    /**
+     * Returns the ordinal of the edge that the given arc represents.
+     *
+     * @param  arc  arc offset.
+     * @return  edge ordinal.
+     */
+    public int getArcEdge(int arc) {
+        return arcEdges[arc];
+    }
+
+    /**
+     * Returns the offset just past the last arc leaving the given vertex.
+     *
+     * @param  vertex  vertex ordinal.
+     * @return  end of the arcs (exclusive).
+     */
+    public int getArcEnd(int vertex) {
+        return arcOffsets[vertex + 1];
+    }
+
+    /**
+     * Returns the offset of the first arc leaving the given vertex.
+     *
+     * @param  vertex  vertex ordinal.
+     * @return  start of the arcs (inclusive).
+     */
+    public int getArcStart(int vertex) {
+        return arcOffsets[vertex];
+    }
+
+    /**
+     * Returns the ordinal of the vertex at which the given arc ends.
+     *
+     * @param  arc  arc offset.
+     * @return  target vertex ordinal.
+     */
+    public int getArcTarget(int arc) {
+        return arcTargets[arc];
+    }
+
+    /**
+     * Returns the edge with the given ordinal.
+     *
+     * @param  edge  edge ordinal.
+     * @return  edge object.
+     */
+    public Edge getEdge(int edge) {
+        return edges[edge];
+    }
+
+    /**
+     * Returns the cost of the given edge, as of the time the snapshot
+     * was taken.
+     *
+     * @param  edge  edge ordinal.
+     * @return  edge cost.
+     */
+    public double getEdgeCost(int edge) {
+        return edgeCosts[edge];
+    }
+
+    /**
+     * Returns the edges in the snapshot, in order of their ordinals.
+     *
+     * @return  unmodifiable list of edges.
+     */
+    public List<Edge> getEdges() {
+        return Collections.unmodifiableList(Arrays.asList(edges));
+    }
+
+    /**
+     * Returns the number of edges in the snapshot.
+     *
+     * @return  number of edges.
+     */
+    public int getEdgeCount() {
+        return edges.length;
+    }
+
+    /**
+     * Returns the ordinal of the source vertex of the given edge.
+     *
+     * @param  edge  edge ordinal.
+     * @return  source vertex ordinal.
+     */
+    public int getEdgeSource(int edge) {
+        return edgeSources[edge];
+    }
+
+    /**
+     * Returns the ordinal of the target vertex of the given edge.
+     *
+     * @param  edge  edge ordinal.
+     * @return  target vertex ordinal.
+     */
+    public int getEdgeTarget(int edge) {
+        return edgeTargets[edge];
+    }
+
+    /**
+     * Returns the number of arcs leaving the given vertex.
+     *
+     * @param  vertex  vertex ordinal.
+     * @return  out degree of vertex.
+     */
+    public int getOutDegree(int vertex) {
+        return arcOffsets[vertex + 1] - arcOffsets[vertex];
+    }
+
+    /**
+     * Returns the vertex with the given ordinal.
+     *
+     * @param  vertex  vertex ordinal.
+     * @return  vertex object.
+     */
+    public Vertex getVertex(int vertex) {
+        return vertices[vertex];
+    }
+
+    /**
+     * Returns the cost of the given vertex, as of the time the snapshot
+     * was taken.
+     *
+     * @param  vertex  vertex ordinal.
+     * @return  vertex cost.
+     */
+    public double getVertexCost(int vertex) {
+        return vertexCosts[vertex];
+    }
+
+    /**
+     * Returns the number of vertices in the snapshot.
+     *
+     * @return  number of vertices.
+     */
+    public int getVertexCount() {
+        return vertices.length;
+    }
+
+    /**
+     * Returns the version of the model from which the snapshot was
+     * taken, or zero if the snapshot was not published by a model.
+     *
+     * @return  model version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the vertices in the snapshot, in order of their ordinals.
+     *
+     * @return  unmodifiable list of vertices.
+     */
+    public List<Vertex> getVertices() {
+        return Collections.unmodifiableList(Arrays.asList(vertices));
+    }
+
+    /**
+     * Returns the ordinal of the given vertex.
+     *
+     * @param  vertex  vertex to look up.
+     * @return  vertex ordinal, or -1 if not in the snapshot.
+     */
+    public int indexOf(Vertex vertex) {
+        Integer ordinal = vertexOrdinals.get(vertex);
+        return ordinal == null ? -1 : ordinal.intValue();
+    }
+
+    /**
+     * Indicates if the given edge is directed.
+     *
+     * @param  edge  edge ordinal.
+     * @return  true if directed, false otherwise.
+     */
+    public boolean isEdgeDirected(int edge) {
+        return edgeDirected[edge];
+    }
+
+    /**
+     * Returns a snapshot with the same contents as this one, labeled with
+     * the given version. This is used when the model has changed only in
+     * ways that a snapshot does not capture.
+     *
+     * <p><em>Running time: O(1)</em></p>
+     *
+     * @param  ver  version of the model.
+     * @return  snapshot of the given version.
+     */
+    FrozenModel withVersion(long ver) {
+        return ver == version ? this : new FrozenModel(this, ver);
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.model;
+
+import java.util.Collection;
+
+/**
+ * Utility methods for computing the geometry of many vertices or edges
+ * at once. Each method copies the coordinates into primitive arrays and
+ * then computes the results in a single loop over those arrays, writing
+ * them to an array supplied by the caller. The results are the same as
+ * calling the <code>computeDistance()</code>, <code>computeLength()</code>
+ * or <code>computeAngle()</code> method of each component.
+ *
+ * <p>Callers that already hold the coordinates in arrays may pass them to
+ * the array forms directly, and callers holding a <code>FrozenModel</code>
+ * may measure all of its edges by ordinal, reading each vertex only
+ * once.</p>
+ *
+ * @author Nathan Fiedler
+ */
+public class Geometry {
+
+    /**
+     * Creates a new instance of Geometry.
+     */
+    private Geometry() {
+    }
+
+    /**
+     * Computes the angle of each of the given edges, in radians from 0
+     * to 2&pi;, measured counter-clockwise on the screen from the
+     * positive x axis.
+     *
+     * @param  edges   edges to measure.
+     * @param  angles  receives the angle of each edge, in the same order.
+     * @throws  IllegalArgumentException
+     *          if angles is shorter than the number of edges.
+     */
+    public static void computeAngles(Collection<? extends Edge> edges,
+            double[] angles) {
+        int n = edges.size();
+        checkLength(n, angles);
+        int[] coords = new int[n * 4];
+        int j = 0;
+        for (Edge e : edges) {
+            Vertex s = e.getSource();
+            Vertex t = e.getTarget();
+            coords[j++] = s.getX();
+            coords[j++] = s.getY();
+            coords[j++] = t.getX();
+            coords[j++] = t.getY();
+        }
+        computeAngles(coords, angles, n);
+    }
+
+    /**
+     * Computes the angle of each edge of the given snapshot, as with
+     * <code>computeAngles(Collection, double[])</code>.
+     *
+     * @param  graph   snapshot whose edges are to be measured.
+     * @param  angles  receives the angle of each edge, indexed by the
+     *                 edge ordinal.
+     * @throws  IllegalArgumentException
+     *          if angles is shorter than the number of edges.
+     */
+    public static void computeAngles(FrozenModel graph, double[] angles) {
+        int n = graph.getEdgeCount();
+        checkLength(n, angles);
+        int count = graph.getVertexCount();
+        int[] xs = new int[count];
+        int[] ys = new int[count];
+        for (int v = 0; v < count; v++) {
+            Vertex vertex = graph.getVertex(v);
+            xs[v] = vertex.getX();
+            ys[v] = vertex.getY();
+        }
+        int[] coords = new int[n * 4];
+        for (int e = 0, j = 0; e < n; e++) {
+            int s = graph.getEdgeSource(e);
+            int t = graph.getEdgeTarget(e);
+            coords[j++] = xs[s];
+            coords[j++] = ys[s];
+            coords[j++] = xs[t];
+            coords[j++] = ys[t];
+        }
+        computeAngles(coords, angles, n);
+    }
+
+    /**
+     * Computes the angles of edges whose endpoints are packed in the given
+     * array as <code>sx, sy, tx, ty</code> for each edge.
+     *
+     * @param  coords  packed endpoint coordinates.
+     * @param  angles  receives the angle of each edge.
+     * @param  n       number of edges.
+     * @throws  IllegalArgumentException
+     *          if either array is too short for n edges.
+     */
+    public static void computeAngles(int[] coords, double[] angles, int n) {
+        checkLength(n, angles);
+        checkCoordinates(n * 4, coords);
+        double twoPi = 2 * Math.PI;
+        for (int i = 0, j = 0; i < n; i++, j += 4) {
+            // Subtract y coordinates in reverse order from normal
+            // as the screen coordinate system is flipped along the
+            // x-axis from the Cartesian coordinate system.
+            double angle = Math.atan2(coords[j + 1] - coords[j + 3],
+                    coords[j + 2] - coords[j]);
+            angles[i] = angle < 0 ? angle + twoPi : angle;
+        }
+    }
+
+    /**
+     * Computes the distance from the origin vertex to each of the given
+     * vertices.
+     *
+     * @param  origin     vertex from which to measure.
+     * @param  vertices   vertices to measure.
+     * @param  distances  receives the distance to each vertex, in the
+     *                    same order.
+     * @throws  IllegalArgumentException
+     *          if distances is shorter than the number of vertices.
+     */
+    public static void computeDistances(Vertex origin,
+            Collection<? extends Vertex> vertices, double[] distances) {
+        int n = vertices.size();
+        checkLength(n, distances);
+        int[] xs = new int[n];
+        int[] ys = new int[n];
+        int[] zs = new int[n];
+        int i = 0;
+        for (Vertex v : vertices) {
+            xs[i] = v.getX();
+            ys[i] = v.getY();
+            zs[i] = v.getZ();
+            i++;
+        }
+        computeDistances(origin.getX(), origin.getY(), origin.getZ(),
+                xs, ys, zs, distances, n);
+    }
+
+    /**
+     * Computes the distance from a point to each of the points given
+     * in the coordinate arrays.
+     *
+     * @param  ox         x position of the origin.
+     * @param  oy         y position of the origin.
+     * @param  oz         z position of the origin.
+     * @param  xs         x positions of the points.
+     * @param  ys         y positions of the points.
+     * @param  zs         z positions of the points.
+     * @param  distances  receives the distance to each point.
+     * @param  n          number of points.
+     * @throws  IllegalArgumentException
+     *          if any array is too short for n points.
+     */
+    public static void computeDistances(int ox, int oy, int oz, int[] xs,
+            int[] ys, int[] zs, double[] distances, int n) {
+        checkLength(n, distances);
+        checkCoordinates(n, xs);
+        checkCoordinates(n, ys);
+        checkCoordinates(n, zs);
+        for (int i = 0; i < n; i++) {
+            double dx = xs[i] - ox;
+            double dy = ys[i] - oy;
+            double dz = zs[i] - oz;
+            distances[i] = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        }
+    }
+
+    /**
+     * Computes the length of each of the given edges, which is the
+     * distance between the source and target vertices.
+     *
+     * @param  edges    edges to measure.
+     * @param  lengths  receives the length of each edge, in the same order.
+     * @throws  IllegalArgumentException
+     *          if lengths is shorter than the number of edges.
+     */
+    public static void computeLengths(Collection<? extends Edge> edges,
+            double[] lengths) {
+        int n = edges.size();
+        checkLength(n, lengths);
+        int[] dxyz = new int[n * 3];
+        int j = 0;
+        for (Edge e : edges) {
+            Vertex s = e.getSource();
+            Vertex t = e.getTarget();
+            dxyz[j++] = s.getX() - t.getX();
+            dxyz[j++] = s.getY() - t.getY();
+            dxyz[j++] = s.getZ() - t.getZ();
+        }
+        computeLengths(dxyz, lengths, n);
+    }
+
+    /**
+     * Computes the length of each edge of the given snapshot, as with
+     * <code>computeLengths(Collection, double[])</code>.
+     *
+     * @param  graph    snapshot whose edges are to be measured.
+     * @param  lengths  receives the length of each edge, indexed by the
+     *                  edge ordinal.
+     * @throws  IllegalArgumentException
+     *          if lengths is shorter than the number of edges.
+     */
+    public static void computeLengths(FrozenModel graph, double[] lengths) {
+        int n = graph.getEdgeCount();
+        checkLength(n, lengths);
+        int count = graph.getVertexCount();
+        int[] xs = new int[count];
+        int[] ys = new int[count];
+        int[] zs = new int[count];
+        for (int v = 0; v < count; v++) {
+            Vertex vertex = graph.getVertex(v);
+            xs[v] = vertex.getX();
+            ys[v] = vertex.getY();
+            zs[v] = vertex.getZ();
+        }
+        int[] dxyz = new int[n * 3];
+        for (int e = 0, j = 0; e < n; e++) {
+            int s = graph.getEdgeSource(e);
+            int t = graph.getEdgeTarget(e);
+            dxyz[j++] = xs[s] - xs[t];
+            dxyz[j++] = ys[s] - ys[t];
+            dxyz[j++] = zs[s] - zs[t];
+        }
+        computeLengths(dxyz, lengths, n);
+    }
+
+    /**
+     * Computes the lengths of edges whose coordinate differences are
+     * packed in the given array as <code>dx, dy, dz</code> for each edge.
+     *
+     * @param  dxyz     packed coordinate differences.
+     * @param  lengths  receives the length of each edge.
+     * @param  n        number of edges.
+     * @throws  IllegalArgumentException
+     *          if either array is too short for n edges.
+     */
+    public static void computeLengths(int[] dxyz, double[] lengths, int n) {
+        checkLength(n, lengths);
+        checkCoordinates(n * 3, dxyz);
+        for (int i = 0, j = 0; i < n; i++, j += 3) {
+            double dx = dxyz[j];
+            double dy = dxyz[j + 1];
+            double dz = dxyz[j + 2];
+            lengths[i] = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        }
+    }
+
+    /**
+     * Ensures the coordinate array holds the given number of values.
+     *
+     * @param  n       number of coordinates needed.
+     * @param  coords  array of coordinates.
+     */
+    private static void checkCoordinates(int n, int[] coords) {
+        if (coords.length < n) {
+            throw new IllegalArgumentException("coordinate array too short: "
+                    + coords.length + " < " + n);
+        }
+    }
+
+    /**
+     * Ensures the results array can hold the given number of values.
+     *
+     * @param  n        number of results.
+     * @param  results  array to receive the results.
+     */
+    private static void checkLength(int n, double[] results) {
+        if (results.length < n) {
+            throw new IllegalArgumentException("results array too short: "
+                    + results.length + " < " + n);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Applies mutations submitted by many threads to a model, grouping as
+ * many of them as are waiting (up to a limit) into a single transaction.
+ * Compared with each thread running its own small transaction, this
+ * hands off the transaction lock, fires the model events and posts the
+ * undoable edit once per group rather than once per change.
+ *
+ * <p>Each submission receives a Future that is completed after the
+ * transaction containing it has ended, with either the result of the
+ * mutation or the exception it threw. A failed mutation does not affect
+ * the others in its group: the transaction is rolled back, the
+ * mutations before the failed one are applied again and committed, and
+ * the remainder form the next group. Should the transaction itself fail
+ * to start or end, every mutation in the group fails with that
+ * exception.</p>
+ *
+ * <p>Groups are applied by a task run on the given Executor, with at
+ * most one such task at a time.</p>
+ *
+ * @author  Nathan Fiedler
+ */
+public class GroupCommitter {
+    /** Default for the largest number of mutations in one group. */
+    public static final int DEFAULT_GROUP_SIZE = 256;
+    /** Does nothing, used to construct the submissions. */
+    private static final Runnable NOTHING = new Runnable() {
+        @Override
+        public void run() {
+        }
+    };
+    /** The model to be changed. */
+    private final Model model;
+    /** Runs the committer task. */
+    private final Executor executor;
+    /** Largest number of mutations in one group. */
+    private final int groupSize;
+    /** Submissions waiting to be applied. */
+    private final Queue<Submission<?>> queue;
+    /** True if a committer task has been submitted and not finished. */
+    private final AtomicBoolean scheduled;
+    /** Applies the waiting submissions. */
+    private final Runnable committer;
+
+    /**
+     * Creates a new instance of GroupCommitter.
+     *
+     * @param  model     the model to be changed.
+     * @param  executor  runs the task that applies the mutations.
+     */
+    public GroupCommitter(Model model, Executor executor) {
+        this(model, executor, DEFAULT_GROUP_SIZE);
+    }
+
+    /**
+     * Creates a new instance of GroupCommitter.
+     *
+     * @param  model      the model to be changed.
+     * @param  executor   runs the task that applies the mutations.
+     * @param  groupSize  largest number of mutations in one transaction.
+     */
+    public GroupCommitter(Model model, Executor executor, int groupSize) {
+        if (model == null) {
+            throw new IllegalArgumentException("model must not be null");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("executor must not be null");
+        }
+        if (groupSize < 1) {
+            throw new IllegalArgumentException("groupSize must be positive");
+        }
+        this.model = model;
+        this.executor = executor;
+        this.groupSize = groupSize;
+        queue = new ConcurrentLinkedQueue<Submission<?>>();
+        scheduled = new AtomicBoolean();
+        committer = new Runnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+        };
+    }
+
+    /**
+     * Applies the given submissions in one transaction. If one of them
+     * fails, the transaction is cancelled, the failed submission is
+     * completed with its exception, and the submissions preceding it
+     * are committed without it. If the transaction cannot be started,
+     * cancelled or ended, every submission in the group fails.
+     *
+     * @param  group  submissions to be applied.
+     * @return  number of submissions processed, including the failed
+     *          one, if any; the rest are to be applied later.
+     */
+    private int commit(List<Submission<?>> group) {
+        int size = group.size();
+        try {
+            model.startTransaction();
+        } catch (RuntimeException re) {
+            fail(group, re);
+            return size;
+        }
+        for (int ii = 0; ii < size; ii++) {
+            try {
+                group.get(ii).apply(model);
+            } catch (Throwable t) {
+                group.get(ii).fail(t);
+                try {
+                    model.cancelTransaction();
+                } catch (RuntimeException re) {
+                    // The model may not have been restored, so the
+                    // other mutations cannot be applied again.
+                    fail(group, re);
+                    return size;
+                }
+                // The mutations before the failure succeeded on this
+                // state of the model, and are expected to do so again.
+                List<Submission<?>> prefix = group.subList(0, ii);
+                int done = 0;
+                while (done < ii) {
+                    done += commit(prefix.subList(done, ii));
+                }
+                return ii + 1;
+            }
+        }
+        try {
+            model.endTransaction();
+        } catch (IOException ioe) {
+            fail(group, ioe);
+        } catch (RuntimeException re) {
+            fail(group, re);
+        }
+        for (int ii = 0; ii < size; ii++) {
+            group.get(ii).publish();
+        }
+        return size;
+    }
+
+    /**
+     * Applies the waiting submissions in groups until the queue is
+     * empty, then schedules another run if more arrived meanwhile.
+     */
+    private void drain() {
+        try {
+            List<Submission<?>> group = new ArrayList<Submission<?>>();
+            while (true) {
+                while (group.size() < groupSize) {
+                    Submission<?> submission = queue.poll();
+                    if (submission == null) {
+                        break;
+                    }
+                    if (!submission.isCancelled()) {
+                        group.add(submission);
+                    }
+                }
+                if (group.isEmpty()) {
+                    break;
+                }
+                int done = commit(group);
+                group.subList(0, done).clear();
+            }
+        } finally {
+            scheduled.set(false);
+            if (!queue.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+
+    /**
+     * Completes every submission in the group with the given exception,
+     * except those that are already complete.
+     *
+     * @param  group  submissions that failed.
+     * @param  t      cause of the failure.
+     */
+    private static void fail(List<Submission<?>> group, Throwable t) {
+        int size = group.size();
+        for (int ii = 0; ii < size; ii++) {
+            group.get(ii).fail(t);
+        }
+    }
+
+    /**
+     * Submits a committer task to the executor, unless one is already
+     * pending or running.
+     */
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(committer);
+            } catch (RejectedExecutionException ree) {
+                scheduled.set(false);
+                throw ree;
+            }
+        }
+    }
+
+    /**
+     * Queues a mutation to be applied to the model in the next group.
+     *
+     * @param  <T>       the type of the result.
+     * @param  mutation  the change to be made.
+     * @return  completed with the result of the mutation once it has
+     *          been committed, or with the exception it threw.
+     * @throws  RejectedExecutionException
+     *          if the executor will not run the committer task.
+     */
+    public <T> Future<T> submit(ModelMutation<T> mutation) {
+        if (mutation == null) {
+            throw new IllegalArgumentException("mutation must not be null");
+        }
+        Submission<T> submission = new Submission<T>(mutation);
+        queue.add(submission);
+        schedule();
+        return submission;
+    }
+
+    /**
+     * A mutation and the Future for its result.
+     *
+     * @param  <T>  the type of the result.
+     */
+    private static class Submission<T> extends FutureTask<T> {
+        /** The change to be made. */
+        private final ModelMutation<T> mutation;
+        /** Result of the most recent application of the mutation. */
+        private T result;
+
+        /**
+         * Creates a new instance of Submission.
+         *
+         * @param  mutation  the change to be made.
+         */
+        Submission(ModelMutation<T> mutation) {
+            super(NOTHING, null);
+            this.mutation = mutation;
+        }
+
+        /**
+         * Applies the mutation and holds on to its result.
+         *
+         * @param  model  model to be changed.
+         */
+        void apply(Model model) {
+            result = mutation.apply(model);
+        }
+
+        /**
+         * Completes the Future with the exception.
+         *
+         * @param  t  cause of the failure.
+         */
+        void fail(Throwable t) {
+            setException(t);
+        }
+
+        /**
+         * Completes the Future with the result, unless it has already
+         * been completed.
+         */
+        void publish() {
+            set(result);
+        }
+    }
+}
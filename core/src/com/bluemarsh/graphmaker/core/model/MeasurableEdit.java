@@ -0,0 +1,55 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.model;
+
+import javax.swing.undo.UndoableEdit;
+
+/**
+ * An undoable edit that can estimate how much memory it retains, so
+ * that an undo history can be kept within a memory budget. The estimate
+ * covers the edit and the arrays it holds. A component that is still in
+ * the model counts as a single reference, while an edit that is the only
+ * holder of its components, such as one for a removal, also counts the
+ * size of each component, as estimated by
+ * <code>ModelUndoManager.getMemorySize(Component)</code>.
+ *
+ * @author  Nathan Fiedler
+ * @see  ModelUndoManager
+ */
+public interface MeasurableEdit extends UndoableEdit {
+    /** Estimated size of an object header, in bytes. */
+    int OBJECT_OVERHEAD = 16;
+    /** Estimated size of an object reference, in bytes. */
+    int REFERENCE_SIZE = 8;
+    /** Estimated size of a bare vertex, in bytes. */
+    int VERTEX_SIZE = 64;
+    /** Estimated size of a bare edge, in bytes. */
+    int EDGE_SIZE = 48;
+
+    /**
+     * Estimates the memory retained by this edit.
+     *
+     * @return  size in bytes.
+     */
+    long getMemorySize();
+}
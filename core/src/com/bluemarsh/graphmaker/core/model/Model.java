@@ -24,6 +24,7 @@ package com.bluemarsh.graphmaker.core.model;
 
 import java.beans.PropertyChangeListener;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import javax.swing.event.UndoableEditListener;
@@ -36,6 +37,18 @@ import javax.swing.event.UndoableEditListener;
  */
 public interface Model {
 
+    /**
+     * Add a ModelChangeListener to the listener list. The listener is
+     * notified once for each transaction that changes the model, before
+     * the next transaction can begin. Listeners that do lengthy work
+     * should be wrapped in an <code>AsyncModelChangeListener</code>.
+     * A listener added while a transaction is open is not told of the
+     * property changes made earlier in that transaction.
+     *
+     * @param  listener  the ModelChangeListener to be added.
+     */
+    void addModelChangeListener(ModelChangeListener listener);
+
     /**
      * Add a ModelListener to the listener list.
      *
@@ -43,6 +56,15 @@ public interface Model {
      */
     void addModelListener(ModelListener listener);
 
+    /**
+     * Add a ModelListener to the listener list, to be notified of only
+     * the given types of event.
+     *
+     * @param  listener  the ModelListener to be added.
+     * @param  types     types of event of interest to the listener.
+     */
+    void addModelListener(ModelListener listener, Set<ModelEventType> types);
+
     /**
      * Add a PropertyChangeListener to the listener list.
      *
@@ -57,6 +79,28 @@ public interface Model {
      */
     void addUndoableEditListener(UndoableEditListener listener);
 
+    /**
+     * Adds the given vertices and edges to the model in a single
+     * operation. This is much faster than adding the components one at
+     * a time, and results in a single undoable edit, and at most one
+     * summary event each for the vertices and the edges. The edges may
+     * connect any vertices in the model, including those being added.
+     * If any of the components is not valid, as for the
+     * <code>addVertex()</code> and <code>addEdge()</code> methods, then
+     * the model is left unchanged.
+     *
+     * @param  vertices  vertices to be added.
+     * @param  edges     edges to be added.
+     * @throws  IllegalArgumentException
+     *          if a component is null, a vertex is already in the
+     *          model, or an edge duplicates another.
+     * @throws  IllegalStateException
+     *          if not in a transaction, or an edge does not connect two
+     *          distinct vertices of the model.
+     */
+    void addAll(Collection<? extends Vertex> vertices,
+            Collection<? extends Edge> edges);
+
     /**
      * Adds the given edge to the model.
      *
@@ -110,6 +154,20 @@ public interface Model {
      */
     Vertex findVertex(int x, int y, int z);
 
+    /**
+     * Find the vertices whose bounding boxes intersect the given
+     * rectangle, such as for a rubber-band selection. The bounding box
+     * of a vertex is centered on its x and y coordinates, and the z
+     * coordinate is not considered.
+     *
+     * @param  x       least x coordinate of the rectangle.
+     * @param  y       least y coordinate of the rectangle.
+     * @param  width   width of the rectangle.
+     * @param  height  height of the rectangle.
+     * @return  matching vertices in model order, possibly empty.
+     */
+    List<Vertex> findVertices(int x, int y, int width, int height);
+
     /**
      * Computes the list of edges connected to the given vertex.
      *
@@ -129,6 +187,27 @@ public interface Model {
      */
     List<Vertex> findAdjacentVertices(Vertex vertex);
 
+    /**
+     * Computes the list of edges by which the given vertex is reached
+     * from its neighbors. These are the directed edges entering the
+     * vertex, and the undirected edges connected to it.
+     *
+     * @param  vertex  vertex for which to find incoming edges.
+     * @return  list of edges (empty if none).
+     */
+    List<Edge> findIncomingEdges(Vertex vertex);
+
+    /**
+     * Creates an immutable snapshot of the current vertices and edges,
+     * in a compact form suitable for running graph algorithms. The
+     * snapshot is not affected by subsequent changes to the model. This
+     * should not be called while another thread is changing the model;
+     * use <code>getSnapshot()</code> instead.
+     *
+     * @return  frozen snapshot of this model.
+     */
+    FrozenModel freeze();
+
     /**
      * Returns the value of the property with the specified key. Only
      * properties added with <code>putClientProperty</code> will return
@@ -140,14 +219,68 @@ public interface Model {
     Object getClientProperty(Object key);
 
     /**
-     * Return an unmodifiable list of all the edges in this model.
+     * Return an unmodifiable list of all the edges in this model. The
+     * list reflects changes made in an open transaction, and so should
+     * only be used by the transaction owner, or when no transaction is
+     * open. Other threads should read from <code>getSnapshot()</code>.
      *
      * @return  list of edges in model.
      */
     List<Edge> getEdges();
 
     /**
-     * Return an unmodifiable list of all the vertices in this model.
+     * Returns the number of edges by which the given vertex is reached,
+     * as described in <code>findIncomingEdges()</code>.
+     *
+     * @param  vertex  vertex whose in-degree is computed.
+     * @return  in-degree of vertex.
+     * @throws  IllegalArgumentException
+     *          if the vertex is not in the model.
+     */
+    int getInDegree(Vertex vertex);
+
+    /**
+     * Returns the number of edges by which the given vertex reaches its
+     * neighbors, which is the size of the list returned from
+     * <code>findAdjacentVertices()</code>.
+     *
+     * @param  vertex  vertex whose out-degree is computed.
+     * @return  out-degree of vertex.
+     * @throws  IllegalArgumentException
+     *          if the vertex is not in the model.
+     */
+    int getOutDegree(Vertex vertex);
+
+    /**
+     * Returns the snapshot of the most recently committed version of
+     * this model. Snapshots are immutable, so readers may use them
+     * without locking. The changes of an open transaction become visible
+     * in a new snapshot once the transaction ends. Snapshots are built
+     * on demand, so a call may wait for an open transaction to end if
+     * the model has changed since the last snapshot was built and no
+     * reader has asked for one since then.
+     *
+     * @return  snapshot of the latest version of the model.
+     * @throws  IllegalStateException
+     *          if a new snapshot must be built and the caller is the
+     *          owner of an open transaction.
+     */
+    FrozenModel getSnapshot();
+
+    /**
+     * Returns the version of the model, which is incremented each time
+     * a transaction that changed the model comes to an end, and each
+     * time a cost, endpoint or direction is changed outside of a
+     * transaction.
+     *
+     * @return  model version.
+     */
+    long getVersion();
+
+    /**
+     * Return an unmodifiable list of all the vertices in this model. As
+     * with <code>getEdges()</code>, other threads should read from
+     * <code>getSnapshot()</code> instead.
      *
      * @return  list of vertices in model.
      */
@@ -194,6 +327,19 @@ public interface Model {
      */
     void remove(Component component);
 
+    /**
+     * Removes the given vertices and edges from the model, along with
+     * any other edges connected to the vertices, in a single operation.
+     * This is much faster than removing the components one at a time,
+     * and produces a single undoable edit.
+     *
+     * @param  components  vertices and edges to be removed.
+     * @throws  IllegalArgumentException
+     *          if any of the components is not in the model, in which
+     *          case the model is left unchanged.
+     */
+    void removeAll(Collection<? extends Component> components);
+
     /**
      * Remove the given edge from the model.
      *
@@ -201,6 +347,24 @@ public interface Model {
      */
     void removeEdge(Edge edge);
 
+    /**
+     * Begin a transaction that is not owned by any thread. Changes are
+     * made by way of the returned handle, from whichever thread holds it,
+     * and the transaction is finished by committing or cancelling the
+     * handle. As with <code>startTransaction()</code>, this blocks until
+     * any other open transaction is completed.
+     *
+     * @return  handle to the new transaction.
+     */
+    ModelTransaction openTransaction();
+
+    /**
+     * Remove a ModelChangeListener from the listener list.
+     *
+     * @param  listener  the ModelChangeListener to be removed.
+     */
+    void removeModelChangeListener(ModelChangeListener listener);
+
     /**
      * Remove a ModelListener from the listener list.
      *
@@ -235,6 +399,12 @@ public interface Model {
      * can be open at a time. If a transaction is already in progress,
      * the calling thread will be blocked until the transaction is
      * completed, or the thread is interrupted.
+     *
+     * <p>The calling thread owns the new transaction. The returned handle
+     * may be passed to other threads, which can then make changes by way
+     * of the handle.</p>
+     *
+     * @return  handle to the new transaction.
      */
-    void startTransaction();
+    ModelTransaction startTransaction();
 }
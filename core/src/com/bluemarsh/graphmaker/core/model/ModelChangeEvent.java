@@ -0,0 +1,180 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EventObject;
+import java.util.List;
+
+/**
+ * An event that describes all of the changes made to a model in a
+ * single transaction. The vertices and edges are net of one another:
+ * a component that was added and then removed within the transaction
+ * appears in neither list. Property changes are reported for the
+ * components that remain in the model and were not added by the
+ * transaction, once per component and property name, and only when
+ * made by the thread that owns the transaction.
+ *
+ * @author  Nathan Fiedler
+ */
+public class ModelChangeEvent extends EventObject {
+
+    /** silence the compiler warnings */
+    private static final long serialVersionUID = 1L;
+    /** The model that changed. */
+    private transient Model model;
+    /** Version of the model that resulted from the changes. */
+    private long version;
+    /** Vertices added to the model. */
+    private transient Vertex[] addedVertices;
+    /** Vertices removed from the model. */
+    private transient Vertex[] removedVertices;
+    /** Edges added to the model. */
+    private transient Edge[] addedEdges;
+    /** Edges removed from the model. */
+    private transient Edge[] removedEdges;
+    /** Components whose properties changed. */
+    private transient Component[] changedComponents;
+    /** Names of the changed properties, parallel to changedComponents. */
+    private transient String[] changedProperties;
+
+    /**
+     * Creates a new instance of ModelChangeEvent. The arrays are held
+     * by the event and must not be modified afterward.
+     *
+     * @param  model              model that changed (source of event).
+     * @param  version            version of the model after the changes.
+     * @param  addedVertices      vertices added to the model.
+     * @param  removedVertices    vertices removed from the model.
+     * @param  addedEdges         edges added to the model.
+     * @param  removedEdges       edges removed from the model.
+     * @param  changedComponents  components whose properties changed.
+     * @param  changedProperties  names of the changed properties.
+     */
+    public ModelChangeEvent(Model model, long version,
+            Vertex[] addedVertices, Vertex[] removedVertices,
+            Edge[] addedEdges, Edge[] removedEdges,
+            Component[] changedComponents, String[] changedProperties) {
+        super(model);
+        if (changedComponents.length != changedProperties.length) {
+            throw new IllegalArgumentException(
+                    "changed components and properties must match");
+        }
+        this.model = model;
+        this.version = version;
+        this.addedVertices = addedVertices;
+        this.removedVertices = removedVertices;
+        this.addedEdges = addedEdges;
+        this.removedEdges = removedEdges;
+        this.changedComponents = changedComponents;
+        this.changedProperties = changedProperties;
+    }
+
+    /**
+     * Returns the edges that were added to the model.
+     *
+     * @return  unmodifiable list of edges.
+     */
+    public List<Edge> getAddedEdges() {
+        return Collections.unmodifiableList(Arrays.asList(addedEdges));
+    }
+
+    /**
+     * Returns the vertices that were added to the model.
+     *
+     * @return  unmodifiable list of vertices.
+     */
+    public List<Vertex> getAddedVertices() {
+        return Collections.unmodifiableList(Arrays.asList(addedVertices));
+    }
+
+    /**
+     * Returns the components whose properties changed. A component
+     * appears once for each property that changed, with the name of the
+     * property at the same position in <code>getChangedProperties()</code>.
+     *
+     * @return  unmodifiable list of components.
+     */
+    public List<Component> getChangedComponents() {
+        return Collections.unmodifiableList(Arrays.asList(changedComponents));
+    }
+
+    /**
+     * Returns the names of the changed properties, parallel to the list
+     * returned by <code>getChangedComponents()</code>.
+     *
+     * @return  unmodifiable list of property names.
+     */
+    public List<String> getChangedProperties() {
+        return Collections.unmodifiableList(Arrays.asList(changedProperties));
+    }
+
+    /**
+     * Get the model that changed.
+     *
+     * @return  model.
+     */
+    public Model getModel() {
+        return model;
+    }
+
+    /**
+     * Returns the edges that were removed from the model.
+     *
+     * @return  unmodifiable list of edges.
+     */
+    public List<Edge> getRemovedEdges() {
+        return Collections.unmodifiableList(Arrays.asList(removedEdges));
+    }
+
+    /**
+     * Returns the vertices that were removed from the model.
+     *
+     * @return  unmodifiable list of vertices.
+     */
+    public List<Vertex> getRemovedVertices() {
+        return Collections.unmodifiableList(Arrays.asList(removedVertices));
+    }
+
+    /**
+     * Returns the version of the model that resulted from the changes,
+     * as returned by <code>Model.getVersion()</code>.
+     *
+     * @return  model version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Indicates if the event describes no changes at all.
+     *
+     * @return  true if nothing changed, false otherwise.
+     */
+    public boolean isEmpty() {
+        return addedVertices.length == 0 && removedVertices.length == 0
+                && addedEdges.length == 0 && removedEdges.length == 0
+                && changedComponents.length == 0;
+    }
+}
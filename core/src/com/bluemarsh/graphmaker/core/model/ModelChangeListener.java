@@ -0,0 +1,43 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.model;
+
+import java.util.EventListener;
+
+/**
+ * The listener interface for receiving the changes made to a model,
+ * batched by transaction. This allows a listener to update its own
+ * state incrementally, in proportion to the size of the changes rather
+ * than the size of the model.
+ *
+ * @author  Nathan Fiedler
+ */
+public interface ModelChangeListener extends EventListener {
+
+    /**
+     * Invoked when a transaction that changed the model has ended.
+     *
+     * @param  event  describes the changes.
+     */
+    void modelChanged(ModelChangeEvent event);
+}
@@ -22,10 +22,15 @@
  */
 package com.bluemarsh.graphmaker.core.model;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.EventObject;
+import java.util.List;
 
 /**
- * An event which indicates that a model has changed.
+ * An event which indicates that a model has changed. The event carries
+ * the components that were affected, so listeners need not rescan the
+ * model to learn what changed.
  *
  * @author  Nathan Fiedler
  */
@@ -33,10 +38,14 @@ public class ModelEvent extends EventObject {
 
     /** silence the compiler warnings */
     private static final long serialVersionUID = 1L;
+    /** Used when the affected components are not known. */
+    private static final Component[] NO_COMPONENTS = new Component[0];
     /** The model that changed. */
     private transient Model model;
     /** The type of model change. */
     private ModelEventType type;
+    /** The components affected by the change. */
+    private transient Component[] components;
 
     /**
      * Creates a new instance of ModelEvent.
@@ -45,9 +54,53 @@ public class ModelEvent extends EventObject {
      * @param  type   type of model change.
      */
     public ModelEvent(Model model, ModelEventType type) {
+        this(model, type, NO_COMPONENTS);
+    }
+
+    /**
+     * Creates a new instance of ModelEvent for a change to the given
+     * component.
+     *
+     * @param  model      model that changed (source of event).
+     * @param  type       type of model change.
+     * @param  component  the vertex or edge that was affected.
+     */
+    public ModelEvent(Model model, ModelEventType type, Component component) {
+        this(model, type, new Component[] { component });
+    }
+
+    /**
+     * Creates a new instance of ModelEvent that summarizes a change to
+     * several components of the same kind, such as a bulk addition.
+     *
+     * @param  model       model that changed (source of event).
+     * @param  type        type of model change.
+     * @param  components  the vertices or edges that were affected.
+     */
+    public ModelEvent(Model model, ModelEventType type,
+            Component[] components) {
         super(model);
         this.model = model;
         this.type = type;
+        this.components = components;
+    }
+
+    /**
+     * Get the components affected by the change.
+     *
+     * @return  unmodifiable list of components; empty if not known.
+     */
+    public List<Component> getComponents() {
+        return Collections.unmodifiableList(Arrays.asList(components));
+    }
+
+    /**
+     * Get the number of components affected by the change.
+     *
+     * @return  number of components, usually one.
+     */
+    public int getCount() {
+        return components.length == 0 ? 1 : components.length;
     }
 
     /**
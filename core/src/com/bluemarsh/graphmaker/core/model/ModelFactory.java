@@ -22,6 +22,8 @@
  */
 package com.bluemarsh.graphmaker.core.model;
 
+import java.util.Collection;
+
 /**
  * A ModelFactory creates instances of the Model class, as well as
  * vertices and edges. A concrete implementation can be acquired from
@@ -56,6 +58,22 @@ public interface ModelFactory {
      */
     Model createModel();
 
+    /**
+     * Creates a Model instance containing the given vertices and edges.
+     * This is the fastest means of building a large model, such as when
+     * importing a graph, as the components are added in bulk.
+     *
+     * @param  vertices  vertices for the model.
+     * @param  edges     edges for the model, connecting the vertices.
+     * @return  new model.
+     * @throws  IllegalArgumentException
+     *          if any of the components is invalid.
+     * @throws  IllegalStateException
+     *          if any of the edges is invalid.
+     */
+    Model createModel(Collection<? extends Vertex> vertices,
+            Collection<? extends Edge> edges);
+
     /**
      * Creates a Vertex instance with the given set of attributes.
      *
@@ -0,0 +1,148 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.model;
+
+import java.util.Set;
+
+/**
+ * Class ModelListenerRegistry implements a thread-safe list of model
+ * listeners, with each listener subscribed to particular types of model
+ * event. The listeners for each event type are kept in an array that is
+ * replaced whenever a listener is added or removed, so dispatching an
+ * event takes no locks, does not allocate, and invokes only those
+ * listeners that asked for that type of event.
+ *
+ * @author  Nathan Fiedler
+ */
+public class ModelListenerRegistry {
+    /** Shared by the event types that have no listeners. */
+    private static final ModelListener[] NO_LISTENERS = new ModelListener[0];
+    /** The listeners for each event type, indexed by ordinal. Each array
+     * is treated as immutable once published. */
+    private volatile ModelListener[][] listeners;
+
+    /**
+     * Creates a new instance of ModelListenerRegistry.
+     */
+    public ModelListenerRegistry() {
+        ModelEventType[] types = ModelEventType.values();
+        ModelListener[][] arr = new ModelListener[types.length][];
+        for (int ii = 0; ii < arr.length; ii++) {
+            arr[ii] = NO_LISTENERS;
+        }
+        listeners = arr;
+    }
+
+    /**
+     * Adds the listener for all types of model event.
+     *
+     * @param  listener  the listener to be added.
+     */
+    public void add(ModelListener listener) {
+        add(listener, null);
+    }
+
+    /**
+     * Adds the listener for the given types of model event. The same
+     * listener may be added more than once, in which case it receives
+     * each event once for each time it was added.
+     *
+     * @param  listener  the listener to be added.
+     * @param  types     event types of interest, or null for all types.
+     */
+    public synchronized void add(ModelListener listener,
+            Set<ModelEventType> types) {
+        if (listener == null) {
+            return;
+        }
+        ModelListener[][] arr = listeners.clone();
+        for (ModelEventType type : ModelEventType.values()) {
+            if (types == null || types.contains(type)) {
+                int i = type.ordinal();
+                ModelListener[] list = new ModelListener[arr[i].length + 1];
+                System.arraycopy(arr[i], 0, list, 0, arr[i].length);
+                list[arr[i].length] = listener;
+                arr[i] = list;
+            }
+        }
+        listeners = arr;
+    }
+
+    /**
+     * Delivers the event to the listeners subscribed to its type, in
+     * the order in which they were added.
+     *
+     * @param  event  the event to be delivered.
+     */
+    public void fireEvent(ModelEvent event) {
+        ModelEventType type = event.getType();
+        ModelListener[] list = listeners[type.ordinal()];
+        for (int ii = 0; ii < list.length; ii++) {
+            type.fireEvent(event, list[ii]);
+        }
+    }
+
+    /**
+     * Indicates if any listeners are subscribed to the given type of
+     * model event.
+     *
+     * @param  type  the event type.
+     * @return  true if there are listeners, false otherwise.
+     */
+    public boolean hasListeners(ModelEventType type) {
+        return listeners[type.ordinal()].length > 0;
+    }
+
+    /**
+     * Removes the listener, for all of the event types to which it was
+     * subscribed. If the listener was added more than once, only the
+     * most recent subscription is removed.
+     *
+     * @param  listener  the listener to be removed.
+     */
+    public synchronized void remove(ModelListener listener) {
+        if (listener == null) {
+            return;
+        }
+        ModelListener[][] arr = listeners.clone();
+        for (int ii = 0; ii < arr.length; ii++) {
+            ModelListener[] list = arr[ii];
+            int idx = list.length - 1;
+            while (idx >= 0 && list[idx] != listener) {
+                idx--;
+            }
+            if (idx >= 0) {
+                if (list.length == 1) {
+                    arr[ii] = NO_LISTENERS;
+                } else {
+                    ModelListener[] copy = new ModelListener[list.length - 1];
+                    System.arraycopy(list, 0, copy, 0, idx);
+                    System.arraycopy(list, idx + 1, copy, idx,
+                            copy.length - idx);
+                    arr[ii] = copy;
+                }
+            }
+        }
+        listeners = arr;
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.model;
+
+/**
+ * A change to be made to a model by a <code>GroupCommitter</code>. The
+ * mutation is invoked within a transaction that is owned by the calling
+ * thread, and must not start or end transactions itself.
+ *
+ * <p>If another mutation in the same group fails, the transaction is
+ * rolled back and the mutations that preceded the failure are applied
+ * again. Hence a mutation may be invoked more than once, and should
+ * change nothing but the model.</p>
+ *
+ * @param  <T>  the type of the result.
+ * @author  Nathan Fiedler
+ */
+public interface ModelMutation<T> {
+
+    /**
+     * Makes changes to the model.
+     *
+     * @param  model  the model to be changed.
+     * @return  result of the mutation, made available to the submitter.
+     * @throws  RuntimeException
+     *          if the mutation cannot be applied; the changes made by
+     *          this mutation are discarded.
+     */
+    T apply(Model model);
+}
@@ -27,10 +27,18 @@ import org.openide.util.Lookup;
 /**
  * Class ModelProvider provides easy access to important model classes.
  *
+ * <p>Several <code>ModelFactory</code> implementations may be registered
+ * as services. The default is the first one registered, unless the
+ * <code>graphmaker.model.factory</code> system property names the class
+ * of another registered factory. A particular factory may also be
+ * requested by its type.</p>
+ *
  * @author Nathan Fiedler
  */
 public class ModelProvider {
 
+    /** Name of the system property that selects the default factory. */
+    public static final String FACTORY_PROPERTY = "graphmaker.model.factory";
     /** The ModelFactory instance, if it has already been retrieved. */
     private static ModelFactory modelFactory;
 
@@ -47,9 +55,40 @@ public class ModelProvider {
      */
     public static synchronized ModelFactory getModelFactory() {
         if (modelFactory == null) {
-            // Perform lookup to find a ModelFactory instance.
-            modelFactory = Lookup.getDefault().lookup(ModelFactory.class);
+            String name = System.getProperty(FACTORY_PROPERTY);
+            if (name != null) {
+                for (ModelFactory factory : Lookup.getDefault().lookupAll(
+                        ModelFactory.class)) {
+                    if (factory.getClass().getName().equals(name)) {
+                        modelFactory = factory;
+                        break;
+                    }
+                }
+            }
+            if (modelFactory == null) {
+                // Perform lookup to find a ModelFactory instance.
+                modelFactory = Lookup.getDefault().lookup(ModelFactory.class);
+            }
         }
         return modelFactory;
     }
+
+    /**
+     * Retrieve the registered ModelFactory of the given type, such as
+     * <code>OffHeapModelFactory</code>.
+     *
+     * @param  <T>   type of factory.
+     * @param  type  class of the factory.
+     * @return  the first registered factory of exactly that class, or
+     *          null if none is registered.
+     */
+    public static <T extends ModelFactory> T getModelFactory(Class<T> type) {
+        for (ModelFactory factory : Lookup.getDefault().lookupAll(
+                ModelFactory.class)) {
+            if (factory.getClass() == type) {
+                return type.cast(factory);
+            }
+        }
+        return null;
+    }
 }
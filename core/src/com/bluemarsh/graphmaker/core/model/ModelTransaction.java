@@ -0,0 +1,82 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.model;
+
+import java.io.IOException;
+
+/**
+ * A handle to an open transaction on a model. Whichever thread holds the
+ * handle may use it to change the model, so a transaction can be carried
+ * through asynchronous tasks that run on different threads. Only one
+ * thread at a time may use the handle; concurrent calls are serialized.
+ *
+ * @author  Nathan Fiedler
+ */
+public interface ModelTransaction {
+
+    /**
+     * Makes changes to the model as part of this transaction. While the
+     * mutation runs, the calling thread is treated as the owner of the
+     * transaction, and may call any of the model methods that require
+     * one, except to start, end or cancel a transaction.
+     *
+     * @param  <T>       type of the result.
+     * @param  mutation  the changes to be made.
+     * @return  result of the mutation.
+     * @throws  IllegalStateException
+     *          if the transaction is no longer open.
+     */
+    <T> T apply(ModelMutation<T> mutation);
+
+    /**
+     * Cancels the transaction, rolling back the changes, as with
+     * <code>Model.cancelTransaction()</code>. Does nothing if the
+     * transaction is no longer open.
+     */
+    void cancel();
+
+    /**
+     * Ends the transaction, committing the changes, as with
+     * <code>Model.endTransaction()</code>.
+     *
+     * @throws  IllegalStateException
+     *          if the transaction is no longer open.
+     * @throws  IOException
+     *          if there was a problem committing the changes.
+     */
+    void commit() throws IOException;
+
+    /**
+     * Returns the model to which this transaction applies.
+     *
+     * @return  the model.
+     */
+    Model getModel();
+
+    /**
+     * Indicates if the transaction is still open.
+     *
+     * @return  true if open, false if committed or cancelled.
+     */
+    boolean isOpen();
+}
@@ -0,0 +1,174 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.model;
+
+import javax.swing.undo.UndoManager;
+import javax.swing.undo.UndoableEdit;
+
+/**
+ * An UndoManager that keeps its history within a memory budget, in
+ * addition to the limit on the number of edits. When an edit is added
+ * and the estimated size of the history exceeds the budget, the oldest
+ * edits are discarded until it fits again. The most recent edit is
+ * always kept, however large it may be.
+ *
+ * <p>The size of each edit is estimated by the edit itself, if it
+ * implements <code>MeasurableEdit</code>, as the edits made by the
+ * models in this package do; other edits are assumed to be of a fixed,
+ * small size.</p>
+ *
+ * @author  Nathan Fiedler
+ */
+public class ModelUndoManager extends UndoManager {
+    /** silence compiler warnings */
+    private static final long serialVersionUID = 1L;
+    /** Default memory budget, in bytes. */
+    public static final long DEFAULT_MEMORY_LIMIT = 16L * 1024 * 1024;
+    /** Size assumed for edits that cannot estimate their own size. */
+    private static final long UNKNOWN_EDIT_SIZE = 64;
+    /** Largest estimated size of the history, in bytes. */
+    private long memoryLimit;
+
+    /**
+     * Creates a new instance of ModelUndoManager with the default
+     * memory budget.
+     */
+    public ModelUndoManager() {
+        this(DEFAULT_MEMORY_LIMIT);
+    }
+
+    /**
+     * Creates a new instance of ModelUndoManager.
+     *
+     * @param  memoryLimit  memory budget for the history, in bytes.
+     */
+    public ModelUndoManager(long memoryLimit) {
+        super();
+        setMemoryLimit(memoryLimit);
+    }
+
+    @Override
+    public synchronized boolean addEdit(UndoableEdit anEdit) {
+        boolean added = super.addEdit(anEdit);
+        trimToMemoryLimit();
+        return added;
+    }
+
+    /**
+     * Returns the memory budget for the history.
+     *
+     * @return  budget in bytes.
+     */
+    public synchronized long getMemoryLimit() {
+        return memoryLimit;
+    }
+
+    /**
+     * Estimates the memory retained by the given component, were it
+     * reachable only through an undoable edit. This covers the component
+     * itself, its label, and the storage for its listeners and client
+     * properties, but not the listeners and property values.
+     *
+     * @param  component  a vertex or edge.
+     * @return  size in bytes.
+     */
+    public static long getMemorySize(Component component) {
+        long size = component instanceof Edge ? MeasurableEdit.EDGE_SIZE
+                : MeasurableEdit.VERTEX_SIZE;
+        String label = component.getLabel();
+        if (label != null && label.length() > 0) {
+            // The string and its character array.
+            size += 2 * MeasurableEdit.OBJECT_OVERHEAD + 8
+                    + 2L * label.length();
+        }
+        if (component instanceof AbstractComponent) {
+            size += ((AbstractComponent) component).getStorageSize();
+        }
+        return size;
+    }
+
+    /**
+     * Estimates the memory retained by the given edit.
+     *
+     * @param  edit  an undoable edit.
+     * @return  size in bytes.
+     */
+    public static long getMemorySize(UndoableEdit edit) {
+        if (edit instanceof MeasurableEdit) {
+            return ((MeasurableEdit) edit).getMemorySize();
+        }
+        return UNKNOWN_EDIT_SIZE;
+    }
+
+    /**
+     * Estimates the memory retained by the edits in the history,
+     * including those that may be redone.
+     *
+     * @return  size in bytes.
+     */
+    public synchronized long getMemoryUsage() {
+        long size = 0;
+        for (UndoableEdit edit : edits) {
+            size += getMemorySize(edit);
+        }
+        return size;
+    }
+
+    /**
+     * Sets the memory budget for the history, discarding the oldest
+     * edits if the history no longer fits.
+     *
+     * @param  memoryLimit  budget in bytes.
+     */
+    public synchronized void setMemoryLimit(long memoryLimit) {
+        if (memoryLimit < 0) {
+            throw new IllegalArgumentException("memoryLimit must be >= 0");
+        }
+        this.memoryLimit = memoryLimit;
+        trimToMemoryLimit();
+    }
+
+    /**
+     * Discards the oldest edits until the history fits within the
+     * memory budget, or only one edit remains.
+     */
+    private void trimToMemoryLimit() {
+        if (!isInProgress()) {
+            // After end() the history is a single compound edit.
+            return;
+        }
+        // Only edits that have not been undone are discarded.
+        int undoable = edits.indexOf(editToBeUndone()) + 1;
+        long size = getMemoryUsage();
+        int count = 0;
+        int total = edits.size();
+        while (size > memoryLimit && count < total - 1
+                && count < undoable) {
+            size -= getMemorySize(edits.get(count));
+            count++;
+        }
+        if (count > 0) {
+            trimEdits(0, count - 1);
+        }
+    }
+}
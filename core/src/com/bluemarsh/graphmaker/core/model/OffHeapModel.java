@@ -0,0 +1,47 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.model;
+
+import com.bluemarsh.graphmaker.core.util.IntGraph;
+
+/**
+ * A DefaultModel whose vertex and edge relationships are held in memory
+ * outside of the Java heap. This is suited to very large graphs, where
+ * the adjacency structure would otherwise add significantly to the
+ * work of the garbage collector. The Vertex and Edge objects themselves,
+ * along with their attributes, remain on the heap.
+ *
+ * @author  Nathan Fiedler
+ */
+public class OffHeapModel extends DefaultModel {
+
+    /** Initial vertex and edge capacity of the graph. */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Creates a new instance of OffHeapModel.
+     */
+    public OffHeapModel() {
+        super(new IntGraph(INITIAL_CAPACITY, INITIAL_CAPACITY, true));
+    }
+}
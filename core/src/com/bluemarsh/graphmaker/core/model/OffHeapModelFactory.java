@@ -0,0 +1,43 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.model;
+
+/**
+ * OffHeapModelFactory creates models whose structure is held outside of
+ * the Java heap, as described in <code>OffHeapModel</code>. Vertices and
+ * edges are the default implementations. This factory is registered as
+ * a <code>ModelFactory</code> service after the default factory; obtain
+ * it with <code>ModelProvider.getModelFactory(OffHeapModelFactory.class)</code>,
+ * or make it the default by setting the
+ * <code>graphmaker.model.factory</code> system property to its class
+ * name.
+ *
+ * @author Nathan Fiedler
+ */
+public class OffHeapModelFactory extends DefaultModelFactory {
+
+    @Override
+    public Model createModel() {
+        return new OffHeapModel();
+    }
+}
@@ -22,8 +22,8 @@
  */
 package com.bluemarsh.graphmaker.core.model;
 
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 import javax.swing.undo.AbstractUndoableEdit;
 import javax.swing.undo.CannotRedoException;
@@ -36,14 +36,17 @@ import org.openide.util.NbBundle;
  *
  * @author Nathan Fiedler
  */
-public class VertexAddUndoableEdit extends AbstractUndoableEdit {
+public class VertexAddUndoableEdit extends AbstractUndoableEdit
+        implements MeasurableEdit {
 
     /** silence compiler warnings */
     private static final long serialVersionUID = 1L;
     /** The model on which to perform the operations. */
     private Model model;
-    /** List of affected vertices. */
-    private List<Vertex> vertices;
+    /** The affected vertices, in the first count elements. */
+    private Vertex[] vertices;
+    /** Number of affected vertices. */
+    private int count;
 
     /**
      * Creates a new instance of VertexAddUndoableEdit.
@@ -54,8 +57,8 @@ public class VertexAddUndoableEdit extends AbstractUndoableEdit {
     public VertexAddUndoableEdit(Model model, Vertex vertex) {
         super();
         this.model = model;
-        vertices = new LinkedList<Vertex>();
-        vertices.add(vertex);
+        vertices = new Vertex[] { vertex };
+        count = 1;
     }
 
     @Override
@@ -63,7 +66,12 @@ public class VertexAddUndoableEdit extends AbstractUndoableEdit {
         if (anEdit instanceof VertexAddUndoableEdit) {
             VertexAddUndoableEdit ue = (VertexAddUndoableEdit) anEdit;
             if (model.equals(ue.getModel())) {
-                vertices.addAll(ue.getVertices());
+                if (count + ue.count > vertices.length) {
+                    vertices = Arrays.copyOf(vertices,
+                            Math.max(count + ue.count, count * 2));
+                }
+                System.arraycopy(ue.vertices, 0, vertices, count, ue.count);
+                count += ue.count;
                 ue.die();
                 return true;
             }
@@ -74,7 +82,8 @@ public class VertexAddUndoableEdit extends AbstractUndoableEdit {
     @Override
     public void die() {
         super.die();
-        vertices.clear();
+        vertices = new Vertex[0];
+        count = 0;
     }
 
     /**
@@ -83,7 +92,13 @@ public class VertexAddUndoableEdit extends AbstractUndoableEdit {
      * @return  the vertex list.
      */
     protected List<Vertex> getVertices() {
-        return Collections.unmodifiableList(vertices);
+        return Collections.unmodifiableList(
+                Arrays.asList(vertices).subList(0, count));
+    }
+
+    @Override
+    public long getMemorySize() {
+        return 2 * OBJECT_OVERHEAD + REFERENCE_SIZE * (vertices.length + 2);
     }
 
     /**
@@ -97,7 +112,7 @@ public class VertexAddUndoableEdit extends AbstractUndoableEdit {
 
     @Override
     public String getPresentationName() {
-        if (vertices.size() > 1) {
+        if (count > 1) {
             return NbBundle.getMessage(VertexAddUndoableEdit.class,
                     "LBL_VertexAddUndoableEdit_AddVertices");
         } else {
@@ -108,7 +123,7 @@ public class VertexAddUndoableEdit extends AbstractUndoableEdit {
 
     @Override
     public String getRedoPresentationName() {
-        if (vertices.size() > 1) {
+        if (count > 1) {
             return NbBundle.getMessage(VertexAddUndoableEdit.class,
                     "LBL_VertexAddUndoableEdit_RedoAddVertices");
         } else {
@@ -119,7 +134,7 @@ public class VertexAddUndoableEdit extends AbstractUndoableEdit {
 
     @Override
     public String getUndoPresentationName() {
-        if (vertices.size() > 1) {
+        if (count > 1) {
             return NbBundle.getMessage(VertexAddUndoableEdit.class,
                     "LBL_VertexAddUndoableEdit_UndoAddVertices");
         } else {
@@ -130,16 +145,16 @@ public class VertexAddUndoableEdit extends AbstractUndoableEdit {
 
     @Override
     public void redo() throws CannotRedoException {
-        for (Vertex vertex : vertices) {
-            model.addVertex(vertex);
+        for (int ii = 0; ii < count; ii++) {
+            model.addVertex(vertices[ii]);
         }
         super.redo();
     }
 
     @Override
     public void undo() throws CannotUndoException {
-        for (Vertex vertex : vertices) {
-            model.removeVertex(vertex);
+        for (int ii = 0; ii < count; ii++) {
+            model.removeVertex(vertices[ii]);
         }
         super.undo();
     }
@@ -22,8 +22,8 @@
  */
 package com.bluemarsh.graphmaker.core.model;
 
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 import javax.swing.undo.AbstractUndoableEdit;
 import javax.swing.undo.CannotRedoException;
@@ -36,14 +36,20 @@ import org.openide.util.NbBundle;
  *
  * @author Nathan Fiedler
  */
-public class VertexRemoveUndoableEdit extends AbstractUndoableEdit {
+public class VertexRemoveUndoableEdit extends AbstractUndoableEdit
+        implements MeasurableEdit {
 
     /** silence compiler warnings */
     private static final long serialVersionUID = 1L;
     /** The model on which to perform the operations. */
     private Model model;
-    /** List of affected vertices. */
-    private List<Vertex> vertices;
+    /** The affected vertices, in the first count elements. */
+    private Vertex[] vertices;
+    /** Number of affected vertices. */
+    private int count;
+    /** Estimated size of the affected vertices, which are held only by
+     * this edit once removed. */
+    private long componentSize;
 
     /**
      * Creates a new instance of VertexRemoveUndoableEdit.
@@ -54,8 +60,9 @@ public class VertexRemoveUndoableEdit extends AbstractUndoableEdit {
     public VertexRemoveUndoableEdit(Model model, Vertex vertex) {
         super();
         this.model = model;
-        vertices = new LinkedList<Vertex>();
-        vertices.add(vertex);
+        vertices = new Vertex[] { vertex };
+        count = 1;
+        componentSize = ModelUndoManager.getMemorySize(vertex);
     }
 
     @Override
@@ -63,7 +70,13 @@ public class VertexRemoveUndoableEdit extends AbstractUndoableEdit {
         if (anEdit instanceof VertexRemoveUndoableEdit) {
             VertexRemoveUndoableEdit ue = (VertexRemoveUndoableEdit) anEdit;
             if (model.equals(ue.getModel())) {
-                vertices.addAll(ue.getVertices());
+                if (count + ue.count > vertices.length) {
+                    vertices = Arrays.copyOf(vertices,
+                            Math.max(count + ue.count, count * 2));
+                }
+                System.arraycopy(ue.vertices, 0, vertices, count, ue.count);
+                count += ue.count;
+                componentSize += ue.componentSize;
                 ue.die();
                 return true;
             }
@@ -74,7 +87,9 @@ public class VertexRemoveUndoableEdit extends AbstractUndoableEdit {
     @Override
     public void die() {
         super.die();
-        vertices.clear();
+        vertices = new Vertex[0];
+        count = 0;
+        componentSize = 0;
     }
 
     /**
@@ -83,7 +98,14 @@ public class VertexRemoveUndoableEdit extends AbstractUndoableEdit {
      * @return  the vertex list.
      */
     protected List<Vertex> getVertices() {
-        return Collections.unmodifiableList(vertices);
+        return Collections.unmodifiableList(
+                Arrays.asList(vertices).subList(0, count));
+    }
+
+    @Override
+    public long getMemorySize() {
+        return 2 * OBJECT_OVERHEAD + REFERENCE_SIZE * (vertices.length + 3)
+                + componentSize;
     }
 
     /**
@@ -97,7 +119,7 @@ public class VertexRemoveUndoableEdit extends AbstractUndoableEdit {
 
     @Override
     public String getPresentationName() {
-        if (vertices.size() > 1) {
+        if (count > 1) {
             return NbBundle.getMessage(VertexRemoveUndoableEdit.class,
                     "LBL_VertexRemoveUndoableEdit_RemoveVertices");
         } else {
@@ -108,7 +130,7 @@ public class VertexRemoveUndoableEdit extends AbstractUndoableEdit {
 
     @Override
     public String getRedoPresentationName() {
-        if (vertices.size() > 1) {
+        if (count > 1) {
             return NbBundle.getMessage(VertexRemoveUndoableEdit.class,
                     "LBL_VertexRemoveUndoableEdit_RedoRemoveVertices");
         } else {
@@ -119,7 +141,7 @@ public class VertexRemoveUndoableEdit extends AbstractUndoableEdit {
 
     @Override
     public String getUndoPresentationName() {
-        if (vertices.size() > 1) {
+        if (count > 1) {
             return NbBundle.getMessage(VertexRemoveUndoableEdit.class,
                     "LBL_VertexRemoveUndoableEdit_UndoRemoveVertices");
         } else {
@@ -130,16 +152,16 @@ public class VertexRemoveUndoableEdit extends AbstractUndoableEdit {
 
     @Override
     public void redo() throws CannotRedoException {
-        for (Vertex vertex : vertices) {
-            model.removeVertex(vertex);
+        for (int ii = 0; ii < count; ii++) {
+            model.removeVertex(vertices[ii]);
         }
         super.redo();
     }
 
     @Override
     public void undo() throws CannotUndoException {
-        for (Vertex vertex : vertices) {
-            model.addVertex(vertex);
+        for (int ii = 0; ii < count; ii++) {
+            model.addVertex(vertices[ii]);
         }
         super.undo();
     }
@@ -0,0 +1,231 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.util;
+
+import java.util.Arrays;
+
+/**
+ * A monotone bucket queue of integer identifiers with whole-number keys,
+ * as used by Dial's variant of Dijkstra's algorithm. Elements are kept in
+ * a circular array of buckets, one per key value, each a doubly-linked
+ * list held in arrays indexed by identifier. The queue is monotone: no
+ * key may be smaller than the key of the element last removed, nor may
+ * it exceed that key by more than the span given when the queue was
+ * created. For a shortest-path search the span is the largest edge cost.
+ *
+ * <p>insert() and decreaseKey() run in O(1) time, and removeMin() in
+ * O(span) time in the worst case, but typically far less as the buckets
+ * are scanned in order only once over the whole search.</p>
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ * If multiple threads access a queue concurrently, and at least one of
+ * the threads modifies the queue, it <em>must</em> be synchronized
+ * externally.</p>
+ *
+ * @author  Nathan Fiedler
+ */
+public class BucketQueue implements IntPriorityQueue {
+
+    /** First element in each bucket, or -1 if the bucket is empty. */
+    private final int[] heads;
+    /** Next element in the same bucket, or -1. */
+    private final int[] next;
+    /** Previous element in the same bucket, or -1. */
+    private final int[] prev;
+    /** Key of each identifier. */
+    private final long[] keys;
+    /** True for each identifier in the queue. */
+    private final boolean[] present;
+    /** Smallest key that may be in the queue, which is the key of the
+     * element last removed. */
+    private long base;
+    /** Number of elements in the queue. */
+    private int size;
+
+    /**
+     * Creates a new instance of BucketQueue.
+     *
+     * @param  capacity  number of distinct identifiers.
+     * @param  span      largest difference between the smallest key in
+     *                   the queue and any other key.
+     * @throws  IllegalArgumentException
+     *          if span is negative.
+     */
+    public BucketQueue(int capacity, int span) {
+        if (span < 0) {
+            throw new IllegalArgumentException("span must not be negative");
+        }
+        heads = new int[span + 1];
+        next = new int[capacity];
+        prev = new int[capacity];
+        keys = new long[capacity];
+        present = new boolean[capacity];
+        Arrays.fill(heads, -1);
+    }
+
+    /**
+     * Adds the element to the front of the bucket for its key.
+     *
+     * @param  id  element identifier.
+     */
+    private void add(int id) {
+        int bucket = (int) (keys[id] % heads.length);
+        int head = heads[bucket];
+        prev[id] = -1;
+        next[id] = head;
+        if (head >= 0) {
+            prev[head] = id;
+        }
+        heads[bucket] = id;
+    }
+
+    /**
+     * Converts the key to a whole number and ensures it is in range.
+     *
+     * @param  key  key to check.
+     * @return  key as a long.
+     */
+    private long checkKey(double key) {
+        long k = (long) key;
+        if (k != key || k < 0) {
+            throw new IllegalArgumentException(
+                    "key must be a non-negative whole number: " + key);
+        }
+        if (size > 0 && (k < base || k - base >= heads.length)) {
+            throw new IllegalArgumentException("key " + key
+                    + " outside the range " + base + " to "
+                    + (base + heads.length - 1));
+        }
+        return k;
+    }
+
+    @Override
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(heads, -1);
+            Arrays.fill(present, false);
+        }
+        size = 0;
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return present[id];
+    }
+
+    @Override
+    public void decreaseKey(int id, double key) {
+        if (!present[id]) {
+            throw new IllegalArgumentException("element not in queue");
+        }
+        long k = checkKey(key);
+        if (k > keys[id]) {
+            throw new IllegalArgumentException("cannot increase key value");
+        }
+        if (k < keys[id]) {
+            unlink(id);
+            keys[id] = k;
+            add(id);
+        }
+    }
+
+    @Override
+    public double getKey(int id) {
+        if (!present[id]) {
+            throw new IllegalArgumentException("element not in queue");
+        }
+        return keys[id];
+    }
+
+    @Override
+    public void insert(int id, double key) {
+        if (present[id]) {
+            throw new IllegalArgumentException("element already in queue");
+        }
+        long k = checkKey(key);
+        if (size == 0 && (k < base || k - base >= heads.length)) {
+            // Nothing to keep in order with, so move the range.
+            base = k;
+        }
+        present[id] = true;
+        keys[id] = k;
+        add(id);
+        size++;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int min() {
+        if (size == 0) {
+            return -1;
+        }
+        // Scan forward from the bucket of the smallest possible key.
+        int bucket = (int) (base % heads.length);
+        while (heads[bucket] < 0) {
+            bucket++;
+            if (bucket == heads.length) {
+                bucket = 0;
+            }
+        }
+        return heads[bucket];
+    }
+
+    @Override
+    public int removeMin() {
+        int id = min();
+        if (id >= 0) {
+            unlink(id);
+            present[id] = false;
+            base = keys[id];
+            size--;
+        }
+        return id;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes the element from the bucket for its key.
+     *
+     * @param  id  element identifier.
+     */
+    private void unlink(int id) {
+        int n = next[id];
+        int p = prev[id];
+        if (p >= 0) {
+            next[p] = n;
+        } else {
+            heads[(int) (keys[id] % heads.length)] = n;
+        }
+        if (n >= 0) {
+            prev[n] = p;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A disjoint-set (union-find) structure over the integers from zero to
+ * one less than its size, which many threads may update at once without
+ * locking. Each element refers to its parent in an
+ * <code>AtomicIntegerArray</code>, a root referring to itself. A union
+ * links one root beneath the other with a single compare-and-set, and
+ * retries if either root was linked elsewhere in the meantime; find()
+ * halves paths with compare-and-set as well, so that a lost race merely
+ * leaves a path a little longer.
+ *
+ * <p>Roots are linked by a fixed pseudo-random priority derived from the
+ * element, which needs no extra state to be kept consistent between
+ * threads and keeps the trees shallow in expectation, much as union by
+ * rank does for the sequential <code>IntDisjointSet</code>.</p>
+ *
+ * <p>The result of <code>connected()</code> or <code>find()</code> is
+ * exact at some moment during the call; a concurrent union may join the
+ * sets immediately afterward.</p>
+ *
+ * @author  Nathan Fiedler
+ */
+public class ConcurrentDisjointSet {
+
+    /** Parent of each element; a root is its own parent. */
+    private final AtomicIntegerArray parents;
+    /** Number of disjoint sets. */
+    private final AtomicInteger setCount;
+
+    /**
+     * Creates a new instance of ConcurrentDisjointSet, with each element
+     * in a set of its own.
+     *
+     * @param  size  number of elements.
+     * @throws  IllegalArgumentException
+     *          if size is negative.
+     */
+    public ConcurrentDisjointSet(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size cannot be negative");
+        }
+        parents = new AtomicIntegerArray(size);
+        for (int ii = 0; ii < size; ii++) {
+            parents.lazySet(ii, ii);
+        }
+        setCount = new AtomicInteger(size);
+    }
+
+    /**
+     * Indicates if the two elements are in the same set.
+     *
+     * @param  a  first element.
+     * @param  b  second element.
+     * @return  true if in the same set, false otherwise.
+     */
+    public boolean connected(int a, int b) {
+        while (true) {
+            a = find(a);
+            b = find(b);
+            if (a == b) {
+                return true;
+            }
+            // The answer holds only if a was still a root after b was
+            // found; otherwise a may since have joined b's set.
+            if (parents.get(a) == a) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Finds the root of the set containing the given element, halving
+     * the path as it goes.
+     *
+     * @param  x  element to find.
+     * @return  root of the set.
+     * @throws  IndexOutOfBoundsException
+     *          if x is outside the set.
+     */
+    public int find(int x) {
+        if (x < 0 || x >= parents.length()) {
+            throw new IndexOutOfBoundsException("element: " + x);
+        }
+        int parent = parents.get(x);
+        while (parent != x) {
+            int grandparent = parents.get(parent);
+            if (grandparent == parent) {
+                return parent;
+            }
+            // If this fails another thread has already shortened it.
+            parents.compareAndSet(x, parent, grandparent);
+            x = grandparent;
+            parent = parents.get(x);
+        }
+        return x;
+    }
+
+    /**
+     * Returns the number of disjoint sets.
+     *
+     * @return  number of sets.
+     */
+    public int getSetCount() {
+        return setCount.get();
+    }
+
+    /**
+     * Returns the linking priority of an element: a fixed scrambling of
+     * its value, with the value itself breaking ties.
+     *
+     * @param  x  element.
+     * @return  priority of the element.
+     */
+    private static long priority(int x) {
+        int h = x * 0x9E3779B9;
+        h ^= h >>> 16;
+        return ((long) h << 32) | (x & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns the number of elements.
+     *
+     * @return  number of elements.
+     */
+    public int size() {
+        return parents.length();
+    }
+
+    /**
+     * Joins the sets containing the two elements, making the root with
+     * the lower priority a child of the other.
+     *
+     * @param  a  first element.
+     * @param  b  second element.
+     * @return  true if this call joined the sets, false if the elements
+     *          were already in the same set.
+     */
+    public boolean union(int a, int b) {
+        while (true) {
+            a = find(a);
+            b = find(b);
+            if (a == b) {
+                return false;
+            }
+            if (priority(a) < priority(b)) {
+                int t = a;
+                a = b;
+                b = t;
+            }
+            // Succeeds only if b is still a root.
+            if (parents.compareAndSet(b, b, a)) {
+                setCount.decrementAndGet();
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.util;
+
+import java.util.Arrays;
+
+/**
+ * An implicit <em>d</em>-ary heap of integer identifiers, held in an
+ * array with a second array giving the position of each identifier in the
+ * heap. A wider heap is shallower, making insert and decreaseKey cheaper,
+ * while removeMin compares more children at each level; an arity of four
+ * suits most graph searches. All storage is allocated when the heap is
+ * created.
+ *
+ * <p>insert() and decreaseKey() run in O(log<sub>d</sub> n) time, and
+ * removeMin() in O(d log<sub>d</sub> n) time.</p>
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ * If multiple threads access a heap concurrently, and at least one of the
+ * threads modifies the heap, it <em>must</em> be synchronized
+ * externally.</p>
+ *
+ * @author  Nathan Fiedler
+ */
+public class DaryHeap implements IntPriorityQueue {
+
+    /** Number of children of each node. */
+    private final int arity;
+    /** Identifiers in heap order. */
+    private final int[] heap;
+    /** Position of each identifier in the heap, or -1 if absent. */
+    private final int[] positions;
+    /** Key of each identifier. */
+    private final double[] keys;
+    /** Number of elements in the heap. */
+    private int size;
+
+    /**
+     * Creates a new instance of DaryHeap with an arity of four.
+     *
+     * @param  capacity  number of distinct identifiers.
+     */
+    public DaryHeap(int capacity) {
+        this(capacity, 4);
+    }
+
+    /**
+     * Creates a new instance of DaryHeap.
+     *
+     * @param  capacity  number of distinct identifiers.
+     * @param  arity     number of children of each node.
+     * @throws  IllegalArgumentException
+     *          if arity is less than two.
+     */
+    public DaryHeap(int capacity, int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("arity must be at least 2");
+        }
+        this.arity = arity;
+        heap = new int[capacity];
+        positions = new int[capacity];
+        keys = new double[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    @Override
+    public void clear() {
+        for (int ii = 0; ii < size; ii++) {
+            positions[heap[ii]] = -1;
+        }
+        size = 0;
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return positions[id] >= 0;
+    }
+
+    @Override
+    public void decreaseKey(int id, double key) {
+        if (positions[id] < 0) {
+            throw new IllegalArgumentException("element not in queue");
+        }
+        if (key > keys[id]) {
+            throw new IllegalArgumentException("cannot increase key value");
+        }
+        keys[id] = key;
+        siftUp(positions[id]);
+    }
+
+    @Override
+    public double getKey(int id) {
+        if (positions[id] < 0) {
+            throw new IllegalArgumentException("element not in queue");
+        }
+        return keys[id];
+    }
+
+    @Override
+    public void insert(int id, double key) {
+        if (positions[id] >= 0) {
+            throw new IllegalArgumentException("element already in queue");
+        }
+        keys[id] = key;
+        heap[size] = id;
+        positions[id] = size;
+        size++;
+        siftUp(size - 1);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int min() {
+        return size == 0 ? -1 : heap[0];
+    }
+
+    @Override
+    public int removeMin() {
+        if (size == 0) {
+            return -1;
+        }
+        int id = heap[0];
+        positions[id] = -1;
+        size--;
+        if (size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            positions[last] = 0;
+            siftDown(0);
+        }
+        return id;
+    }
+
+    /**
+     * Moves the element at the given position down the heap until its
+     * children have larger keys.
+     *
+     * @param  pos  heap position.
+     */
+    private void siftDown(int pos) {
+        int id = heap[pos];
+        double key = keys[id];
+        while (true) {
+            int first = pos * arity + 1;
+            if (first >= size) {
+                break;
+            }
+            int end = Math.min(first + arity, size);
+            int best = first;
+            double bestKey = keys[heap[first]];
+            for (int child = first + 1; child < end; child++) {
+                double k = keys[heap[child]];
+                if (k < bestKey) {
+                    best = child;
+                    bestKey = k;
+                }
+            }
+            if (bestKey >= key) {
+                break;
+            }
+            int moved = heap[best];
+            heap[pos] = moved;
+            positions[moved] = pos;
+            pos = best;
+        }
+        heap[pos] = id;
+        positions[id] = pos;
+    }
+
+    /**
+     * Moves the element at the given position up the heap until its
+     * parent has a smaller key.
+     *
+     * @param  pos  heap position.
+     */
+    private void siftUp(int pos) {
+        int id = heap[pos];
+        double key = keys[id];
+        while (pos > 0) {
+            int parent = (pos - 1) / arity;
+            int pid = heap[parent];
+            if (keys[pid] <= key) {
+                break;
+            }
+            heap[pos] = pid;
+            positions[pid] = pos;
+            pos = parent;
+        }
+        heap[pos] = id;
+        positions[id] = pos;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
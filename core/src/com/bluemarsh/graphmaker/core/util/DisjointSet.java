@@ -165,18 +165,25 @@ public class DisjointSet<T> implements Cloneable, List<T> {
      */
     public int find(int index) {
         // Handle case where index is out of bounds.
-        if (index < 0 || index > disjointSet.length) {
+        if (index < 0 || index >= disjointSet.length) {
             throw new IndexOutOfBoundsException();
         }
         // If the element value is less than zero then we've found the
-        // root. Otherwise keep looking by calling ourselves recursively.
-        // This will automatically shorten the tree.
-        if (disjointSet[index] < 0) {
-            return (index);
-        } else {
-            disjointSet[index] = find(disjointSet[index]);
-            return (disjointSet[index]);
+        // root. Otherwise keep looking, pointing each element visited at
+        // its grandparent to shorten the tree. This is done in a loop
+        // rather than by recursion so that deep trees cannot overflow
+        // the stack.
+        int parent = disjointSet[index];
+        while (parent >= 0) {
+            int grandparent = disjointSet[parent];
+            if (grandparent < 0) {
+                return parent;
+            }
+            disjointSet[index] = grandparent;
+            index = grandparent;
+            parent = disjointSet[index];
         }
+        return index;
     }
 
     @Override
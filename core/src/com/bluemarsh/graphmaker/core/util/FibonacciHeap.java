@@ -46,6 +46,12 @@ public class FibonacciHeap {
      * (e.g. changed to long) then recalcuate the maximum degree
      * value used in the consolidate() method. */
     private int n;
+    /** Roots indexed by degree, used by consolidate(); every entry is
+     * null between calls. The magic 45 comes from log base phi of
+     * Integer.MAX_VALUE, which is the most elements we will ever hold,
+     * and log base phi represents the largest degree of any root list
+     * node. */
+    private final Node[] degrees = new Node[45];
 
     /**
      * Removes all elements from this heap.
@@ -65,10 +71,7 @@ public class FibonacciHeap {
      * <p><em>Running time: O(log n) amortized</em></p>
      */
     private void consolidate() {
-        // The magic 45 comes from log base phi of Integer.MAX_VALUE,
-        // which is the most elements we will ever hold, and log base
-        // phi represents the largest degree of any root list node.
-        Node[] A = new Node[45];
+        Node[] A = degrees;
 
         // For each root list node look for others of the same degree.
         Node start = min;
@@ -111,10 +114,14 @@ public class FibonacciHeap {
 
         // The node considered to be min may have been changed above.
         min = start;
-        // Find the minimum key again.
-        for (Node a : A) {
-            if (a != null && a.key < min.key) {
-                min = a;
+        // Find the minimum key again, clearing the table for next time.
+        for (int d = 0; d < A.length; d++) {
+            Node a = A[d];
+            if (a != null) {
+                A[d] = null;
+                if (a.key < min.key) {
+                    min = a;
+                }
             }
         }
     }
@@ -409,6 +416,24 @@ public class FibonacciHeap {
             x.mark = false;
         }
 
+        /**
+         * Returns the data object associated with this node.
+         *
+         * @return  data object.
+         */
+        public Object getData() {
+            return data;
+        }
+
+        /**
+         * Returns the key value of this node.
+         *
+         * @return  key value.
+         */
+        public double getKey() {
+            return key;
+        }
+
         /**
          * Make this node a child of the given parent node. All linkages
          * are updated, the degree of the parent is incremented, and
@@ -0,0 +1,462 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * Allocates the fixed-size blocks of primitive values in which an
+ * <code>IntGraph</code> holds its data. The <code>Heap</code> strategy
+ * uses plain arrays, which are the fastest to access, while the
+ * <code>Direct</code> strategy uses native-order direct buffers, which
+ * lie outside of the Java heap and so are not scanned by the garbage
+ * collector.
+ *
+ * <p>The direct blocks are only loaded once a direct graph is created,
+ * so a program that uses heap graphs alone sees a single implementation
+ * of each block type, which the virtual machine can inline.</p>
+ *
+ * @author  Nathan Fiedler
+ */
+abstract class GraphStorage {
+
+    /**
+     * Allocates a block of the given number of bytes, initially zero.
+     *
+     * @param  size  number of bytes.
+     * @return  new block.
+     */
+    abstract ByteBlock allocateBytes(int size);
+
+    /**
+     * Allocates a block of the given number of ints, initially zero.
+     *
+     * @param  size  number of ints.
+     * @return  new block.
+     */
+    abstract IntBlock allocateInts(int size);
+
+    /**
+     * Allocates a block of the given number of longs, initially zero.
+     *
+     * @param  size  number of longs.
+     * @return  new block.
+     */
+    abstract LongBlock allocateLongs(int size);
+
+    /**
+     * A fixed-size block of byte values.
+     */
+    abstract static class ByteBlock {
+
+        /**
+         * Returns the number of values the block can hold.
+         *
+         * @return  block size.
+         */
+        abstract int capacity();
+
+        /**
+         * Creates a block of the given size, of the same kind as this
+         * one, holding as many of the values of this block as fit.
+         *
+         * @param  size  size of the new block.
+         * @return  new block.
+         */
+        abstract ByteBlock copyOf(int size);
+
+        /**
+         * Returns the value at the given index.
+         *
+         * @param  index  index of value.
+         * @return  value.
+         */
+        abstract byte get(int index);
+
+        /**
+         * Sets the value at the given index.
+         *
+         * @param  index  index of value.
+         * @param  value  new value.
+         */
+        abstract void put(int index, byte value);
+    }
+
+    /**
+     * Allocates blocks in direct buffers, outside of the heap.
+     */
+    static class Direct extends GraphStorage {
+
+        @Override
+        ByteBlock allocateBytes(int size) {
+            return new DirectBytes(ByteBuffer.allocateDirect(size));
+        }
+
+        @Override
+        IntBlock allocateInts(int size) {
+            return new DirectInts(ByteBuffer.allocateDirect(size * 4).order(
+                    ByteOrder.nativeOrder()).asIntBuffer());
+        }
+
+        @Override
+        LongBlock allocateLongs(int size) {
+            return new DirectLongs(ByteBuffer.allocateDirect(size * 8).order(
+                    ByteOrder.nativeOrder()).asLongBuffer());
+        }
+
+        /**
+         * A block of bytes held in a direct buffer.
+         */
+        private class DirectBytes extends ByteBlock {
+            /** Holds the values. */
+            private final ByteBuffer buffer;
+
+            /**
+             * Creates a new instance of DirectBytes.
+             *
+             * @param  buffer  holds the values.
+             */
+            DirectBytes(ByteBuffer buffer) {
+                this.buffer = buffer;
+            }
+
+            @Override
+            int capacity() {
+                return buffer.capacity();
+            }
+
+            @Override
+            ByteBlock copyOf(int size) {
+                DirectBytes copy = (DirectBytes) allocateBytes(size);
+                buffer.clear();
+                buffer.limit(Math.min(size, buffer.capacity()));
+                copy.buffer.put(buffer);
+                copy.buffer.clear();
+                buffer.clear();
+                return copy;
+            }
+
+            @Override
+            byte get(int index) {
+                return buffer.get(index);
+            }
+
+            @Override
+            void put(int index, byte value) {
+                buffer.put(index, value);
+            }
+        }
+
+        /**
+         * A block of ints held in a direct buffer.
+         */
+        private class DirectInts extends IntBlock {
+            /** Holds the values. */
+            private final IntBuffer buffer;
+
+            /**
+             * Creates a new instance of DirectInts.
+             *
+             * @param  buffer  holds the values.
+             */
+            DirectInts(IntBuffer buffer) {
+                this.buffer = buffer;
+            }
+
+            @Override
+            int capacity() {
+                return buffer.capacity();
+            }
+
+            @Override
+            IntBlock copyOf(int size) {
+                DirectInts copy = (DirectInts) allocateInts(size);
+                buffer.clear();
+                buffer.limit(Math.min(size, buffer.capacity()));
+                copy.buffer.put(buffer);
+                copy.buffer.clear();
+                buffer.clear();
+                return copy;
+            }
+
+            @Override
+            int get(int index) {
+                return buffer.get(index);
+            }
+
+            @Override
+            void put(int index, int value) {
+                buffer.put(index, value);
+            }
+        }
+
+        /**
+         * A block of longs held in a direct buffer.
+         */
+        private class DirectLongs extends LongBlock {
+            /** Holds the values. */
+            private final LongBuffer buffer;
+
+            /**
+             * Creates a new instance of DirectLongs.
+             *
+             * @param  buffer  holds the values.
+             */
+            DirectLongs(LongBuffer buffer) {
+                this.buffer = buffer;
+            }
+
+            @Override
+            int capacity() {
+                return buffer.capacity();
+            }
+
+            @Override
+            void fill(long value) {
+                for (int i = buffer.capacity() - 1; i >= 0; i--) {
+                    buffer.put(i, value);
+                }
+            }
+
+            @Override
+            long get(int index) {
+                return buffer.get(index);
+            }
+
+            @Override
+            void put(int index, long value) {
+                buffer.put(index, value);
+            }
+        }
+    }
+
+    /**
+     * Allocates blocks in arrays on the heap.
+     */
+    static class Heap extends GraphStorage {
+
+        @Override
+        ByteBlock allocateBytes(int size) {
+            return new HeapBytes(new byte[size]);
+        }
+
+        @Override
+        IntBlock allocateInts(int size) {
+            return new HeapInts(new int[size]);
+        }
+
+        @Override
+        LongBlock allocateLongs(int size) {
+            return new HeapLongs(new long[size]);
+        }
+
+        /**
+         * A block of bytes held in an array.
+         */
+        private static class HeapBytes extends ByteBlock {
+            /** Holds the values. */
+            private final byte[] array;
+
+            /**
+             * Creates a new instance of HeapBytes.
+             *
+             * @param  array  holds the values.
+             */
+            HeapBytes(byte[] array) {
+                this.array = array;
+            }
+
+            @Override
+            int capacity() {
+                return array.length;
+            }
+
+            @Override
+            ByteBlock copyOf(int size) {
+                return new HeapBytes(Arrays.copyOf(array, size));
+            }
+
+            @Override
+            byte get(int index) {
+                return array[index];
+            }
+
+            @Override
+            void put(int index, byte value) {
+                array[index] = value;
+            }
+        }
+
+        /**
+         * A block of ints held in an array.
+         */
+        private static class HeapInts extends IntBlock {
+            /** Holds the values. */
+            private final int[] array;
+
+            /**
+             * Creates a new instance of HeapInts.
+             *
+             * @param  array  holds the values.
+             */
+            HeapInts(int[] array) {
+                this.array = array;
+            }
+
+            @Override
+            int capacity() {
+                return array.length;
+            }
+
+            @Override
+            IntBlock copyOf(int size) {
+                return new HeapInts(Arrays.copyOf(array, size));
+            }
+
+            @Override
+            int get(int index) {
+                return array[index];
+            }
+
+            @Override
+            void put(int index, int value) {
+                array[index] = value;
+            }
+        }
+
+        /**
+         * A block of longs held in an array.
+         */
+        private static class HeapLongs extends LongBlock {
+            /** Holds the values. */
+            private final long[] array;
+
+            /**
+             * Creates a new instance of HeapLongs.
+             *
+             * @param  array  holds the values.
+             */
+            HeapLongs(long[] array) {
+                this.array = array;
+            }
+
+            @Override
+            int capacity() {
+                return array.length;
+            }
+
+            @Override
+            void fill(long value) {
+                Arrays.fill(array, value);
+            }
+
+            @Override
+            long get(int index) {
+                return array[index];
+            }
+
+            @Override
+            void put(int index, long value) {
+                array[index] = value;
+            }
+        }
+    }
+
+    /**
+     * A fixed-size block of int values.
+     */
+    abstract static class IntBlock {
+
+        /**
+         * Returns the number of values the block can hold.
+         *
+         * @return  block size.
+         */
+        abstract int capacity();
+
+        /**
+         * Creates a block of the given size, of the same kind as this
+         * one, holding as many of the values of this block as fit.
+         *
+         * @param  size  size of the new block.
+         * @return  new block.
+         */
+        abstract IntBlock copyOf(int size);
+
+        /**
+         * Returns the value at the given index.
+         *
+         * @param  index  index of value.
+         * @return  value.
+         */
+        abstract int get(int index);
+
+        /**
+         * Sets the value at the given index.
+         *
+         * @param  index  index of value.
+         * @param  value  new value.
+         */
+        abstract void put(int index, int value);
+    }
+
+    /**
+     * A fixed-size block of long values.
+     */
+    abstract static class LongBlock {
+
+        /**
+         * Returns the number of values the block can hold.
+         *
+         * @return  block size.
+         */
+        abstract int capacity();
+
+        /**
+         * Sets every value in the block to the one given.
+         *
+         * @param  value  value to be stored.
+         */
+        abstract void fill(long value);
+
+        /**
+         * Returns the value at the given index.
+         *
+         * @param  index  index of value.
+         * @return  value.
+         */
+        abstract long get(int index);
+
+        /**
+         * Sets the value at the given index.
+         *
+         * @param  index  index of value.
+         * @param  value  new value.
+         */
+        abstract void put(int index, long value);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.util;
+
+import java.util.Arrays;
+
+/**
+ * Presents a <code>FibonacciHeap</code> as an <code>IntPriorityQueue</code>,
+ * keeping the heap node of each identifier in an array so that its key
+ * can be decreased. Unlike the array-based queues, each insert allocates
+ * a heap node.
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ * If multiple threads access a heap concurrently, and at least one of the
+ * threads modifies the heap, it <em>must</em> be synchronized
+ * externally.</p>
+ *
+ * @author  Nathan Fiedler
+ */
+public class IndexedFibonacciHeap implements IntPriorityQueue {
+
+    /** The heap holding the elements. */
+    private final FibonacciHeap heap;
+    /** Heap node of each identifier, or null if absent. */
+    private final FibonacciHeap.Node[] nodes;
+
+    /**
+     * Creates a new instance of IndexedFibonacciHeap.
+     *
+     * @param  capacity  number of distinct identifiers.
+     */
+    public IndexedFibonacciHeap(int capacity) {
+        heap = new FibonacciHeap();
+        nodes = new FibonacciHeap.Node[capacity];
+    }
+
+    @Override
+    public void clear() {
+        if (!heap.isEmpty()) {
+            Arrays.fill(nodes, null);
+            heap.clear();
+        }
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return nodes[id] != null;
+    }
+
+    @Override
+    public void decreaseKey(int id, double key) {
+        if (nodes[id] == null) {
+            throw new IllegalArgumentException("element not in queue");
+        }
+        heap.decreaseKey(nodes[id], key);
+    }
+
+    @Override
+    public double getKey(int id) {
+        if (nodes[id] == null) {
+            throw new IllegalArgumentException("element not in queue");
+        }
+        return nodes[id].getKey();
+    }
+
+    @Override
+    public void insert(int id, double key) {
+        if (nodes[id] != null) {
+            throw new IllegalArgumentException("element already in queue");
+        }
+        nodes[id] = heap.insert(Integer.valueOf(id), key);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return heap.isEmpty();
+    }
+
+    @Override
+    public int min() {
+        FibonacciHeap.Node node = heap.min();
+        return node == null ? -1 : ((Integer) node.getData()).intValue();
+    }
+
+    @Override
+    public int removeMin() {
+        Object data = heap.removeMin();
+        if (data == null) {
+            return -1;
+        }
+        int id = ((Integer) data).intValue();
+        nodes[id] = null;
+        return id;
+    }
+
+    @Override
+    public int size() {
+        return heap.size();
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.util;
+
+import java.util.Arrays;
+
+/**
+ * A disjoint-set (union-find) structure over the integers from zero to
+ * one less than its size. Unlike <code>DisjointSet</code>, it holds no
+ * objects and is backed by a single int array: each element refers to its
+ * parent, and each root holds the negated size of its set. Sets are joined
+ * by size, and find() halves the path as it goes, both without recursion,
+ * so a sequence of operations runs in nearly linear time.
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ * If multiple threads access a set concurrently, and at least one of the
+ * threads modifies the set, it <em>must</em> be synchronized externally,
+ * or use <code>ConcurrentDisjointSet</code> instead.</p>
+ *
+ * @author  Nathan Fiedler
+ */
+public class IntDisjointSet {
+
+    /** Parent of each element, or the negated set size for a root. */
+    private final int[] parents;
+    /** Number of disjoint sets. */
+    private int setCount;
+
+    /**
+     * Creates a new instance of IntDisjointSet, with each element in a
+     * set of its own.
+     *
+     * @param  size  number of elements.
+     * @throws  IllegalArgumentException
+     *          if size is negative.
+     */
+    public IntDisjointSet(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size cannot be negative");
+        }
+        parents = new int[size];
+        clear();
+    }
+
+    /**
+     * Returns every element to a set of its own.
+     */
+    public void clear() {
+        Arrays.fill(parents, -1);
+        setCount = parents.length;
+    }
+
+    /**
+     * Indicates if the two elements are in the same set.
+     *
+     * @param  a  first element.
+     * @param  b  second element.
+     * @return  true if in the same set, false otherwise.
+     */
+    public boolean connected(int a, int b) {
+        return find(a) == find(b);
+    }
+
+    /**
+     * Finds the root of the set containing the given element. Each
+     * element visited is made to point to its grandparent, halving the
+     * length of the path for later calls.
+     *
+     * @param  x  element to find.
+     * @return  root of the set.
+     * @throws  IndexOutOfBoundsException
+     *          if x is outside the set.
+     */
+    public int find(int x) {
+        int[] p = parents;
+        if (x < 0 || x >= p.length) {
+            throw new IndexOutOfBoundsException("element: " + x);
+        }
+        int parent = p[x];
+        while (parent >= 0) {
+            int grandparent = p[parent];
+            if (grandparent < 0) {
+                return parent;
+            }
+            p[x] = grandparent;
+            x = grandparent;
+            parent = p[x];
+        }
+        return x;
+    }
+
+    /**
+     * Returns the number of disjoint sets.
+     *
+     * @return  number of sets.
+     */
+    public int getSetCount() {
+        return setCount;
+    }
+
+    /**
+     * Returns the number of elements in the set containing the given
+     * element.
+     *
+     * @param  x  element of the set.
+     * @return  size of the set.
+     */
+    public int getSetSize(int x) {
+        return -parents[find(x)];
+    }
+
+    /**
+     * Returns the number of elements.
+     *
+     * @return  number of elements.
+     */
+    public int size() {
+        return parents.length;
+    }
+
+    /**
+     * Joins the sets containing the two elements, making the root of the
+     * smaller set a child of the root of the larger.
+     *
+     * @param  a  first element.
+     * @param  b  second element.
+     * @return  true if the sets were joined, false if the elements were
+     *          already in the same set.
+     */
+    public boolean union(int a, int b) {
+        int ra = find(a);
+        int rb = find(b);
+        if (ra == rb) {
+            return false;
+        }
+        int[] p = parents;
+        // Sizes are negated, so the larger set has the smaller value.
+        if (p[ra] > p[rb]) {
+            int t = ra;
+            ra = rb;
+            rb = t;
+        }
+        p[ra] += p[rb];
+        p[rb] = ra;
+        setCount--;
+        return true;
+    }
+}
@@ -0,0 +1,853 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.util;
+
+import com.bluemarsh.graphmaker.core.util.GraphStorage.ByteBlock;
+import com.bluemarsh.graphmaker.core.util.GraphStorage.IntBlock;
+import com.bluemarsh.graphmaker.core.util.GraphStorage.LongBlock;
+import java.util.BitSet;
+
+/**
+ * A compact graph structure that identifies vertices and edges by int
+ * values and holds all of its data in primitive arrays. It is intended
+ * to serve as the storage underneath richer, object-based graph models,
+ * and for algorithms that must process very large graphs without the
+ * overhead of boxing, iterators, or per-element objects.
+ *
+ * <p>Vertices are numbered from zero to <code>getVertexCount() - 1</code>
+ * and edges from zero to <code>getEdgeCount() - 1</code>. The numbering
+ * is kept dense: removing a vertex shifts the higher vertex numbers down
+ * by one, while removing an edge moves the last edge into the vacated
+ * slot.</p>
+ *
+ * <p>Each edge <code>e</code> has two arcs: <code>2e</code> runs from the
+ * source to the target, and <code>2e + 1</code> runs from the target to
+ * the source. A directed edge only has the first of these arcs in the
+ * adjacency lists, while an undirected edge has both. The arcs leaving
+ * a vertex can be traversed without allocation like so:</p>
+ *
+ *<pre>
+ *     for (int a = g.getFirstOut(v); a != -1; a = g.getNextOut(a)) {
+ *         int w = g.getHead(a);
+ *         ...
+ *     }
+ *</pre>
+ *
+ * <p>At most one edge may join a pair of vertices in a given direction,
+ * which permits finding an edge from its endpoints in constant time.</p>
+ *
+ * <p>By default the data is held in ordinary arrays on the heap, but
+ * the graph can instead be created with direct NIO buffers, which are
+ * allocated outside of the Java heap. A graph with
+ * many millions of edges then adds little to the memory that must be
+ * scanned by the garbage collector. The native memory is released when
+ * the graph (or a buffer that was replaced as the graph grew) is
+ * collected, and its total is limited by the
+ * <code>-XX:MaxDirectMemorySize</code> setting of the virtual
+ * machine.</p>
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ * If multiple threads access a graph concurrently, and at least one of
+ * the threads modifies the graph, it <em>must</em> be synchronized
+ * externally.</p>
+ *
+ * @author  Nathan Fiedler
+ */
+public class IntGraph {
+
+    /** Marks the end of an arc list, or an absent arc. */
+    public static final int NONE = -1;
+    /** Marks an empty slot in the arc hash table. Valid keys are never
+     * negative since vertex numbers are never negative. */
+    private static final long EMPTY = -1L;
+    /** Initial capacity of the arrays, if none is given. */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /** Allocates the blocks that hold the graph data. */
+    private final GraphStorage storage;
+    /** Number of vertices in the graph. */
+    private int vertexCount;
+    /** First arc leaving each vertex. */
+    private IntBlock firstOut;
+    /** First arc entering each vertex. */
+    private IntBlock firstIn;
+    /** Number of arcs leaving each vertex. */
+    private IntBlock outDegree;
+    /** Number of arcs entering each vertex. */
+    private IntBlock inDegree;
+    /** Number of edges in the graph. */
+    private int edgeCount;
+    /** Source vertex of each edge. */
+    private IntBlock sources;
+    /** Target vertex of each edge. */
+    private IntBlock targets;
+    /** Non-zero for each edge that is directed. */
+    private ByteBlock directed;
+    /** Next arc leaving the same vertex, indexed by arc. */
+    private IntBlock nextOut;
+    /** Next arc entering the same vertex, indexed by arc. */
+    private IntBlock nextIn;
+    /** Keys of the arc hash table, consisting of the tail vertex in the
+     * upper 32 bits and the head vertex in the lower 32 bits. */
+    private LongBlock arcKeys;
+    /** Arcs in the arc hash table, parallel to the keys. */
+    private IntBlock arcValues;
+    /** Number of slots in the arc hash table, a power of two. */
+    private int arcSlots;
+    /** Number of entries in the arc hash table. */
+    private int arcKeyCount;
+
+    /**
+     * Creates a new instance of IntGraph, held in heap arrays.
+     */
+    public IntGraph() {
+        this(DEFAULT_CAPACITY, DEFAULT_CAPACITY, false);
+    }
+
+    /**
+     * Creates a new instance of IntGraph with room for the given number
+     * of vertices and edges. The graph will grow beyond these sizes as
+     * needed.
+     *
+     * @param  vertices  initial vertex capacity.
+     * @param  edges     initial edge capacity.
+     * @param  direct    true to allocate direct buffers outside of the
+     *                   heap, false to use heap arrays.
+     */
+    public IntGraph(int vertices, int edges, boolean direct) {
+        if (vertices < 0 || edges < 0) {
+            throw new IllegalArgumentException("capacity cannot be negative");
+        }
+        storage = direct ? new GraphStorage.Direct()
+                : new GraphStorage.Heap();
+        vertices = Math.max(vertices, 1);
+        edges = Math.max(edges, 1);
+        firstOut = storage.allocateInts(vertices);
+        firstIn = storage.allocateInts(vertices);
+        outDegree = storage.allocateInts(vertices);
+        inDegree = storage.allocateInts(vertices);
+        sources = storage.allocateInts(edges);
+        targets = storage.allocateInts(edges);
+        directed = storage.allocateBytes(edges);
+        nextOut = storage.allocateInts(edges * 2);
+        nextIn = storage.allocateInts(edges * 2);
+        allocateTable(Integer.highestOneBit(edges * 2) * 2);
+    }
+
+    /**
+     * Adds an edge between the two given vertices.
+     *
+     * @param  source    starting vertex.
+     * @param  target    ending vertex.
+     * @param  isDirected  true if the edge is directed.
+     * @return  number of the new edge.
+     * @throws  IllegalArgumentException
+     *          if the endpoints are the same, or an edge already joins
+     *          the two vertices.
+     * @throws  IndexOutOfBoundsException
+     *          if either vertex is not in the graph.
+     */
+    public int addEdge(int source, int target, boolean isDirected) {
+        checkVertex(source);
+        checkVertex(target);
+        if (source == target) {
+            throw new IllegalArgumentException("edge endpoints are same");
+        }
+        if (findArc(source, target) != NONE
+                || (!isDirected && findArc(target, source) != NONE)) {
+            throw new IllegalArgumentException("edge already exists");
+        }
+        if (edgeCount == sources.capacity()) {
+            growEdges();
+        }
+        int e = edgeCount++;
+        sources.put(e, source);
+        targets.put(e, target);
+        directed.put(e, isDirected ? (byte) 1 : (byte) 0);
+        linkArc(e << 1);
+        if (!isDirected) {
+            linkArc((e << 1) | 1);
+        }
+        return e;
+    }
+
+    /**
+     * Adds a vertex to the graph.
+     *
+     * @return  number of the new vertex.
+     */
+    public int addVertex() {
+        if (vertexCount == firstOut.capacity()) {
+            int size = grow(vertexCount);
+            firstOut = firstOut.copyOf(size);
+            firstIn = firstIn.copyOf(size);
+            outDegree = outDegree.copyOf(size);
+            inDegree = inDegree.copyOf(size);
+        }
+        int v = vertexCount++;
+        firstOut.put(v, NONE);
+        firstIn.put(v, NONE);
+        outDegree.put(v, 0);
+        inDegree.put(v, 0);
+        return v;
+    }
+
+    /**
+     * Allocates an empty arc hash table with the given number of slots.
+     *
+     * @param  slots  table size, a power of two.
+     */
+    private void allocateTable(int slots) {
+        arcKeys = storage.allocateLongs(slots);
+        arcKeys.fill(EMPTY);
+        arcValues = storage.allocateInts(slots);
+        arcSlots = slots;
+        arcKeyCount = 0;
+    }
+
+    /**
+     * Ensure the given edge is in the graph.
+     *
+     * @param  e  edge number.
+     */
+    private void checkEdge(int e) {
+        if (e < 0 || e >= edgeCount) {
+            throw new IndexOutOfBoundsException("edge " + e);
+        }
+    }
+
+    /**
+     * Ensure the given vertex is in the graph.
+     *
+     * @param  v  vertex number.
+     */
+    private void checkVertex(int v) {
+        if (v < 0 || v >= vertexCount) {
+            throw new IndexOutOfBoundsException("vertex " + v);
+        }
+    }
+
+    /**
+     * Removes all vertices and edges from the graph.
+     */
+    public void clear() {
+        vertexCount = 0;
+        edgeCount = 0;
+        arcKeys.fill(EMPTY);
+        arcKeyCount = 0;
+    }
+
+    /**
+     * Returns the edge to which the given arc belongs.
+     *
+     * @param  arc  arc number.
+     * @return  edge number.
+     */
+    public static int edgeOf(int arc) {
+        return arc >> 1;
+    }
+
+    /**
+     * Ensures the graph can hold at least the given number of vertices
+     * and edges without having to grow. This is useful before adding a
+     * large number of components, as each array is then allocated just
+     * once.
+     *
+     * @param  vertices  minimum vertex capacity.
+     * @param  edges     minimum edge capacity.
+     */
+    public void ensureCapacity(int vertices, int edges) {
+        if (vertices > firstOut.capacity()) {
+            firstOut = firstOut.copyOf(vertices);
+            firstIn = firstIn.copyOf(vertices);
+            outDegree = outDegree.copyOf(vertices);
+            inDegree = inDegree.copyOf(vertices);
+        }
+        if (edges > sources.capacity()) {
+            resizeEdges(edges);
+        }
+        // Keep the hash table no more than half full with every edge
+        // having two arcs.
+        long slots = arcSlots;
+        while (slots < (long) edges * 4) {
+            slots *= 2;
+        }
+        if (slots > arcSlots) {
+            rehash((int) slots);
+        }
+    }
+
+    /**
+     * Finds the arc leading from one vertex to another.
+     *
+     * <p><em>Running time: O(1) expected</em></p>
+     *
+     * @param  tail  starting vertex.
+     * @param  head  ending vertex.
+     * @return  arc number, or NONE if there is no such arc.
+     */
+    public int findArc(int tail, int head) {
+        if (tail < 0 || head < 0) {
+            return NONE;
+        }
+        long key = key(tail, head);
+        int mask = arcSlots - 1;
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            long k = arcKeys.get(i);
+            if (k == key) {
+                return arcValues.get(i);
+            } else if (k == EMPTY) {
+                return NONE;
+            }
+        }
+    }
+
+    /**
+     * Finds the edge by which one vertex reaches another. For undirected
+     * edges the order of the vertices does not matter.
+     *
+     * <p><em>Running time: O(1) expected</em></p>
+     *
+     * @param  tail  starting vertex.
+     * @param  head  ending vertex.
+     * @return  edge number, or NONE if there is no such edge.
+     */
+    public int findEdge(int tail, int head) {
+        int arc = findArc(tail, head);
+        return arc == NONE ? NONE : arc >> 1;
+    }
+
+    /**
+     * Returns the number of edges in the graph.
+     *
+     * @return  edge count.
+     */
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Returns the first arc entering the given vertex.
+     *
+     * @param  v  vertex number.
+     * @return  arc number, or NONE if there are no arcs.
+     */
+    public int getFirstIn(int v) {
+        checkVertex(v);
+        return firstIn.get(v);
+    }
+
+    /**
+     * Returns the first arc leaving the given vertex.
+     *
+     * @param  v  vertex number.
+     * @return  arc number, or NONE if there are no arcs.
+     */
+    public int getFirstOut(int v) {
+        checkVertex(v);
+        return firstOut.get(v);
+    }
+
+    /**
+     * Returns the vertex at which the given arc ends.
+     *
+     * @param  arc  arc number.
+     * @return  head vertex.
+     */
+    public int getHead(int arc) {
+        int e = arc >> 1;
+        return (arc & 1) == 0 ? targets.get(e) : sources.get(e);
+    }
+
+    /**
+     * Returns the number of arcs entering the given vertex.
+     *
+     * @param  v  vertex number.
+     * @return  in-degree of vertex.
+     */
+    public int getInDegree(int v) {
+        checkVertex(v);
+        return inDegree.get(v);
+    }
+
+    /**
+     * Returns the next arc entering the same vertex as the given arc.
+     *
+     * @param  arc  arc number.
+     * @return  arc number, or NONE if there are no more arcs.
+     */
+    public int getNextIn(int arc) {
+        return nextIn.get(arc);
+    }
+
+    /**
+     * Returns the next arc leaving the same vertex as the given arc.
+     *
+     * @param  arc  arc number.
+     * @return  arc number, or NONE if there are no more arcs.
+     */
+    public int getNextOut(int arc) {
+        return nextOut.get(arc);
+    }
+
+    /**
+     * Returns the number of arcs leaving the given vertex.
+     *
+     * @param  v  vertex number.
+     * @return  out-degree of vertex.
+     */
+    public int getOutDegree(int v) {
+        checkVertex(v);
+        return outDegree.get(v);
+    }
+
+    /**
+     * Returns the source vertex of the given edge.
+     *
+     * @param  e  edge number.
+     * @return  source vertex.
+     */
+    public int getSource(int e) {
+        checkEdge(e);
+        return sources.get(e);
+    }
+
+    /**
+     * Returns the vertex at which the given arc starts.
+     *
+     * @param  arc  arc number.
+     * @return  tail vertex.
+     */
+    public int getTail(int arc) {
+        int e = arc >> 1;
+        return (arc & 1) == 0 ? sources.get(e) : targets.get(e);
+    }
+
+    /**
+     * Returns the target vertex of the given edge.
+     *
+     * @param  e  edge number.
+     * @return  target vertex.
+     */
+    public int getTarget(int e) {
+        checkEdge(e);
+        return targets.get(e);
+    }
+
+    /**
+     * Returns the number of vertices in the graph.
+     *
+     * @return  vertex count.
+     */
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * Computes the new size for an array that has become full.
+     *
+     * @param  size  current size of the array.
+     * @return  new size.
+     */
+    private static int grow(int size) {
+        return Math.max(size + (size >> 1), DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Enlarges the arrays that hold the edges and arcs.
+     */
+    private void growEdges() {
+        resizeEdges(grow(sources.capacity()));
+    }
+
+    /**
+     * Indicates if the graph is held in direct (off-heap) buffers.
+     *
+     * @return  true if direct, false if on the heap.
+     */
+    public boolean isDirect() {
+        return storage instanceof GraphStorage.Direct;
+    }
+
+    /**
+     * Indicates if the given edge is directed.
+     *
+     * @param  e  edge number.
+     * @return  true if directed, false otherwise.
+     */
+    public boolean isDirected(int e) {
+        checkEdge(e);
+        return directed.get(e) != 0;
+    }
+
+    /**
+     * Builds the hash table key for the given pair of vertices.
+     *
+     * @param  tail  starting vertex.
+     * @param  head  ending vertex.
+     * @return  hash key.
+     */
+    private static long key(int tail, int head) {
+        return ((long) tail << 32) | (head & 0xffffffffL);
+    }
+
+    /**
+     * Adds the given arc to the adjacency lists and the hash table.
+     *
+     * @param  arc  arc to be linked.
+     */
+    private void linkArc(int arc) {
+        int tail = getTail(arc);
+        int head = getHead(arc);
+        nextOut.put(arc, firstOut.get(tail));
+        firstOut.put(tail, arc);
+        outDegree.put(tail, outDegree.get(tail) + 1);
+        nextIn.put(arc, firstIn.get(head));
+        firstIn.put(head, arc);
+        inDegree.put(head, inDegree.get(head) + 1);
+        putArc(key(tail, head), arc);
+    }
+
+    /**
+     * Enters the arc in the hash table, growing the table if necessary.
+     *
+     * @param  key  hash key of arc.
+     * @param  arc  arc number.
+     */
+    private void putArc(long key, int arc) {
+        // Keep the table no more than half full, so probe sequences
+        // remain short.
+        if ((arcKeyCount + 1) * 2 > arcSlots) {
+            rehash(arcSlots * 2);
+        }
+        int mask = arcSlots - 1;
+        int i = slot(key);
+        long k = arcKeys.get(i);
+        while (k != EMPTY && k != key) {
+            i = (i + 1) & mask;
+            k = arcKeys.get(i);
+        }
+        if (k == EMPTY) {
+            arcKeyCount++;
+        }
+        arcKeys.put(i, key);
+        arcValues.put(i, arc);
+    }
+
+    /**
+     * Rebuilds the hash table with the given number of slots, entering
+     * every arc that is currently linked.
+     *
+     * @param  slots  new table size, a power of two.
+     */
+    private void rehash(int slots) {
+        allocateTable(slots);
+        for (int e = 0; e < edgeCount; e++) {
+            int arc = e << 1;
+            int s = sources.get(e);
+            int t = targets.get(e);
+            putArc(key(s, t), arc);
+            if (directed.get(e) == 0) {
+                putArc(key(t, s), arc | 1);
+            }
+        }
+    }
+
+    /**
+     * Removes the given arc from the hash table. Uses backward shift
+     * deletion so that no tombstones are left behind.
+     *
+     * @param  key  hash key of arc.
+     */
+    private void removeArc(long key) {
+        int mask = arcSlots - 1;
+        int i = slot(key);
+        long ki = arcKeys.get(i);
+        while (ki != key) {
+            if (ki == EMPTY) {
+                return;
+            }
+            i = (i + 1) & mask;
+            ki = arcKeys.get(i);
+        }
+        int j = (i + 1) & mask;
+        for (long kj = arcKeys.get(j); kj != EMPTY; kj = arcKeys.get(j)) {
+            int k = slot(kj);
+            // Move the entry at j into the hole at i, unless its home
+            // slot k lies cyclically within (i, j].
+            boolean stays = (i <= j) ? (i < k && k <= j) : (i < k || k <= j);
+            if (!stays) {
+                arcKeys.put(i, kj);
+                arcValues.put(i, arcValues.get(j));
+                i = j;
+            }
+            j = (j + 1) & mask;
+        }
+        arcKeys.put(i, EMPTY);
+        arcKeyCount--;
+    }
+
+    /**
+     * Removes the given edge from the graph. To keep the edge numbers
+     * dense, the last edge (numbered <code>getEdgeCount() - 1</code>
+     * before the call) is renumbered to take the place of the removed
+     * edge.
+     *
+     * <p><em>Running time: O(d) where d is the degree of the endpoints
+     * of the removed and renumbered edges</em></p>
+     *
+     * @param  e  edge to be removed.
+     */
+    public void removeEdge(int e) {
+        checkEdge(e);
+        unlinkArc(e << 1);
+        if (directed.get(e) == 0) {
+            unlinkArc((e << 1) | 1);
+        }
+        int last = --edgeCount;
+        if (e != last) {
+            // Move the last edge into the vacated slot, updating every
+            // reference to its arcs.
+            sources.put(e, sources.get(last));
+            targets.put(e, targets.get(last));
+            directed.put(e, directed.get(last));
+            renameArc(last << 1, e << 1);
+            if (directed.get(e) == 0) {
+                renameArc((last << 1) | 1, (e << 1) | 1);
+            }
+        }
+    }
+
+    /**
+     * Removes the given vertex from the graph. The vertex must not have
+     * any edges connected to it. All vertices with higher numbers are
+     * renumbered down by one.
+     *
+     * <p><em>Running time: O(V + E)</em></p>
+     *
+     * @param  v  vertex to be removed.
+     * @throws  IllegalStateException
+     *          if the vertex has edges connected to it.
+     */
+    public void removeVertex(int v) {
+        checkVertex(v);
+        if (firstOut.get(v) != NONE || firstIn.get(v) != NONE) {
+            throw new IllegalStateException("vertex must not have edges");
+        }
+        vertexCount--;
+        for (int u = v; u < vertexCount; u++) {
+            firstOut.put(u, firstOut.get(u + 1));
+            firstIn.put(u, firstIn.get(u + 1));
+            outDegree.put(u, outDegree.get(u + 1));
+            inDegree.put(u, inDegree.get(u + 1));
+        }
+        for (int e = 0; e < edgeCount; e++) {
+            int s = sources.get(e);
+            if (s > v) {
+                sources.put(e, s - 1);
+            }
+            int t = targets.get(e);
+            if (t > v) {
+                targets.put(e, t - 1);
+            }
+        }
+        // The keys depend on the vertex numbers, so rebuild the table.
+        rehash(arcSlots);
+    }
+
+    /**
+     * Removes the given vertices from the graph. The vertices must not
+     * have any edges connected to them. The remaining vertices are
+     * renumbered down to keep the numbering dense, in the same order as
+     * before. This is equivalent to, but much faster than, removing the
+     * vertices one at a time.
+     *
+     * <p><em>Running time: O(V + E)</em></p>
+     *
+     * @param  vertices  numbers of the vertices to be removed.
+     * @throws  IllegalStateException
+     *          if any of the vertices has edges connected to it.
+     */
+    public void removeVertices(BitSet vertices) {
+        if (vertices.isEmpty()) {
+            return;
+        }
+        for (int v = vertices.nextSetBit(0); v >= 0;
+                v = vertices.nextSetBit(v + 1)) {
+            checkVertex(v);
+            if (firstOut.get(v) != NONE || firstIn.get(v) != NONE) {
+                throw new IllegalStateException("vertex must not have edges");
+            }
+        }
+        int[] renumber = new int[vertexCount];
+        int count = 0;
+        for (int v = 0; v < vertexCount; v++) {
+            if (vertices.get(v)) {
+                renumber[v] = NONE;
+            } else {
+                renumber[v] = count;
+                firstOut.put(count, firstOut.get(v));
+                firstIn.put(count, firstIn.get(v));
+                outDegree.put(count, outDegree.get(v));
+                inDegree.put(count, inDegree.get(v));
+                count++;
+            }
+        }
+        vertexCount = count;
+        for (int e = 0; e < edgeCount; e++) {
+            sources.put(e, renumber[sources.get(e)]);
+            targets.put(e, renumber[targets.get(e)]);
+        }
+        // The keys depend on the vertex numbers, so rebuild the table.
+        rehash(arcSlots);
+    }
+
+    /**
+     * Replaces every reference to one arc with another arc number. The
+     * endpoints of the new arc must already be set.
+     *
+     * @param  from  old arc number.
+     * @param  to    new arc number.
+     */
+    private void renameArc(int from, int to) {
+        int tail = getTail(to);
+        int head = getHead(to);
+        nextOut.put(to, nextOut.get(from));
+        nextIn.put(to, nextIn.get(from));
+        if (firstOut.get(tail) == from) {
+            firstOut.put(tail, to);
+        } else {
+            int a = firstOut.get(tail);
+            while (nextOut.get(a) != from) {
+                a = nextOut.get(a);
+            }
+            nextOut.put(a, to);
+        }
+        if (firstIn.get(head) == from) {
+            firstIn.put(head, to);
+        } else {
+            int a = firstIn.get(head);
+            while (nextIn.get(a) != from) {
+                a = nextIn.get(a);
+            }
+            nextIn.put(a, to);
+        }
+        putArc(key(tail, head), to);
+    }
+
+    /**
+     * Reallocates the arrays that hold the edges and arcs to hold the
+     * given number of edges.
+     *
+     * @param  size  new edge capacity.
+     */
+    private void resizeEdges(int size) {
+        sources = sources.copyOf(size);
+        targets = targets.copyOf(size);
+        directed = directed.copyOf(size);
+        nextOut = nextOut.copyOf(size * 2);
+        nextIn = nextIn.copyOf(size * 2);
+    }
+
+    /**
+     * Computes the home slot in the hash table for the given key.
+     *
+     * @param  key  hash key.
+     * @return  slot index.
+     */
+    private int slot(long key) {
+        // Fibonacci hashing spreads the bits of both vertex numbers.
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> (64 - Integer.numberOfTrailingZeros(
+                arcSlots))) & (arcSlots - 1);
+    }
+
+    /**
+     * Removes the given arc from the adjacency lists and the hash table.
+     *
+     * @param  arc  arc to be unlinked.
+     */
+    private void unlinkArc(int arc) {
+        int tail = getTail(arc);
+        int head = getHead(arc);
+        if (firstOut.get(tail) == arc) {
+            firstOut.put(tail, nextOut.get(arc));
+        } else {
+            int a = firstOut.get(tail);
+            while (nextOut.get(a) != arc) {
+                a = nextOut.get(a);
+            }
+            nextOut.put(a, nextOut.get(arc));
+        }
+        outDegree.put(tail, outDegree.get(tail) - 1);
+        if (firstIn.get(head) == arc) {
+            firstIn.put(head, nextIn.get(arc));
+        } else {
+            int a = firstIn.get(head);
+            while (nextIn.get(a) != arc) {
+                a = nextIn.get(a);
+            }
+            nextIn.put(a, nextIn.get(arc));
+        }
+        inDegree.put(head, inDegree.get(head) - 1);
+        removeArc(key(tail, head));
+    }
+
+    /**
+     * Invokes the visitor for each arc entering the given vertex.
+     *
+     * @param  v        vertex number.
+     * @param  visitor  receives the arcs.
+     */
+    public void visitIn(int v, ArcVisitor visitor) {
+        for (int a = getFirstIn(v); a != NONE; a = nextIn.get(a)) {
+            visitor.visit(a, getTail(a));
+        }
+    }
+
+    /**
+     * Invokes the visitor for each arc leaving the given vertex.
+     *
+     * @param  v        vertex number.
+     * @param  visitor  receives the arcs.
+     */
+    public void visitOut(int v, ArcVisitor visitor) {
+        for (int a = getFirstOut(v); a != NONE; a = nextOut.get(a)) {
+            visitor.visit(a, getHead(a));
+        }
+    }
+
+    /**
+     * Receives the arcs adjacent to a vertex.
+     */
+    public static interface ArcVisitor {
+
+        /**
+         * Invoked for each arc adjacent to the vertex being visited.
+         *
+         * @param  arc     arc number.
+         * @param  vertex  vertex at the other end of the arc.
+         */
+        void visit(int arc, int vertex);
+    }
+}
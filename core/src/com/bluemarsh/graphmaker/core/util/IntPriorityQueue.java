@@ -0,0 +1,112 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.util;
+
+/**
+ * A priority queue of integer identifiers, each with a key of type
+ * double, from which the element with the smallest key is removed first.
+ * The identifiers range from zero to one less than the capacity given
+ * when the queue was created, and each may be in the queue at most once.
+ * Because the identifiers index directly into the queue's own arrays, the
+ * key of any element can be decreased without searching for it.
+ *
+ * <p>Implementations are not synchronized.</p>
+ *
+ * @author  Nathan Fiedler
+ */
+public interface IntPriorityQueue {
+
+    /**
+     * Removes all elements from this queue.
+     */
+    void clear();
+
+    /**
+     * Indicates if the given element is in this queue.
+     *
+     * @param  id  element identifier.
+     * @return  true if present, false otherwise.
+     */
+    boolean contains(int id);
+
+    /**
+     * Decreases the key of an element in this queue.
+     *
+     * @param  id   element identifier.
+     * @param  key  new key, no larger than the current key.
+     * @throws  IllegalArgumentException
+     *          if the element is not in the queue, or the key is larger
+     *          than the current key.
+     */
+    void decreaseKey(int id, double key);
+
+    /**
+     * Returns the key of an element in this queue.
+     *
+     * @param  id  element identifier.
+     * @return  key of the element.
+     * @throws  IllegalArgumentException
+     *          if the element is not in the queue.
+     */
+    double getKey(int id);
+
+    /**
+     * Adds an element to this queue.
+     *
+     * @param  id   element identifier.
+     * @param  key  key of the element.
+     * @throws  IllegalArgumentException
+     *          if the element is already in the queue.
+     * @throws  IndexOutOfBoundsException
+     *          if the identifier is outside the capacity of the queue.
+     */
+    void insert(int id, double key);
+
+    /**
+     * Indicates if this queue is empty.
+     *
+     * @return  true if empty, false otherwise.
+     */
+    boolean isEmpty();
+
+    /**
+     * Returns the element with the smallest key, without removing it.
+     *
+     * @return  element identifier, or -1 if the queue is empty.
+     */
+    int min();
+
+    /**
+     * Removes the element with the smallest key.
+     *
+     * @return  element identifier, or -1 if the queue is empty.
+     */
+    int removeMin();
+
+    /**
+     * Returns the number of elements in this queue.
+     *
+     * @return  number of elements.
+     */
+    int size();
+}
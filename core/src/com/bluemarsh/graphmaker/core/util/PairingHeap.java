@@ -0,0 +1,230 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.util;
+
+import java.util.Arrays;
+
+/**
+ * A pairing heap of integer identifiers. The heap-ordered tree is held
+ * in arrays indexed by identifier, giving the first child, next sibling,
+ * and previous sibling (or parent, for a first child) of each element,
+ * so that no objects are allocated once the heap has been created.
+ * Removing the minimum pairs up its children from left to right and then
+ * merges the pairs from right to left.
+ *
+ * <p>insert() and decreaseKey() run in O(1) time, and removeMin() in
+ * O(log n) amortized time. In practice pairing heaps are often faster
+ * than Fibonacci heaps, having far less structure to maintain.</p>
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ * If multiple threads access a heap concurrently, and at least one of the
+ * threads modifies the heap, it <em>must</em> be synchronized
+ * externally.</p>
+ *
+ * @author  Nathan Fiedler
+ */
+public class PairingHeap implements IntPriorityQueue {
+
+    /** Key of each identifier. */
+    private final double[] keys;
+    /** First child of each element, or -1. */
+    private final int[] child;
+    /** Next sibling of each element, or -1. */
+    private final int[] next;
+    /** Previous sibling of each element, or its parent if it is the
+     * first child, or -1 if it is the root. */
+    private final int[] prev;
+    /** True for each identifier in the heap. */
+    private final boolean[] present;
+    /** Holds the subtrees formed by the first pass of removeMin(). */
+    private final int[] pairs;
+    /** The element with the smallest key, or -1 if empty. */
+    private int root;
+    /** Number of elements in the heap. */
+    private int size;
+
+    /**
+     * Creates a new instance of PairingHeap.
+     *
+     * @param  capacity  number of distinct identifiers.
+     */
+    public PairingHeap(int capacity) {
+        keys = new double[capacity];
+        child = new int[capacity];
+        next = new int[capacity];
+        prev = new int[capacity];
+        present = new boolean[capacity];
+        pairs = new int[capacity / 2 + 1];
+        root = -1;
+    }
+
+    @Override
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(present, false);
+        }
+        root = -1;
+        size = 0;
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return present[id];
+    }
+
+    @Override
+    public void decreaseKey(int id, double key) {
+        if (!present[id]) {
+            throw new IllegalArgumentException("element not in queue");
+        }
+        if (key > keys[id]) {
+            throw new IllegalArgumentException("cannot increase key value");
+        }
+        keys[id] = key;
+        if (id != root) {
+            // Cut the subtree out of its sibling list and merge it with
+            // the root.
+            int p = prev[id];
+            if (child[p] == id) {
+                child[p] = next[id];
+            } else {
+                next[p] = next[id];
+            }
+            if (next[id] >= 0) {
+                prev[next[id]] = p;
+            }
+            next[id] = -1;
+            prev[id] = -1;
+            root = link(root, id);
+        }
+    }
+
+    @Override
+    public double getKey(int id) {
+        if (!present[id]) {
+            throw new IllegalArgumentException("element not in queue");
+        }
+        return keys[id];
+    }
+
+    @Override
+    public void insert(int id, double key) {
+        if (present[id]) {
+            throw new IllegalArgumentException("element already in queue");
+        }
+        present[id] = true;
+        keys[id] = key;
+        child[id] = -1;
+        next[id] = -1;
+        prev[id] = -1;
+        root = root < 0 ? id : link(root, id);
+        size++;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Joins two trees, making the root with the larger key the first
+     * child of the other.
+     *
+     * @param  a  root of the first tree.
+     * @param  b  root of the second tree.
+     * @return  root of the joined tree.
+     */
+    private int link(int a, int b) {
+        if (keys[b] < keys[a]) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        int c = child[a];
+        next[b] = c;
+        if (c >= 0) {
+            prev[c] = b;
+        }
+        prev[b] = a;
+        child[a] = b;
+        return a;
+    }
+
+    /**
+     * Joins the trees in a sibling list into one tree.
+     *
+     * @param  first  first tree in the list, or -1.
+     * @return  root of the joined tree, or -1 if the list was empty.
+     */
+    private int mergePairs(int first) {
+        // Link the trees in pairs from left to right.
+        int count = 0;
+        int a = first;
+        while (a >= 0) {
+            int b = next[a];
+            prev[a] = -1;
+            next[a] = -1;
+            if (b < 0) {
+                pairs[count++] = a;
+                break;
+            }
+            int rest = next[b];
+            prev[b] = -1;
+            next[b] = -1;
+            pairs[count++] = link(a, b);
+            a = rest;
+        }
+        if (count == 0) {
+            return -1;
+        }
+        // Merge the pairs from right to left.
+        int result = pairs[--count];
+        while (count > 0) {
+            result = link(pairs[--count], result);
+        }
+        return result;
+    }
+
+    @Override
+    public int min() {
+        return root;
+    }
+
+    @Override
+    public int removeMin() {
+        int id = root;
+        if (id < 0) {
+            return -1;
+        }
+        present[id] = false;
+        root = mergePairs(child[id]);
+        child[id] = -1;
+        size--;
+        return id;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
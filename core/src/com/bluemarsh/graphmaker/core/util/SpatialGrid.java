@@ -0,0 +1,337 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A spatial index that buckets two-dimensional bounding boxes into a
+ * uniform grid of square cells. Each object is recorded in every cell
+ * that its bounding box overlaps, so a point query need only examine
+ * the objects in a single cell, and a rectangle query only those in the
+ * cells the rectangle covers. Objects are compared by identity.
+ *
+ * <p>Bounds are inclusive on all sides. Cells are a power of two in
+ * size, which makes locating the cell for a coordinate a shift, even
+ * for negative coordinates. An object that would cover more than
+ * <code>MAX_CELLS</code> cells is instead kept in a separate overflow
+ * list, which every query examines, so that one very large object does
+ * not fill the grid.</p>
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ * If multiple threads access the index concurrently, and at least one
+ * of the threads modifies it, it <em>must</em> be synchronized
+ * externally.</p>
+ *
+ * @param  <T>  type of object held in the index.
+ * @author  Nathan Fiedler
+ */
+public class SpatialGrid<T> {
+    /** Default size of the grid cells, as a power of two. */
+    private static final int DEFAULT_SHIFT = 6;
+    /** Most cells an object may cover before it is kept in the
+     * overflow list instead. */
+    static final int MAX_CELLS = 256;
+    /** Size of the grid cells, as a power of two. */
+    private final int shift;
+    /** The objects in each non-empty cell, keyed by cell. */
+    private final Map<Long, List<T>> cells;
+    /** The bounds (min x, min y, max x, max y) of each object. */
+    private final Map<T, int[]> bounds;
+    /** The objects too large to be recorded in the cells. */
+    private final List<T> oversized;
+
+    /**
+     * Creates a new instance of SpatialGrid with cells 64 units wide.
+     */
+    public SpatialGrid() {
+        this(DEFAULT_SHIFT);
+    }
+
+    /**
+     * Creates a new instance of SpatialGrid. The cells should be
+     * comparable in size to the objects held in the index.
+     *
+     * @param  shift  size of the cells, as a power of two.
+     */
+    public SpatialGrid(int shift) {
+        if (shift < 0 || shift > 30) {
+            throw new IllegalArgumentException("shift must be 0 to 30");
+        }
+        this.shift = shift;
+        cells = new HashMap<Long, List<T>>();
+        bounds = new IdentityHashMap<T, int[]>();
+        oversized = new ArrayList<T>();
+    }
+
+    /**
+     * Returns the key for the cell at the given column and row. The
+     * hash code of a Long combines its two halves with exclusive-or, so
+     * every cell with equal column and row would share a bucket; the
+     * packed value is first multiplied by an odd constant, which mixes
+     * the bits while keeping the keys distinct.
+     *
+     * @param  col  cell column.
+     * @param  row  cell row.
+     * @return  cell key.
+     */
+    private static Long cellKey(int col, int row) {
+        long packed = ((long) col << 32) | (row & 0xFFFFFFFFL);
+        return Long.valueOf(packed * 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * Removes all of the objects from the index.
+     */
+    public void clear() {
+        cells.clear();
+        bounds.clear();
+        oversized.clear();
+    }
+
+    /**
+     * Indicates if the given object is in the index.
+     *
+     * @param  object  object to look for.
+     * @return  true if object is in the index, false otherwise.
+     */
+    public boolean contains(T object) {
+        return bounds.containsKey(object);
+    }
+
+    /**
+     * Finds the objects whose bounds contain the given point.
+     *
+     * @param  x  x coordinate.
+     * @param  y  y coordinate.
+     * @return  matching objects, in no particular order.
+     */
+    public List<T> find(int x, int y) {
+        List<T> result = new ArrayList<T>();
+        List<T> cell = cells.get(cellKey(x >> shift, y >> shift));
+        if (cell != null) {
+            for (T object : cell) {
+                int[] b = bounds.get(object);
+                if (x >= b[0] && y >= b[1] && x <= b[2] && y <= b[3]) {
+                    result.add(object);
+                }
+            }
+        }
+        for (T object : oversized) {
+            int[] b = bounds.get(object);
+            if (x >= b[0] && y >= b[1] && x <= b[2] && y <= b[3]) {
+                result.add(object);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the objects whose bounds intersect the given rectangle.
+     *
+     * @param  minX  least x coordinate of the rectangle.
+     * @param  minY  least y coordinate of the rectangle.
+     * @param  maxX  greatest x coordinate of the rectangle.
+     * @param  maxY  greatest y coordinate of the rectangle.
+     * @return  matching objects, in no particular order.
+     */
+    public List<T> find(int minX, int minY, int maxX, int maxY) {
+        List<T> result = new ArrayList<T>();
+        if (minX > maxX || minY > maxY) {
+            return result;
+        }
+        int minCol = minX >> shift;
+        int maxCol = maxX >> shift;
+        int minRow = minY >> shift;
+        int maxRow = maxY >> shift;
+        long area = ((long) maxCol - minCol + 1) * ((long) maxRow - minRow + 1);
+        if (area > cells.size()) {
+            // The rectangle covers more cells than are occupied, so it
+            // is cheaper to visit the objects themselves.
+            for (Map.Entry<T, int[]> entry : bounds.entrySet()) {
+                int[] b = entry.getValue();
+                if (b[0] <= maxX && b[1] <= maxY && b[2] >= minX
+                        && b[3] >= minY) {
+                    result.add(entry.getKey());
+                }
+            }
+            return result;
+        }
+        for (int col = minCol; col <= maxCol; col++) {
+            for (int row = minRow; row <= maxRow; row++) {
+                List<T> cell = cells.get(cellKey(col, row));
+                if (cell == null) {
+                    continue;
+                }
+                for (T object : cell) {
+                    int[] b = bounds.get(object);
+                    if (b[0] <= maxX && b[1] <= maxY && b[2] >= minX
+                            && b[3] >= minY) {
+                        // An object spanning several cells is reported
+                        // only from the cell holding the least corner
+                        // of its intersection with the rectangle.
+                        int cx = Math.max(b[0], minX) >> shift;
+                        int cy = Math.max(b[1], minY) >> shift;
+                        if (cx == col && cy == row) {
+                            result.add(object);
+                        }
+                    }
+                }
+            }
+        }
+        for (T object : oversized) {
+            int[] b = bounds.get(object);
+            if (b[0] <= maxX && b[1] <= maxY && b[2] >= minX
+                    && b[3] >= minY) {
+                result.add(object);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Indicates if an object with the given bounds covers too many cells
+     * to be recorded in them.
+     *
+     * @param  minX  least x coordinate of the object.
+     * @param  minY  least y coordinate of the object.
+     * @param  maxX  greatest x coordinate of the object.
+     * @param  maxY  greatest y coordinate of the object.
+     * @return  true if the object belongs in the overflow list.
+     */
+    private boolean isOversized(int minX, int minY, int maxX, int maxY) {
+        long cols = (long) (maxX >> shift) - (minX >> shift) + 1;
+        long rows = (long) (maxY >> shift) - (minY >> shift) + 1;
+        return cols * rows > MAX_CELLS;
+    }
+
+    /**
+     * Adds the object to the index, or updates its bounds if it is
+     * already present.
+     *
+     * @param  object  object to add.
+     * @param  minX    least x coordinate of the object.
+     * @param  minY    least y coordinate of the object.
+     * @param  maxX    greatest x coordinate of the object.
+     * @param  maxY    greatest y coordinate of the object.
+     */
+    public void put(T object, int minX, int minY, int maxX, int maxY) {
+        if (object == null) {
+            throw new IllegalArgumentException("object must not be null");
+        }
+        if (minX > maxX || minY > maxY) {
+            throw new IllegalArgumentException("bounds must not be negative");
+        }
+        int[] b = bounds.get(object);
+        if (b != null) {
+            if ((b[0] >> shift) == (minX >> shift)
+                    && (b[1] >> shift) == (minY >> shift)
+                    && (b[2] >> shift) == (maxX >> shift)
+                    && (b[3] >> shift) == (maxY >> shift)
+                    || isOversized(b[0], b[1], b[2], b[3])
+                    && isOversized(minX, minY, maxX, maxY)) {
+                // Still in the same cells, or still in the overflow
+                // list, so just update the bounds.
+                b[0] = minX;
+                b[1] = minY;
+                b[2] = maxX;
+                b[3] = maxY;
+                return;
+            }
+            remove(object);
+        }
+        b = new int[] { minX, minY, maxX, maxY };
+        bounds.put(object, b);
+        if (isOversized(minX, minY, maxX, maxY)) {
+            oversized.add(object);
+            return;
+        }
+        for (int col = minX >> shift; col <= maxX >> shift; col++) {
+            for (int row = minY >> shift; row <= maxY >> shift; row++) {
+                Long key = cellKey(col, row);
+                List<T> cell = cells.get(key);
+                if (cell == null) {
+                    cell = new ArrayList<T>(4);
+                    cells.put(key, cell);
+                }
+                cell.add(object);
+            }
+        }
+    }
+
+    /**
+     * Removes the object from the index.
+     *
+     * @param  object  object to remove.
+     * @return  true if the object was in the index, false otherwise.
+     */
+    public boolean remove(T object) {
+        int[] b = bounds.remove(object);
+        if (b == null) {
+            return false;
+        }
+        if (isOversized(b[0], b[1], b[2], b[3])) {
+            int size = oversized.size();
+            for (int ii = 0; ii < size; ii++) {
+                if (oversized.get(ii) == object) {
+                    oversized.set(ii, oversized.get(size - 1));
+                    oversized.remove(size - 1);
+                    break;
+                }
+            }
+            return true;
+        }
+        for (int col = b[0] >> shift; col <= b[2] >> shift; col++) {
+            for (int row = b[1] >> shift; row <= b[3] >> shift; row++) {
+                Long key = cellKey(col, row);
+                List<T> cell = cells.get(key);
+                int size = cell.size();
+                for (int ii = 0; ii < size; ii++) {
+                    if (cell.get(ii) == object) {
+                        // Order within a cell does not matter.
+                        cell.set(ii, cell.get(size - 1));
+                        cell.remove(size - 1);
+                        break;
+                    }
+                }
+                if (cell.isEmpty()) {
+                    cells.remove(key);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of objects in the index.
+     *
+     * @return  number of objects.
+     */
+    public int size() {
+        return bounds.size();
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.algo;
+
+import com.bluemarsh.graphmaker.core.model.DefaultModelFactory;
+import com.bluemarsh.graphmaker.core.model.Edge;
+import com.bluemarsh.graphmaker.core.model.FrozenModel;
+import com.bluemarsh.graphmaker.core.model.Vertex;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the time taken by Dijkstra to build a shortest-path tree, and
+ * to answer point-to-point queries, on random graphs with an average
+ * out-degree of ten. This is not run as part of the unit tests; invoke
+ * the main method directly, optionally giving the edge counts to be
+ * measured (the default is 10^5 and 10^6; 10^7 needs a heap of several
+ * gigabytes).
+ *
+ * @author  Nathan Fiedler
+ */
+public class DijkstraBenchmark {
+
+    /** Average number of edges leaving each vertex. */
+    private static final int DEGREE = 10;
+    /** Number of searches timed for each graph. */
+    private static final int SEARCHES = 10;
+
+    /**
+     * Creates a new instance of DijkstraBenchmark.
+     */
+    private DijkstraBenchmark() {
+    }
+
+    /**
+     * Builds a random graph and times the searches over it.
+     *
+     * @param  edgeCount  number of edges in the graph.
+     */
+    private static void run(int edgeCount) {
+        int vertexCount = edgeCount / DEGREE;
+        DefaultModelFactory factory = new DefaultModelFactory();
+        Random random = new Random(edgeCount);
+        List<Vertex> vertices = new ArrayList<Vertex>(vertexCount);
+        for (int ii = 0; ii < vertexCount; ii++) {
+            vertices.add(factory.createVertex(ii, ii, 0, 1.0d));
+        }
+        List<Edge> edges = new ArrayList<Edge>(edgeCount);
+        for (int ii = 0; ii < edgeCount; ii++) {
+            Edge e = factory.createEdge(vertices.get(ii % vertexCount),
+                    vertices.get(random.nextInt(vertexCount)), true);
+            e.setCost(1 + random.nextInt(1000));
+            edges.add(e);
+        }
+        FrozenModel graph = new FrozenModel(vertices, edges);
+        vertices = null;
+        edges = null;
+        Dijkstra dijkstra = new Dijkstra(graph);
+
+        // Warm up the compiler before timing.
+        for (int ii = 0; ii < 3; ii++) {
+            dijkstra.findTree(random.nextInt(vertexCount));
+        }
+        long start = System.nanoTime();
+        for (int ii = 0; ii < SEARCHES; ii++) {
+            dijkstra.findTree(random.nextInt(vertexCount));
+        }
+        long tree = (System.nanoTime() - start) / SEARCHES;
+        start = System.nanoTime();
+        for (int ii = 0; ii < SEARCHES; ii++) {
+            dijkstra.findPath(random.nextInt(vertexCount),
+                    random.nextInt(vertexCount));
+        }
+        long path = (System.nanoTime() - start) / SEARCHES;
+        System.out.format("%,12d edges  tree %,10.1f ms  path %,10.1f ms%n",
+                edgeCount, tree / 1e6, path / 1e6);
+    }
+
+    /**
+     * Runs the benchmark for each of the edge counts.
+     *
+     * @param  args  edge counts to measure (optional).
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            args = new String[] { "100000", "1000000" };
+        }
+        for (String arg : args) {
+            run(Integer.parseInt(arg));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.algo;
+
+import com.bluemarsh.graphmaker.core.model.DefaultModelFactory;
+import com.bluemarsh.graphmaker.core.model.Edge;
+import com.bluemarsh.graphmaker.core.model.FrozenModel;
+import com.bluemarsh.graphmaker.core.model.ModelFactory;
+import com.bluemarsh.graphmaker.core.model.Vertex;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Tests the Dijkstra and ShortestPathTree classes.
+ *
+ * @author  Nathan Fiedler
+ */
+public class DijkstraTest {
+
+    @Test
+    public void test_Dijkstra() {
+        ModelFactory factory = new DefaultModelFactory();
+        List<Vertex> vertices = new ArrayList<Vertex>();
+        for (int ii = 0; ii < 5; ii++) {
+            vertices.add(factory.createVertex(ii, ii, 0, 1.0d));
+        }
+        List<Edge> edges = new ArrayList<Edge>();
+        // 0 -> 1 (10), 0 -> 2 (3), 2 -> 1 (4), 1 -> 3 (2), 2 - 3 (9);
+        // vertex 4 is unreachable.
+        int[][] arcs = { {0, 1, 10}, {0, 2, 3}, {2, 1, 4}, {1, 3, 2},
+            {2, 3, 9} };
+        for (int[] arc : arcs) {
+            Edge e = factory.createEdge(vertices.get(arc[0]),
+                    vertices.get(arc[1]), arc[0] != 2 || arc[1] != 3);
+            e.setCost(arc[2]);
+            edges.add(e);
+        }
+        FrozenModel graph = new FrozenModel(vertices, edges);
+        Dijkstra dijkstra = new Dijkstra(graph);
+
+        ShortestPathTree tree = dijkstra.findTree(0);
+        assertEquals(0, tree.getSource());
+        assertEquals(0.0d, tree.getDistance(0), 0.0d);
+        assertEquals(7.0d, tree.getDistance(1), 0.0d);
+        assertEquals(3.0d, tree.getDistance(2), 0.0d);
+        assertEquals(9.0d, tree.getDistance(3), 0.0d);
+        assertFalse(tree.isReachable(4));
+        assertNull(tree.getPath(4));
+        assertArrayEquals(new int[] { 0, 2, 1, 3 }, tree.getPath(3));
+        assertArrayEquals(new int[] { 1, 2, 3 }, tree.getPathEdges(3));
+        assertArrayEquals(new int[] { 0 }, tree.getPath(0));
+        assertEquals(0, tree.getPathEdges(0).length);
+        assertEquals(-1, tree.getPredecessor(0));
+        assertEquals(2, tree.getPredecessor(1));
+
+        // The undirected edge can be walked backwards.
+        tree = dijkstra.findPath(3, 2);
+        assertEquals(9.0d, tree.getDistance(2), 0.0d);
+        assertArrayEquals(new int[] { 4 }, tree.getPathEdges(2));
+
+        edges.get(0).setCost(-1.0d);
+        try {
+            new Dijkstra(new FrozenModel(vertices, edges));
+            fail("should have thrown IAE");
+        } catch (IllegalArgumentException iae) {
+            // expected
+        }
+    }
+
+    @Test
+    public void test_DijkstraRandom() {
+        ModelFactory factory = new DefaultModelFactory();
+        Random random = new Random(7);
+        List<Vertex> vertices = new ArrayList<Vertex>();
+        for (int ii = 0; ii < 200; ii++) {
+            vertices.add(factory.createVertex(ii, 0, 0, 1.0d));
+        }
+        List<Edge> edges = new ArrayList<Edge>();
+        for (int ii = 0; ii < 1000; ii++) {
+            Edge e = factory.createEdge(vertices.get(random.nextInt(200)),
+                    vertices.get(random.nextInt(200)), random.nextBoolean());
+            e.setCost(random.nextInt(100));
+            edges.add(e);
+        }
+        FrozenModel graph = new FrozenModel(vertices, edges);
+        Dijkstra dijkstra = new Dijkstra(graph);
+        for (int source = 0; source < 200; source += 37) {
+            ShortestPathTree tree = dijkstra.findTree(source);
+            double[] expected = bellmanFord(graph, source);
+            for (int v = 0; v < 200; v++) {
+                assertEquals(expected[v], tree.getDistance(v), 0.0d);
+                int[] path = tree.getPathEdges(v);
+                if (path != null) {
+                    double sum = 0;
+                    for (int e : path) {
+                        sum += graph.getEdgeCost(e);
+                    }
+                    assertEquals(expected[v], sum, 0.0d);
+                }
+            }
+            ShortestPathTree single = dijkstra.findPath(source, 199);
+            assertEquals(expected[199], single.getDistance(199), 0.0d);
+        }
+    }
+
+    /**
+     * Computes the shortest distances by relaxing every arc until
+     * nothing changes.
+     *
+     * @param  graph   graph to search.
+     * @param  source  source vertex.
+     * @return  distance of each vertex.
+     */
+    private static double[] bellmanFord(FrozenModel graph, int source) {
+        int n = graph.getVertexCount();
+        double[] dist = new double[n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[source] = 0;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int u = 0; u < n; u++) {
+                for (int a = graph.getArcStart(u); a < graph.getArcEnd(u);
+                        a++) {
+                    double d = dist[u] + graph.getArcCost(a);
+                    if (d < dist[graph.getArcTarget(a)]) {
+                        dist[graph.getArcTarget(a)] = d;
+                        changed = true;
+                    }
+                }
+            }
+        }
+        return dist;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.algo;
+
+import com.bluemarsh.graphmaker.core.model.DefaultModelFactory;
+import com.bluemarsh.graphmaker.core.model.Edge;
+import com.bluemarsh.graphmaker.core.model.FrozenModel;
+import com.bluemarsh.graphmaker.core.model.Vertex;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Measures the time taken by each minimum spanning tree algorithm on a
+ * random undirected graph, running the parallel algorithms with pools of
+ * one up to the number of available processors. This is not run as part
+ * of the unit tests; invoke the main method directly, optionally giving
+ * the number of edges (the default is two million).
+ *
+ * @author  Nathan Fiedler
+ */
+public class MinimumSpanningTreeBenchmark {
+
+    /** Average number of edges at each vertex. */
+    private static final int DEGREE = 8;
+    /** Number of times each algorithm is timed. */
+    private static final int RUNS = 5;
+
+    /**
+     * Creates a new instance of MinimumSpanningTreeBenchmark.
+     */
+    private MinimumSpanningTreeBenchmark() {
+    }
+
+    /**
+     * Runs one of the algorithms several times, reporting the average.
+     *
+     * @param  label     name of the algorithm.
+     * @param  mst       the algorithms.
+     * @param  kind      0 for Kruskal, 1 for Prim, 2 for Boruvka.
+     * @param  executor  executor for the parallel algorithms, or null.
+     */
+    private static void time(String label, MinimumSpanningTree mst,
+            int kind, ExecutorService executor) {
+        double cost = 0;
+        long start = 0;
+        for (int ii = -2; ii < RUNS; ii++) {
+            if (ii == 0) {
+                start = System.nanoTime();
+            }
+            SpanningForest forest = kind == 0 ? mst.kruskal(executor)
+                    : kind == 1 ? mst.prim() : mst.boruvka(executor);
+            cost = forest.getTotalCost();
+        }
+        long elapsed = (System.nanoTime() - start) / RUNS;
+        System.out.format("  %-22s %,10.1f ms  (cost %.0f)%n", label,
+                elapsed / 1e6, cost);
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param  args  number of edges (optional).
+     */
+    public static void main(String[] args) {
+        int edgeCount = args.length > 0 ? Integer.parseInt(args[0])
+                : 2000000;
+        int vertexCount = edgeCount * 2 / DEGREE;
+        DefaultModelFactory factory = new DefaultModelFactory();
+        Random random = new Random(edgeCount);
+        List<Vertex> vertices = new ArrayList<Vertex>(vertexCount);
+        for (int ii = 0; ii < vertexCount; ii++) {
+            vertices.add(factory.createVertex(ii, ii, 0, 1.0d));
+        }
+        List<Edge> edges = new ArrayList<Edge>(edgeCount);
+        for (int ii = 0; ii < edgeCount; ii++) {
+            Edge e = factory.createEdge(vertices.get(ii % vertexCount),
+                    vertices.get(random.nextInt(vertexCount)), false);
+            e.setCost(random.nextDouble());
+            edges.add(e);
+        }
+        MinimumSpanningTree mst = new MinimumSpanningTree(
+                new FrozenModel(vertices, edges));
+        vertices = null;
+        edges = null;
+        System.out.format("%,d vertices, %,d edges%n", vertexCount,
+                edgeCount);
+        time("kruskal", mst, 0, null);
+        time("prim", mst, 1, null);
+        time("boruvka", mst, 2, null);
+        int max = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= max; threads *= 2) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                time("kruskal, " + threads + " threads", mst, 0, executor);
+                time("boruvka, " + threads + " threads", mst, 2, executor);
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+}
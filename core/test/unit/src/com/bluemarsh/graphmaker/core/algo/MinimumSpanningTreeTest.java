@@ -0,0 +1,118 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.algo;
+
+import com.bluemarsh.graphmaker.core.model.DefaultModelFactory;
+import com.bluemarsh.graphmaker.core.model.Edge;
+import com.bluemarsh.graphmaker.core.model.FrozenModel;
+import com.bluemarsh.graphmaker.core.model.ModelFactory;
+import com.bluemarsh.graphmaker.core.model.Vertex;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Tests the MinimumSpanningTree and SpanningForest classes.
+ *
+ * @author  Nathan Fiedler
+ */
+public class MinimumSpanningTreeTest {
+
+    @Test
+    public void test_MinimumSpanningTree() {
+        ModelFactory factory = new DefaultModelFactory();
+        List<Vertex> vertices = new ArrayList<Vertex>();
+        for (int ii = 0; ii < 6; ii++) {
+            vertices.add(factory.createVertex(ii, ii, 0, 1.0d));
+        }
+        // Square 0-1-2-3 with a diagonal, a separate pair 4-5, and a
+        // cheap directed edge that must be ignored.
+        int[][] arcs = { {0, 1, 4}, {1, 2, 2}, {2, 3, 5}, {3, 0, 1},
+            {0, 2, 3}, {4, 5, 7}, {1, 3, 0} };
+        List<Edge> edges = new ArrayList<Edge>();
+        for (int ii = 0; ii < arcs.length; ii++) {
+            Edge e = factory.createEdge(vertices.get(arcs[ii][0]),
+                    vertices.get(arcs[ii][1]), ii == 6);
+            e.setCost(arcs[ii][2]);
+            edges.add(e);
+        }
+        MinimumSpanningTree mst = new MinimumSpanningTree(
+                new FrozenModel(vertices, edges));
+        SpanningForest[] forests = { mst.kruskal(), mst.prim(),
+            mst.boruvka() };
+        for (SpanningForest forest : forests) {
+            assertEquals(13.0d, forest.getTotalCost(), 0.0d);
+            assertEquals(4, forest.getEdgeCount());
+            assertEquals(2, forest.getTreeCount());
+            int[] ids = forest.getEdges().clone();
+            Arrays.sort(ids);
+            assertArrayEquals(new int[] { 1, 3, 4, 5 }, ids);
+        }
+        // Kruskal gives the edges in order of cost.
+        assertArrayEquals(new int[] { 3, 1, 4, 5 }, forests[0].getEdges());
+    }
+
+    @Test
+    public void test_Parallel() throws InterruptedException {
+        // Enough edges that the work is divided among several tasks,
+        // with many ties in cost.
+        ModelFactory factory = new DefaultModelFactory();
+        Random random = new Random(9);
+        int n = 20000;
+        List<Vertex> vertices = new ArrayList<Vertex>();
+        for (int ii = 0; ii < n; ii++) {
+            vertices.add(factory.createVertex(ii, 0, 0, 1.0d));
+        }
+        List<Edge> edges = new ArrayList<Edge>();
+        for (int ii = 0; ii < 100000; ii++) {
+            Edge e = factory.createEdge(vertices.get(random.nextInt(n)),
+                    vertices.get(random.nextInt(n)), false);
+            e.setCost(random.nextInt(50));
+            edges.add(e);
+        }
+        MinimumSpanningTree mst = new MinimumSpanningTree(
+                new FrozenModel(vertices, edges));
+        SpanningForest expected = mst.kruskal();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            SpanningForest kruskal = mst.kruskal(executor);
+            assertArrayEquals(expected.getEdges(), kruskal.getEdges());
+            SpanningForest boruvka = mst.boruvka(executor);
+            int[] ids = boruvka.getEdges().clone();
+            Arrays.sort(ids);
+            int[] expectedIds = expected.getEdges().clone();
+            Arrays.sort(expectedIds);
+            assertArrayEquals(expectedIds, ids);
+            SpanningForest prim = mst.prim();
+            assertEquals(expected.getTotalCost(), prim.getTotalCost(), 0.0d);
+            assertEquals(expected.getTreeCount(), prim.getTreeCount());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.algo;
+
+import com.bluemarsh.graphmaker.core.model.DefaultModelFactory;
+import com.bluemarsh.graphmaker.core.model.Edge;
+import com.bluemarsh.graphmaker.core.model.FrozenModel;
+import com.bluemarsh.graphmaker.core.model.Vertex;
+import com.bluemarsh.graphmaker.core.util.DaryHeap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the time taken by point-to-point queries between random
+ * vertices of a grid-shaped diagram, whose edge costs are their lengths
+ * plus up to twenty percent, using Dijkstra, A*, and the bidirectional
+ * searches. This is not run as part of the unit tests; invoke the main
+ * method directly, optionally giving the width of the grid (the default
+ * is 700, for about half a million vertices).
+ *
+ * @author  Nathan Fiedler
+ */
+public class PathFinderBenchmark {
+
+    /** Number of queries timed for each search. */
+    private static final int QUERIES = 50;
+    /** Distance between neighboring vertices. */
+    private static final int SPACING = 10;
+
+    /**
+     * Creates a new instance of PathFinderBenchmark.
+     */
+    private PathFinderBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param  args  width of the grid (optional).
+     */
+    public static void main(String[] args) {
+        int width = args.length > 0 ? Integer.parseInt(args[0]) : 700;
+        int n = width * width;
+        DefaultModelFactory factory = new DefaultModelFactory();
+        Random random = new Random(width);
+        List<Vertex> vertices = new ArrayList<Vertex>(n);
+        for (int ii = 0; ii < n; ii++) {
+            vertices.add(factory.createVertex((ii % width) * SPACING,
+                    (ii / width) * SPACING, 0, 1.0d));
+        }
+        List<Edge> edges = new ArrayList<Edge>(n * 2);
+        for (int ii = 0; ii < n; ii++) {
+            if (ii % width < width - 1) {
+                Edge e = factory.createEdge(vertices.get(ii),
+                        vertices.get(ii + 1), false);
+                e.setCost(SPACING * (1 + random.nextDouble() / 5));
+                edges.add(e);
+            }
+            if (ii + width < n) {
+                Edge e = factory.createEdge(vertices.get(ii),
+                        vertices.get(ii + width), false);
+                e.setCost(SPACING * (1 + random.nextDouble() / 5));
+                edges.add(e);
+            }
+        }
+        FrozenModel graph = new FrozenModel(vertices, edges);
+        vertices = null;
+        edges = null;
+        System.out.format("%,d vertices, %,d edges%n", n,
+                graph.getEdgeCount());
+
+        int[] sources = new int[QUERIES];
+        int[] targets = new int[QUERIES];
+        for (int ii = 0; ii < QUERIES; ii++) {
+            sources[ii] = random.nextInt(n);
+            targets[ii] = random.nextInt(n);
+        }
+        Dijkstra dijkstra = new Dijkstra(graph);
+        DaryHeap queue = new DaryHeap(n);
+        PathFinder guided = new PathFinder(graph);
+        PathFinder unguided = new PathFinder(graph, 0);
+        String[] labels = { "dijkstra", "bidirectional dijkstra", "a*",
+            "bidirectional a*" };
+        for (int kind = 0; kind < labels.length; kind++) {
+            long settled = 0;
+            long start = 0;
+            for (int ii = -QUERIES; ii < QUERIES; ii++) {
+                if (ii == 0) {
+                    start = System.nanoTime();
+                    settled = 0;
+                }
+                int s = sources[Math.abs(ii) % QUERIES];
+                int t = targets[Math.abs(ii) % QUERIES];
+                if (kind == 0) {
+                    dijkstra.findPath(s, t, queue);
+                } else {
+                    Route route = kind == 1
+                            ? unguided.findPathBidirectional(s, t)
+                            : kind == 2 ? guided.findPath(s, t)
+                            : guided.findPathBidirectional(s, t);
+                    settled += route.getSettledCount();
+                }
+            }
+            long elapsed = (System.nanoTime() - start) / QUERIES;
+            System.out.format("  %-24s %,8.2f ms/query  %10s settled%n",
+                    labels[kind], elapsed / 1e6, kind == 0 ? "-"
+                    : String.format("%,d", settled / QUERIES));
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.algo;
+
+import com.bluemarsh.graphmaker.core.model.DefaultModelFactory;
+import com.bluemarsh.graphmaker.core.model.Edge;
+import com.bluemarsh.graphmaker.core.model.FrozenModel;
+import com.bluemarsh.graphmaker.core.model.ModelFactory;
+import com.bluemarsh.graphmaker.core.model.Vertex;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Tests the PathFinder and Route classes.
+ *
+ * @author  Nathan Fiedler
+ */
+public class PathFinderTest {
+
+    /**
+     * Builds a graph of randomly placed vertices, each joined to a few
+     * nearby vertices by edges costing at least their length, some of
+     * them directed.
+     *
+     * @param  n  number of vertices.
+     * @return  snapshot of the graph.
+     */
+    private static FrozenModel build(int n) {
+        ModelFactory factory = new DefaultModelFactory();
+        Random random = new Random(n);
+        List<Vertex> vertices = new ArrayList<Vertex>();
+        for (int ii = 0; ii < n; ii++) {
+            vertices.add(factory.createVertex(random.nextInt(1000),
+                    random.nextInt(1000), 0, 1.0d));
+        }
+        List<Edge> edges = new ArrayList<Edge>();
+        for (int ii = 0; ii < n * 3; ii++) {
+            Vertex s = vertices.get(random.nextInt(n));
+            // Prefer nearby vertices by picking the closest of several.
+            Vertex t = vertices.get(random.nextInt(n));
+            for (int jj = 0; jj < 8; jj++) {
+                Vertex c = vertices.get(random.nextInt(n));
+                if (c != s && s.computeDistance(c) < s.computeDistance(t)) {
+                    t = c;
+                }
+            }
+            Edge e = factory.createEdge(s, t, random.nextInt(4) == 0);
+            e.setCost(s.computeDistance(t) * (1 + random.nextDouble()));
+            edges.add(e);
+        }
+        return new FrozenModel(vertices, edges);
+    }
+
+    /**
+     * Checks that a route is a connected path with the given cost.
+     *
+     * @param  graph   graph that was searched.
+     * @param  route   route to check.
+     * @param  source  expected first vertex.
+     * @param  target  expected last vertex.
+     * @param  cost    expected cost.
+     */
+    private static void checkRoute(FrozenModel graph, Route route,
+            int source, int target, double cost) {
+        int[] vertices = route.getVertices();
+        int[] edges = route.getEdges();
+        assertEquals(cost, route.getCost(), 1e-6);
+        assertEquals(source, vertices[0]);
+        assertEquals(target, vertices[vertices.length - 1]);
+        assertEquals(vertices.length - 1, edges.length);
+        for (int ii = 0; ii < edges.length; ii++) {
+            int s = graph.getEdgeSource(edges[ii]);
+            int t = graph.getEdgeTarget(edges[ii]);
+            boolean forward = s == vertices[ii] && t == vertices[ii + 1];
+            boolean backward = t == vertices[ii] && s == vertices[ii + 1]
+                    && !graph.isEdgeDirected(edges[ii]);
+            assertTrue(forward || backward);
+        }
+    }
+
+    @Test
+    public void test_PathFinder() {
+        FrozenModel graph = build(3000);
+        double scale = PathFinder.computeScale(graph);
+        assertTrue(scale >= 1.0d && scale < 1.01d);
+        PathFinder finder = new PathFinder(graph);
+        PathFinder dijkstra = new PathFinder(graph, 0);
+        Dijkstra reference = new Dijkstra(graph);
+        Random random = new Random(1);
+        int found = 0;
+        long guided = 0;
+        long unguided = 0;
+        for (int ii = 0; ii < 50; ii++) {
+            int s = random.nextInt(3000);
+            int t = random.nextInt(3000);
+            ShortestPathTree tree = reference.findPath(s, t);
+            Route astar = finder.findPath(s, t);
+            Route bidir = finder.findPathBidirectional(s, t);
+            Route plain = dijkstra.findPathBidirectional(s, t);
+            if (!tree.isReachable(t)) {
+                assertNull(astar);
+                assertNull(bidir);
+                assertNull(plain);
+                continue;
+            }
+            found++;
+            double cost = tree.getDistance(t);
+            checkRoute(graph, astar, s, t, cost);
+            checkRoute(graph, bidir, s, t, cost);
+            checkRoute(graph, plain, s, t, cost);
+            guided += bidir.getSettledCount();
+            unguided += plain.getSettledCount();
+        }
+        assertTrue(found > 25);
+        // The estimates should spare a good part of the search.
+        assertTrue(guided < unguided);
+
+        Route self = finder.findPathBidirectional(7, 7);
+        assertArrayEquals(new int[] { 7 }, self.getVertices());
+        assertEquals(0, self.getEdges().length);
+        self = finder.findPath(7, 7);
+        assertArrayEquals(new int[] { 7 }, self.getVertices());
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.algo;
+
+import com.bluemarsh.graphmaker.core.model.DefaultModelFactory;
+import com.bluemarsh.graphmaker.core.model.Edge;
+import com.bluemarsh.graphmaker.core.model.FrozenModel;
+import com.bluemarsh.graphmaker.core.model.Vertex;
+import com.bluemarsh.graphmaker.core.util.BucketQueue;
+import com.bluemarsh.graphmaker.core.util.DaryHeap;
+import com.bluemarsh.graphmaker.core.util.IndexedFibonacciHeap;
+import com.bluemarsh.graphmaker.core.util.IntPriorityQueue;
+import com.bluemarsh.graphmaker.core.util.PairingHeap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the priority queue implementations by the time Dijkstra takes
+ * to build a shortest-path tree with each, on a sparse graph (many
+ * vertices, few edges each) and a dense graph (few vertices, many edges
+ * each). Edge costs are whole numbers up to <code>MAX_COST</code> so the
+ * bucket queue can take part. This is not run as part of the unit tests;
+ * invoke the main method directly.
+ *
+ * @author  Nathan Fiedler
+ */
+public class PriorityQueueBenchmark {
+
+    /** Largest edge cost. */
+    private static final int MAX_COST = 1000;
+    /** Number of searches timed for each queue. */
+    private static final int SEARCHES = 10;
+
+    /**
+     * Creates a new instance of PriorityQueueBenchmark.
+     */
+    private PriorityQueueBenchmark() {
+    }
+
+    /**
+     * Builds a random graph with the given shape.
+     *
+     * @param  vertexCount  number of vertices.
+     * @param  degree       number of edges leaving each vertex.
+     * @return  snapshot of the graph.
+     */
+    private static FrozenModel build(int vertexCount, int degree) {
+        DefaultModelFactory factory = new DefaultModelFactory();
+        Random random = new Random(vertexCount);
+        List<Vertex> vertices = new ArrayList<Vertex>(vertexCount);
+        for (int ii = 0; ii < vertexCount; ii++) {
+            vertices.add(factory.createVertex(ii, ii, 0, 1.0d));
+        }
+        List<Edge> edges = new ArrayList<Edge>(vertexCount * degree);
+        for (int ii = 0; ii < vertexCount * degree; ii++) {
+            Edge e = factory.createEdge(vertices.get(ii % vertexCount),
+                    vertices.get(random.nextInt(vertexCount)), true);
+            e.setCost(1 + random.nextInt(MAX_COST));
+            edges.add(e);
+        }
+        return new FrozenModel(vertices, edges);
+    }
+
+    /**
+     * Times the searches with each kind of queue.
+     *
+     * @param  name   description of the graph.
+     * @param  graph  graph to search.
+     */
+    private static void run(String name, FrozenModel graph) {
+        int n = graph.getVertexCount();
+        IntPriorityQueue[] queues = {
+            new IndexedFibonacciHeap(n),
+            new PairingHeap(n),
+            new DaryHeap(n, 2),
+            new DaryHeap(n, 4),
+            new DaryHeap(n, 8),
+            new BucketQueue(n, MAX_COST),
+        };
+        String[] labels = { "fibonacci", "pairing", "binary", "4-ary",
+            "8-ary", "bucket" };
+        Dijkstra dijkstra = new Dijkstra(graph);
+        System.out.format("%s: %,d vertices, %,d edges%n", name, n,
+                graph.getEdgeCount());
+        for (int qq = 0; qq < queues.length; qq++) {
+            Random random = new Random(1);
+            for (int ii = 0; ii < 3; ii++) {
+                dijkstra.findTree(random.nextInt(n), queues[qq]);
+            }
+            long start = System.nanoTime();
+            for (int ii = 0; ii < SEARCHES; ii++) {
+                dijkstra.findTree(random.nextInt(n), queues[qq]);
+            }
+            long elapsed = (System.nanoTime() - start) / SEARCHES;
+            System.out.format("  %-10s %,10.1f ms%n", labels[qq],
+                    elapsed / 1e6);
+        }
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param  args  command line arguments (ignored).
+     */
+    public static void main(String[] args) {
+        run("sparse", build(250000, 4));
+        run("dense", build(2000, 500));
+    }
+}
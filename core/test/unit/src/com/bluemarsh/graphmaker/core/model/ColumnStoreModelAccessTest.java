@@ -0,0 +1,98 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.model;
+
+import java.io.File;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Runs the ModelAccessTest suite against the components of a ColumnStore,
+ * and checks that their attributes survive the round trip.
+ *
+ * @author  Nathan Fiedler
+ */
+public class ColumnStoreModelAccessTest extends ModelAccessTest {
+
+    @Override
+    protected ModelFactory getFactory() {
+        return new ColumnStoreModelFactory();
+    }
+
+    @Test
+    public void test_Attributes() throws Exception {
+        ColumnStoreModelFactory factory = new ColumnStoreModelFactory();
+        Model model = factory.createModel();
+        model.startTransaction();
+        Vertex v1 = factory.createVertex(1, 2, 3, 4.0d);
+        v1.setWidth(5);
+        v1.setHeight(6);
+        v1.setDepth(7);
+        v1.setLabel("first");
+        model.addVertex(v1);
+        Vertex v2 = factory.createVertex(8, 9, 10, 11.0d);
+        model.addVertex(v2);
+        Edge e1 = factory.createEdge(v2, v1, false);
+        e1.setCost(12.0d);
+        e1.setLabel("edge");
+        model.addEdge(e1);
+        model.endTransaction();
+
+        File file = File.createTempFile("graphmaker-unit", ".gmx");
+        try {
+            ModelAccess access = factory.createAccess(
+                    ModelSource.create(file, true));
+            access.write(model);
+            Model model2 = access.read();
+            assertEquals(2, model2.getVertices().size());
+            assertEquals(1, model2.getEdges().size());
+            Vertex r1 = model2.getVertices().get(0);
+            assertEquals(1, r1.getX());
+            assertEquals(2, r1.getY());
+            assertEquals(3, r1.getZ());
+            assertEquals(4.0d, r1.getCost(), 0.0d);
+            assertEquals(5, r1.getWidth());
+            assertEquals(6, r1.getHeight());
+            assertEquals(7, r1.getDepth());
+            assertEquals("first", r1.getLabel());
+            assertSame(model2, r1.getModel());
+            Vertex r2 = model2.getVertices().get(1);
+            Edge r3 = model2.getEdges().get(0);
+            assertSame(r2, r3.getSource());
+            assertSame(r1, r3.getTarget());
+            assertFalse(r3.isDirected());
+            assertEquals(12.0d, r3.getCost(), 0.0d);
+            assertEquals("edge", r3.getLabel());
+
+            // The components read are held in the store of the factory,
+            // so they may be joined with newly created ones.
+            ColumnStore store = factory.getStore();
+            assertSame(r1, store.getVertex(store.getRow(r1)));
+            assertSame(r3, store.getEdge(store.getRow(r3)));
+            assertNotNull(factory.createEdge(r1, factory.createVertex(
+                    0, 0, 0, 1.0d), true));
+        } finally {
+            file.delete();
+        }
+    }
+}
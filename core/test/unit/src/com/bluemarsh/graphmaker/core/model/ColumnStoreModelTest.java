@@ -0,0 +1,102 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.model;
+
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.List;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Runs the ModelTest suite against the components of a ColumnStore, and
+ * tests the bulk operations of the store.
+ *
+ * @author  Nathan Fiedler
+ */
+public class ColumnStoreModelTest extends ModelTest {
+
+    @Override
+    protected ModelFactory getFactory() {
+        return new ColumnStoreModelFactory();
+    }
+
+    @Test
+    public void test_ColumnStore() {
+        ColumnStoreModelFactory factory = new ColumnStoreModelFactory();
+        ColumnStore store = factory.getStore();
+        Model model = factory.createModel();
+        model.startTransaction();
+        // Enough vertices to make the store grow a few times.
+        for (int i = 0; i < 100; i++) {
+            Vertex v = factory.createVertex(i * 10, i * 10, 0, 1.0d);
+            v.setWidth(4);
+            v.setHeight(4);
+            model.addVertex(v);
+        }
+        for (int i = 1; i < 100; i++) {
+            Edge e = factory.createEdge(store.getVertex(i - 1),
+                    store.getVertex(i), i % 2 == 0);
+            e.setCost(2.0d);
+            model.addEdge(e);
+        }
+        try {
+            model.endTransaction();
+        } catch (IOException ioe) {
+            fail(ioe.toString());
+        }
+        assertEquals(100, store.getVertexCount());
+        assertEquals(99, store.getEdgeCount());
+        assertEquals(100.0d, store.sumVertexCosts(), 0.0d);
+        assertEquals(198.0d, store.sumEdgeCosts(), 0.0d);
+
+        // Views and rows refer to the same attributes.
+        Vertex v5 = store.getVertex(5);
+        assertEquals(5, store.getRow(v5));
+        v5.setX(51);
+        assertEquals(51, store.getX(5));
+        assertEquals(-1, store.getRow(new DefaultVertex()));
+        Edge e3 = store.getEdge(3);
+        assertSame(store.getVertex(3), e3.getSource());
+        assertSame(store.getVertex(4), e3.getTarget());
+        assertTrue(e3.isDirected());
+        assertFalse(store.getEdge(4).isDirected());
+        e3.setCost(5.0d);
+        assertEquals(5.0d, store.getEdgeCost(3), 0.0d);
+
+        // The scan agrees with the model's spatial index.
+        BitSet rows = store.findVertices(100, 100, 200, 200);
+        List<Vertex> found = model.findVertices(100, 100, 200, 200);
+        assertEquals(found.size(), rows.cardinality());
+        for (Vertex v : found) {
+            assertTrue(rows.get(store.getRow(v)));
+        }
+
+        try {
+            factory.createEdge(new DefaultVertex(), v5, false);
+            fail("should have thrown IAE");
+        } catch (IllegalArgumentException iae) {
+            // expected
+        }
+    }
+}
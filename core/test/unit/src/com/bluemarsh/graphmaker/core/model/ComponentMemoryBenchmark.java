@@ -0,0 +1,106 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.model;
+
+import java.util.Arrays;
+
+/**
+ * Measures the heap occupied by each vertex and edge, both on their own
+ * and once they have been added to a DefaultModel, for a model of one
+ * million components. This is not run as part of the unit tests; invoke
+ * the main method directly, with a heap of at least one gigabyte.
+ *
+ * @author  Nathan Fiedler
+ */
+public class ComponentMemoryBenchmark {
+
+    /** Number of vertices, and of edges. */
+    private static final int SIZE = 500000;
+
+    /**
+     * Creates a new instance of ComponentMemoryBenchmark.
+     */
+    private ComponentMemoryBenchmark() {
+    }
+
+    /**
+     * Returns the heap in use after collecting the garbage.
+     *
+     * @return  bytes in use.
+     * @throws  InterruptedException
+     *          if interrupted while waiting for the collector.
+     */
+    private static long usedMemory() throws InterruptedException {
+        Runtime rt = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        // Collect until the figure stops dropping.
+        for (int ii = 0; ii < 10; ii++) {
+            System.gc();
+            Thread.sleep(50);
+            long now = rt.totalMemory() - rt.freeMemory();
+            if (now >= used) {
+                break;
+            }
+            used = now;
+        }
+        return used;
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param  args  command line arguments (ignored).
+     * @throws  Exception
+     *          if anything goes wrong.
+     */
+    public static void main(String[] args) throws Exception {
+        DefaultModelFactory factory = new DefaultModelFactory();
+        // The arrays are allocated first, so as not to be counted.
+        Vertex[] vertices = new Vertex[SIZE];
+        Edge[] edges = new Edge[SIZE];
+
+        long base = usedMemory();
+        for (int ii = 0; ii < SIZE; ii++) {
+            vertices[ii] = factory.createVertex(ii, ii, 0, 1.0d);
+        }
+        long afterVertices = usedMemory();
+        for (int ii = 0; ii < SIZE; ii++) {
+            edges[ii] = factory.createEdge(vertices[ii],
+                    vertices[(ii + 1) % SIZE], true);
+        }
+        long afterEdges = usedMemory();
+        Model model = factory.createModel(Arrays.asList(vertices),
+                Arrays.asList(edges));
+        long afterModel = usedMemory();
+
+        System.out.format("vertex %6.1f bytes  edge %6.1f bytes"
+                + "  model %6.1f bytes per component%n",
+                (double) (afterVertices - base) / SIZE,
+                (double) (afterEdges - afterVertices) / SIZE,
+                (double) (afterModel - afterEdges) / (SIZE * 2));
+        // Keep everything reachable until the measurements are done.
+        if (model.getVertices().size() != SIZE) {
+            throw new IllegalStateException("model is incomplete");
+        }
+    }
+}
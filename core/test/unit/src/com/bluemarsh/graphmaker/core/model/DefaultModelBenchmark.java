@@ -0,0 +1,174 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.model;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Measures the cost of building and querying a DefaultModel as the
+ * number of components grows. The per-operation cost should remain
+ * roughly constant from one size to the next. This is not run as part
+ * of the unit tests; invoke the main method directly, preferably with
+ * a large heap (e.g. -Xmx2g).
+ *
+ * @author  Nathan Fiedler
+ */
+public class DefaultModelBenchmark {
+
+    /**
+     * Creates a new instance of DefaultModelBenchmark.
+     */
+    private DefaultModelBenchmark() {
+    }
+
+    /**
+     * Builds a model of the given size, reporting the time per
+     * operation for adding vertices, adding edges, finding edges, and
+     * finding vertices by position. Then builds the same model again
+     * using the bulk API, reporting the time per component, and times
+     * the deletion of a selection of five percent of the vertices, and
+     * the removal of the rest one at a time.
+     *
+     * @param  size  number of vertices (and edges) to add.
+     * @throws  IOException
+     *          if the transaction could not be committed.
+     */
+    private static void run(int size) throws IOException {
+        DefaultModelFactory factory = new DefaultModelFactory();
+        Model model = factory.createModel();
+        Vertex[] vertices = new Vertex[size];
+        for (int ii = 0; ii < size; ii++) {
+            vertices[ii] = factory.createVertex(ii * 16, ii * 16, 0, 1.0d);
+            vertices[ii].setWidth(20);
+            vertices[ii].setHeight(20);
+        }
+        Edge[] edges = new Edge[size];
+        for (int ii = 0; ii < size; ii++) {
+            edges[ii] = factory.createEdge(vertices[ii],
+                    vertices[(ii + 1) % size], true);
+        }
+
+        model.startTransaction();
+        long start = System.nanoTime();
+        for (Vertex vertex : vertices) {
+            model.addVertex(vertex);
+        }
+        long vertexTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (Edge edge : edges) {
+            model.addEdge(edge);
+        }
+        long edgeTime = System.nanoTime() - start;
+        model.endTransaction();
+
+        Random random = new Random(size);
+        int found = 0;
+        start = System.nanoTime();
+        for (int ii = 0; ii < size; ii++) {
+            int s = random.nextInt(size);
+            if (model.findEdge(vertices[s], vertices[(s + 1) % size]) != null) {
+                found++;
+            }
+        }
+        long findTime = System.nanoTime() - start;
+        if (found != size) {
+            throw new IllegalStateException("missing edges: " + (size - found));
+        }
+
+        found = 0;
+        start = System.nanoTime();
+        for (int ii = 0; ii < size; ii++) {
+            Vertex v = vertices[random.nextInt(size)];
+            if (model.findVertex(v.getX(), v.getY(), 0) == v) {
+                found++;
+            }
+        }
+        long hitTime = System.nanoTime() - start;
+        if (found != size) {
+            throw new IllegalStateException("missing vertices: "
+                    + (size - found));
+        }
+
+        start = System.nanoTime();
+        model = factory.createModel(Arrays.asList(vertices),
+                Arrays.asList(edges));
+        long bulkTime = System.nanoTime() - start;
+
+        // Delete a random selection of one in twenty vertices, along
+        // with their edges.
+        for (int ii = size - 1; ii > 0; ii--) {
+            int jj = random.nextInt(ii + 1);
+            Vertex v = vertices[ii];
+            vertices[ii] = vertices[jj];
+            vertices[jj] = v;
+        }
+        int selected = size / 20;
+        model.startTransaction();
+        start = System.nanoTime();
+        model.removeAll(Arrays.asList(vertices).subList(0, selected));
+        long removeAllTime = System.nanoTime() - start;
+        model.endTransaction();
+
+        // Remove the other vertices one at a time, once their edges
+        // are gone.
+        model.startTransaction();
+        for (Edge edge : model.getEdges().toArray(new Edge[0])) {
+            model.removeEdge(edge);
+        }
+        start = System.nanoTime();
+        for (int ii = selected; ii < size; ii++) {
+            model.removeVertex(vertices[ii]);
+        }
+        long removeTime = System.nanoTime() - start;
+        model.endTransaction();
+        if (!model.getVertices().isEmpty()) {
+            throw new IllegalStateException("vertices remain");
+        }
+
+        System.out.format("%9d  addVertex %8.1f ns  addEdge %8.1f ns"
+                + "  findEdge %8.1f ns  findVertex %8.1f ns"
+                + "  addAll %8.1f ns  removeAll %8.3f ms"
+                + "  removeVertex %8.1f ns%n", size,
+                (double) vertexTime / size, (double) edgeTime / size,
+                (double) findTime / size, (double) hitTime / size,
+                (double) bulkTime / (size * 2), removeAllTime / 1e6d,
+                (double) removeTime / (size - selected));
+    }
+
+    /**
+     * Runs the benchmark for 1,000 through 1,000,000 components.
+     *
+     * @param  args  command line arguments (ignored).
+     * @throws  IOException
+     *          if the transaction could not be committed.
+     */
+    public static void main(String[] args) throws IOException {
+        // Warm up the compiler before taking any measurements.
+        run(1000);
+        for (int size = 1000; size <= 1000000; size *= 10) {
+            run(size);
+        }
+    }
+}
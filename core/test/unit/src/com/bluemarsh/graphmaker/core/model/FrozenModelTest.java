@@ -0,0 +1,93 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.model;
+
+import java.io.IOException;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Tests the FrozenModel class.
+ *
+ * @author  Nathan Fiedler
+ */
+public class FrozenModelTest {
+
+    @Test
+    public void test_Freeze() throws IOException {
+        ModelFactory factory = ModelProvider.getModelFactory();
+        Model model = factory.createModel();
+        model.startTransaction();
+        Vertex v1 = factory.createVertex(10, 10, 0, 1.0d);
+        Vertex v2 = factory.createVertex(20, 20, 0, 2.0d);
+        Vertex v3 = factory.createVertex(30, 30, 0, 3.0d);
+        model.addVertex(v1);
+        model.addVertex(v2);
+        model.addVertex(v3);
+        Edge e1 = factory.createEdge(v1, v2, true);
+        e1.setCost(5.0d);
+        model.addEdge(e1);
+        Edge e2 = factory.createEdge(v2, v3, false);
+        e2.setCost(7.0d);
+        model.addEdge(e2);
+        model.endTransaction();
+
+        FrozenModel frozen = model.freeze();
+        assertEquals(3, frozen.getVertexCount());
+        assertEquals(2, frozen.getEdgeCount());
+        // The undirected edge contributes an arc in each direction.
+        assertEquals(3, frozen.getArcCount());
+        int i1 = frozen.indexOf(v1);
+        int i2 = frozen.indexOf(v2);
+        int i3 = frozen.indexOf(v3);
+        assertSame(v2, frozen.getVertex(i2));
+        assertEquals(2.0d, frozen.getVertexCost(i2), 0.0d);
+
+        assertEquals(1, frozen.getOutDegree(i1));
+        int arc = frozen.getArcStart(i1);
+        assertEquals(i2, frozen.getArcTarget(arc));
+        assertSame(e1, frozen.getEdge(frozen.getArcEdge(arc)));
+        assertEquals(5.0d, frozen.getArcCost(arc), 0.0d);
+
+        assertEquals(1, frozen.getOutDegree(i2));
+        arc = frozen.getArcStart(i2);
+        assertEquals(i3, frozen.getArcTarget(arc));
+        assertEquals(1, frozen.getOutDegree(i3));
+        arc = frozen.getArcStart(i3);
+        assertEquals(i2, frozen.getArcTarget(arc));
+        int edge = frozen.getArcEdge(arc);
+        assertSame(e2, frozen.getEdge(edge));
+        assertFalse(frozen.isEdgeDirected(edge));
+        assertEquals(i2, frozen.getEdgeSource(edge));
+        assertEquals(i3, frozen.getEdgeTarget(edge));
+
+        // Changes to the model are not reflected in the snapshot.
+        model.startTransaction();
+        model.removeEdge(e1);
+        model.endTransaction();
+        assertEquals(2, frozen.getEdgeCount());
+        assertEquals(-1, model.freeze().indexOf(
+                factory.createVertex(10, 10, 0, 1.0d)));
+        assertEquals(1, model.freeze().getEdgeCount());
+    }
+}
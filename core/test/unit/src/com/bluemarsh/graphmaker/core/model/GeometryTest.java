@@ -0,0 +1,115 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Tests the Geometry class and the bulk geometry of ColumnStore.
+ *
+ * @author  Nathan Fiedler
+ */
+public class GeometryTest {
+
+    @Test
+    public void test_Geometry() {
+        ColumnStore store = new ColumnStore();
+        DefaultModelFactory factory = new DefaultModelFactory();
+        List<Vertex> vertices = new ArrayList<Vertex>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50; i++) {
+            int x = random.nextInt(1000) - 500;
+            int y = random.nextInt(1000) - 500;
+            int z = random.nextInt(10);
+            vertices.add(factory.createVertex(x, y, z, 1.0d));
+            store.createVertex(x, y, z, 1.0d);
+        }
+        List<Edge> edges = new ArrayList<Edge>();
+        for (int i = 0; i < 80; i++) {
+            int s = random.nextInt(50);
+            int t = random.nextInt(50);
+            edges.add(factory.createEdge(vertices.get(s), vertices.get(t),
+                    true));
+            store.createEdge(store.getVertex(s), store.getVertex(t), true);
+        }
+
+        double[] lengths = new double[edges.size()];
+        double[] angles = new double[edges.size()];
+        Geometry.computeLengths(edges, lengths);
+        Geometry.computeAngles(edges, angles);
+        double[] rowLengths = new double[edges.size()];
+        double[] rowAngles = new double[edges.size()];
+        store.computeEdgeLengths(rowLengths);
+        store.computeEdgeAngles(rowAngles);
+        for (int i = 0; i < edges.size(); i++) {
+            Edge e = edges.get(i);
+            assertEquals(e.computeLength(), lengths[i], 1e-9);
+            assertEquals(e.computeAngle(), angles[i], 1e-9);
+            assertEquals(lengths[i], rowLengths[i], 1e-9);
+            assertEquals(angles[i], rowAngles[i], 1e-9);
+            Edge se = store.getEdge(i);
+            assertEquals(se.computeLength(), rowLengths[i], 1e-9);
+            assertEquals(se.computeAngle(), rowAngles[i], 1e-9);
+        }
+
+        FrozenModel graph = new FrozenModel(vertices, edges);
+        double[] graphLengths = new double[graph.getEdgeCount()];
+        double[] graphAngles = new double[graph.getEdgeCount()];
+        Geometry.computeLengths(graph, graphLengths);
+        Geometry.computeAngles(graph, graphAngles);
+        for (int e = 0; e < graph.getEdgeCount(); e++) {
+            Edge edge = graph.getEdge(e);
+            assertEquals(edge.computeLength(), graphLengths[e], 1e-9);
+            assertEquals(edge.computeAngle(), graphAngles[e], 1e-9);
+        }
+
+        Vertex origin = vertices.get(7);
+        double[] distances = new double[vertices.size()];
+        Geometry.computeDistances(origin, vertices, distances);
+        double[] rowDistances = new double[vertices.size()];
+        store.computeVertexDistances(7, rowDistances);
+        for (int i = 0; i < vertices.size(); i++) {
+            assertEquals(origin.computeDistance(vertices.get(i)),
+                    distances[i], 1e-9);
+            assertEquals(distances[i], rowDistances[i], 1e-9);
+        }
+        assertEquals(0.0d, distances[7], 0.0d);
+
+        try {
+            Geometry.computeLengths(edges, new double[1]);
+            fail("should have thrown IAE");
+        } catch (IllegalArgumentException iae) {
+            // expected
+        }
+        try {
+            Geometry.computeLengths(new int[3], new double[2], 2);
+            fail("should have thrown IAE");
+        } catch (IllegalArgumentException iae) {
+            // expected
+        }
+    }
+}
@@ -34,6 +34,15 @@ import org.junit.Test;
  */
 public class ModelAccessTest {
 
+    /**
+     * Returns the factory for the model implementation being tested.
+     *
+     * @return  model factory.
+     */
+    protected ModelFactory getFactory() {
+        return ModelProvider.getModelFactory();
+    }
+
     private void deleteFile(File file) {
         if (file != null) {
             file.delete();
@@ -42,7 +51,7 @@ public class ModelAccessTest {
 
     @Test
     public void test_ModelAccess() {
-        ModelFactory factory = ModelProvider.getModelFactory();
+        ModelFactory factory = getFactory();
         Model model = factory.createModel();
 
         // Test adding and removing elements.
@@ -87,6 +96,7 @@ public class ModelAccessTest {
             fail("access read failed: " + ioe.toString());
         }
         assertNotNull(model2);
+        assertEquals(model.getClass(), model2.getClass());
         assertTrue(model2.getVertices().size() == 2);
         assertTrue(model2.getEdges().size() == 1);
         deleteFile(file);
@@ -0,0 +1,152 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures the throughput of concurrent queries against a DefaultModel
+ * as the number of reading threads grows, both with the model idle and
+ * with a thread making changes to it. With the read lock shared among
+ * readers, throughput should scale with the number of processors. This
+ * is not run as part of the unit tests; invoke the main method directly.
+ *
+ * @author  Nathan Fiedler
+ */
+public class ModelReadBenchmark {
+
+    /** Number of vertices in the model. */
+    private static final int VERTICES = 100000;
+    /** Number of edges in the model. */
+    private static final int EDGES = 300000;
+    /** Duration of each measurement, in milliseconds. */
+    private static final long DURATION = 2000;
+
+    /**
+     * Creates a new instance of ModelReadBenchmark.
+     */
+    private ModelReadBenchmark() {
+    }
+
+    /**
+     * Runs the readers for a fixed period, reporting the number of
+     * queries performed per second.
+     *
+     * @param  model     model to be queried.
+     * @param  vertices  vertices in the model.
+     * @param  threads   number of reading threads.
+     * @param  writing   true to make changes while reading.
+     * @throws  Exception
+     *          if anything goes wrong.
+     */
+    private static void run(final Model model, final Vertex[] vertices,
+            int threads, boolean writing) throws Exception {
+        final AtomicBoolean done = new AtomicBoolean();
+        final long[] counts = new long[threads];
+        List<Thread> readers = new ArrayList<Thread>();
+        for (int ii = 0; ii < threads; ii++) {
+            final int id = ii;
+            Thread reader = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Random random = new Random(id);
+                    long count = 0;
+                    while (!done.get()) {
+                        Vertex s = vertices[random.nextInt(VERTICES)];
+                        Vertex t = vertices[random.nextInt(VERTICES)];
+                        model.findEdge(s, t);
+                        model.getOutDegree(s);
+                        count += 2;
+                    }
+                    counts[id] = count;
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+        long writes = 0;
+        long end = System.currentTimeMillis() + DURATION;
+        if (writing) {
+            DefaultModelFactory factory = new DefaultModelFactory();
+            Random random = new Random(threads);
+            while (System.currentTimeMillis() < end) {
+                model.startTransaction();
+                Vertex v = factory.createVertex(-1, -1, 0, 1.0d);
+                model.addVertex(v);
+                Edge e = factory.createEdge(v,
+                        vertices[random.nextInt(VERTICES)], true);
+                model.addEdge(e);
+                model.removeEdge(e);
+                model.removeVertex(v);
+                model.cancelTransaction();
+                writes++;
+            }
+        } else {
+            Thread.sleep(DURATION);
+        }
+        done.set(true);
+        long total = 0;
+        for (int ii = 0; ii < threads; ii++) {
+            readers.get(ii).join();
+            total += counts[ii];
+        }
+        System.out.format("%2d readers%s  %12.0f queries/s%n", threads,
+                writing ? String.format(" + writer (%d txn)", writes) : "",
+                total * 1000.0 / DURATION);
+    }
+
+    /**
+     * Runs the benchmark with one through twice the number of available
+     * processors.
+     *
+     * @param  args  command line arguments (ignored).
+     * @throws  Exception
+     *          if anything goes wrong.
+     */
+    public static void main(String[] args) throws Exception {
+        DefaultModelFactory factory = new DefaultModelFactory();
+        Vertex[] vertices = new Vertex[VERTICES];
+        List<Edge> edges = new ArrayList<Edge>();
+        for (int ii = 0; ii < VERTICES; ii++) {
+            vertices[ii] = factory.createVertex(ii, ii, 0, 1.0d);
+        }
+        for (int ii = 0; ii < EDGES; ii++) {
+            // Each vertex leads to several distinct successors.
+            int s = ii % VERTICES;
+            int t = (s + 1 + (ii / VERTICES) * 7) % VERTICES;
+            edges.add(factory.createEdge(vertices[s], vertices[t], true));
+        }
+        Model model = factory.createModel(Arrays.asList(vertices), edges);
+        int max = Runtime.getRuntime().availableProcessors() * 2;
+        for (int threads = 1; threads <= max; threads *= 2) {
+            run(model, vertices, threads, false);
+        }
+        for (int threads = 1; threads <= max; threads *= 2) {
+            run(model, vertices, threads, true);
+        }
+    }
+}
@@ -23,6 +23,21 @@
 package com.bluemarsh.graphmaker.core.model;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.swing.undo.UndoManager;
 import static org.junit.Assert.*;
 import org.junit.Test;
@@ -34,9 +49,18 @@ import org.junit.Test;
  */
 public class ModelTest {
 
+    /**
+     * Returns the factory for the model implementation being tested.
+     *
+     * @return  model factory.
+     */
+    protected ModelFactory getFactory() {
+        return ModelProvider.getModelFactory();
+    }
+
     @Test
     public void test_Model() {
-        ModelFactory factory = ModelProvider.getModelFactory();
+        ModelFactory factory = getFactory();
         Model model = factory.createModel();
 
         // Test basic transaction support.
@@ -179,4 +203,1069 @@ public class ModelTest {
         assertTrue(model.getEdges().size() == 1);
         assertTrue(!undo.canRedo());
     }
+
+    @Test
+    public void test_Adjacency() {
+        ModelFactory factory = getFactory();
+        Model model = factory.createModel();
+        model.startTransaction();
+        Vertex v1 = factory.createVertex(10, 10, 0, 1.0d);
+        model.addVertex(v1);
+        Vertex v2 = factory.createVertex(20, 20, 0, 1.0d);
+        model.addVertex(v2);
+        Vertex v3 = factory.createVertex(30, 30, 0, 1.0d);
+        model.addVertex(v3);
+        Edge e1 = factory.createEdge(v1, v2, true);
+        model.addEdge(e1);
+        Edge e2 = factory.createEdge(v3, v2, false);
+        model.addEdge(e2);
+        Edge e3 = factory.createEdge(v2, v1, true);
+        model.addEdge(e3);
+
+        assertSame(e1, model.findEdge(v1, v2));
+        assertSame(e2, model.findEdge(v2, v3));
+        assertSame(e2, model.findEdge(v3, v2));
+        assertNull(model.findEdge(v1, v3));
+        try {
+            model.addEdge(factory.createEdge(v2, v3, true));
+            fail("duplicate edge was added");
+        } catch (IllegalArgumentException iae) {
+            // This is expected and okay
+        }
+
+        assertEquals(1, model.getOutDegree(v1));
+        assertEquals(1, model.getInDegree(v1));
+        assertEquals(2, model.getOutDegree(v2));
+        assertEquals(2, model.getInDegree(v2));
+        assertEquals(1, model.getOutDegree(v3));
+        assertEquals(1, model.getInDegree(v3));
+        assertEquals(2, model.findIncomingEdges(v2).size());
+        assertTrue(model.findIncomingEdges(v2).contains(e1));
+        assertTrue(model.findIncomingEdges(v2).contains(e2));
+        assertEquals(1, model.findAdjacentEdges(v2, true).size());
+        assertSame(e3, model.findAdjacentEdges(v2, true).get(0));
+        assertEquals(3, model.findAdjacentEdges(v2, false).size());
+        assertEquals(1, model.findAdjacentEdges(v3, true).size());
+        assertEquals(2, model.findAdjacentVertices(v2).size());
+
+        try {
+            model.removeVertex(v1);
+            fail("removed vertex with edges");
+        } catch (IllegalArgumentException iae) {
+            // This is expected and okay
+        }
+        model.removeEdge(e1);
+        model.removeEdge(e3);
+        assertEquals(0, model.getInDegree(v1));
+        assertEquals(1, model.findIncomingEdges(v2).size());
+        model.removeVertex(v1);
+        // Vertex indices have shifted, adjacency should be intact.
+        assertSame(e2, model.findEdge(v2, v3));
+        assertEquals(1, model.findAdjacentVertices(v3).size());
+        assertSame(v2, model.findAdjacentVertices(v3).get(0));
+        assertEquals(1, model.getInDegree(v2));
+        model.cancelTransaction();
+    }
+
+    @Test
+    public void test_FindVertex() {
+        ModelFactory factory = getFactory();
+        Model model = factory.createModel();
+        model.startTransaction();
+        Vertex v1 = factory.createVertex(100, 100, 0, 1.0d);
+        v1.setWidth(20);
+        v1.setHeight(20);
+        model.addVertex(v1);
+        Vertex v2 = factory.createVertex(300, 100, 0, 1.0d);
+        v2.setWidth(40);
+        v2.setHeight(20);
+        model.addVertex(v2);
+        Vertex v3 = factory.createVertex(-500, -500, 0, 1.0d);
+        v3.setWidth(20);
+        v3.setHeight(20);
+        model.addVertex(v3);
+
+        assertSame(v1, model.findVertex(100, 100, 0));
+        assertSame(v1, model.findVertex(105, 95, 0));
+        assertSame(v2, model.findVertex(315, 100, 0));
+        assertSame(v3, model.findVertex(-500, -505, 0));
+        assertNull(model.findVertex(200, 100, 0));
+        assertEquals(3, model.findVertices(-1000, -1000, 2000, 2000).size());
+        assertEquals(2, model.findVertices(0, 0, 400, 200).size());
+        assertSame(v1, model.findVertices(0, 0, 400, 200).get(0));
+        assertSame(v2, model.findVertices(0, 0, 400, 200).get(1));
+        assertTrue(model.findVertices(120, 0, 150, 200).isEmpty());
+
+        // Moving a vertex must be reflected in the index.
+        v1.setX(1000);
+        v1.setY(-1000);
+        assertNull(model.findVertex(100, 100, 0));
+        assertSame(v1, model.findVertex(1000, -1000, 0));
+        assertEquals(1, model.findVertices(0, 0, 400, 200).size());
+        v2.setWidth(200);
+        assertSame(v2, model.findVertex(230, 100, 0));
+
+        // Overlapping vertices are found in model order.
+        v1.setX(300);
+        v1.setY(100);
+        assertSame(v1, model.findVertex(300, 100, 0));
+        model.removeVertex(v1);
+        assertSame(v2, model.findVertex(300, 100, 0));
+        v1.setX(0);
+        assertEquals(1, model.findVertices(0, 0, 400, 200).size());
+        model.cancelTransaction();
+    }
+
+    @Test
+    public void test_ExtremeCoordinates() {
+        ModelFactory factory = getFactory();
+        Model model = factory.createModel();
+        model.startTransaction();
+        Vertex v1 = factory.createVertex(Integer.MAX_VALUE - 5,
+                Integer.MAX_VALUE - 5, 0, 1.0d);
+        v1.setWidth(20);
+        v1.setHeight(20);
+        model.addVertex(v1);
+        Vertex v2 = factory.createVertex(0, 0, 0, 1.0d);
+        v2.setWidth(1 << 14);
+        v2.setHeight(1 << 14);
+        model.addVertex(v2);
+        assertEquals(2, model.getVertices().size());
+        assertEquals(1, model.findVertices(Integer.MAX_VALUE - 100,
+                Integer.MAX_VALUE - 100, 200, 200).size());
+        assertSame(v2, model.findVertex(1000, -1000, 0));
+
+        // Moving to the other limit must not break the index.
+        v1.setX(Integer.MIN_VALUE + 5);
+        v1.setY(Integer.MIN_VALUE + 5);
+        assertTrue(model.findVertices(Integer.MAX_VALUE - 100,
+                Integer.MAX_VALUE - 100, 200, 200).isEmpty());
+        assertSame(v1, model.findVertices(Integer.MIN_VALUE,
+                Integer.MIN_VALUE, 100, 100).get(0));
+        model.removeVertex(v1);
+        model.removeVertex(v2);
+        assertTrue(model.findVertices(-1000, -1000, 2000, 2000).isEmpty());
+        model.cancelTransaction();
+    }
+
+    @Test
+    public void test_AddAll() {
+        ModelFactory factory = getFactory();
+        Model model = factory.createModel();
+        UndoManager undo = new UndoManager();
+        model.addUndoableEditListener(undo);
+        final int[] counts = new int[2];
+        model.addModelListener(new ModelListener() {
+            @Override
+            public void edgeAdded(ModelEvent event) {
+                counts[1] += event.getCount();
+            }
+
+            @Override
+            public void edgeRemoved(ModelEvent event) {
+                counts[1] -= event.getCount();
+            }
+
+            @Override
+            public void vertexAdded(ModelEvent event) {
+                counts[0] += event.getCount();
+            }
+
+            @Override
+            public void vertexRemoved(ModelEvent event) {
+                counts[0] -= event.getCount();
+            }
+        });
+
+        model.startTransaction();
+        Vertex v0 = factory.createVertex(0, 0, 0, 1.0d);
+        model.addVertex(v0);
+        try {
+            model.endTransaction();
+        } catch (IOException ioe) {
+            fail(ioe.toString());
+        }
+        model.startTransaction();
+        List<Vertex> vertices = new ArrayList<Vertex>();
+        List<Edge> edges = new ArrayList<Edge>();
+        for (int ii = 1; ii <= 100; ii++) {
+            vertices.add(factory.createVertex(ii, ii, 0, 1.0d));
+        }
+        edges.add(factory.createEdge(v0, vertices.get(0), false));
+        for (int ii = 1; ii < 100; ii++) {
+            edges.add(factory.createEdge(vertices.get(ii - 1),
+                    vertices.get(ii), true));
+        }
+        model.addAll(vertices, edges);
+        try {
+            model.endTransaction();
+        } catch (IOException ioe) {
+            fail(ioe.toString());
+        }
+        assertEquals(101, counts[0]);
+        assertEquals(100, counts[1]);
+        assertEquals(101, model.getVertices().size());
+        assertEquals(100, model.getEdges().size());
+        assertSame(edges.get(0), model.findEdge(vertices.get(0), v0));
+        assertSame(edges.get(50), model.findEdge(vertices.get(49),
+                vertices.get(50)));
+        assertEquals(1, model.getInDegree(vertices.get(50)));
+
+        // Invalid components must leave the model unchanged.
+        Vertex v1 = factory.createVertex(-1, -1, 0, 1.0d);
+        Vertex v2 = factory.createVertex(-2, -2, 0, 1.0d);
+        model.startTransaction();
+        try {
+            model.addAll(Arrays.asList(v1, v2), Arrays.asList(
+                    factory.createEdge(v1, v2, true),
+                    factory.createEdge(v1, v2, true)));
+            fail("duplicate edge was added");
+        } catch (IllegalArgumentException iae) {
+            // This is expected and okay
+        }
+        try {
+            model.addAll(Arrays.asList(v1, v1), new ArrayList<Edge>());
+            fail("duplicate vertex was added");
+        } catch (IllegalArgumentException iae) {
+            // This is expected and okay
+        }
+        try {
+            model.addAll(Arrays.asList(v1), Arrays.asList(
+                    factory.createEdge(v1, v2, true)));
+            fail("edge to foreign vertex was added");
+        } catch (IllegalStateException ise) {
+            // This is expected and okay
+        }
+        assertEquals(101, model.getVertices().size());
+        assertEquals(100, model.getEdges().size());
+        assertNull(model.findEdge(v1, v2));
+        model.cancelTransaction();
+
+        // The bulk addition is a single edit.
+        assertTrue(undo.canUndo());
+        undo.undo();
+        assertEquals(1, model.getVertices().size());
+        assertSame(v0, model.getVertices().get(0));
+        assertTrue(model.getEdges().isEmpty());
+        assertEquals(1, counts[0]);
+        assertEquals(0, counts[1]);
+        undo.redo();
+        assertEquals(101, model.getVertices().size());
+        assertEquals(100, model.getEdges().size());
+        assertSame(edges.get(99), model.findEdge(vertices.get(98),
+                vertices.get(99)));
+
+        Model copy = factory.createModel(model.getVertices(), model.getEdges());
+        assertEquals(101, copy.getVertices().size());
+        assertEquals(100, copy.getEdges().size());
+    }
+
+    @Test
+    public void test_ChangeEvents() throws Exception {
+        ModelFactory factory = getFactory();
+        Model model = factory.createModel();
+        final List<ModelChangeEvent> events =
+                new ArrayList<ModelChangeEvent>();
+        ModelChangeListener listener = new ModelChangeListener() {
+            @Override
+            public void modelChanged(ModelChangeEvent event) {
+                events.add(event);
+            }
+        };
+        model.addModelChangeListener(listener);
+
+        // One event for the whole transaction.
+        model.startTransaction();
+        Vertex v1 = factory.createVertex(10, 10, 0, 1.0d);
+        model.addVertex(v1);
+        Vertex v2 = factory.createVertex(20, 20, 0, 1.0d);
+        model.addVertex(v2);
+        Edge e1 = factory.createEdge(v1, v2, true);
+        model.addEdge(e1);
+        v1.setX(15);
+        model.endTransaction();
+        assertEquals(1, events.size());
+        ModelChangeEvent event = events.get(0);
+        assertSame(model, event.getModel());
+        assertEquals(model.getVersion(), event.getVersion());
+        assertEquals(Arrays.asList(v1, v2), event.getAddedVertices());
+        assertEquals(Arrays.asList(e1), event.getAddedEdges());
+        assertTrue(event.getRemovedVertices().isEmpty());
+        assertTrue(event.getRemovedEdges().isEmpty());
+        // Changes to new components are implied by their addition.
+        assertTrue(event.getChangedComponents().isEmpty());
+
+        // Property changes are reported once per component and property.
+        events.clear();
+        model.startTransaction();
+        v1.setX(20);
+        v1.setX(25);
+        e1.setLabel("e1");
+        model.endTransaction();
+        assertEquals(1, events.size());
+        event = events.get(0);
+        assertTrue(event.getAddedVertices().isEmpty());
+        assertEquals(2, event.getChangedComponents().size());
+        assertSame(v1, event.getChangedComponents().get(0));
+        assertEquals(Vertex.PROP_X, event.getChangedProperties().get(0));
+        assertSame(e1, event.getChangedComponents().get(1));
+        assertEquals(Component.PROP_LABEL,
+                event.getChangedProperties().get(1));
+
+        // Changes that cancel out are not reported.
+        events.clear();
+        model.startTransaction();
+        Vertex v3 = factory.createVertex(30, 30, 0, 1.0d);
+        model.addVertex(v3);
+        model.removeVertex(v3);
+        model.removeEdge(e1);
+        model.addEdge(e1);
+        e1.setLabel("e2");
+        model.removeEdge(e1);
+        model.endTransaction();
+        assertEquals(1, events.size());
+        event = events.get(0);
+        assertTrue(event.getAddedVertices().isEmpty());
+        assertTrue(event.getRemovedVertices().isEmpty());
+        assertTrue(event.getAddedEdges().isEmpty());
+        assertEquals(Arrays.asList(e1), event.getRemovedEdges());
+        assertTrue(event.getChangedComponents().isEmpty());
+
+        // Empty transactions, and changes outside of a transaction,
+        // produce no events.
+        events.clear();
+        model.startTransaction();
+        model.endTransaction();
+        e1.setLabel("e3");
+        v1.setX(30);
+        assertTrue(events.isEmpty());
+
+        model.removeModelChangeListener(listener);
+        model.startTransaction();
+        model.removeVertex(v2);
+        model.endTransaction();
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void test_AsyncChangeListener() throws Exception {
+        ModelFactory factory = getFactory();
+        Model model = factory.createModel();
+        final CountDownLatch gate = new CountDownLatch(1);
+        final List<Long> versions = new CopyOnWriteArrayList<Long>();
+        ModelChangeListener slow = new ModelChangeListener() {
+            @Override
+            public void modelChanged(ModelChangeEvent event) {
+                try {
+                    gate.await();
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                versions.add(event.getVersion());
+                if (event.getVersion() == 2) {
+                    // Errors must not stop delivery of later events.
+                    throw new AssertionError("listener failed");
+                }
+            }
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            AsyncModelChangeListener async =
+                    new AsyncModelChangeListener(slow, executor);
+            model.addModelChangeListener(async);
+
+            // Transactions finish while the listener is blocked.
+            for (int ii = 0; ii < 5; ii++) {
+                model.startTransaction();
+                model.addVertex(factory.createVertex(ii, ii, 0, 1.0d));
+                model.endTransaction();
+            }
+            assertTrue(versions.isEmpty());
+            assertTrue(async.getQueueDepth() >= 4);
+            assertTrue(async.getPendingLag() > 0);
+
+            gate.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L), versions);
+            assertEquals(0, async.getQueueDepth());
+            assertEquals(0, async.getPendingLag());
+            assertEquals(5, async.getDeliveredCount());
+            assertTrue(async.getMaxLag() >= async.getLastLag());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void test_GroupCommit() throws Exception {
+        final ModelFactory factory = getFactory();
+        Model model = factory.createModel();
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                tasks.add(command);
+            }
+        };
+        GroupCommitter committer = new GroupCommitter(model, executor, 4);
+        final Vertex v0 = factory.createVertex(0, 0, 0, 1.0d);
+        List<Future<Vertex>> results = new ArrayList<Future<Vertex>>();
+        for (int ii = 0; ii < 10; ii++) {
+            final int n = ii;
+            results.add(committer.submit(new ModelMutation<Vertex>() {
+                @Override
+                public Vertex apply(Model m) {
+                    // Every third mutation adds the same vertex, which
+                    // fails after the first time.
+                    Vertex v = n % 3 == 0 ? v0
+                            : factory.createVertex(n, n, 0, 1.0d);
+                    m.addVertex(v);
+                    return v;
+                }
+            }));
+        }
+        // Only one committer task is scheduled at a time.
+        assertEquals(1, tasks.size());
+        tasks.remove(0).run();
+        assertTrue(tasks.isEmpty());
+
+        for (int ii = 0; ii < 10; ii++) {
+            Future<Vertex> result = results.get(ii);
+            assertTrue(result.isDone());
+            if (ii % 3 == 0 && ii > 0) {
+                try {
+                    result.get();
+                    fail("duplicate vertex should have failed");
+                } catch (ExecutionException ee) {
+                    assertTrue(ee.getCause() instanceof
+                            IllegalArgumentException);
+                }
+            } else {
+                assertTrue(model.getVertices().contains(result.get()));
+            }
+        }
+        assertEquals(7, model.getVertices().size());
+        // Fewer transactions than mutations were committed.
+        assertTrue(model.getVersion() < 7);
+    }
+
+    @Test
+    public void test_GroupCommitErrors() throws Exception {
+        final ModelFactory factory = getFactory();
+        final Model model = factory.createModel();
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                tasks.add(command);
+            }
+        };
+        GroupCommitter committer = new GroupCommitter(model, executor);
+        ModelMutation<Vertex> adder = new ModelMutation<Vertex>() {
+            @Override
+            public Vertex apply(Model m) {
+                Vertex v = factory.createVertex(0, 0, 0, 1.0d);
+                m.addVertex(v);
+                return v;
+            }
+        };
+
+        // An error thrown by a mutation fails only that mutation.
+        Future<Vertex> first = committer.submit(adder);
+        Future<Vertex> broken = committer.submit(new ModelMutation<Vertex>() {
+            @Override
+            public Vertex apply(Model m) {
+                throw new AssertionError("mutation failed");
+            }
+        });
+        Future<Vertex> last = committer.submit(adder);
+        tasks.remove(0).run();
+        assertTrue(model.getVertices().contains(first.get()));
+        assertTrue(model.getVertices().contains(last.get()));
+        try {
+            broken.get();
+            fail("mutation should have failed");
+        } catch (ExecutionException ee) {
+            assertTrue(ee.getCause() instanceof AssertionError);
+        }
+        assertFalse(model.isInTransaction());
+
+        // A failure while ending the transaction fails the whole group,
+        // and leaves the committer and the model usable.
+        ModelChangeListener thrower = new ModelChangeListener() {
+            @Override
+            public void modelChanged(ModelChangeEvent event) {
+                throw new IllegalStateException("listener failed");
+            }
+        };
+        model.addModelChangeListener(thrower);
+        Future<Vertex> a1 = committer.submit(adder);
+        Future<Vertex> a2 = committer.submit(adder);
+        tasks.remove(0).run();
+        for (Future<Vertex> result : Arrays.asList(a1, a2)) {
+            try {
+                result.get();
+                fail("group should have failed");
+            } catch (ExecutionException ee) {
+                assertTrue(ee.getCause() instanceof IllegalStateException);
+            }
+        }
+        assertFalse(model.isInTransaction());
+        model.removeModelChangeListener(thrower);
+        Future<Vertex> after = committer.submit(adder);
+        assertEquals(1, tasks.size());
+        tasks.remove(0).run();
+        assertTrue(model.getVertices().contains(after.get()));
+    }
+
+    @Test
+    public void test_ListenerTypes() throws Exception {
+        ModelFactory factory = getFactory();
+        Model model = factory.createModel();
+        final List<String> calls = new ArrayList<String>();
+        ModelListener vertexOnly = new ModelListener() {
+            @Override
+            public void edgeAdded(ModelEvent event) {
+                calls.add("edge");
+            }
+
+            @Override
+            public void edgeRemoved(ModelEvent event) {
+                calls.add("edge");
+            }
+
+            @Override
+            public void vertexAdded(ModelEvent event) {
+                calls.add("vertex+");
+            }
+
+            @Override
+            public void vertexRemoved(ModelEvent event) {
+                calls.add("vertex-");
+            }
+        };
+        model.addModelListener(vertexOnly,
+                EnumSet.of(ModelEventType.VERTEX_ADDED));
+        model.startTransaction();
+        Vertex v1 = factory.createVertex(10, 10, 0, 1.0d);
+        model.addVertex(v1);
+        Vertex v2 = factory.createVertex(20, 20, 0, 1.0d);
+        model.addVertex(v2);
+        Edge e1 = factory.createEdge(v1, v2, true);
+        model.addEdge(e1);
+        model.removeEdge(e1);
+        model.removeVertex(v2);
+        model.endTransaction();
+        assertEquals(Arrays.asList("vertex+", "vertex+"), calls);
+
+        // Removal drops every subscription of the listener.
+        calls.clear();
+        model.removeModelListener(vertexOnly);
+        model.startTransaction();
+        model.addVertex(v2);
+        model.endTransaction();
+        assertTrue(calls.isEmpty());
+
+        // Listeners added for all types see everything.
+        model.addModelListener(vertexOnly);
+        model.startTransaction();
+        model.addEdge(e1);
+        Vertex v3 = factory.createVertex(30, 30, 0, 1.0d);
+        model.addVertex(v3);
+        model.removeVertex(v3);
+        model.endTransaction();
+        assertEquals(Arrays.asList("edge", "vertex+", "vertex-"), calls);
+    }
+
+    @Test
+    public void test_TransactionHandle() throws Exception {
+        final ModelFactory factory = getFactory();
+        final Model model = factory.createModel();
+        final ModelTransaction tx = model.openTransaction();
+        assertTrue(tx.isOpen());
+        assertSame(model, tx.getModel());
+        // The opening thread does not own the transaction.
+        try {
+            model.addVertex(factory.createVertex(0, 0, 0, 1.0d));
+            fail("thread should not own the transaction");
+        } catch (IllegalStateException ise) {
+            // expected
+        }
+
+        // Make changes and commit from other threads.
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Vertex>> added = new ArrayList<Future<Vertex>>();
+            for (int ii = 0; ii < 4; ii++) {
+                final int n = ii;
+                added.add(executor.submit(new Callable<Vertex>() {
+                    @Override
+                    public Vertex call() {
+                        return tx.apply(new ModelMutation<Vertex>() {
+                            @Override
+                            public Vertex apply(Model m) {
+                                Vertex v = factory.createVertex(n, n, 0, 1.0d);
+                                m.addVertex(v);
+                                v.setX(n + 10);
+                                return v;
+                            }
+                        });
+                    }
+                }));
+            }
+            for (Future<Vertex> f : added) {
+                assertNotNull(f.get());
+            }
+            executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    tx.commit();
+                    return null;
+                }
+            }).get();
+        } finally {
+            executor.shutdownNow();
+        }
+        assertFalse(tx.isOpen());
+        assertFalse(model.isInTransaction());
+        assertEquals(4, model.getVertices().size());
+        assertEquals(1, model.getVersion());
+        try {
+            tx.apply(new ModelMutation<Void>() {
+                @Override
+                public Void apply(Model m) {
+                    return null;
+                }
+            });
+            fail("transaction should be closed");
+        } catch (IllegalStateException ise) {
+            // expected
+        }
+        tx.cancel();
+
+        // A bound transaction can also be changed through its handle.
+        ModelTransaction bound = model.startTransaction();
+        model.addVertex(factory.createVertex(50, 50, 0, 1.0d));
+        bound.cancel();
+        assertFalse(model.isInTransaction());
+        assertEquals(4, model.getVertices().size());
+    }
+
+    @Test
+    public void test_RemoveVertices() throws Exception {
+        ModelFactory factory = getFactory();
+        Model model = factory.createModel();
+        UndoManager undoer = new UndoManager();
+        model.addUndoableEditListener(undoer);
+        List<Vertex> expected = new ArrayList<Vertex>();
+        model.startTransaction();
+        for (int ii = 0; ii < 300; ii++) {
+            Vertex v = factory.createVertex(ii * 10, 0, 0, 1.0d);
+            v.setWidth(4);
+            v.setHeight(4);
+            model.addVertex(v);
+            expected.add(v);
+        }
+        for (int ii = 1; ii < 300; ii += 2) {
+            model.addEdge(factory.createEdge(expected.get(ii - 1),
+                    expected.get(ii), true));
+        }
+        model.endTransaction();
+
+        // Remove a few vertices, then enough to force renumbering, and
+        // check the model after each step.
+        Random random = new Random(15);
+        for (int count : new int[] { 5, 80, 30 }) {
+            model.startTransaction();
+            for (int ii = 0; ii < count; ii++) {
+                Vertex v = expected.remove(random.nextInt(expected.size()));
+                for (Edge e : model.findAdjacentEdges(v, false)) {
+                    model.removeEdge(e);
+                }
+                model.removeVertex(v);
+                assertFalse(model.getVertices().contains(v));
+            }
+            model.endTransaction();
+            List<Vertex> actual = model.getVertices();
+            assertEquals(expected.size(), actual.size());
+            assertEquals(expected, new ArrayList<Vertex>(actual));
+            for (int ii = 0; ii < expected.size(); ii++) {
+                assertSame(expected.get(ii), actual.get(ii));
+            }
+            assertEquals(expected, model.getSnapshot().getVertices());
+            for (Edge e : model.getEdges()) {
+                assertSame(e, model.findEdge(e.getSource(), e.getTarget()));
+            }
+            Vertex first = expected.get(0);
+            assertSame(first, model.findVertex(first.getX(), 0, 0));
+        }
+
+        // Removed vertices come back at the end of the list.
+        undoer.undo();
+        assertEquals(300 - 85, model.getVertices().size());
+        model.startTransaction();
+        Vertex v = factory.createVertex(-100, 0, 0, 1.0d);
+        model.addVertex(v);
+        model.endTransaction();
+        List<Vertex> vertices = model.getVertices();
+        assertSame(v, vertices.get(vertices.size() - 1));
+    }
+
+    @Test
+    public void test_RemoveAll() throws Exception {
+        ModelFactory factory = getFactory();
+        Model model = factory.createModel();
+        UndoManager undoer = new UndoManager();
+        model.addUndoableEditListener(undoer);
+        Vertex[] v = new Vertex[6];
+        model.startTransaction();
+        for (int ii = 0; ii < v.length; ii++) {
+            v[ii] = factory.createVertex(ii * 10, 0, 0, 1.0d);
+            model.addVertex(v[ii]);
+        }
+        // A ring of edges, plus one undirected edge across it.
+        List<Edge> edges = new ArrayList<Edge>();
+        for (int ii = 0; ii < v.length; ii++) {
+            Edge e = factory.createEdge(v[ii], v[(ii + 1) % v.length], true);
+            model.addEdge(e);
+            edges.add(e);
+        }
+        Edge cross = factory.createEdge(v[3], v[0], false);
+        model.addEdge(cross);
+        model.endTransaction();
+        final int[] counts = new int[2];
+        model.addModelListener(new ModelListener() {
+            @Override
+            public void edgeAdded(ModelEvent event) {
+            }
+
+            @Override
+            public void edgeRemoved(ModelEvent event) {
+                counts[1] += event.getCount();
+            }
+
+            @Override
+            public void vertexAdded(ModelEvent event) {
+            }
+
+            @Override
+            public void vertexRemoved(ModelEvent event) {
+                counts[0] += event.getCount();
+            }
+        });
+
+        // Components not in the model leave it unchanged.
+        model.startTransaction();
+        try {
+            model.removeAll(Arrays.asList(v[1],
+                    factory.createVertex(0, 0, 0, 1.0d)));
+            fail("vertex not in model should be rejected");
+        } catch (IllegalArgumentException iae) {
+            // expected
+        }
+        model.endTransaction();
+        assertEquals(6, model.getVertices().size());
+        assertEquals(7, model.getEdges().size());
+
+        // Removing vertices 0 and 1 takes the edges 5-0, 0-1, 1-2 and
+        // the cross edge with them; edge 0-1 is given and also adjacent.
+        model.startTransaction();
+        model.removeAll(Arrays.<Component>asList(v[0], edges.get(0), v[1]));
+        model.endTransaction();
+        assertEquals(Arrays.asList(v[2], v[3], v[4], v[5]),
+                new ArrayList<Vertex>(model.getVertices()));
+        assertEquals(3, model.getEdges().size());
+        assertNull(model.findEdge(v[3], v[0]));
+        assertNotNull(model.findEdge(v[2], v[3]));
+        assertEquals(2, counts[0]);
+        assertEquals(4, counts[1]);
+
+        // A single undoable edit restores everything.
+        assertTrue(undoer.canUndo());
+        undoer.undo();
+        assertEquals(6, model.getVertices().size());
+        assertEquals(7, model.getEdges().size());
+        assertSame(cross, model.findEdge(v[0], v[3]));
+        undoer.redo();
+        assertEquals(4, model.getVertices().size());
+        assertEquals(3, model.getEdges().size());
+
+        // The bulk removal checks everything before changing anything:
+        // here vertex 3 keeps an edge that is not being removed.
+        DefaultModel dm = (DefaultModel) model;
+        Edge e23 = model.findEdge(v[2], v[3]);
+        model.startTransaction();
+        try {
+            dm.removeAll(new Vertex[] { v[3] }, new Edge[] { e23 });
+            fail("vertex with remaining edge should be rejected");
+        } catch (IllegalArgumentException iae) {
+            // expected
+        }
+        model.endTransaction();
+        assertEquals(4, model.getVertices().size());
+        assertSame(e23, model.findEdge(v[2], v[3]));
+    }
+
+    @Test
+    public void test_UndoBudget() throws Exception {
+        ModelFactory factory = getFactory();
+        Model model = factory.createModel();
+        ModelUndoManager undoer = new ModelUndoManager();
+        undoer.setLimit(1000);
+        model.addUndoableEditListener(undoer);
+        for (int ii = 0; ii < 50; ii++) {
+            model.startTransaction();
+            for (int jj = 0; jj < 10; jj++) {
+                model.addVertex(factory.createVertex(jj, ii, 0, 1.0d));
+            }
+            model.endTransaction();
+        }
+        // Each transaction becomes one edit, whose size grows with the
+        // number of vertices it holds.
+        long full = undoer.getMemoryUsage();
+        assertTrue(full > 50 * 10 * MeasurableEdit.REFERENCE_SIZE);
+
+        // Shrinking the budget discards the oldest edits.
+        undoer.setMemoryLimit(full / 5);
+        long trimmed = undoer.getMemoryUsage();
+        assertTrue(trimmed <= full / 5);
+        assertTrue(trimmed > 0);
+        int undone = 0;
+        while (undoer.canUndo()) {
+            undoer.undo();
+            undone++;
+        }
+        assertTrue(undone > 0 && undone < 50);
+        assertEquals((50 - undone) * 10, model.getVertices().size());
+
+        // The most recent edit is kept even if it exceeds the budget.
+        undoer.discardAllEdits();
+        undoer.setMemoryLimit(0);
+        model.startTransaction();
+        model.addVertex(factory.createVertex(0, 0, 0, 1.0d));
+        model.endTransaction();
+        assertTrue(undoer.canUndo());
+        assertTrue(undoer.getMemoryUsage() > 0);
+
+        // Removed components are held only by the edit, so their size
+        // counts against the budget.
+        undoer.discardAllEdits();
+        undoer.setMemoryLimit(ModelUndoManager.DEFAULT_MEMORY_LIMIT);
+        List<Vertex> removed = new ArrayList<Vertex>(model.getVertices());
+        model.startTransaction();
+        for (Vertex vertex : removed) {
+            model.removeVertex(vertex);
+        }
+        model.endTransaction();
+        assertTrue(undoer.getMemoryUsage()
+                >= removed.size() * (long) MeasurableEdit.VERTEX_SIZE);
+    }
+
+    @Test
+    public void test_Snapshot() throws Exception {
+        ModelFactory factory = getFactory();
+        final Model model = factory.createModel();
+        assertEquals(0, model.getVersion());
+        FrozenModel snap = model.getSnapshot();
+        assertEquals(0, snap.getVersion());
+        assertEquals(0, snap.getVertexCount());
+
+        model.startTransaction();
+        Vertex v1 = factory.createVertex(10, 10, 0, 1.0d);
+        model.addVertex(v1);
+        Vertex v2 = factory.createVertex(20, 20, 0, 1.0d);
+        model.addVertex(v2);
+        model.addEdge(factory.createEdge(v1, v2, true));
+        model.endTransaction();
+        assertEquals(1, model.getVersion());
+        snap = model.getSnapshot();
+        assertEquals(1, snap.getVersion());
+        assertEquals(2, snap.getVertices().size());
+        assertEquals(1, snap.getEdges().size());
+
+        // A transaction that makes no changes leaves the version alone.
+        model.startTransaction();
+        model.endTransaction();
+        assertSame(snap, model.getSnapshot());
+
+        // Readers on other threads see the committed version while a
+        // transaction is open, without waiting for it.
+        model.startTransaction();
+        model.addVertex(factory.createVertex(30, 30, 0, 1.0d));
+        final FrozenModel[] seen = new FrozenModel[1];
+        Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                seen[0] = model.getSnapshot();
+            }
+        });
+        reader.start();
+        reader.join(10000);
+        assertFalse(reader.isAlive());
+        assertSame(snap, seen[0]);
+        assertEquals(2, seen[0].getVertexCount());
+        model.endTransaction();
+        assertEquals(2, model.getVersion());
+        assertEquals(3, model.getSnapshot().getVertexCount());
+        assertEquals(2, snap.getVertexCount());
+
+        // Cancelled changes do not produce a new version.
+        model.startTransaction();
+        model.addVertex(factory.createVertex(40, 40, 0, 1.0d));
+        model.cancelTransaction();
+        assertEquals(2, model.getVersion());
+        assertEquals(3, model.getSnapshot().getVertexCount());
+
+        // Changing a property the snapshot does not capture only
+        // relabels it, while changing a cost yields a new snapshot.
+        snap = model.getSnapshot();
+        model.startTransaction();
+        v1.setLabel("one");
+        model.endTransaction();
+        assertEquals(3, model.getVersion());
+        FrozenModel relabeled = model.getSnapshot();
+        assertEquals(3, relabeled.getVersion());
+        assertSame(snap.getVertex(0), relabeled.getVertex(0));
+        assertSame(relabeled, model.getSnapshot());
+        model.startTransaction();
+        v1.setCost(5.0d);
+        model.endTransaction();
+        FrozenModel costed = model.getSnapshot();
+        assertEquals(4, costed.getVersion());
+        assertEquals(5.0d, costed.getVertexCost(costed.indexOf(v1)), 0.0d);
+        assertEquals(1.0d, relabeled.getVertexCost(relabeled.indexOf(v1)),
+                0.0d);
+    }
+
+    @Test
+    public void test_SnapshotOutsideTransaction() throws Exception {
+        ModelFactory factory = getFactory();
+        Model model = factory.createModel();
+        model.startTransaction();
+        Vertex v1 = factory.createVertex(10, 10, 0, 1.0d);
+        model.addVertex(v1);
+        Vertex v2 = factory.createVertex(20, 20, 0, 1.0d);
+        model.addVertex(v2);
+        Edge e1 = factory.createEdge(v1, v2, true);
+        model.addEdge(e1);
+        model.endTransaction();
+        FrozenModel snap = model.getSnapshot();
+        assertEquals(1, snap.getVersion());
+
+        // Changes made outside of a transaction, as by the property
+        // sheet, must still produce a new snapshot.
+        e1.setCost(42.0d);
+        FrozenModel costed = model.getSnapshot();
+        assertTrue(costed.getVersion() > snap.getVersion());
+        assertEquals(42.0d, costed.getEdgeCost(0), 0.0d);
+        assertEquals(0.0d, snap.getEdgeCost(0), 0.0d);
+        e1.setDirected(false);
+        FrozenModel undirected = model.getSnapshot();
+        assertTrue(undirected.getVersion() > costed.getVersion());
+        assertFalse(undirected.isEdgeDirected(0));
+
+        // Properties a snapshot does not capture leave it alone.
+        v1.setLabel("one");
+        assertSame(undirected, model.getSnapshot());
+    }
+
+    @Test
+    public void test_ConcurrentQueries() throws Exception {
+        final ModelFactory factory = getFactory();
+        final Model model = factory.createModel();
+        final Vertex[] vertices = new Vertex[50];
+        model.startTransaction();
+        for (int ii = 0; ii < vertices.length; ii++) {
+            vertices[ii] = factory.createVertex(ii * 10, 0, 0, 1.0d);
+            vertices[ii].setWidth(8);
+            vertices[ii].setHeight(8);
+            model.addVertex(vertices[ii]);
+        }
+        model.endTransaction();
+
+        // Readers run queries while this thread makes changes.
+        final AtomicBoolean done = new AtomicBoolean();
+        final List<Throwable> errors =
+                new CopyOnWriteArrayList<Throwable>();
+        Thread[] readers = new Thread[4];
+        for (int ii = 0; ii < readers.length; ii++) {
+            final Random random = new Random(ii);
+            readers[ii] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        while (!done.get()) {
+                            runQueries(model, vertices, random);
+                        }
+                    } catch (Throwable t) {
+                        errors.add(t);
+                    }
+                }
+            });
+            readers[ii].start();
+        }
+
+        Random random = new Random(42);
+        List<Edge> edges = new ArrayList<Edge>();
+        for (int round = 0; round < 2000 && errors.isEmpty(); round++) {
+            model.startTransaction();
+            for (int op = 0; op < 5; op++) {
+                if (!edges.isEmpty() && random.nextInt(3) == 0) {
+                    int e = random.nextInt(edges.size());
+                    model.removeEdge(edges.remove(e));
+                } else {
+                    Vertex s = vertices[random.nextInt(vertices.length)];
+                    Vertex t = vertices[random.nextInt(vertices.length)];
+                    if (s != t && model.findEdge(s, t) == null
+                            && model.findEdge(t, s) == null) {
+                        Edge e = factory.createEdge(s, t,
+                                random.nextBoolean());
+                        model.addEdge(e);
+                        edges.add(e);
+                    }
+                }
+            }
+            model.endTransaction();
+            vertices[random.nextInt(vertices.length)].setY(random.nextInt(3));
+        }
+        done.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        if (!errors.isEmpty()) {
+            throw new AssertionError(errors.get(0));
+        }
+        assertEquals(edges.size(), model.getSnapshot().getEdgeCount());
+    }
+
+    /**
+     * Runs a random selection of queries against the model, checking
+     * that the results are sensible.
+     *
+     * @param  model     model to be queried.
+     * @param  vertices  vertices in the model.
+     * @param  random    source of randomness.
+     */
+    private static void runQueries(Model model, Vertex[] vertices,
+            Random random) {
+        Vertex s = vertices[random.nextInt(vertices.length)];
+        Vertex t = vertices[random.nextInt(vertices.length)];
+        Edge e = model.findEdge(s, t);
+        if (e != null) {
+            boolean forward = e.getSource() == s && e.getTarget() == t;
+            boolean reverse = e.getSource() == t && e.getTarget() == s
+                    && !e.isDirected();
+            assertTrue(forward || reverse);
+        }
+        for (Vertex v : model.findAdjacentVertices(s)) {
+            assertNotNull(v);
+        }
+        model.findAdjacentEdges(s, false);
+        model.findIncomingEdges(t);
+        model.findVertex(random.nextInt(500), 0, 0);
+        model.findVertices(random.nextInt(500), -5, 50, 10);
+        FrozenModel snap = model.getSnapshot();
+        assertTrue(snap.getArcCount() >= snap.getEdgeCount());
+    }
 }
@@ -0,0 +1,149 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.model;
+
+import com.bluemarsh.graphmaker.core.util.IntGraph;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Compares the heap usage and full garbage collection time of the heap
+ * and off-heap graph storage, both for the bare IntGraph and for a
+ * complete model. This is not run as part of the unit tests; invoke the
+ * main method directly with a large heap (e.g. -Xmx4g).
+ *
+ * @author  Nathan Fiedler
+ */
+public class OffHeapModelBenchmark {
+
+    /** Number of vertices in the graphs. */
+    private static final int VERTICES = 1000000;
+    /** Number of edges in the bare graphs. */
+    private static final int GRAPH_EDGES = 10000000;
+    /** Number of edges in the models. */
+    private static final int MODEL_EDGES = 2000000;
+    /** Keeps the structure under test reachable while measuring. */
+    private static Object retained;
+
+    /**
+     * Creates a new instance of OffHeapModelBenchmark.
+     */
+    private OffHeapModelBenchmark() {
+    }
+
+    /**
+     * Builds a bare graph with random edges.
+     *
+     * @param  direct  true to use off-heap buffers.
+     * @return  new graph.
+     */
+    private static IntGraph buildGraph(boolean direct) {
+        IntGraph graph = new IntGraph(VERTICES, GRAPH_EDGES, direct);
+        for (int ii = 0; ii < VERTICES; ii++) {
+            graph.addVertex();
+        }
+        Random random = new Random(1);
+        int added = 0;
+        while (added < GRAPH_EDGES) {
+            int s = random.nextInt(VERTICES);
+            int t = random.nextInt(VERTICES);
+            if (s != t && graph.findArc(s, t) == IntGraph.NONE
+                    && graph.findArc(t, s) == IntGraph.NONE) {
+                graph.addEdge(s, t, random.nextBoolean());
+                added++;
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Builds a model with random edges.
+     *
+     * @param  model  empty model to populate.
+     * @return  the model.
+     * @throws  IOException
+     *          if the transaction could not be committed.
+     */
+    private static Model buildModel(Model model) throws IOException {
+        DefaultModelFactory factory = new DefaultModelFactory();
+        Vertex[] vertices = new Vertex[VERTICES];
+        model.startTransaction();
+        for (int ii = 0; ii < VERTICES; ii++) {
+            vertices[ii] = factory.createVertex(ii, ii, 0, 1.0d);
+            model.addVertex(vertices[ii]);
+        }
+        Random random = new Random(1);
+        int added = 0;
+        while (added < MODEL_EDGES) {
+            Vertex s = vertices[random.nextInt(VERTICES)];
+            Vertex t = vertices[random.nextInt(VERTICES)];
+            if (s != t && model.findEdge(s, t) == null
+                    && model.findEdge(t, s) == null) {
+                model.addEdge(factory.createEdge(s, t, true));
+                added++;
+            }
+        }
+        model.endTransaction();
+        return model;
+    }
+
+    /**
+     * Reports the heap in use and the time taken by a full collection
+     * while the given object is reachable.
+     *
+     * @param  label   description of the object.
+     * @param  object  object to keep reachable.
+     */
+    private static void measure(String label, Object object) {
+        retained = object;
+        Runtime rt = Runtime.getRuntime();
+        System.gc();
+        System.gc();
+        long used = rt.totalMemory() - rt.freeMemory();
+        long total = 0;
+        int runs = 5;
+        for (int ii = 0; ii < runs; ii++) {
+            long start = System.nanoTime();
+            System.gc();
+            total += System.nanoTime() - start;
+        }
+        System.out.format("%-24s heap used %7.1f MB  full gc %7.1f ms%n",
+                label, used / (1024.0 * 1024.0), total / (runs * 1e6));
+        retained = null;
+    }
+
+    /**
+     * Runs the comparison.
+     *
+     * @param  args  command line arguments (ignored).
+     * @throws  IOException
+     *          if a transaction could not be committed.
+     */
+    public static void main(String[] args) throws IOException {
+        measure("baseline", null);
+        measure("IntGraph (heap)", buildGraph(false));
+        measure("IntGraph (direct)", buildGraph(true));
+        measure("DefaultModel", buildModel(new DefaultModel()));
+        measure("OffHeapModel", buildModel(new OffHeapModel()));
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.model;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Runs the ModelTest suite against the OffHeapModel implementation.
+ *
+ * @author  Nathan Fiedler
+ */
+public class OffHeapModelTest extends ModelTest {
+
+    @Override
+    protected ModelFactory getFactory() {
+        return ModelProvider.getModelFactory(OffHeapModelFactory.class);
+    }
+
+    @Test
+    public void test_Provider() {
+        ModelFactory factory = getFactory();
+        assertNotNull(factory);
+        assertTrue(factory.createModel() instanceof OffHeapModel);
+        // The default factory is unchanged by the registration.
+        assertEquals(DefaultModelFactory.class,
+                ModelProvider.getModelFactory().getClass());
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.util;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Tests the ConcurrentDisjointSet class.
+ *
+ * @author  Nathan Fiedler
+ */
+public class ConcurrentDisjointSetTest {
+
+    @Test
+    public void test_ConcurrentDisjointSet() throws InterruptedException {
+        // Several threads join random pairs at once; the result must
+        // match the same unions made by one thread.
+        final int n = 200000;
+        final int threads = 4;
+        final int[][] pairs = new int[threads * 50000][2];
+        Random random = new Random(5);
+        for (int[] pair : pairs) {
+            pair[0] = random.nextInt(n);
+            pair[1] = random.nextInt(n);
+        }
+        IntDisjointSet expected = new IntDisjointSet(n);
+        for (int[] pair : pairs) {
+            expected.union(pair[0], pair[1]);
+        }
+
+        final ConcurrentDisjointSet set = new ConcurrentDisjointSet(n);
+        final AtomicInteger joins = new AtomicInteger();
+        Thread[] workers = new Thread[threads];
+        for (int tt = 0; tt < threads; tt++) {
+            final int id = tt;
+            workers[tt] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int ii = id; ii < pairs.length; ii += threads) {
+                        if (set.union(pairs[ii][0], pairs[ii][1])) {
+                            joins.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            workers[tt].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertEquals(expected.getSetCount(), set.getSetCount());
+        assertEquals(n - joins.get(), set.getSetCount());
+        for (int ii = 0; ii < 100000; ii++) {
+            int a = random.nextInt(n);
+            int b = random.nextInt(n);
+            assertEquals(expected.connected(a, b), set.connected(a, b));
+        }
+        assertFalse(set.union(pairs[0][0], pairs[0][1]));
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.util;
+
+import java.util.Random;
+
+/**
+ * Compares the time taken to make random unions, followed by random
+ * connectivity queries, with DisjointSet, IntDisjointSet, and
+ * ConcurrentDisjointSet using one or more threads. This is not run as
+ * part of the unit tests; invoke the main method directly, optionally
+ * giving the number of elements (the default is 10^7; 10^8 needs a heap
+ * of a few gigabytes).
+ *
+ * @author  Nathan Fiedler
+ */
+public class DisjointSetBenchmark {
+
+    /**
+     * Creates a new instance of DisjointSetBenchmark.
+     */
+    private DisjointSetBenchmark() {
+    }
+
+    /**
+     * Times the concurrent set with the given number of threads.
+     *
+     * @param  pairs    elements to join, two per union.
+     * @param  n        number of elements.
+     * @param  threads  number of threads making unions.
+     * @return  elapsed time in milliseconds.
+     * @throws  InterruptedException
+     *          if interrupted while waiting for the threads.
+     */
+    private static long runConcurrent(final int[] pairs, int n,
+            final int threads) throws InterruptedException {
+        final ConcurrentDisjointSet set = new ConcurrentDisjointSet(n);
+        long start = System.nanoTime();
+        Thread[] workers = new Thread[threads];
+        for (int tt = 0; tt < threads; tt++) {
+            final int id = tt;
+            workers[tt] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int ii = id * 2; ii < pairs.length;
+                            ii += threads * 2) {
+                        set.union(pairs[ii], pairs[ii + 1]);
+                    }
+                    for (int ii = id * 2; ii < pairs.length;
+                            ii += threads * 2) {
+                        set.connected(pairs[ii + 1], pairs[ii]);
+                    }
+                }
+            });
+            workers[tt].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return (System.nanoTime() - start) / 1000000;
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param  args  number of elements (optional).
+     * @throws  InterruptedException
+     *          if interrupted while waiting for the threads.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10000000;
+        Random random = new Random(n);
+        int[] pairs = new int[n];
+        for (int ii = 0; ii < n; ii++) {
+            pairs[ii] = random.nextInt(n);
+        }
+        System.out.format("%,d elements, %,d unions and queries%n", n,
+                n / 2);
+
+        DisjointSet<Object> old = new DisjointSet<Object>(n);
+        long start = System.nanoTime();
+        for (int ii = 0; ii < n; ii += 2) {
+            old.union(pairs[ii], pairs[ii + 1]);
+        }
+        int sets = 0;
+        for (int ii = 0; ii < n; ii++) {
+            if (old.find(ii) == ii) {
+                sets++;
+            }
+        }
+        System.out.format("  DisjointSet            %,8d ms (%,d sets)%n",
+                (System.nanoTime() - start) / 1000000, sets);
+        old = null;
+
+        IntDisjointSet set = new IntDisjointSet(n);
+        start = System.nanoTime();
+        for (int ii = 0; ii < n; ii += 2) {
+            set.union(pairs[ii], pairs[ii + 1]);
+        }
+        for (int ii = 0; ii < n; ii += 2) {
+            set.connected(pairs[ii + 1], pairs[ii]);
+        }
+        System.out.format("  IntDisjointSet         %,8d ms (%,d sets)%n",
+                (System.nanoTime() - start) / 1000000, set.getSetCount());
+        set = null;
+
+        int max = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= max; threads *= 2) {
+            System.out.format("  ConcurrentDisjointSet  %,8d ms"
+                    + " (%d threads)%n",
+                    runConcurrent(pairs, n, threads), threads);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.util;
+
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Tests the IntDisjointSet class.
+ *
+ * @author  Nathan Fiedler
+ */
+public class IntDisjointSetTest {
+
+    @Test
+    public void test_IntDisjointSet() {
+        // Compare against a naive labelling of the sets.
+        int n = 1000;
+        IntDisjointSet set = new IntDisjointSet(n);
+        int[] labels = new int[n];
+        for (int ii = 0; ii < n; ii++) {
+            labels[ii] = ii;
+        }
+        int sets = n;
+        Random random = new Random(3);
+        for (int ii = 0; ii < 700; ii++) {
+            int a = random.nextInt(n);
+            int b = random.nextInt(n);
+            boolean joined = labels[a] != labels[b];
+            assertEquals(joined, set.union(a, b));
+            if (joined) {
+                int old = labels[b];
+                for (int jj = 0; jj < n; jj++) {
+                    if (labels[jj] == old) {
+                        labels[jj] = labels[a];
+                    }
+                }
+                sets--;
+            }
+        }
+        assertEquals(sets, set.getSetCount());
+        for (int ii = 0; ii < 2000; ii++) {
+            int a = random.nextInt(n);
+            int b = random.nextInt(n);
+            assertEquals(labels[a] == labels[b], set.connected(a, b));
+        }
+        int size = 0;
+        for (int ii = 0; ii < n; ii++) {
+            if (labels[ii] == labels[0]) {
+                size++;
+            }
+        }
+        assertEquals(size, set.getSetSize(0));
+        set.clear();
+        assertEquals(n, set.getSetCount());
+        assertFalse(set.connected(0, 1));
+    }
+
+    @Test
+    public void test_LargeSet() {
+        // Join ten million elements into one set, in an order that
+        // would build a long path without union by size.
+        int n = 10000000;
+        IntDisjointSet set = new IntDisjointSet(n);
+        for (int ii = 1; ii < n; ii++) {
+            set.union(ii, ii - 1);
+        }
+        assertEquals(1, set.getSetCount());
+        assertEquals(n, set.getSetSize(n / 2));
+        assertTrue(set.connected(0, n - 1));
+
+        // The original disjoint set no longer recurses in find().
+        DisjointSet<Object> old = new DisjointSet<Object>(n);
+        for (int ii = 1; ii < n; ii++) {
+            old.union(ii, ii - 1);
+        }
+        assertEquals(old.find(0), old.find(n - 1));
+    }
+}
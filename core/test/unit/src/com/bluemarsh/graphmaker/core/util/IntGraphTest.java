@@ -0,0 +1,182 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Tests the IntGraph class.
+ *
+ * @author  Nathan Fiedler
+ */
+public class IntGraphTest {
+
+    @Test
+    public void test_Basics() {
+        IntGraph g = new IntGraph(2, 2, false);
+        int v0 = g.addVertex();
+        int v1 = g.addVertex();
+        int v2 = g.addVertex();
+        assertEquals(3, g.getVertexCount());
+        int e0 = g.addEdge(v0, v1, true);
+        int e1 = g.addEdge(v1, v2, false);
+        assertEquals(2, g.getEdgeCount());
+        assertEquals(e0, g.findEdge(v0, v1));
+        assertEquals(IntGraph.NONE, g.findEdge(v1, v0));
+        assertEquals(e1, g.findEdge(v1, v2));
+        assertEquals(e1, g.findEdge(v2, v1));
+        assertEquals(1, g.getOutDegree(v0));
+        assertEquals(0, g.getInDegree(v0));
+        assertEquals(1, g.getOutDegree(v1));
+        assertEquals(2, g.getInDegree(v1));
+        assertEquals(1, g.getOutDegree(v2));
+        assertEquals(1, g.getInDegree(v2));
+        int arc = g.getFirstOut(v2);
+        assertEquals(v1, g.getHead(arc));
+        assertEquals(v2, g.getTail(arc));
+        assertEquals(e1, IntGraph.edgeOf(arc));
+        assertEquals(IntGraph.NONE, g.getNextOut(arc));
+
+        try {
+            g.addEdge(v2, v1, true);
+            fail("duplicate edge was added");
+        } catch (IllegalArgumentException iae) {
+            // This is expected and okay
+        }
+        try {
+            g.addEdge(v1, v1, true);
+            fail("loop edge was added");
+        } catch (IllegalArgumentException iae) {
+            // This is expected and okay
+        }
+        try {
+            g.removeVertex(v0);
+            fail("removed vertex with edges");
+        } catch (IllegalStateException ise) {
+            // This is expected and okay
+        }
+
+        // Removing the first edge moves the second into its place.
+        g.removeEdge(e0);
+        assertEquals(1, g.getEdgeCount());
+        assertEquals(0, g.findEdge(v1, v2));
+        assertEquals(v1, g.getSource(0));
+        assertFalse(g.isDirected(0));
+        // Removing the first vertex renumbers the others.
+        g.removeVertex(v0);
+        assertEquals(2, g.getVertexCount());
+        assertEquals(0, g.findEdge(0, 1));
+        assertEquals(0, g.findEdge(1, 0));
+        assertEquals(0, g.getSource(0));
+        assertEquals(1, g.getTarget(0));
+        g.clear();
+        assertEquals(0, g.getVertexCount());
+        assertEquals(0, g.getEdgeCount());
+    }
+
+    @Test
+    public void test_Random() {
+        randomOperations(new IntGraph());
+    }
+
+    @Test
+    public void test_RandomDirect() {
+        IntGraph g = new IntGraph(1, 1, true);
+        assertTrue(g.isDirect());
+        randomOperations(g);
+    }
+
+    /**
+     * Performs random additions and removals on the graph, then compares
+     * it against a naive edge list.
+     *
+     * @param  g  an empty graph.
+     */
+    private void randomOperations(IntGraph g) {
+        Random random = new Random(42);
+        int n = 200;
+        for (int ii = 0; ii < n; ii++) {
+            g.addVertex();
+        }
+        List<int[]> edges = new ArrayList<int[]>();
+        for (int round = 0; round < 20000; round++) {
+            if (edges.isEmpty() || random.nextInt(3) > 0) {
+                int s = random.nextInt(n);
+                int t = random.nextInt(n);
+                boolean directed = random.nextBoolean();
+                boolean exists = s == t || g.findEdge(s, t) != IntGraph.NONE
+                        || (!directed && g.findEdge(t, s) != IntGraph.NONE);
+                if (!exists) {
+                    assertEquals(edges.size(), g.addEdge(s, t, directed));
+                    edges.add(new int[] { s, t, directed ? 1 : 0 });
+                }
+            } else {
+                int e = random.nextInt(edges.size());
+                g.removeEdge(e);
+                int[] last = edges.remove(edges.size() - 1);
+                if (e < edges.size()) {
+                    edges.set(e, last);
+                }
+            }
+        }
+        assertEquals(edges.size(), g.getEdgeCount());
+        int[] out = new int[n];
+        int[] in = new int[n];
+        for (int e = 0; e < edges.size(); e++) {
+            int[] edge = edges.get(e);
+            assertEquals(edge[0], g.getSource(e));
+            assertEquals(edge[1], g.getTarget(e));
+            assertEquals(e, g.findEdge(edge[0], edge[1]));
+            out[edge[0]]++;
+            in[edge[1]]++;
+            if (edge[2] == 0) {
+                assertEquals(e, g.findEdge(edge[1], edge[0]));
+                out[edge[1]]++;
+                in[edge[0]]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            assertEquals(out[v], g.getOutDegree(v));
+            assertEquals(in[v], g.getInDegree(v));
+            int count = 0;
+            for (int a = g.getFirstOut(v); a != IntGraph.NONE;
+                    a = g.getNextOut(a)) {
+                assertEquals(v, g.getTail(a));
+                assertEquals(a, g.findArc(v, g.getHead(a)));
+                count++;
+            }
+            assertEquals(out[v], count);
+            count = 0;
+            for (int a = g.getFirstIn(v); a != IntGraph.NONE;
+                    a = g.getNextIn(a)) {
+                assertEquals(v, g.getHead(a));
+                count++;
+            }
+            assertEquals(in[v], count);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.util;
+
+import java.util.Arrays;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Tests the implementations of IntPriorityQueue.
+ *
+ * @author  Nathan Fiedler
+ */
+public class IntPriorityQueueTest {
+
+    /** Number of identifiers in each queue. */
+    private static final int CAPACITY = 500;
+
+    /**
+     * Inserts, decreases and removes elements at random, with whole
+     * number keys that never fall below the last key removed, and checks
+     * the queue against a simple array of keys.
+     *
+     * @param  queue  queue to be tested.
+     */
+    private static void exercise(IntPriorityQueue queue) {
+        Random random = new Random(11);
+        double[] keys = new double[CAPACITY];
+        boolean[] present = new boolean[CAPACITY];
+        int size = 0;
+        double last = 0;
+        assertTrue(queue.isEmpty());
+        assertEquals(-1, queue.min());
+        assertEquals(-1, queue.removeMin());
+        for (int round = 0; round < 3; round++) {
+            for (int ii = 0; ii < 20000; ii++) {
+                int id = random.nextInt(CAPACITY);
+                int op = random.nextInt(3);
+                if (op == 0 && !present[id]) {
+                    keys[id] = last + random.nextInt(100);
+                    present[id] = true;
+                    queue.insert(id, keys[id]);
+                    size++;
+                } else if (op == 1 && present[id] && keys[id] > last) {
+                    keys[id] = last + random.nextInt((int) (keys[id] - last));
+                    queue.decreaseKey(id, keys[id]);
+                } else if (op == 2 && size > 0) {
+                    int min = queue.removeMin();
+                    assertTrue(present[min]);
+                    for (int jj = 0; jj < CAPACITY; jj++) {
+                        if (present[jj]) {
+                            assertTrue(keys[min] <= keys[jj]);
+                        }
+                    }
+                    present[min] = false;
+                    last = keys[min];
+                    size--;
+                }
+                assertEquals(size, queue.size());
+                assertEquals(present[id], queue.contains(id));
+                if (present[id]) {
+                    assertEquals(keys[id], queue.getKey(id), 0.0d);
+                }
+            }
+            // Drain the queue in order, then start again after clearing.
+            while (size > CAPACITY / 2) {
+                int min = queue.removeMin();
+                assertTrue(keys[min] >= last);
+                last = keys[min];
+                present[min] = false;
+                size--;
+            }
+            queue.clear();
+            assertTrue(queue.isEmpty());
+            Arrays.fill(present, false);
+            size = 0;
+        }
+
+        queue.insert(3, 10);
+        try {
+            queue.insert(3, 20);
+            fail("should have thrown IAE");
+        } catch (IllegalArgumentException iae) {
+            // expected
+        }
+        try {
+            queue.decreaseKey(3, 20);
+            fail("should have thrown IAE");
+        } catch (IllegalArgumentException iae) {
+            // expected
+        }
+        try {
+            queue.decreaseKey(4, 5);
+            fail("should have thrown IAE");
+        } catch (IllegalArgumentException iae) {
+            // expected
+        }
+    }
+
+    @Test
+    public void test_BucketQueue() {
+        exercise(new BucketQueue(CAPACITY, 100));
+        BucketQueue queue = new BucketQueue(10, 5);
+        queue.insert(0, 10);
+        try {
+            queue.insert(1, 16);
+            fail("should have thrown IAE");
+        } catch (IllegalArgumentException iae) {
+            // expected
+        }
+        try {
+            queue.insert(1, 12.5);
+            fail("should have thrown IAE");
+        } catch (IllegalArgumentException iae) {
+            // expected
+        }
+    }
+
+    @Test
+    public void test_DaryHeap() {
+        exercise(new DaryHeap(CAPACITY));
+        exercise(new DaryHeap(CAPACITY, 2));
+        exercise(new DaryHeap(CAPACITY, 8));
+    }
+
+    @Test
+    public void test_IndexedFibonacciHeap() {
+        exercise(new IndexedFibonacciHeap(CAPACITY));
+    }
+
+    @Test
+    public void test_PairingHeap() {
+        exercise(new PairingHeap(CAPACITY));
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at http://www.netbeans.org/cddl.html
+ * or http://www.netbeans.org/cddl.txt.
+ *
+ * When distributing Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://www.netbeans.org/cddl.txt.
+ * If applicable, add the following below the CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * The Original Software is GraphMaker. The Initial Developer of the Original
+ * Software is Nathan L. Fiedler. Portions created by Nathan L. Fiedler
+ * are Copyright (C) 2010. All Rights Reserved.
+ *
+ * Contributor(s): Nathan L. Fiedler.
+ *
+ * $Id$
+ */
+package com.bluemarsh.graphmaker.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Unit tests for the SpatialGrid class.
+ *
+ * @author  Nathan Fiedler
+ */
+public class SpatialGridTest {
+
+    @Test
+    public void test_Basics() {
+        SpatialGrid<String> grid = new SpatialGrid<String>(4);
+        grid.put("a", 0, 0, 10, 10);
+        grid.put("b", -40, -40, 40, 40);
+        assertEquals(2, grid.size());
+        assertEquals(2, grid.find(5, 5).size());
+        assertEquals(1, grid.find(-30, 30).size());
+        assertEquals(2, grid.find(-100, -100, 100, 100).size());
+        assertEquals(1, grid.find(20, 20, 100, 100).size());
+        grid.put("a", 50, 50, 60, 60);
+        assertEquals(1, grid.find(5, 5).size());
+        assertEquals(2, grid.find(30, 30, 55, 55).size());
+        assertTrue(grid.remove("b"));
+        assertFalse(grid.remove("b"));
+        assertTrue(grid.find(0, 0, 40, 40).isEmpty());
+        grid.clear();
+        assertEquals(0, grid.size());
+    }
+
+    @Test
+    public void test_Oversized() {
+        SpatialGrid<String> grid = new SpatialGrid<String>();
+        grid.put("a", 0, 0, 10, 10);
+        grid.put("huge", Integer.MIN_VALUE, Integer.MIN_VALUE,
+                Integer.MAX_VALUE, Integer.MAX_VALUE);
+        assertEquals(2, grid.find(5, 5).size());
+        assertEquals(1, grid.find(-1000000, 1000000).size());
+        assertEquals(2, grid.find(-5, -5, 5, 5).size());
+        assertEquals(1, grid.find(Integer.MAX_VALUE - 10,
+                Integer.MAX_VALUE - 10, Integer.MAX_VALUE,
+                Integer.MAX_VALUE).size());
+        grid.put("huge", 0, 0, 1 << 20, 1 << 20);
+        assertTrue(grid.find(-5, -5).isEmpty());
+        assertEquals(2, grid.find(5, 5).size());
+        grid.put("huge", 100, 100, 110, 110);
+        assertEquals(1, grid.find(5, 5).size());
+        assertEquals(1, grid.find(105, 105).size());
+        grid.put("huge", -(1 << 20), 0, 0, 1 << 20);
+        assertTrue(grid.remove("huge"));
+        assertFalse(grid.remove("huge"));
+        assertTrue(grid.find(-5, 5).isEmpty());
+        assertEquals(1, grid.size());
+    }
+
+    @Test
+    public void test_Random() {
+        Random random = new Random(7);
+        SpatialGrid<Integer> grid = new SpatialGrid<Integer>(5);
+        List<Integer> objects = new ArrayList<Integer>();
+        int[][] boxes = new int[200][];
+        for (int ii = 0; ii < 2000; ii++) {
+            int n = random.nextInt(boxes.length);
+            if (boxes[n] != null && random.nextInt(4) == 0) {
+                assertTrue(grid.remove(objects.get(n)));
+                boxes[n] = null;
+            } else {
+                if (boxes[n] == null) {
+                    while (objects.size() <= n) {
+                        objects.add(new Integer(objects.size()));
+                    }
+                }
+                int x = random.nextInt(2000) - 1000;
+                int y = random.nextInt(2000) - 1000;
+                int[] b = { x, y, x + random.nextInt(100),
+                        y + random.nextInt(100) };
+                grid.put(objects.get(n), b[0], b[1], b[2], b[3]);
+                boxes[n] = b;
+            }
+            int px = random.nextInt(2000) - 1000;
+            int py = random.nextInt(2000) - 1000;
+            int qx = px + random.nextInt(300);
+            int qy = py + random.nextInt(300);
+            int hits = 0;
+            int overlaps = 0;
+            for (int[] b : boxes) {
+                if (b == null) {
+                    continue;
+                }
+                if (px >= b[0] && py >= b[1] && px <= b[2] && py <= b[3]) {
+                    hits++;
+                }
+                if (b[0] <= qx && b[1] <= qy && b[2] >= px && b[3] >= py) {
+                    overlaps++;
+                }
+            }
+            assertEquals(hits, grid.find(px, py).size());
+            assertEquals(overlaps, grid.find(px, py, qx, qy).size());
+        }
+    }
+}